@@ -0,0 +1,82 @@
+package com.examportal.benchmark;
+
+import com.examportal.antlr.SimpleJavaLexer;
+import com.examportal.antlr.SimpleJavaParser;
+import com.examportal.antlr.listener.StudentCodeListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ANTLR Parse Benchmark
+ *
+ * Cold versus warm SimpleJava parses and the StudentCodeListener walk.
+ * ANTLR caches the lexer and parser prediction DFAs statically per grammar;
+ * the cold variant clears both first, which is what the first submissions
+ * after a restart pay.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AntlrParseBenchmark {
+
+    @Param({ "1", "10", "100" })
+    public int sizeKb;
+
+    private final Map<String, Boolean> constraints = Map.of("banLoops", true, "requireRecursion", true);
+
+    private String code;
+    private ParseTree tree;
+
+    @Setup
+    public void setUp() {
+        code = SubmissionCorpus.java(sizeKb);
+        tree = newParser(code).compilationUnit();
+    }
+
+    @Benchmark
+    public ParseTree parseWarm() {
+        return newParser(code).compilationUnit();
+    }
+
+    @Benchmark
+    public ParseTree parseCold() {
+        SimpleJavaLexer lexer = new SimpleJavaLexer(CharStreams.fromString(code));
+        lexer.getInterpreter().clearDFA();
+        SimpleJavaParser parser = new SimpleJavaParser(new CommonTokenStream(lexer));
+        parser.getInterpreter().clearDFA();
+        return parser.compilationUnit();
+    }
+
+    @Benchmark
+    public List<String> listenerWalk() {
+        StudentCodeListener listener = new StudentCodeListener(constraints);
+        ParseTreeWalker.DEFAULT.walk(listener, tree);
+        return listener.getViolations();
+    }
+
+    @Benchmark
+    public List<String> parseAndWalkWarm() {
+        StudentCodeListener listener = new StudentCodeListener(constraints);
+        ParseTreeWalker.DEFAULT.walk(listener, newParser(code).compilationUnit());
+        return listener.getViolations();
+    }
+
+    private static SimpleJavaParser newParser(String source) {
+        SimpleJavaLexer lexer = new SimpleJavaLexer(CharStreams.fromString(source));
+        return new SimpleJavaParser(new CommonTokenStream(lexer));
+    }
+}
@@ -0,0 +1,110 @@
+package com.examportal.benchmark;
+
+import com.examportal.dto.CodeVerificationResult;
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.model.VerificationResult;
+import com.examportal.parser.model.VerificationRule;
+import com.examportal.parser.service.impl.CppParserService;
+import com.examportal.parser.service.impl.JavaParserService;
+import com.examportal.parser.service.impl.PythonParserService;
+import com.examportal.service.CodeVerificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static Analysis Benchmark
+ *
+ * Throughput of the verification entry points that run on every "Run" and
+ * submission, over 1 KB, 10 KB and 100 KB submissions. Run with the gc
+ * profiler (the benchmark profile does) to get allocation per operation.
+ *
+ * The services are built without Spring, so the verification budget is set
+ * here: generous enough that no run is cut short, which setUp checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StaticAnalysisBenchmark {
+
+    // Wall-clock budget per verification; the measured work must never hit it
+    private static final long BUDGET_MS = 60_000;
+
+    @Param({ "1", "10", "100" })
+    public int sizeKb;
+
+    private final Map<String, Boolean> constraints = Map.of("banLoops", true, "requireRecursion", true);
+    private final List<VerificationRule> rules = List.of(
+            new VerificationRule(VerificationRule.RuleType.FORBIDDEN, "for_loop", null, "Use recursion."),
+            new VerificationRule(VerificationRule.RuleType.REQUIRED, "recursion", null, null),
+            new VerificationRule(VerificationRule.RuleType.REQUIRED, "bubble_sort_logic", null, null));
+
+    private final JavaParserService javaParser = new JavaParserService();
+    private final PythonParserService pythonParser = new PythonParserService();
+    private final CppParserService cppParser = new CppParserService();
+    private final CodeVerificationService codeVerificationService = new CodeVerificationService(cppParser,
+            pythonParser);
+
+    private String javaCode;
+    private String pythonCode;
+    private String cppCode;
+
+    @Setup
+    public void setUp() {
+        javaCode = SubmissionCorpus.java(sizeKb);
+        pythonCode = SubmissionCorpus.python(sizeKb);
+        cppCode = SubmissionCorpus.cpp(sizeKb);
+        ReflectionTestUtils.setField(codeVerificationService, "budgetTimeMs", BUDGET_MS);
+
+        List<Boolean> exceeded = List.of(
+                codeVerificationJava().isBudgetExceeded(),
+                codeVerificationPython().isBudgetExceeded(),
+                codeVerificationCpp().isBudgetExceeded(),
+                javaParserService().isBudgetExceeded(),
+                pythonParserService().isBudgetExceeded(),
+                cppParserService().isBudgetExceeded());
+        if (exceeded.contains(true)) {
+            throw new IllegalStateException("Verification budget cut a " + sizeKb + " KB run short: " + exceeded);
+        }
+    }
+
+    @Benchmark
+    public CodeVerificationResult codeVerificationJava() {
+        return codeVerificationService.verifyCode(javaCode, "java", constraints, null);
+    }
+
+    @Benchmark
+    public CodeVerificationResult codeVerificationPython() {
+        return codeVerificationService.verifyCode(pythonCode, "python", constraints, null);
+    }
+
+    @Benchmark
+    public CodeVerificationResult codeVerificationCpp() {
+        return codeVerificationService.verifyCode(cppCode, "cpp", constraints, null);
+    }
+
+    @Benchmark
+    public VerificationResult javaParserService() {
+        return javaParser.verifyCode(javaCode, rules, VerificationBudget.start(BUDGET_MS));
+    }
+
+    @Benchmark
+    public VerificationResult pythonParserService() {
+        return pythonParser.verifyCode(pythonCode, rules, VerificationBudget.start(BUDGET_MS));
+    }
+
+    @Benchmark
+    public VerificationResult cppParserService() {
+        return cppParser.verifyCode(cppCode, rules, VerificationBudget.start(BUDGET_MS));
+    }
+}
@@ -0,0 +1,120 @@
+package com.examportal.benchmark;
+
+/**
+ * Submission Corpus
+ *
+ * Builds deterministic, real-shaped submissions of a target size: a typical
+ * exam solution (sorting, recursion, helpers with loops, comments and string
+ * literals) repeated with distinct method names until the size is reached.
+ * Java calls are qualified because SimpleJava.g4 only parses calls with a
+ * receiver.
+ */
+public final class SubmissionCorpus {
+
+    private SubmissionCorpus() {
+    }
+
+    public static String java(int sizeKb) {
+        StringBuilder code = new StringBuilder(sizeKb * 1024 + 1024);
+        code.append("import java.util.Scanner;\n\n")
+                .append("class Solution {\n\n")
+                .append("    public static void main(String[] args) {\n")
+                .append("        Scanner in = new Scanner(System.in);\n")
+                .append("        int n = in.nextInt();\n")
+                .append("        int[] values = new int[n];\n")
+                .append("        for (int i = 0; i < n; i++) {\n")
+                .append("            values[i] = in.nextInt();\n")
+                .append("        }\n")
+                .append("        Solution.bubbleSort0(values);\n")
+                .append("        System.out.println(Solution.sum0(values, 0));\n")
+                .append("    }\n");
+        for (int i = 0; code.length() < sizeKb * 1024 - 2; i++) {
+            code.append("\n    // Sorts in place; \"swapped\" stops early when already sorted\n")
+                    .append("    static void bubbleSort").append(i).append("(int[] arr) {\n")
+                    .append("        int n = arr.length;\n")
+                    .append("        for (int i = 0; i < n - 1; i++) {\n")
+                    .append("            boolean swapped = false;\n")
+                    .append("            for (int j = 0; j < n - i - 1; j++) {\n")
+                    .append("                if (arr[j] > arr[j + 1]) {\n")
+                    .append("                    int temp = arr[j];\n")
+                    .append("                    arr[j] = arr[j + 1];\n")
+                    .append("                    arr[j + 1] = temp;\n")
+                    .append("                    swapped = true;\n")
+                    .append("                }\n")
+                    .append("            }\n")
+                    .append("            if (!swapped) {\n")
+                    .append("                break;\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("    }\n\n")
+                    .append("    static int sum").append(i).append("(int[] arr, int index) {\n")
+                    .append("        if (index >= arr.length) {\n")
+                    .append("            return 0;\n")
+                    .append("        }\n")
+                    .append("        return arr[index] + Solution.sum").append(i).append("(arr, index + 1);\n")
+                    .append("    }\n");
+        }
+        return code.append("}\n").toString();
+    }
+
+    public static String python(int sizeKb) {
+        StringBuilder code = new StringBuilder(sizeKb * 1024 + 1024);
+        code.append("import sys\n\n");
+        for (int i = 0; code.length() < sizeKb * 1024 - 200; i++) {
+            code.append("def bubble_sort").append(i).append("(arr):\n")
+                    .append("    \"\"\"Sort in place, stop early when a pass makes no swaps.\"\"\"\n")
+                    .append("    n = len(arr)\n")
+                    .append("    for i in range(n - 1):\n")
+                    .append("        swapped = False\n")
+                    .append("        for j in range(n - i - 1):\n")
+                    .append("            if arr[j] > arr[j + 1]:\n")
+                    .append("                arr[j], arr[j + 1] = arr[j + 1], arr[j]\n")
+                    .append("                swapped = True\n")
+                    .append("        if not swapped:\n")
+                    .append("            break  # already sorted\n")
+                    .append("    return arr\n\n\n")
+                    .append("def total").append(i).append("(xs, index=0):\n")
+                    .append("    if index >= len(xs):\n")
+                    .append("        return 0\n")
+                    .append("    return xs[index] + total").append(i).append("(xs, index + 1)\n\n\n");
+        }
+        code.append("values = [int(x) for x in sys.stdin.read().split()]\n")
+                .append("print(total0(bubble_sort0(values)))\n");
+        return code.toString();
+    }
+
+    public static String cpp(int sizeKb) {
+        StringBuilder code = new StringBuilder(sizeKb * 1024 + 1024);
+        code.append("#include <iostream>\n#include <vector>\n\nusing namespace std;\n\n");
+        for (int i = 0; code.length() < sizeKb * 1024 - 300; i++) {
+            code.append("// Sorts in place; \"swapped\" stops early when already sorted\n")
+                    .append("void bubbleSort").append(i).append("(vector<int>& arr) {\n")
+                    .append("    int n = arr.size();\n")
+                    .append("    for (int i = 0; i < n - 1; i++) {\n")
+                    .append("        bool swapped = false;\n")
+                    .append("        for (int j = 0; j < n - i - 1; j++) {\n")
+                    .append("            if (arr[j] > arr[j + 1]) {\n")
+                    .append("                swap(arr[j], arr[j + 1]);\n")
+                    .append("                swapped = true;\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("        if (!swapped) break;\n")
+                    .append("    }\n")
+                    .append("}\n\n")
+                    .append("int sum").append(i).append("(const vector<int>& arr, size_t index) {\n")
+                    .append("    if (index >= arr.size()) return 0;\n")
+                    .append("    return arr[index] + sum").append(i).append("(arr, index + 1);\n")
+                    .append("}\n\n");
+        }
+        code.append("int main() {\n")
+                .append("    int n;\n")
+                .append("    cin >> n;\n")
+                .append("    vector<int> values(n);\n")
+                .append("    for (int i = 0; i < n; i++) cin >> values[i];\n")
+                .append("    bubbleSort0(values);\n")
+                .append("    cout << sum0(values, 0) << endl;\n")
+                .append("    return 0;\n")
+                .append("}\n");
+        return code.toString();
+    }
+}
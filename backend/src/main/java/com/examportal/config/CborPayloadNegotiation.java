@@ -0,0 +1,179 @@
+package com.examportal.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CBOR Payload Negotiation
+ *
+ * A client connected to the plain WebSocket endpoint (/ws-native) may send
+ * "payload-format:cbor" in its STOMP CONNECT frame; JSON MESSAGE frames to
+ * that session are then re-encoded with a Jackson CBOR mapper and sent as
+ * binary WebSocket frames with content-type
+ * application/octet-stream;format=cbor. JSON stays the default, and SockJS
+ * sessions (text only) always get JSON.
+ *
+ * A broadcast is fanned out with the same payload array to every
+ * subscriber, so re-encoded payloads are cached by identity and a frame is
+ * transcoded once, not once per session.
+ */
+@Component
+public class CborPayloadNegotiation {
+
+    private static final Logger log = LoggerFactory.getLogger(CborPayloadNegotiation.class);
+
+    public static final String FORMAT_HEADER = "payload-format";
+    public static final String CBOR = "cbor";
+    // Must be compatible with application/octet-stream for STOMP to send a binary frame
+    public static final MimeType CBOR_CONTENT_TYPE = new MimeType("application", "octet-stream",
+            Map.of("format", CBOR));
+
+    private static final String BINARY_TRANSPORT_ATTRIBUTE = "binaryTransport";
+    private static final int CACHE_SIZE = 64;
+
+    private final ObjectMapper jsonMapper;
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+
+    // JSON payload (by identity) -> CBOR payload, for the most recent broadcasts
+    private final Map<PayloadKey, byte[]> transcoded = Collections.synchronizedMap(
+            new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<PayloadKey, byte[]> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    private record PayloadKey(byte[] payload) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PayloadKey key && key.payload == payload;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(payload);
+        }
+    }
+
+    public CborPayloadNegotiation(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Marks sessions of an endpoint whose transport can carry binary frames
+     */
+    private final HandshakeInterceptor binaryTransportHandshake = new HandshakeInterceptor() {
+        @Override
+        public boolean beforeHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                @NonNull WebSocketHandler wsHandler, @NonNull Map<String, Object> attributes) {
+            attributes.put(BINARY_TRANSPORT_ATTRIBUTE, Boolean.TRUE);
+            return true;
+        }
+
+        @Override
+        public void afterHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                @NonNull WebSocketHandler wsHandler, Exception exception) {
+        }
+    };
+
+    /**
+     * Records the format a session asked for on CONNECT and forgets it on DISCONNECT
+     */
+    private final ChannelInterceptor inbound = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+            StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+            if (accessor == null || accessor.getSessionId() == null) {
+                return message;
+            }
+            if (accessor.getCommand() == StompCommand.CONNECT
+                    && CBOR.equalsIgnoreCase(accessor.getFirstNativeHeader(FORMAT_HEADER))) {
+                Map<String, Object> attributes = accessor.getSessionAttributes();
+                if (attributes != null && Boolean.TRUE.equals(attributes.get(BINARY_TRANSPORT_ATTRIBUTE))) {
+                    cborSessions.add(accessor.getSessionId());
+                    log.debug("STOMP session {} receives CBOR payloads", accessor.getSessionId());
+                }
+            } else if (accessor.getCommand() == StompCommand.DISCONNECT) {
+                cborSessions.remove(accessor.getSessionId());
+            }
+            return message;
+        }
+    };
+
+    /**
+     * Re-encodes JSON MESSAGE payloads for sessions that negotiated CBOR
+     */
+    private final ChannelInterceptor outbound = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+            return toNegotiatedFormat(message);
+        }
+    };
+
+    public HandshakeInterceptor binaryTransportHandshake() {
+        return binaryTransportHandshake;
+    }
+
+    public ChannelInterceptor inboundInterceptor() {
+        return inbound;
+    }
+
+    public ChannelInterceptor outboundInterceptor() {
+        return outbound;
+    }
+
+    Message<?> toNegotiatedFormat(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null || !cborSessions.contains(sessionId)
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || !(message.getPayload() instanceof byte[] json) || json.length == 0) {
+            return message;
+        }
+
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        MimeType contentType = accessor.getContentType();
+        if (contentType == null || !MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            return message;
+        }
+
+        byte[] cbor = transcoded.get(new PayloadKey(json));
+        if (cbor == null) {
+            try {
+                cbor = cborMapper.writeValueAsBytes(jsonMapper.readTree(json));
+            } catch (Exception e) {
+                log.debug("Could not re-encode payload for session {} as CBOR: {}", sessionId, e.getMessage());
+                return message;
+            }
+            transcoded.put(new PayloadKey(json), cbor);
+        }
+
+        accessor.setContentType(CBOR_CONTENT_TYPE);
+        return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,306 @@
+package com.examportal.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Coalescing Session Decorator
+ *
+ * Per-session outbound queue in front of the WebSocket session. sendMessage
+ * only enqueues; a flush task on a shared executor writes the queue to the
+ * network, so a slow client never holds an outbound channel thread.
+ *
+ * While frames wait, a queued status delta frame is folded into the newer
+ * one for the same subscription (by studentId, later fields win), which
+ * moves to the tail. No frame is dropped on its own: status frames are
+ * deltas whose version header is the tick time, so a client cannot tell
+ * one went missing. When the queue still exceeds its byte limit, which
+ * includes CBOR (binary) status frames that cannot be folded, the session
+ * is closed and the client resubscribes for a fresh snapshot. A session
+ * stuck in one send past the send time limit is closed as well, by the
+ * next send or by the {@link OutboundFlowControl} sweep.
+ */
+public class CoalescingSessionDecorator extends WebSocketSessionDecorator {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingSessionDecorator.class);
+
+    private record Pending(WebSocketMessage<?> message, String key, int size) {
+    }
+
+    private final OutboundFlowControl flowControl;
+    private final Executor flushExecutor;
+    private final ObjectMapper objectMapper;
+
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private int queuedBytes;
+    private boolean flushing;
+
+    private volatile long sendStartedAt; // 0 while no send is in progress
+    private volatile boolean closing;
+
+    public CoalescingSessionDecorator(WebSocketSession delegate, OutboundFlowControl flowControl,
+            Executor flushExecutor, ObjectMapper objectMapper) {
+        super(delegate);
+        this.flowControl = flowControl;
+        this.flushExecutor = flushExecutor;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closing) {
+            return;
+        }
+        if (isSendTimeExceeded()) {
+            closeSession("a send has been blocked for more than " + flowControl.getSendTimeLimitMs() + "ms");
+            return;
+        }
+
+        boolean startFlush = false;
+        boolean overflow;
+        synchronized (queue) {
+            overflow = !enqueue(message);
+            if (!overflow) {
+                startFlush = !flushing;
+                flushing = true;
+            }
+        }
+        if (overflow) {
+            closeSession("its outbound queue exceeded " + flowControl.getQueueLimitBytes() + " bytes");
+        } else if (startFlush) {
+            flushExecutor.execute(this::flush);
+        }
+    }
+
+    /**
+     * Close the session if it is stuck in a send past the send time limit,
+     * for sessions that have nothing new to send
+     */
+    void closeIfSendTimeExceeded() {
+        if (!closing && isSendTimeExceeded()) {
+            closeSession("a send has been blocked for more than " + flowControl.getSendTimeLimitMs() + "ms");
+        }
+    }
+
+    int getQueuedFrames() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    int getQueuedBytes() {
+        synchronized (queue) {
+            return queuedBytes;
+        }
+    }
+
+    boolean isSlow(long thresholdMs) {
+        long started = sendStartedAt;
+        return started > 0 && System.currentTimeMillis() - started > thresholdMs;
+    }
+
+    private boolean isSendTimeExceeded() {
+        return isSlow(flowControl.getSendTimeLimitMs());
+    }
+
+    /**
+     * Queue a frame, folding the queued status delta it supersedes into it
+     *
+     * @return false if the queue is over its limit
+     */
+    private boolean enqueue(WebSocketMessage<?> message) {
+        String key = coalesceKey(message);
+        if (key != null) {
+            for (Iterator<Pending> it = queue.iterator(); it.hasNext();) {
+                Pending queued = it.next();
+                if (!key.equals(queued.key())) {
+                    continue;
+                }
+                TextMessage merged = merge((TextMessage) queued.message(), (TextMessage) message);
+                if (merged != null) {
+                    it.remove();
+                    queuedBytes -= queued.size();
+                    message = merged;
+                    flowControl.recordCoalesced();
+                }
+                break;
+            }
+        }
+
+        int size = message.getPayloadLength();
+        queue.addLast(new Pending(message, key, size));
+        queuedBytes += size;
+
+        // A single frame larger than the limit is still delivered
+        return queuedBytes <= flowControl.getQueueLimitBytes() || queue.size() == 1;
+    }
+
+    private void flush() {
+        while (true) {
+            Pending next;
+            synchronized (queue) {
+                next = queue.pollFirst();
+                if (next == null || closing) {
+                    flushing = false;
+                    return;
+                }
+                queuedBytes -= next.size();
+            }
+
+            sendStartedAt = System.currentTimeMillis();
+            try {
+                getDelegate().sendMessage(next.message());
+            } catch (Exception e) {
+                log.debug("Send to session {} failed: {}", getId(), e.getMessage());
+                synchronized (queue) {
+                    queue.clear();
+                    queuedBytes = 0;
+                    flushing = false;
+                }
+                return;
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+    }
+
+    private void closeSession(String reason) {
+        synchronized (queue) {
+            if (closing) {
+                return;
+            }
+            closing = true;
+            if (!queue.isEmpty()) {
+                flowControl.recordDropped(queue.size());
+            }
+            queue.clear();
+            queuedBytes = 0;
+        }
+        flowControl.recordTerminated();
+        log.warn("Closing WebSocket session {}: {}", getId(), reason);
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (Exception e) {
+            log.debug("Closing session {} failed: {}", getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Subscription and destination of a status delta MESSAGE frame, or null
+     * if the frame is not one
+     */
+    static String coalesceKey(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text)) {
+            return null;
+        }
+        String[] headers = messageHeaders(text.getPayload());
+        if (headers == null || headers[1] == null || !isStatusDestination(headers[0])) {
+            return null;
+        }
+        return headers[1] + "|" + headers[0];
+    }
+
+    /**
+     * Destination and subscription headers of a MESSAGE frame, or null if the
+     * frame is not one or has no destination
+     */
+    private static String[] messageHeaders(String frame) {
+        if (!frame.startsWith("MESSAGE\n")) {
+            return null;
+        }
+
+        String destination = null;
+        String subscription = null;
+        int lineStart = frame.indexOf('\n') + 1;
+        while (lineStart < frame.length()) {
+            int lineEnd = frame.indexOf('\n', lineStart);
+            if (lineEnd < 0 || lineEnd == lineStart) {
+                break;
+            }
+            String line = frame.substring(lineStart, lineEnd);
+            if (line.startsWith("destination:")) {
+                destination = line.substring("destination:".length());
+            } else if (line.startsWith("subscription:")) {
+                subscription = line.substring("subscription:".length());
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        return destination != null ? new String[] { destination, subscription } : null;
+    }
+
+    // /topic/exam/{id}/monitoring, or /topic/exam.{id}.monitoring through the broker relay
+    private static boolean isStatusDestination(String destination) {
+        return (destination.startsWith("/topic/exam/") && destination.endsWith("/monitoring"))
+                || (destination.startsWith("/topic/exam.") && destination.endsWith(".monitoring"));
+    }
+
+    /**
+     * Newer frame's headers with both delta lists merged by studentId, or
+     * null if either body is not a delta list
+     */
+    private TextMessage merge(TextMessage older, TextMessage newer) {
+        try {
+            String newerFrame = newer.getPayload();
+            int headerEnd = newerFrame.indexOf("\n\n");
+            JsonNode olderBody = objectMapper.readTree(body(older.getPayload()));
+            JsonNode newerBody = objectMapper.readTree(body(newerFrame));
+            if (headerEnd < 0 || !olderBody.isArray() || !newerBody.isArray()) {
+                return null;
+            }
+
+            Map<String, ObjectNode> byStudent = new LinkedHashMap<>();
+            for (JsonNode list : new JsonNode[] { olderBody, newerBody }) {
+                for (JsonNode delta : list) {
+                    if (!delta.isObject() || !delta.hasNonNull("studentId")) {
+                        return null;
+                    }
+                    ObjectNode current = byStudent.get(delta.get("studentId").asText());
+                    if (current != null) {
+                        current.setAll((ObjectNode) delta);
+                    } else {
+                        byStudent.put(delta.get("studentId").asText(), ((ObjectNode) delta).deepCopy());
+                    }
+                }
+            }
+            ArrayNode merged = objectMapper.createArrayNode().addAll(byStudent.values());
+            String body = objectMapper.writeValueAsString(merged);
+
+            StringBuilder frame = new StringBuilder(headerEnd + body.length() + 16);
+            for (String line : newerFrame.substring(0, headerEnd).split("\n")) {
+                if (line.startsWith("content-length:")) {
+                    line = "content-length:" + body.getBytes(StandardCharsets.UTF_8).length;
+                }
+                frame.append(line).append('\n');
+            }
+            frame.append('\n').append(body).append('\0');
+            return new TextMessage(frame.toString());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String body(String frame) {
+        int start = frame.indexOf("\n\n") + 2;
+        int end = frame.endsWith("\0") ? frame.length() - 1 : frame.length();
+        return frame.substring(start, end);
+    }
+}
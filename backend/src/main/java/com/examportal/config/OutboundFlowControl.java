@@ -0,0 +1,165 @@
+package com.examportal.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbound Flow Control
+ *
+ * Puts a {@link CoalescingSessionDecorator} in front of every WebSocket
+ * session and exposes its state as metrics:
+ * - websocket.outbound.sessions / .queued.frames / .queued.bytes
+ * - websocket.outbound.sessions.slow: sessions blocked in one send longer
+ *   than websocket.outbound.slow-send-ms
+ * - websocket.outbound.frames.coalesced / .frames.dropped (still queued
+ *   when a session is closed) and websocket.outbound.sessions.terminated
+ *   (send time or queue limit exceeded)
+ *
+ * Queues are flushed by a fixed pool of websocket.outbound.flush-threads;
+ * each session has at most one flush task, and a sweep closes sessions
+ * stuck in a send past the send time limit, which frees the pool thread
+ * even when nothing new is sent to them.
+ */
+@Component
+public class OutboundFlowControl {
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, CoalescingSessionDecorator> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService flushExecutor;
+
+    private final Counter coalesced;
+    private final Counter dropped;
+    private final Counter terminated;
+
+    @Value("${websocket.outbound.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs = 10_000;
+
+    @Value("${websocket.outbound.queue-limit-bytes:262144}")
+    private int queueLimitBytes = 262_144;
+
+    @Value("${websocket.outbound.slow-send-ms:1000}")
+    private long slowSendMs = 1000;
+
+    public OutboundFlowControl(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${websocket.outbound.flush-threads:16}") int flushThreads) {
+        this.objectMapper = objectMapper;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.flushExecutor = Executors.newFixedThreadPool(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ws-flush-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("websocket.outbound.sessions", sessions, Map::size)
+                .description("Open WebSocket sessions")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.queued.frames", this,
+                flow -> flow.sessions.values().stream().mapToInt(CoalescingSessionDecorator::getQueuedFrames).sum())
+                .description("Frames waiting in per-session outbound queues")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.queued.bytes", this,
+                flow -> flow.sessions.values().stream().mapToInt(CoalescingSessionDecorator::getQueuedBytes).sum())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.sessions.slow", this,
+                flow -> flow.sessions.values().stream().filter(s -> s.isSlow(flow.slowSendMs)).count())
+                .description("Sessions blocked in a single send")
+                .register(meterRegistry);
+
+        this.coalesced = Counter.builder("websocket.outbound.frames.coalesced").register(meterRegistry);
+        this.dropped = Counter.builder("websocket.outbound.frames.dropped").register(meterRegistry);
+        this.terminated = Counter.builder("websocket.outbound.sessions.terminated").register(meterRegistry);
+    }
+
+    /**
+     * Decorate the STOMP handler so every session it sees goes through a coalescing queue
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+                CoalescingSessionDecorator decorated = new CoalescingSessionDecorator(
+                        session, OutboundFlowControl.this, flushExecutor, objectMapper);
+                sessions.put(session.getId(), decorated);
+                super.afterConnectionEstablished(decorated);
+            }
+
+            @Override
+            public void handleMessage(@NonNull WebSocketSession session, @NonNull WebSocketMessage<?> message)
+                    throws Exception {
+                super.handleMessage(decorated(session), message);
+            }
+
+            @Override
+            public void handleTransportError(@NonNull WebSocketSession session, @NonNull Throwable exception)
+                    throws Exception {
+                super.handleTransportError(decorated(session), exception);
+            }
+
+            @Override
+            public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus closeStatus)
+                    throws Exception {
+                WebSocketSession decorated = sessions.remove(session.getId());
+                super.afterConnectionClosed(decorated != null ? decorated : session, closeStatus);
+            }
+
+            private WebSocketSession decorated(WebSocketSession session) {
+                WebSocketSession decorated = sessions.get(session.getId());
+                return decorated != null ? decorated : session;
+            }
+        };
+    }
+
+    /**
+     * Close sessions stuck in one send past the send time limit
+     */
+    @Scheduled(fixedDelayString = "${websocket.outbound.sweep-ms:1000}")
+    public void closeStuckSessions() {
+        sessions.values().forEach(CoalescingSessionDecorator::closeIfSendTimeExceeded);
+    }
+
+    public int getSendTimeLimitMs() {
+        return sendTimeLimitMs;
+    }
+
+    public int getQueueLimitBytes() {
+        return queueLimitBytes;
+    }
+
+    void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    void recordDropped(int frames) {
+        dropped.increment(frames);
+    }
+
+    void recordTerminated() {
+        terminated.increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdownNow();
+    }
+}
@@ -18,6 +18,15 @@ public class RabbitMQConfig {
     public static final String QUEUE = "submission.queue";
     public static final String ROUTING_KEY = "submission.key";
 
+    // Small, tightly limited pool for submissions the cost estimator flags as likely TLE
+    public static final String SUSPECT_QUEUE = "submission.suspect.queue";
+    public static final String SUSPECT_ROUTING_KEY = "submission.suspect.key";
+
+    // Low-priority lane for custom-input scratch runs; results are only kept in Redis
+    public static final String SCRATCH_QUEUE = "submission.scratch.queue";
+    public static final String SCRATCH_ROUTING_KEY = "submission.scratch.key";
+    public static final long SCRATCH_MESSAGE_TTL_MS = 300_000; // nobody is waiting after the result TTL
+
     // Dead Letter Queue configuration
     public static final String DLQ_EXCHANGE = "submission.dlx";
     public static final String DLQ = "submission.dlq";
@@ -47,6 +56,34 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(queue).to(exchange).with(ROUTING_KEY);
     }
 
+    @Bean
+    public Queue suspectQueue() {
+        Map<String, Object> args = new HashMap<>();
+        args.put("x-dead-letter-exchange", DLQ_EXCHANGE);
+        args.put("x-dead-letter-routing-key", DLQ_ROUTING_KEY);
+
+        return new Queue(SUSPECT_QUEUE, true, false, false, args);
+    }
+
+    @Bean
+    public Binding suspectBinding(Queue suspectQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(suspectQueue).to(exchange).with(SUSPECT_ROUTING_KEY);
+    }
+
+    @Bean
+    public Queue scratchQueue() {
+        // Not dead-lettered: an expired or failed scratch run is simply dropped
+        Map<String, Object> args = new HashMap<>();
+        args.put("x-message-ttl", SCRATCH_MESSAGE_TTL_MS);
+
+        return new Queue(SCRATCH_QUEUE, true, false, false, args);
+    }
+
+    @Bean
+    public Binding scratchBinding(Queue scratchQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(scratchQueue).to(exchange).with(SCRATCH_ROUTING_KEY);
+    }
+
     // Dead Letter Exchange
     @Bean
     public DirectExchange deadLetterExchange() {
@@ -7,6 +7,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -18,6 +19,7 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
  * - WebSocket session storage
  * - Parser result caching
  * - Execution queue management
+ * - Pub/sub for execution completion (long-poll waiters)
  */
 @Configuration
 public class RedisConfig {
@@ -57,4 +59,11 @@ public class RedisConfig {
     public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
         return new StringRedisTemplate(java.util.Objects.requireNonNull(connectionFactory));
     }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(java.util.Objects.requireNonNull(connectionFactory));
+        return container;
+    }
 }
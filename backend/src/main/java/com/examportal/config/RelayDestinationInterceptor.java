@@ -0,0 +1,45 @@
+package com.examportal.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+/**
+ * Relay Destination Interceptor
+ *
+ * RabbitMQ's STOMP plugin takes a single routing key after /topic/, so in
+ * relay mode /topic/exam/7/monitoring is sent to the broker as
+ * /topic/exam.7.monitoring. Applied to client SUBSCRIBE/SEND frames and to
+ * everything the application publishes, so application code and clients
+ * keep using the slash form in both broker modes.
+ */
+public class RelayDestinationInterceptor implements ChannelInterceptor {
+
+    private static final String TOPIC_PREFIX = "/topic/";
+
+    @Override
+    public Message<?> preSend(@org.springframework.lang.NonNull Message<?> message,
+            @org.springframework.lang.NonNull MessageChannel channel) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        String relayDestination = toRelayDestination(destination);
+        if (relayDestination == null || relayDestination.equals(destination)) {
+            return message;
+        }
+
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        SimpMessageHeaderAccessor simpAccessor = accessor instanceof SimpMessageHeaderAccessor simp
+                ? simp : SimpMessageHeaderAccessor.wrap(message);
+        simpAccessor.setDestination(relayDestination);
+        return MessageBuilder.createMessage(message.getPayload(), simpAccessor.getMessageHeaders());
+    }
+
+    static String toRelayDestination(String destination) {
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX)) {
+            return destination;
+        }
+        return TOPIC_PREFIX + destination.substring(TOPIC_PREFIX.length()).replace('/', '.');
+    }
+}
@@ -1,25 +1,123 @@
 package com.examportal.config;
 
+import com.examportal.security.StompAuthChannelInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * WebSocket Configuration
+ *
+ * websocket.broker.mode selects the STOMP broker:
+ * - simple: in-memory broker, subscriptions live on this node only
+ * - relay: RabbitMQ's STOMP plugin for /topic and /queue, so broadcasts and
+ *   user destinations reach clients connected to any backend instance
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final OutboundFlowControl outboundFlowControl;
+    private final CborPayloadNegotiation cborPayloadNegotiation;
+    private final RelayDestinationInterceptor relayDestinationInterceptor = new RelayDestinationInterceptor();
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode = "simple";
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost = "localhost";
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort = 61613;
+
+    @Value("${websocket.broker.relay.virtual-host:/}")
+    private String relayVirtualHost = "/";
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin = "guest";
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode = "guest";
+
+    @Value("${websocket.outbound.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit = 512 * 1024;
+
+    @Value("${websocket.inbound.message-size-limit:65536}")
+    private int messageSizeLimit = 64 * 1024;
+
+    public WebSocketConfig(StompAuthChannelInterceptor stompAuthChannelInterceptor,
+            OutboundFlowControl outboundFlowControl, CborPayloadNegotiation cborPayloadNegotiation) {
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+        this.outboundFlowControl = outboundFlowControl;
+        this.cborPayloadNegotiation = cborPayloadNegotiation;
+    }
+
     @Override
     public void registerStompEndpoints(@org.springframework.lang.NonNull StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+
+        // Plain WebSocket for clients that can take binary (CBOR) frames
+        registry.addEndpoint("/ws-native")
+                .setAllowedOriginPatterns("*")
+                .addInterceptors(cborPayloadNegotiation.binaryTransportHandshake());
     }
 
     @Override
     public void configureMessageBroker(@org.springframework.lang.NonNull MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic");
+        // /queue carries per-user messages, addressed as /user/{userId}/queue/...
+        if (isRelay()) {
+            registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setVirtualHost(relayVirtualHost)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Messages for users connected elsewhere, and the shared user registry
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            registry.configureBrokerChannel().interceptors(relayDestinationInterceptor);
+        } else {
+            registry.enableSimpleBroker("/topic", "/queue");
+        }
         registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureWebSocketTransport(@org.springframework.lang.NonNull WebSocketTransportRegistration registration) {
+        // Sends are queued per session by OutboundFlowControl; these limits back it up
+        registration.setSendTimeLimit(outboundFlowControl.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(outboundFlowControl::decorate);
+    }
+
+    @Override
+    public void configureClientInboundChannel(@org.springframework.lang.NonNull ChannelRegistration registration) {
+        if (isRelay()) {
+            registration.interceptors(stompAuthChannelInterceptor, cborPayloadNegotiation.inboundInterceptor(),
+                    relayDestinationInterceptor);
+        } else {
+            registration.interceptors(stompAuthChannelInterceptor, cborPayloadNegotiation.inboundInterceptor());
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(@org.springframework.lang.NonNull ChannelRegistration registration) {
+        registration.interceptors(cborPayloadNegotiation.outboundInterceptor());
+    }
+
+    private boolean isRelay() {
+        return "relay".equalsIgnoreCase(brokerMode);
     }
 }
@@ -0,0 +1,50 @@
+package com.examportal.controller;
+
+import com.examportal.dto.ReverificationProgress;
+import com.examportal.service.SubmissionReverificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Bulk re-verification of stored code answers after a constraint change
+ */
+@RestController
+@RequestMapping("/api/admin/reverification")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyAuthority('MODERATOR', 'ADMIN')")
+public class ReverificationController {
+
+    private final SubmissionReverificationService reverificationService;
+
+    /**
+     * Start a job over all attempts of a test, optionally for one question
+     */
+    @PostMapping("/tests/{testId}")
+    public ResponseEntity<ReverificationProgress> startJob(@PathVariable Long testId,
+            @RequestParam(required = false) Long questionId) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(reverificationService.startJob(testId, questionId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReverificationProgress> getProgress(@PathVariable String jobId) {
+        try {
+            return reverificationService.getProgress(jobId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.examportal.dto.TestDTO;
 import com.examportal.entity.StudentAttempt;
 import com.examportal.exception.RateLimitExceededException;
 import com.examportal.execution.model.ExecutionResult;
+import com.examportal.execution.service.ExecutionResultWaitService;
 import com.examportal.service.QueueMetricsService;
 import com.examportal.service.RateLimitService;
 import com.examportal.service.TestAttemptService;
@@ -17,6 +18,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
 
@@ -30,6 +32,7 @@ public class StudentTestController {
     private final TestAttemptService attemptService;
     private final RateLimitService rateLimitService;
     private final QueueMetricsService queueMetricsService;
+    private final ExecutionResultWaitService executionResultWaitService;
 
     @GetMapping("/tests")
     public ResponseEntity<List<TestDTO>> getAvailableTests() {
@@ -93,9 +96,62 @@ public class StudentTestController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Custom-input run that is not recorded on the attempt; poll the result
+     * with GET /attempts/{attemptId}/scratch-runs/{executionId}
+     */
+    @PostMapping("/attempts/{attemptId}/scratch-runs")
+    public ResponseEntity<ExecutionResult> scratchRun(
+            @PathVariable Long attemptId,
+            @RequestBody CodeExecutionRequest request) {
+
+        Long studentId = attemptService.getAttemptById(attemptId).getStudentId();
+
+        // Scratch runs share the student's submission rate limit
+        if (!rateLimitService.allowRequest(studentId)) {
+            long retryAfter = rateLimitService.getRetryAfterSeconds(studentId);
+            throw new RateLimitExceededException(
+                    "Too many submissions. Please wait " + retryAfter + " seconds.",
+                    retryAfter);
+        }
+
+        ExecutionResult result = attemptService.scratchRun(
+                attemptId,
+                request.getQuestionId(),
+                request.getCode(),
+                request.getLanguageId(),
+                request.getStdin());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+
+    @GetMapping("/attempts/{attemptId}/scratch-runs/{executionId}")
+    public ResponseEntity<ExecutionResult> getScratchRunResult(
+            @PathVariable Long attemptId,
+            @PathVariable String executionId) {
+        ExecutionResult result = attemptService.getScratchRunResult(attemptId, executionId);
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Long-poll variant of the scratch-run result for clients without WebSockets
+     */
+    @GetMapping("/attempts/{attemptId}/scratch-runs/{executionId}/await")
+    public DeferredResult<ResponseEntity<ExecutionResult>> awaitScratchRunResult(
+            @PathVariable Long attemptId,
+            @PathVariable String executionId,
+            @RequestParam(defaultValue = "25000") long timeoutMs) {
+        return executionResultWaitService.await(executionId, timeoutMs,
+                () -> attemptService.getScratchRunResult(attemptId, executionId));
+    }
+
     @GetMapping("/attempts/{attemptId}/queue-position")
-    public ResponseEntity<QueuePositionResponse> getQueuePosition(@PathVariable Long attemptId) {
-        QueuePositionResponse position = queueMetricsService.getQueuePosition(attemptId);
+    public ResponseEntity<QueuePositionResponse> getQueuePosition(
+            @PathVariable Long attemptId,
+            @RequestParam(required = false) String executionId) {
+        QueuePositionResponse position = queueMetricsService.getQueuePosition(attemptId, executionId);
         return ResponseEntity.ok(position);
     }
 
@@ -110,6 +166,20 @@ public class StudentTestController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Long-poll variant of the result endpoint: answers once the given
+     * execution finishes, or with its pending state after timeoutMs
+     */
+    @GetMapping("/attempts/{attemptId}/questions/{questionId}/result/await")
+    public DeferredResult<ResponseEntity<ExecutionResult>> awaitExecutionResult(
+            @PathVariable Long attemptId,
+            @PathVariable Long questionId,
+            @RequestParam String executionId,
+            @RequestParam(defaultValue = "25000") long timeoutMs) {
+        return executionResultWaitService.await(executionId, timeoutMs,
+                () -> attemptService.getExecutionResult(attemptId, questionId));
+    }
+
     @PostMapping("/attempts/{attemptId}/submit")
     public ResponseEntity<StudentAttempt> submitTest(@PathVariable Long attemptId) {
         StudentAttempt attempt = attemptService.submitTest(attemptId);
@@ -18,6 +18,9 @@ public class CodeVerificationResult {
     private List<String> warnings = new ArrayList<>();
     
     private String message;
+
+    // Verification aborted by its time/size budget; neither pass nor fail
+    private boolean budgetExceeded;
     
     public static CodeVerificationResult success() {
         return CodeVerificationResult.builder()
@@ -33,4 +36,13 @@ public class CodeVerificationResult {
                 .message("Code validation failed")
                 .build();
     }
+
+    public static CodeVerificationResult budgetExceeded(String message) {
+        return CodeVerificationResult.builder()
+                .valid(false)
+                .budgetExceeded(true)
+                .errors(List.of(message))
+                .message("Code verification budget exceeded")
+                .build();
+    }
 }
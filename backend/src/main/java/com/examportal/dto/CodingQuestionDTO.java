@@ -1,5 +1,7 @@
 package com.examportal.dto;
 
+import com.examportal.execution.model.ComparisonMode;
+import com.examportal.execution.model.ExecutionLimits;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
@@ -17,4 +19,7 @@ public class CodingQuestionDTO extends QuestionDTO {
     private List<Map<String, String>> testCases;
     private Map<String, Boolean> constraints;
     private String starterCode;
+    private ComparisonMode comparisonMode;
+    private Double comparisonEpsilon;
+    private Map<String, ExecutionLimits> executionLimits; // read-only, set by solution verification
 }
@@ -1,6 +1,7 @@
 package com.examportal.dto;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -8,10 +9,14 @@ import lombok.NoArgsConstructor;
  * Response DTO for queue position information
  */
 @Data
+@Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class QueuePositionResponse {
-    private int position;
+    private int position; // 1-based place in its lane, 0 once it has left the queue
     private int estimatedWaitSeconds;
     private int queueDepth;
+    private String executionId;
+    private String lane;
+    private double throughputPerSecond; // EWMA of the lane's dequeue rate
 }
@@ -0,0 +1,38 @@
+package com.examportal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk re-verification job over the stored answers of a test
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReverificationProgress {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String jobId;
+    private Long testId;
+    private Long questionId; // null = all coding questions of the test
+    private Long startedBy; // user ID of the moderator or admin who started the job
+    private Status status;
+    private int totalAttempts;
+    private int processedAttempts;
+    private int verifiedAnswers;
+    private int invalidAnswers;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long elapsedMs;
+    private String error;
+}
@@ -1,5 +1,6 @@
 package com.examportal.dto;
 
+import com.examportal.execution.model.CostEstimate;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,4 +22,5 @@ public class SubmissionMessage implements Serializable {
     private Integer languageId;
     private String stdin;
     private Map<String, Boolean> constraints;
+    private CostEstimate.CostClass costClass; // null for messages queued before cost routing: STANDARD
 }
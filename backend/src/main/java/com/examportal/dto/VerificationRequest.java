@@ -1,5 +1,6 @@
 package com.examportal.dto;
 
+import com.examportal.execution.model.ComparisonMode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,10 +17,13 @@ import java.util.List;
 @AllArgsConstructor
 public class VerificationRequest {
 
+    private Long questionId; // optional: store limits derived from this run on the question
     private String code;
     private Integer languageId;
     private List<TestCaseData> testCases;
     private ConstraintsConfig constraints;
+    private ComparisonMode comparisonMode; // falls back to the question's mode, then EXACT
+    private Double comparisonEpsilon;
 
     @Data
     @Builder
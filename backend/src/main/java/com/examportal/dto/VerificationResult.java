@@ -1,5 +1,6 @@
 package com.examportal.dto;
 
+import com.examportal.execution.model.ExecutionLimits;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +21,7 @@ public class VerificationResult {
     private List<TestCaseResult> testCaseResults;
     private List<String> constraintViolations;
     private Integer executionTimeMs;
+    private ExecutionLimits recommendedLimits; // derived from this run when all test cases pass
 
     @Data
     @Builder
@@ -31,5 +33,7 @@ public class VerificationResult {
         private String actualOutput;
         private Boolean passed;
         private String error;
+        private Long cpuTimeMs;
+        private Double memoryKb;
     }
 }
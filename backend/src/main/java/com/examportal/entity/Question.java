@@ -1,5 +1,7 @@
 package com.examportal.entity;
 
+import com.examportal.execution.model.ComparisonMode;
+import com.examportal.execution.model.ExecutionLimits;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
@@ -63,6 +65,18 @@ public class Question {
     @Column(length = 10000)
     private String starterCode;
 
+    // How run output is compared with expected output (null: EXACT)
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private ComparisonMode comparisonMode;
+
+    private Double comparisonEpsilon; // NUMERIC mode tolerance (null: OutputComparator.DEFAULT_EPSILON)
+
+    // Judge0 language ID -> limits derived from the moderator's verified reference solution
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, ExecutionLimits> executionLimits;
+
     @Column(length = 2000)
     private String explanation; // For post-deadline review
 
@@ -65,6 +65,13 @@ public class StudentAttempt {
     @Builder.Default
     private Map<String, Object> executionResults = new HashMap<>();
 
+    // JSON map: questionId -> static verification verdict from the last re-verification job.
+    // Written only by SubmissionReverificationService with JDBC, so saving an attempt never overwrites it.
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", insertable = false, updatable = false)
+    @Builder.Default
+    private Map<String, Object> verificationResults = new HashMap<>();
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
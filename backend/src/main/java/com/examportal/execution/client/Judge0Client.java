@@ -1,5 +1,7 @@
 package com.examportal.execution.client;
 
+import com.examportal.execution.model.Judge0BatchRequest;
+import com.examportal.execution.model.Judge0BatchResponse;
 import com.examportal.execution.model.Judge0SubmissionRequest;
 import com.examportal.execution.model.Judge0SubmissionResponse;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -54,14 +56,14 @@ public interface Judge0Client {
      * 
      * @param apiKey Judge0 API key
      * @param apiHost Judge0 API host
-     * @param requests Array of submission requests
-     * @return Array of submission responses
+     * @param request Submission requests
+     * @return Array of responses holding only the submission tokens
      */
     @PostMapping("/submissions/batch")
     Judge0SubmissionResponse[] createBatchSubmissions(
         @RequestHeader("X-RapidAPI-Key") String apiKey,
         @RequestHeader("X-RapidAPI-Host") String apiHost,
-        @RequestBody Judge0SubmissionRequest[] requests
+        @RequestBody Judge0BatchRequest request
     );
 
     /**
@@ -70,12 +72,14 @@ public interface Judge0Client {
      * @param apiKey Judge0 API key
      * @param apiHost Judge0 API host
      * @param tokens Comma-separated submission tokens
-     * @return Array of submission responses
+     * @param fields Fields to include in each submission
+     * @return Submission responses in token order
      */
     @GetMapping("/submissions/batch")
-    Judge0SubmissionResponse[] getBatchSubmissions(
+    Judge0BatchResponse getBatchSubmissions(
         @RequestHeader("X-RapidAPI-Key") String apiKey,
         @RequestHeader("X-RapidAPI-Host") String apiHost,
-        @RequestParam("tokens") String tokens
+        @RequestParam("tokens") String tokens,
+        @RequestParam(value = "fields", required = false) String fields
     );
 }
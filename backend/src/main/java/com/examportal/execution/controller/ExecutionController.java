@@ -10,6 +10,10 @@ import org.springframework.web.bind.annotation.*;
 
 import com.examportal.security.CustomUserDetails;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Code Execution Controller
  * 
@@ -32,7 +36,7 @@ public class ExecutionController {
      * POST /api/execution/run
      */
     @PostMapping("/run")
-    @PreAuthorize("hasAnyRole('STUDENT', 'MODERATOR', 'ADMIN')")
+    @PreAuthorize("hasAnyAuthority('STUDENT', 'MODERATOR', 'ADMIN')")
     public ResponseEntity<ExecutionResult> executeCode(
             @Valid @RequestBody ExecutionRequest request,
             @AuthenticationPrincipal CustomUserDetails user) {
@@ -55,7 +59,7 @@ public class ExecutionController {
      * GET /api/execution/{executionId}
      */
     @GetMapping("/{executionId}")
-    @PreAuthorize("hasAnyRole('STUDENT', 'MODERATOR', 'ADMIN')")
+    @PreAuthorize("hasAnyAuthority('STUDENT', 'MODERATOR', 'ADMIN')")
     public ResponseEntity<ExecutionResult> getExecutionResult(@PathVariable String executionId) {
         log.debug("Fetching execution result for {}", executionId);
 
@@ -65,25 +69,45 @@ public class ExecutionController {
 
     /**
      * Batch execution for multiple test cases
+     * Returns immediately with one QUEUED result (holding its submission token) per test case
      * 
      * POST /api/execution/batch
      */
     @PostMapping("/batch")
-    @PreAuthorize("hasAnyRole('STUDENT', 'MODERATOR', 'ADMIN')")
+    @PreAuthorize("hasAnyAuthority('STUDENT', 'MODERATOR', 'ADMIN')")
     public ResponseEntity<ExecutionResult[]> executeBatch(
             @Valid @RequestBody BatchExecutionRequest request,
             @AuthenticationPrincipal CustomUserDetails user) {
         
         log.info("Batch execution for user {} with {} test cases", user.getId(), request.getTestInputs().length);
 
-        ExecutionResult[] results = judge0Service.executeBatch(
+        List<String> tokens = judge0Service.submitBatch(
             request.getCode(),
             request.getLanguageId(),
-            request.getTestInputs(),
-            user.getId()
+            Arrays.asList(request.getTestInputs())
         );
 
-        return ResponseEntity.ok(results);
+        ExecutionResult[] results = tokens.stream()
+            .map(token -> ExecutionResult.builder()
+                .executionId(token)
+                .submissionToken(token)
+                .status(ExecutionResult.ExecutionStatus.QUEUED)
+                .executedAt(LocalDateTime.now())
+                .build())
+            .toArray(ExecutionResult[]::new);
+
+        return ResponseEntity.accepted().body(results);
+    }
+
+    /**
+     * Current results of a batch, in token order
+     * 
+     * GET /api/execution/batch?tokens=a,b,c
+     */
+    @GetMapping("/batch")
+    @PreAuthorize("hasAnyAuthority('STUDENT', 'MODERATOR', 'ADMIN')")
+    public ResponseEntity<List<ExecutionResult>> getBatchResults(@RequestParam List<String> tokens) {
+        return ResponseEntity.ok(judge0Service.getBatchResults(tokens));
     }
 
     public static class ExecutionRequest {
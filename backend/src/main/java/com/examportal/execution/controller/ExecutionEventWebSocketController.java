@@ -0,0 +1,42 @@
+package com.examportal.execution.controller;
+
+import com.examportal.execution.service.ExecutionEventService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * Execution Event WebSocket Controller
+ *
+ * Results are pushed on /user/queue/execution. After (re)connecting, the
+ * client sends /app/execution/replay with the last sequence number it saw
+ * and receives any buffered events it missed on the same queue.
+ */
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+public class ExecutionEventWebSocketController {
+
+    private final ExecutionEventService executionEventService;
+
+    @MessageMapping("/execution/replay")
+    public void replay(@Payload(required = false) ReplayRequest request, Principal principal) {
+        if (principal == null) {
+            log.debug("Ignoring execution replay request from unauthenticated session");
+            return;
+        }
+
+        long afterSeq = request != null && request.getAfterSeq() != null ? request.getAfterSeq() : 0;
+        executionEventService.replayTo(Long.parseLong(principal.getName()), afterSeq);
+    }
+
+    @Data
+    public static class ReplayRequest {
+        private Long afterSeq;
+    }
+}
@@ -1,6 +1,7 @@
 package com.examportal.execution.controller;
 
 import com.examportal.execution.model.Judge0SubmissionResponse;
+import com.examportal.execution.service.ExecutionEventService;
 import com.examportal.execution.service.ExecutionQueueService;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
@@ -22,13 +23,16 @@ public class Judge0WebhookController {
     private final RedisTemplate<String, Object> redisTemplate;
     private final ExecutionQueueService executionQueueService;
     private final com.examportal.repository.StudentAttemptRepository attemptRepository;
+    private final ExecutionEventService executionEventService;
 
     public Judge0WebhookController(RedisTemplate<String, Object> redisTemplate,
             ExecutionQueueService executionQueueService,
-            com.examportal.repository.StudentAttemptRepository attemptRepository) {
+            com.examportal.repository.StudentAttemptRepository attemptRepository,
+            ExecutionEventService executionEventService) {
         this.redisTemplate = redisTemplate;
         this.executionQueueService = executionQueueService;
         this.attemptRepository = attemptRepository;
+        this.executionEventService = executionEventService;
     }
 
     /**
@@ -49,48 +53,46 @@ public class Judge0WebhookController {
             String cacheKey = "execution:result:" + executionId;
             redisTemplate.opsForValue().set(cacheKey, response, 1, TimeUnit.HOURS);
 
+            // Read the student before removeFromQueue deletes the key
+            Long studentId = executionQueueService.getStudentId(executionId);
+
             // Remove from pending queue
             executionQueueService.removeFromQueue(executionId);
 
             // Decrement student's execution count
-            Long studentId = executionQueueService.getStudentId(executionId);
             if (studentId != null) {
                 String countKey = "execution:count:student:" + studentId;
                 redisTemplate.opsForValue().decrement(countKey);
             }
 
+            // Let's duplicate the minimal conversion logic here to be safe and fast
+            // (Judge0Service has the full conversion, but depending on it would create a cycle)
+            com.examportal.execution.model.ExecutionResult result = com.examportal.execution.model.ExecutionResult
+                    .builder()
+                    .executionId(executionId)
+                    .submissionToken(response.getToken())
+                    .status(com.examportal.execution.model.ExecutionResult
+                            .fromJudge0Status(response.getStatus().getId()))
+                    .output(response.getStdout())
+                    .error(response.getStderr())
+                    .compileOutput(response.getCompile_output())
+                    .passed(response.isAccepted())
+                    // .executedAt(java.time.LocalDateTime.now()) // Optional
+                    .build();
+
             // PERSISTENCE FIX: Update DB Result
             String context = executionQueueService.getExecutionContext(executionId);
+            Long attemptId = null;
+            Long questionId = null;
             if (context != null && context.contains(":")) {
                 try {
                     String[] parts = context.split(":");
-                    Long attemptId = Long.parseLong(parts[0]);
+                    attemptId = Long.parseLong(parts[0]);
                     String questionIdStr = parts[1]; // Store as string in map
+                    questionId = Long.parseLong(questionIdStr);
 
                     com.examportal.entity.StudentAttempt attempt = attemptRepository.findById(attemptId).orElse(null);
                     if (attempt != null) {
-                        // Convert Judge0 response to ExecutionResult (simplified for storage)
-                        // Note: Using a helper or manual builder here to avoid circular dependencies
-                        // Ideally checking Judge0Service for conversion logic would be better, but we
-                        // want to avoid dep cycles.
-                        // Let's rely on the fact that StudentAttempt stores Map<String, Object> and we
-                        // can store the response directly or valid fields.
-                        // But wait, frontend expects ExecutionResult format.
-
-                        // Let's duplicate the minimal conversion logic here to be safe and fast.
-                        com.examportal.execution.model.ExecutionResult result = com.examportal.execution.model.ExecutionResult
-                                .builder()
-                                .executionId(executionId)
-                                .submissionToken(response.getToken())
-                                .status(com.examportal.execution.model.ExecutionResult
-                                        .fromJudge0Status(response.getStatus().getId()))
-                                .output(response.getStdout())
-                                .error(response.getStderr())
-                                .compileOutput(response.getCompile_output())
-                                .passed(response.isAccepted())
-                                // .executedAt(java.time.LocalDateTime.now()) // Optional
-                                .build();
-
                         attempt.getExecutionResults().put(questionIdStr, result);
                         attemptRepository.save(attempt);
                         log.info("Persisted execution result to DB for Attempt {} Question {}", attemptId,
@@ -101,7 +103,10 @@ public class Judge0WebhookController {
                 }
             }
 
-            log.info("Finished processing callback for {}. Future: Notify student via WebSocket.", executionId);
+            // Push to the student; scratch runs have no context and are matched by executionId
+            executionEventService.publish(studentId, attemptId, questionId, result);
+
+            log.info("Finished processing callback for {}", executionId);
 
             return ResponseEntity.ok("Callback received");
 
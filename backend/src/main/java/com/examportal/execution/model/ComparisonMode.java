@@ -0,0 +1,11 @@
+package com.examportal.execution.model;
+
+/**
+ * How a program's output is compared with the expected output
+ */
+public enum ComparisonMode {
+    EXACT, // identical apart from leading/trailing whitespace of the whole output
+    WHITESPACE, // same whitespace-separated tokens, any amount/kind of whitespace between them
+    LINE_SET, // same non-blank lines in any order (trailing whitespace per line ignored)
+    NUMERIC // same tokens, numbers equal within an absolute or relative epsilon
+}
@@ -0,0 +1,34 @@
+package com.examportal.execution.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Static pre-execution cost estimate of a submission
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CostEstimate {
+
+    private CostClass costClass;
+    private int maxLoopDepth;
+
+    @Builder.Default
+    private List<String> reasons = new ArrayList<>();
+
+    public enum CostClass {
+        STANDARD, // runs in the regular pool with the regular limits
+        LIKELY_TLE // unbounded loop or recursion: runs in the small, tightly limited pool
+    }
+
+    public static CostEstimate standard() {
+        return CostEstimate.builder().costClass(CostClass.STANDARD).build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.examportal.execution.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Completed run pushed to the student on /user/queue/execution
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionEvent {
+    private long seq; // per-student, increasing; clients replay from the last one seen
+    private String executionId;
+    private Long attemptId; // null for scratch runs
+    private Long questionId; // null for scratch runs
+    private ExecutionResult result;
+    private long timestamp;
+}
@@ -0,0 +1,28 @@
+package com.examportal.execution.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Judge0 sandbox limits for one question and language, derived from the
+ * reference solution's measured runtime
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionLimits {
+
+    private Double cpuTimeLimit; // seconds
+    private Double wallTimeLimit; // seconds
+    private Double memoryLimit; // KB
+
+    // Slowest test case of the reference run the limits were derived from
+    private Long referenceCpuTimeMs;
+    private Double referenceMemoryKb;
+
+    // Hash of the test cases that run covered; limits are stale once the question's test cases differ
+    private String testCasesHash;
+}
@@ -35,6 +35,7 @@ public class ExecutionResult {
         RUNTIME_ERROR,
         TIME_LIMIT_EXCEEDED,
         MEMORY_LIMIT_EXCEEDED,
+        VERIFICATION_TIMEOUT, // static verification exceeded its budget, code was not run
         INTERNAL_ERROR
     }
     
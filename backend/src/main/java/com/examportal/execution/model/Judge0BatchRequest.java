@@ -0,0 +1,17 @@
+package com.examportal.execution.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Body of POST /submissions/batch: {"submissions": [...]}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Judge0BatchRequest {
+    private List<Judge0SubmissionRequest> submissions;
+}
@@ -0,0 +1,120 @@
+package com.examportal.execution.service;
+
+import com.examportal.execution.model.ExecutionEvent;
+import com.examportal.execution.model.ExecutionResult;
+import com.examportal.monitoring.service.MonitoringBroadcastService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Execution Event Service
+ *
+ * Pushes finished runs to the student over WebSocket so the client does not
+ * poll for results. Each event is also appended to a short per-student
+ * replay buffer in Redis; a client that reconnects asks for everything after
+ * the last sequence number it saw. The event is also published on a Redis
+ * channel for clients that long-poll instead of holding a WebSocket.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExecutionEventService {
+
+    public static final String MESSAGE_TYPE = "execution";
+
+    // Pub/sub channel per execution, consumed by long-poll waiters on any instance
+    public static final String DONE_CHANNEL_PREFIX = "execution:done:";
+
+    private static final String EVENTS_PREFIX = "execution:events:";
+    private static final String SEQ_PREFIX = "execution:events:seq:";
+
+    private final MonitoringBroadcastService broadcastService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${execution.events.replay-size:50}")
+    private int replaySize = 50;
+
+    @Value("${execution.events.replay-ttl-minutes:30}")
+    private long replayTtlMinutes = 30;
+
+    /**
+     * Record and push a finished run; failures are logged, the poll endpoints remain the fallback
+     */
+    public void publish(Long studentId, Long attemptId, Long questionId, ExecutionResult result) {
+        if (studentId == null || result == null) {
+            return;
+        }
+
+        ExecutionEvent event = ExecutionEvent.builder()
+                .executionId(result.getExecutionId())
+                .attemptId(attemptId)
+                .questionId(questionId)
+                .result(result)
+                .timestamp(System.currentTimeMillis())
+                .build();
+
+        try {
+            Duration ttl = Duration.ofMinutes(replayTtlMinutes);
+            Long seq = redisTemplate.opsForValue().increment(SEQ_PREFIX + studentId);
+            redisTemplate.expire(SEQ_PREFIX + studentId, ttl);
+            event.setSeq(seq != null ? seq : 0);
+
+            String json = objectMapper.writeValueAsString(event);
+            String key = EVENTS_PREFIX + studentId;
+            redisTemplate.opsForList().leftPush(key, json);
+            redisTemplate.opsForList().trim(key, 0, replaySize - 1);
+            redisTemplate.expire(key, ttl);
+
+            if (result.getExecutionId() != null) {
+                redisTemplate.convertAndSend(DONE_CHANNEL_PREFIX + result.getExecutionId(), json);
+            }
+        } catch (Exception e) {
+            log.warn("Could not buffer execution event {} for replay: {}", result.getExecutionId(), e.getMessage());
+        }
+
+        broadcastService.sendToStudent(studentId, MESSAGE_TYPE, event);
+    }
+
+    /**
+     * Buffered events with a sequence number above afterSeq, oldest first
+     */
+    public List<ExecutionEvent> replay(Long studentId, long afterSeq) {
+        List<String> buffered = redisTemplate.opsForList().range(EVENTS_PREFIX + studentId, 0, -1);
+        List<ExecutionEvent> events = new ArrayList<>();
+        if (buffered == null) {
+            return events;
+        }
+
+        for (String json : buffered) {
+            try {
+                ExecutionEvent event = objectMapper.readValue(json, ExecutionEvent.class);
+                if (event.getSeq() > afterSeq) {
+                    events.add(event);
+                }
+            } catch (Exception e) {
+                log.warn("Skipping unreadable execution event for student {}", studentId);
+            }
+        }
+        events.sort(Comparator.comparingLong(ExecutionEvent::getSeq));
+        return events;
+    }
+
+    /**
+     * Push buffered events the client missed while disconnected
+     */
+    public void replayTo(Long studentId, long afterSeq) {
+        for (ExecutionEvent event : replay(studentId, afterSeq)) {
+            broadcastService.sendToStudent(studentId, MESSAGE_TYPE, event);
+        }
+    }
+}
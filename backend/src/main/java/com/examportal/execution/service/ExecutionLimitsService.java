@@ -0,0 +1,169 @@
+package com.examportal.execution.service;
+
+import com.examportal.dto.VerificationRequest;
+import com.examportal.entity.Question;
+import com.examportal.execution.model.ExecutionLimits;
+import com.examportal.execution.model.ExecutionResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Execution Limits Service
+ *
+ * Derives per-question sandbox limits from a verified reference solution:
+ * the slowest test case's CPU time and peak memory times a multiplier,
+ * clamped to sane bounds. Limits are kept per Judge0 language ID because a
+ * Java reference says little about a Python submission's runtime; languages
+ * without a reference run keep the default limits.
+ *
+ * Limits carry a hash of the test cases they were measured on. Once the
+ * question's test cases change they no longer apply: {@link #resolve} falls
+ * back to the defaults, {@link #evictStale} drops them from a loaded
+ * question, and storing new limits drops them from the database (see
+ * QuestionRepository#updateExecutionLimits).
+ */
+@Service
+public class ExecutionLimitsService {
+
+    // Headroom over the CPU limit for process startup and scheduling
+    private static final double MIN_WALL_MARGIN = 0.5;
+
+    @Value("${execution.limits.adaptive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${execution.limits.adaptive.cpu-multiplier:3.0}")
+    private double cpuMultiplier = 3.0;
+
+    @Value("${execution.limits.adaptive.cpu-margin:0.1}")
+    private double cpuMargin = 0.1;
+
+    @Value("${execution.limits.adaptive.min-cpu-time:0.2}")
+    private double minCpuTime = 0.2;
+
+    @Value("${execution.limits.adaptive.max-cpu-time:10.0}")
+    private double maxCpuTime = 10.0;
+
+    @Value("${execution.limits.adaptive.wall-multiplier:2.0}")
+    private double wallMultiplier = 2.0;
+
+    @Value("${execution.limits.adaptive.memory-multiplier:2.0}")
+    private double memoryMultiplier = 2.0;
+
+    @Value("${execution.limits.adaptive.min-memory:32000}")
+    private double minMemory = 32000;
+
+    @Value("${execution.limits.adaptive.max-memory:512000}")
+    private double maxMemory = 512000;
+
+    /**
+     * Limits derived from a passing reference run, or null if any test case
+     * lacks a measurement
+     */
+    public ExecutionLimits fromReferenceRun(List<ExecutionResult> results, String testCasesHash) {
+        if (results == null || results.isEmpty()) {
+            return null;
+        }
+
+        long maxCpuMs = 0;
+        double maxMemoryKb = 0;
+        for (ExecutionResult result : results) {
+            if (result.getCpuTimeMs() == null || result.getMemoryKb() == null) {
+                return null;
+            }
+            maxCpuMs = Math.max(maxCpuMs, result.getCpuTimeMs());
+            maxMemoryKb = Math.max(maxMemoryKb, result.getMemoryKb());
+        }
+
+        double cpu = clamp(maxCpuMs / 1000.0 * cpuMultiplier + cpuMargin, minCpuTime, maxCpuTime);
+        double memory = clamp(maxMemoryKb * memoryMultiplier, minMemory, maxMemory);
+
+        return ExecutionLimits.builder()
+                .cpuTimeLimit(round(cpu))
+                .wallTimeLimit(round(Math.max(cpu * wallMultiplier, cpu + MIN_WALL_MARGIN)))
+                .memoryLimit(Math.ceil(memory))
+                .referenceCpuTimeMs(maxCpuMs)
+                .referenceMemoryKb(maxMemoryKb)
+                .testCasesHash(testCasesHash)
+                .build();
+    }
+
+    /**
+     * Limits recorded for a question in the given language, or null to use the defaults
+     */
+    public ExecutionLimits resolve(Question question, Integer languageId) {
+        if (!enabled || question == null || languageId == null) {
+            return null;
+        }
+        Map<String, ExecutionLimits> limits = question.getExecutionLimits();
+        ExecutionLimits forLanguage = limits != null ? limits.get(languageId.toString()) : null;
+        return isCurrent(forLanguage, testCasesHash(question)) ? forLanguage : null;
+    }
+
+    /**
+     * Remove limits measured on other test cases than the question's current
+     * ones; returns whether anything was removed
+     */
+    public boolean evictStale(Question question) {
+        Map<String, ExecutionLimits> limits = question.getExecutionLimits();
+        if (limits == null || limits.isEmpty()) {
+            return false;
+        }
+        String current = testCasesHash(question);
+        Map<String, ExecutionLimits> kept = new HashMap<>(limits);
+        kept.values().removeIf(forLanguage -> !isCurrent(forLanguage, current));
+        if (kept.size() == limits.size()) {
+            return false;
+        }
+        question.setExecutionLimits(kept);
+        return true;
+    }
+
+    public String testCasesHash(Question question) {
+        List<Map<String, String>> testCases = question.getTestCases() != null ? question.getTestCases() : List.of();
+        return hash(testCases.stream()
+                .map(testCase -> new String[] { testCase.get("input"), testCase.get("expectedOutput") })
+                .toList());
+    }
+
+    public String testCasesHash(List<VerificationRequest.TestCaseData> testCases) {
+        return hash((testCases != null ? testCases : List.<VerificationRequest.TestCaseData>of()).stream()
+                .map(testCase -> new String[] { testCase.getInput(), testCase.getExpectedOutput() })
+                .toList());
+    }
+
+    // Limits from before test cases were hashed cannot be matched, so they count as stale
+    private static boolean isCurrent(ExecutionLimits limits, String testCasesHash) {
+        return limits != null && testCasesHash.equals(limits.getTestCasesHash());
+    }
+
+    private static String hash(List<String[]> testCases) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String[] testCase : testCases) {
+                for (String part : testCase) {
+                    digest.update((part != null ? part : "").getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static double round(double seconds) {
+        return Math.ceil(seconds * 100) / 100;
+    }
+}
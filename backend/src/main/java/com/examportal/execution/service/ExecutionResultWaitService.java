@@ -0,0 +1,201 @@
+package com.examportal.execution.service;
+
+import com.examportal.execution.model.ExecutionEvent;
+import com.examportal.execution.model.ExecutionResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Execution Result Wait Service
+ *
+ * Long-poll alternative to the WebSocket push for clients behind proxies
+ * that break WebSockets. A request is parked as a {@link DeferredResult}, so
+ * it holds no Tomcat thread, until the execution's completion event arrives
+ * on Redis pub/sub or the timeout fires. All waiters for the same execution
+ * share one channel subscription, created by the first and dropped by the
+ * last.
+ *
+ * The listener container subscribes asynchronously, so a completion
+ * published right after the first read of the state can be missed. Each
+ * parked request therefore reads the state once more after
+ * execution.long-poll.recheck-ms, by which time the subscription is live.
+ */
+@Slf4j
+@Service
+public class ExecutionResultWaitService {
+
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    // executionId -> waiters sharing its subscription
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    @Value("${execution.long-poll.max-timeout-ms:30000}")
+    private long maxTimeoutMs = 30_000;
+
+    @Value("${execution.long-poll.recheck-ms:1000}")
+    private long recheckMs = 1000;
+
+    private final ScheduledExecutorService recheckScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "long-poll-recheck");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ExecutionResultWaitService(RedisMessageListenerContainer listenerContainer, ObjectMapper objectMapper) {
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Park until the execution finishes or the timeout fires
+     *
+     * The result completes with the finished result, or with the state read
+     * from current on timeout (the client asks again). current is read on
+     * the calling thread after registering the listener, so it may throw
+     * access errors, and read again after the subscription is live, with
+     * the caller's security context, to catch a completion in between.
+     *
+     * @param current Stored state of the execution, null if it is unknown
+     */
+    public DeferredResult<ResponseEntity<ExecutionResult>> await(String executionId, long timeoutMs,
+            Supplier<ExecutionResult> current) {
+        DeferredResult<ResponseEntity<ExecutionResult>> deferred = new DeferredResult<>(
+                Math.max(1, Math.min(timeoutMs, maxTimeoutMs)));
+        join(executionId, deferred);
+        deferred.onCompletion(() -> leave(executionId, deferred));
+
+        ExecutionResult now;
+        try {
+            now = current.get();
+        } catch (RuntimeException e) {
+            leave(executionId, deferred);
+            throw e;
+        }
+
+        // Unknown, already finished, or superseded by a newer run: answer right away
+        if (now == null || isFinished(now) || !executionId.equals(now.getExecutionId())) {
+            leave(executionId, deferred);
+            deferred.setResult(now != null ? ResponseEntity.ok(now) : ResponseEntity.notFound().build());
+            return deferred;
+        }
+
+        deferred.onTimeout(() -> deferred.setResult(ResponseEntity.ok(now)));
+        Callable<ExecutionResult> reread = new DelegatingSecurityContextCallable<>(current::get);
+        recheckScheduler.schedule(() -> recheck(executionId, deferred, reread), recheckMs, TimeUnit.MILLISECONDS);
+        return deferred;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recheckScheduler.shutdownNow();
+    }
+
+    /**
+     * Executions with at least one parked request
+     */
+    public int getWaitingExecutions() {
+        return flights.size();
+    }
+
+    private void join(String executionId, DeferredResult<ResponseEntity<ExecutionResult>> deferred) {
+        flights.compute(executionId, (id, flight) -> {
+            if (flight == null) {
+                flight = new Flight(id);
+                listenerContainer.addMessageListener(flight, flight.topic);
+            }
+            flight.waiters.add(deferred);
+            return flight;
+        });
+    }
+
+    private void leave(String executionId, DeferredResult<ResponseEntity<ExecutionResult>> deferred) {
+        flights.computeIfPresent(executionId, (id, flight) -> {
+            flight.waiters.remove(deferred);
+            if (!flight.waiters.isEmpty()) {
+                return flight;
+            }
+            listenerContainer.removeMessageListener(flight, flight.topic);
+            return null;
+        });
+    }
+
+    /**
+     * Answer a still parked request if its execution finished, or was
+     * superseded, before the subscription went live
+     */
+    private void recheck(String executionId, DeferredResult<ResponseEntity<ExecutionResult>> deferred,
+            Callable<ExecutionResult> current) {
+        if (deferred.isSetOrExpired()) {
+            return;
+        }
+        try {
+            ExecutionResult now = current.call();
+            if (now != null && (isFinished(now) || !executionId.equals(now.getExecutionId()))) {
+                deferred.setResult(ResponseEntity.ok(now));
+            }
+        } catch (Exception e) {
+            log.debug("Re-reading execution {} failed: {}", executionId, e.getMessage());
+        }
+    }
+
+    private void complete(String executionId, ExecutionResult result) {
+        Flight flight = flights.remove(executionId);
+        if (flight == null) {
+            return;
+        }
+        listenerContainer.removeMessageListener(flight, flight.topic);
+        for (DeferredResult<ResponseEntity<ExecutionResult>> waiter : flight.waiters) {
+            waiter.setResult(ResponseEntity.ok(result));
+        }
+        log.debug("Completed {} long-poll waiter(s) for execution {}", flight.waiters.size(), executionId);
+    }
+
+    private static boolean isFinished(ExecutionResult result) {
+        return result.getStatus() != ExecutionResult.ExecutionStatus.QUEUED
+                && result.getStatus() != ExecutionResult.ExecutionStatus.PROCESSING;
+    }
+
+    /**
+     * One Redis subscription shared by all waiters for an execution
+     */
+    private final class Flight implements MessageListener {
+        private final String executionId;
+        private final ChannelTopic topic;
+        private final Set<DeferredResult<ResponseEntity<ExecutionResult>>> waiters = ConcurrentHashMap.newKeySet();
+
+        private Flight(String executionId) {
+            this.executionId = executionId;
+            this.topic = new ChannelTopic(ExecutionEventService.DONE_CHANNEL_PREFIX + executionId);
+        }
+
+        @Override
+        public void onMessage(@org.springframework.lang.NonNull Message message, byte[] pattern) {
+            try {
+                ExecutionEvent event = objectMapper.readValue(message.getBody(), ExecutionEvent.class);
+                complete(executionId, event.getResult());
+            } catch (Exception e) {
+                log.warn("Unreadable completion event for execution {}: {}", executionId, e.getMessage());
+            }
+        }
+    }
+}
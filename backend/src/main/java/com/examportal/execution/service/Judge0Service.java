@@ -2,6 +2,8 @@ package com.examportal.execution.service;
 
 import com.examportal.execution.client.Judge0Client;
 import com.examportal.execution.model.ExecutionResult;
+import com.examportal.execution.model.Judge0BatchRequest;
+import com.examportal.execution.model.Judge0BatchResponse;
 import com.examportal.execution.model.Judge0SubmissionRequest;
 import com.examportal.execution.model.Judge0SubmissionResponse;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
@@ -12,6 +14,8 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -30,6 +34,9 @@ public class Judge0Service {
 
     private static final Logger log = LoggerFactory.getLogger(Judge0Service.class);
 
+    // Judge0's default max_submission_batch_size
+    private static final int MAX_BATCH_SIZE = 20;
+
     private final Judge0Client judge0Client;
     private final StringRedisTemplate redisTemplate;
     private final ExecutionQueueService executionQueueService;
@@ -194,33 +201,69 @@ public class Judge0Service {
     }
 
     /**
-     * Batch execution for multiple test cases
+     * Submit one run per test case without waiting for them to finish
+     *
+     * @return Judge0 submission tokens, in input order
      */
-    @CircuitBreaker(name = "judge0Service", fallbackMethod = "batchExecutionFallback")
-    public ExecutionResult[] executeBatch(String code, Integer languageId, String[] testInputs, Long studentId) {
-        // Build batch requests
-        Judge0SubmissionRequest[] requests = new Judge0SubmissionRequest[testInputs.length];
-        for (int i = 0; i < testInputs.length; i++) {
-            requests[i] = Judge0SubmissionRequest.builder()
-                    .source_code(code)
-                    .language_id(languageId)
-                    .stdin(testInputs[i])
-                    .cpu_time_limit(5.0)
-                    .wall_time_limit(10.0)
-                    .memory_limit(256000.0)
-                    .wait(true) // Sync mode for batch
-                    .build();
-        }
-
-        // Submit batch
-        Judge0SubmissionResponse[] responses = judge0Client.createBatchSubmissions(apiKey, apiHost, requests);
+    @CircuitBreaker(name = "judge0Service")
+    public List<String> submitBatch(String code, Integer languageId, List<String> testInputs) {
+        List<String> tokens = new ArrayList<>(testInputs.size());
+        for (int from = 0; from < testInputs.size(); from += MAX_BATCH_SIZE) {
+            List<Judge0SubmissionRequest> requests = new ArrayList<>();
+            for (String input : testInputs.subList(from, Math.min(from + MAX_BATCH_SIZE, testInputs.size()))) {
+                requests.add(Judge0SubmissionRequest.builder()
+                        .source_code(code)
+                        .language_id(languageId)
+                        .stdin(input)
+                        .cpu_time_limit(5.0)
+                        .wall_time_limit(10.0)
+                        .memory_limit(256000.0)
+                        .wait(false)
+                        .build());
+            }
 
-        // Convert responses
-        ExecutionResult[] results = new ExecutionResult[responses.length];
-        for (int i = 0; i < responses.length; i++) {
-            results[i] = convertToExecutionResult(UUID.randomUUID().toString(), responses[i]);
+            Judge0SubmissionResponse[] responses = judge0Client.createBatchSubmissions(
+                    apiKey, apiHost, new Judge0BatchRequest(requests));
+            for (Judge0SubmissionResponse response : responses) {
+                tokens.add(response.getToken());
+            }
         }
+        return tokens;
+    }
 
+    /**
+     * Current state of previously submitted runs, in token order. Runs still
+     * queued or processing come back with status QUEUED; a token Judge0 does
+     * not know (null entry) or reports without a status comes back as
+     * INTERNAL_ERROR without affecting the others.
+     */
+    @CircuitBreaker(name = "judge0Service")
+    public List<ExecutionResult> getBatchResults(List<String> tokens) {
+        List<ExecutionResult> results = new ArrayList<>(tokens.size());
+        for (int from = 0; from < tokens.size(); from += MAX_BATCH_SIZE) {
+            List<String> chunk = tokens.subList(from, Math.min(from + MAX_BATCH_SIZE, tokens.size()));
+            Judge0BatchResponse response = judge0Client.getBatchSubmissions(
+                    apiKey, apiHost, String.join(",", chunk),
+                    "token,stdout,stderr,status,compile_output,time,memory,exit_code");
+            List<Judge0SubmissionResponse> submissions = response != null ? response.getSubmissions() : null;
+            for (int i = 0; i < chunk.size(); i++) {
+                Judge0SubmissionResponse submission = submissions != null && i < submissions.size()
+                        ? submissions.get(i)
+                        : null;
+                if (submission == null || submission.getStatus() == null) {
+                    log.warn("Judge0 returned no status for submission {}", chunk.get(i));
+                    results.add(ExecutionResult.builder()
+                            .executionId(chunk.get(i))
+                            .submissionToken(chunk.get(i))
+                            .status(ExecutionResult.ExecutionStatus.INTERNAL_ERROR)
+                            .error("Execution result not available")
+                            .executedAt(LocalDateTime.now())
+                            .build());
+                } else {
+                    results.add(convertToExecutionResult(submission.getToken(), submission));
+                }
+            }
+        }
         return results;
     }
 
@@ -315,15 +358,4 @@ public class Judge0Service {
                 .build();
     }
 
-    @SuppressWarnings("unused")
-    private ExecutionResult[] batchExecutionFallback(String code, Integer languageId,
-            String[] testInputs, Long studentId, Exception e) {
-        log.error("Circuit breaker activated - Batch execution failed", e);
-
-        ExecutionResult[] results = new ExecutionResult[testInputs.length];
-        for (int i = 0; i < results.length; i++) {
-            results[i] = executionFallback(code, languageId, testInputs[i], studentId, e);
-        }
-        return results;
-    }
 }
@@ -0,0 +1,380 @@
+package com.examportal.execution.service;
+
+import com.examportal.antlr.SimpleJavaLexer;
+import com.examportal.execution.model.CostEstimate;
+import com.examportal.execution.model.CostEstimate.CostClass;
+import com.examportal.parser.lexer.CppLexer;
+import com.examportal.parser.lexer.PythonLexer;
+import com.examportal.parser.lexer.Token;
+import com.examportal.parser.lexer.TokenType;
+import lombok.extern.slf4j.Slf4j;
+import org.antlr.v4.runtime.CharStreams;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Submission Cost Estimator
+ *
+ * Token-level static estimate of how expensive a submission will be to run,
+ * used to route it before it reaches the sandbox. Code is classified as
+ * LIKELY_TLE when it contains:
+ * - an unbounded loop (while (true), for (;;), while True:) with no
+ *   break/return/throw/exit in its body
+ * - a function that calls itself with no conditional anywhere in its body
+ * - loops nested at least {@code execution.cost.max-loop-depth} deep
+ *
+ * Blocks are braces for Java/C++ and INDENT/DEDENT for Python. The estimate
+ * is a heuristic: LIKELY_TLE code still runs, only with tighter limits.
+ */
+@Slf4j
+@Component
+public class SubmissionCostEstimator {
+
+    private static final int MAX_CODE_LENGTH = 512 * 1024;
+
+    private static final Set<String> LOOP_KEYWORDS = Set.of("for", "while", "do");
+    private static final Set<String> BRANCH_TOKENS = Set.of(
+            "if", "else", "elif", "for", "while", "switch", "case", "?", "&&", "||", "and", "or",
+            "try", "catch", "except");
+    private static final Set<String> EXIT_TOKENS = Set.of(
+            "return", "throw", "raise", "exit", "_exit", "quit", "abort", "goto", "yield");
+    private static final Set<String> TRUE_LITERALS = Set.of("true", "True", "TRUE", "1");
+    private static final Set<String> HEADER_QUALIFIERS = Set.of(
+            "const", "noexcept", "override", "final", "throws", "volatile", ",", ".", "::");
+
+    private static final Set<String> PYTHON_KEYWORDS = Set.of(
+            "False", "None", "True", "and", "as", "assert", "async", "await", "break", "class",
+            "continue", "def", "del", "elif", "else", "except", "finally", "for", "from", "global",
+            "if", "import", "in", "is", "lambda", "nonlocal", "not", "or", "pass", "raise",
+            "return", "try", "while", "with", "yield");
+
+    private static final Set<String> CPP_RESERVED = Set.of(
+            "alignof", "and", "auto", "bool", "break", "case", "catch", "char", "class", "const",
+            "continue", "decltype", "default", "delete", "do", "double", "else", "enum", "float",
+            "for", "goto", "if", "int", "long", "namespace", "new", "not", "operator", "or",
+            "return", "short", "sizeof", "static_assert", "struct", "switch", "template", "throw",
+            "try", "typedef", "typename", "union", "unsigned", "using", "void", "while");
+
+    @Value("${execution.cost.max-loop-depth:5}")
+    private int maxLoopDepth = 5;
+
+    private record Tok(String text, boolean name) {
+    }
+
+    private enum FrameKind {
+        LOOP, SWITCH, FUNCTION, BLOCK
+    }
+
+    private static final class Frame {
+        final FrameKind kind;
+        int loops;
+        boolean doLoop;
+        boolean infinite;
+        boolean exited;
+        String functionName;
+        int paramCount = -1; // -1: unknown (Python), any call arity counts
+        boolean selfCall;
+        boolean branches;
+
+        Frame(FrameKind kind) {
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * Estimate the cost class of a submission
+     *
+     * @param language Verifier language name (java, python, cpp); other
+     *                 languages are analysed as C-like code
+     */
+    public CostEstimate estimate(String code, String language) {
+        if (code == null || code.isBlank() || code.length() > MAX_CODE_LENGTH) {
+            return CostEstimate.standard();
+        }
+        try {
+            String lang = language != null ? language.toLowerCase() : "";
+            boolean python = lang.startsWith("python");
+            List<Tok> tokens = switch (lang) {
+                case "java" -> javaTokens(code);
+                case "python", "python3" -> pythonTokens(code);
+                default -> cppTokens(code);
+            };
+            return analyse(tokens, python);
+        } catch (Exception e) {
+            // Never hold a submission back because the estimate failed
+            log.debug("Cost estimate failed, treating submission as standard: {}", e.getMessage());
+            return CostEstimate.standard();
+        }
+    }
+
+    private CostEstimate analyse(List<Tok> tokens, boolean python) {
+        List<String> reasons = new ArrayList<>();
+        Deque<Frame> frames = new ArrayDeque<>();
+        int parenDepth = 0;
+        int loopsOnStack = 0;
+        int maxDepth = 0;
+
+        int pendingLoops = 0;
+        boolean pendingDo = false;
+        boolean pendingInfinite = false;
+        boolean pendingExit = false;
+        boolean pendingSwitch = false;
+        String pendingFunction = null;
+        boolean afterDo = false;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            Tok tok = tokens.get(i);
+            String text = tok.text();
+            boolean trailerOfDo = afterDo && "while".equals(text);
+            afterDo = false;
+
+            switch (text) {
+                case "(", "[" -> parenDepth++;
+                case ")", "]" -> parenDepth = Math.max(0, parenDepth - 1);
+                default -> {
+                }
+            }
+
+            Frame function = innermost(frames, FrameKind.FUNCTION);
+            if (function != null && !tok.name() && BRANCH_TOKENS.contains(text)) {
+                function.branches = true;
+            }
+
+            if (!tok.name() && parenDepth == 0 && LOOP_KEYWORDS.contains(text) && !trailerOfDo) {
+                pendingLoops++;
+                pendingDo |= "do".equals(text);
+                pendingInfinite |= isInfiniteHeader(tokens, i, python);
+                maxDepth = Math.max(maxDepth, loopsOnStack + pendingLoops);
+                continue;
+            }
+
+            if (!tok.name() && "switch".equals(text)) {
+                pendingSwitch = true;
+            } else if (python && "def".equals(text) && i + 1 < tokens.size()) {
+                pendingFunction = tokens.get(i + 1).text();
+            } else if ("break".equals(text)) {
+                if (pendingLoops > 0) {
+                    pendingExit = true;
+                } else {
+                    for (Frame frame : frames) {
+                        if (frame.kind == FrameKind.LOOP || frame.kind == FrameKind.SWITCH) {
+                            frame.exited = true;
+                            break;
+                        }
+                        if (frame.kind == FrameKind.FUNCTION) {
+                            break;
+                        }
+                    }
+                }
+            } else if (EXIT_TOKENS.contains(text)) {
+                pendingExit |= pendingLoops > 0;
+                for (Frame frame : frames) {
+                    if (frame.kind == FrameKind.FUNCTION) {
+                        break;
+                    }
+                    frame.exited = true;
+                }
+            } else if (tok.name() && function != null && text.equals(function.functionName)
+                    && i + 1 < tokens.size() && "(".equals(tokens.get(i + 1).text())
+                    && (function.paramCount < 0 || function.paramCount == argumentCount(tokens, i + 1))) {
+                function.selfCall = true;
+            } else if ("{".equals(text)) {
+                Frame frame;
+                if (pendingLoops > 0) {
+                    frame = new Frame(FrameKind.LOOP);
+                    frame.loops = pendingLoops;
+                    frame.doLoop = pendingDo;
+                    frame.infinite = pendingInfinite;
+                    frame.exited = pendingExit;
+                } else if (pendingSwitch) {
+                    frame = new Frame(FrameKind.SWITCH);
+                } else if (pendingFunction != null) {
+                    frame = new Frame(FrameKind.FUNCTION);
+                    frame.functionName = pendingFunction;
+                } else {
+                    frame = python ? new Frame(FrameKind.BLOCK) : functionFrame(tokens, i);
+                }
+                frames.push(frame);
+                loopsOnStack += frame.loops;
+                pendingLoops = 0;
+                pendingDo = false;
+                pendingInfinite = false;
+                pendingExit = false;
+                pendingSwitch = false;
+                pendingFunction = null;
+            } else if ("}".equals(text) && !frames.isEmpty()) {
+                Frame frame = frames.pop();
+                loopsOnStack -= frame.loops;
+                afterDo = frame.doLoop;
+                if (frame.kind == FrameKind.LOOP && frame.infinite && !frame.exited) {
+                    reasons.add("Unbounded loop with no break, return or exit");
+                }
+                if (frame.kind == FrameKind.FUNCTION && frame.selfCall && !frame.branches) {
+                    reasons.add("Recursion without a base case in " + frame.functionName + "()");
+                }
+            } else if (";".equals(text) && parenDepth == 0 && pendingLoops > 0) {
+                // Loop with a single-statement body
+                if (pendingInfinite && !pendingExit) {
+                    reasons.add("Unbounded loop with no break, return or exit");
+                }
+                pendingLoops = 0;
+                pendingDo = false;
+                pendingInfinite = false;
+                pendingExit = false;
+            }
+        }
+
+        if (maxDepth >= maxLoopDepth) {
+            reasons.add("Loops nested " + maxDepth + " deep");
+        }
+
+        return CostEstimate.builder()
+                .costClass(reasons.isEmpty() ? CostClass.STANDARD : CostClass.LIKELY_TLE)
+                .maxLoopDepth(maxDepth)
+                .reasons(reasons)
+                .build();
+    }
+
+    private static Frame innermost(Deque<Frame> frames, FrameKind kind) {
+        for (Frame frame : frames) {
+            if (frame.kind == kind) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isInfiniteHeader(List<Tok> tokens, int i, boolean python) {
+        String keyword = tokens.get(i).text();
+        if (python) {
+            return "while".equals(keyword) && textAt(tokens, i + 2).equals(":")
+                    && TRUE_LITERALS.contains(textAt(tokens, i + 1));
+        }
+        if ("while".equals(keyword)) {
+            return textAt(tokens, i + 1).equals("(") && TRUE_LITERALS.contains(textAt(tokens, i + 2))
+                    && textAt(tokens, i + 3).equals(")");
+        }
+        return "for".equals(keyword) && textAt(tokens, i + 1).equals("(") && textAt(tokens, i + 2).equals(";")
+                && textAt(tokens, i + 3).equals(";") && textAt(tokens, i + 4).equals(")");
+    }
+
+    /**
+     * Function frame if the "{" at {@code brace} opens a Java/C++ function body
+     * ({@code name(params) [qualifiers] {}), otherwise a plain block
+     */
+    private static Frame functionFrame(List<Tok> tokens, int brace) {
+        int close = brace - 1;
+        while (close >= 0 && brace - close <= 8 && !")".equals(tokens.get(close).text())) {
+            Tok tok = tokens.get(close);
+            if (!tok.name() && !HEADER_QUALIFIERS.contains(tok.text())) {
+                return new Frame(FrameKind.BLOCK);
+            }
+            close--;
+        }
+        if (close < 0 || !")".equals(tokens.get(close).text())) {
+            return new Frame(FrameKind.BLOCK);
+        }
+
+        int depth = 0;
+        int open = close;
+        for (; open >= 0; open--) {
+            String text = tokens.get(open).text();
+            if (")".equals(text)) {
+                depth++;
+            } else if ("(".equals(text) && --depth == 0) {
+                break;
+            }
+        }
+        if (open < 1 || !tokens.get(open - 1).name() || textAt(tokens, open - 2).equals("new")) {
+            return new Frame(FrameKind.BLOCK);
+        }
+
+        Frame frame = new Frame(FrameKind.FUNCTION);
+        frame.functionName = tokens.get(open - 1).text();
+        frame.paramCount = argumentCount(tokens, open);
+        return frame;
+    }
+
+    /**
+     * Number of top-level comma-separated items in the parenthesised list at {@code open}
+     */
+    private static int argumentCount(List<Tok> tokens, int open) {
+        int depth = 0;
+        int commas = 0;
+        for (int i = open; i < tokens.size(); i++) {
+            String text = tokens.get(i).text();
+            if ("(".equals(text) || "[".equals(text) || "{".equals(text)) {
+                depth++;
+            } else if (")".equals(text) || "]".equals(text) || "}".equals(text)) {
+                if (--depth == 0) {
+                    return i == open + 1 ? 0 : commas + 1;
+                }
+            } else if (",".equals(text) && depth == 1) {
+                commas++;
+            }
+        }
+        return -1;
+    }
+
+    private static String textAt(List<Tok> tokens, int i) {
+        return i >= 0 && i < tokens.size() ? tokens.get(i).text() : "";
+    }
+
+    private static List<Tok> javaTokens(String code) {
+        SimpleJavaLexer lexer = new SimpleJavaLexer(CharStreams.fromString(code));
+        lexer.removeErrorListeners();
+
+        List<Tok> tokens = new ArrayList<>();
+        for (org.antlr.v4.runtime.Token token = lexer.nextToken();
+                token.getType() != org.antlr.v4.runtime.Token.EOF;
+                token = lexer.nextToken()) {
+            tokens.add(new Tok(token.getText(), token.getType() == SimpleJavaLexer.IDENTIFIER));
+        }
+        return tokens;
+    }
+
+    private static List<Tok> cppTokens(String code) {
+        List<Tok> tokens = new ArrayList<>();
+        for (Token token : CppLexer.tokenize(code).getTokens()) {
+            switch (token.type()) {
+                case NAME -> tokens.add(new Tok(token.text(), !CPP_RESERVED.contains(token.text())));
+                case NUMBER, STRING, OP -> tokens.add(new Tok(token.text(), false));
+                default -> {
+                    // NEWLINE, PREPROCESSOR, EOF
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static List<Tok> pythonTokens(String code) {
+        List<Token> source = PythonLexer.tokenize(code).getTokens();
+        List<Tok> tokens = new ArrayList<>();
+        for (int i = 0; i < source.size(); i++) {
+            Token token = source.get(i);
+            switch (token.type()) {
+                case NAME -> tokens.add(new Tok(token.text(), !PYTHON_KEYWORDS.contains(token.text())));
+                case NUMBER, STRING, OP -> tokens.add(new Tok(token.text(), false));
+                case INDENT -> tokens.add(new Tok("{", false));
+                case DEDENT -> tokens.add(new Tok("}", false));
+                case NEWLINE -> {
+                    // A header line ends in ":" NEWLINE INDENT; only simple statements end in ";"
+                    boolean opensBlock = i + 1 < source.size() && source.get(i + 1).type() == TokenType.INDENT;
+                    if (!opensBlock) {
+                        tokens.add(new Tok(";", false));
+                    }
+                }
+                default -> {
+                    // EOF
+                }
+            }
+        }
+        return tokens;
+    }
+}
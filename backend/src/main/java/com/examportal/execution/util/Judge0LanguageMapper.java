@@ -1,7 +1,9 @@
 package com.examportal.execution.util;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Judge0 Language Mapper
@@ -13,6 +15,9 @@ public class Judge0LanguageMapper {
 
     private static final Map<String, Integer> LANGUAGE_MAP = new HashMap<>();
 
+    private static final Pattern JAVA_CLASS = Pattern.compile("\\bclass\\s+\\w+");
+    private static final Pattern PYTHON_DEF = Pattern.compile("(?m)^\\s*(def|import|from)\\s");
+
     static {
         // Java
         LANGUAGE_MAP.put("JAVA", 62);
@@ -76,4 +81,48 @@ public class Judge0LanguageMapper {
     public static Map<String, Integer> getSupportedLanguages() {
         return new HashMap<>(LANGUAGE_MAP);
     }
+
+    /**
+     * Get the verifier language name (java, python, cpp, javascript) for a Judge0 language ID
+     */
+    public static String getLanguageName(Integer languageId) {
+        if (languageId == null) {
+            return "unknown";
+        }
+        return switch (languageId) {
+            case 62 -> "java";
+            case 70, 71 -> "python";
+            case 50, 54 -> "cpp";
+            case 63 -> "javascript";
+            default -> "unknown";
+        };
+    }
+
+    /**
+     * Infer the Judge0 language ID of stored code, which is saved without its language:
+     * the only allowed language if there is one, otherwise a guess from the code
+     * restricted to the allowed languages
+     */
+    public static Integer inferLanguageId(String code, List<Integer> allowedLanguageIds) {
+        if (allowedLanguageIds != null && allowedLanguageIds.size() == 1) {
+            return allowedLanguageIds.get(0);
+        }
+
+        int guess;
+        if (code.contains("#include")) {
+            guess = 54;
+        } else if (JAVA_CLASS.matcher(code).find() && code.contains("{")) {
+            guess = 62;
+        } else if (PYTHON_DEF.matcher(code).find() || !code.contains(";")) {
+            guess = 71;
+        } else {
+            guess = 54;
+        }
+
+        if (allowedLanguageIds == null || allowedLanguageIds.isEmpty()
+                || allowedLanguageIds.contains(guess) || (guess == 54 && allowedLanguageIds.contains(50))) {
+            return guess;
+        }
+        return allowedLanguageIds.get(0);
+    }
 }
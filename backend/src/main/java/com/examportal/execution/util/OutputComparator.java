@@ -0,0 +1,234 @@
+package com.examportal.execution.util;
+
+import com.examportal.execution.model.ComparisonMode;
+
+/**
+ * Output Comparator
+ *
+ * Compares program output with expected output in a single forward pass
+ * over both sequences, without copying, trimming or splitting them, and
+ * stops at the first mismatch. Runs in O(n) and allocates nothing, so
+ * MB-scale outputs can be graded without producing garbage.
+ *
+ * LINE_SET compares the multisets of lines through two independent 64-bit
+ * order-insensitive hashes, so it has no early exit and a negligible
+ * (~2^-64) chance of accepting a wrong answer.
+ */
+public final class OutputComparator {
+
+    public static final double DEFAULT_EPSILON = 1e-6;
+
+    private OutputComparator() {
+    }
+
+    public static boolean matches(CharSequence actual, CharSequence expected, ComparisonMode mode) {
+        return matches(actual, expected, mode, DEFAULT_EPSILON);
+    }
+
+    /**
+     * @param mode    Comparison mode, EXACT when null
+     * @param epsilon Absolute and relative tolerance for NUMERIC mode
+     */
+    public static boolean matches(CharSequence actual, CharSequence expected, ComparisonMode mode, double epsilon) {
+        CharSequence a = actual != null ? actual : "";
+        CharSequence e = expected != null ? expected : "";
+        if (mode == null) {
+            mode = ComparisonMode.EXACT;
+        }
+        return switch (mode) {
+            case EXACT -> exact(a, e);
+            case WHITESPACE -> tokens(a, e, false, 0);
+            case LINE_SET -> lineSet(a, e);
+            case NUMERIC -> tokens(a, e, true, epsilon);
+        };
+    }
+
+    private static boolean exact(CharSequence a, CharSequence e) {
+        int aStart = skipWhitespace(a, 0);
+        int eStart = skipWhitespace(e, 0);
+        int aEnd = trimEnd(a, aStart, a.length());
+        int eEnd = trimEnd(e, eStart, e.length());
+        if (aEnd - aStart != eEnd - eStart) {
+            return false;
+        }
+        for (int i = aStart, j = eStart; i < aEnd; i++, j++) {
+            if (a.charAt(i) != e.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean tokens(CharSequence a, CharSequence e, boolean numeric, double epsilon) {
+        int i = skipWhitespace(a, 0);
+        int j = skipWhitespace(e, 0);
+        while (i < a.length() && j < e.length()) {
+            int iEnd = tokenEnd(a, i);
+            int jEnd = tokenEnd(e, j);
+            if (!sameToken(a, i, iEnd, e, j, jEnd)
+                    && !(numeric && numbersClose(a, i, iEnd, e, j, jEnd, epsilon))) {
+                return false;
+            }
+            i = skipWhitespace(a, iEnd);
+            j = skipWhitespace(e, jEnd);
+        }
+        return i >= a.length() && j >= e.length();
+    }
+
+    private static boolean lineSet(CharSequence a, CharSequence e) {
+        // Aggregates over a's lines minus those over e's lines; all zero when the multisets match
+        long count = 0;
+        long sum1 = 0;
+        long sum2 = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            CharSequence s = pass == 0 ? a : e;
+            long sign = pass == 0 ? 1 : -1;
+            int length = s.length();
+            int lineStart = 0;
+            while (lineStart <= length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && s.charAt(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = trimEnd(s, lineStart, lineEnd);
+                if (contentEnd > lineStart) {
+                    long h1 = 0x84222325CBF29CE4L;
+                    long h2 = 0x9E3779B97F4A7C15L;
+                    for (int k = lineStart; k < contentEnd; k++) {
+                        char c = s.charAt(k);
+                        h1 = (h1 ^ c) * 0x100000001B3L;
+                        h2 = h2 * 31 + c;
+                    }
+                    count += sign;
+                    sum1 += sign * mix(h1);
+                    sum2 += sign * mix(h2 ^ 0xD6E8FEB86659FD93L);
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+        return count == 0 && sum1 == 0 && sum2 == 0;
+    }
+
+    private static boolean sameToken(CharSequence a, int aStart, int aEnd, CharSequence e, int eStart, int eEnd) {
+        if (aEnd - aStart != eEnd - eStart) {
+            return false;
+        }
+        for (int i = aStart, j = eStart; i < aEnd; i++, j++) {
+            if (a.charAt(i) != e.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean numbersClose(CharSequence a, int aStart, int aEnd, CharSequence e, int eStart, int eEnd,
+            double epsilon) {
+        double x = parseNumber(a, aStart, aEnd);
+        double y = parseNumber(e, eStart, eEnd);
+        if (Double.isNaN(x) || Double.isNaN(y)) {
+            return false;
+        }
+        double diff = Math.abs(x - y);
+        return diff <= epsilon || diff <= epsilon * Math.max(Math.abs(x), Math.abs(y));
+    }
+
+    /**
+     * Decimal number in s[start, end) ([+-]digits[.digits][(e|E)[+-]digits]), NaN if it is not one
+     */
+    static double parseNumber(CharSequence s, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0; // power of ten applied to the mantissa
+        boolean seenDigit = false;
+        for (; i < end && isDigit(s.charAt(i)); i++) {
+            seenDigit = true;
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (s.charAt(i) - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                scale++;
+            }
+        }
+        if (i < end && s.charAt(i) == '.') {
+            for (i++; i < end && isDigit(s.charAt(i)); i++) {
+                seenDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (s.charAt(i) - '0');
+                    scale--;
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                }
+            }
+        }
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+
+        if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                negativeExponent = s.charAt(i) == '-';
+                i++;
+            }
+            if (i >= end) {
+                return Double.NaN;
+            }
+            int exponent = 0;
+            for (; i < end && isDigit(s.charAt(i)); i++) {
+                exponent = Math.min(exponent * 10 + (s.charAt(i) - '0'), 100_000);
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (i != end) {
+            return Double.NaN;
+        }
+
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        double value = scale >= 0 ? mantissa * Math.pow(10, scale) : mantissa / Math.pow(10, -scale);
+        return negative ? -value : value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int skipWhitespace(CharSequence s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int tokenEnd(CharSequence s, int i) {
+        while (i < s.length() && !Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trimEnd(CharSequence s, int start, int end) {
+        while (end > start && Character.isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -3,12 +3,14 @@ package com.examportal.monitoring.controller;
 import com.examportal.monitoring.dto.ModeratorConnectRequest;
 import com.examportal.monitoring.dto.ModeratorTerminateRequest;
 import com.examportal.monitoring.dto.ModeratorWarningRequest;
+import com.examportal.monitoring.model.ExamStatusSnapshot;
 import com.examportal.monitoring.service.ModeratorMonitoringService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -18,6 +20,9 @@ import java.security.Principal;
  * 
  * WebSocket endpoints for moderator dashboard
  * Handles moderator connections, terminations, and warnings
+ *
+ * Only MODERATOR/ADMIN sessions reach these destinations (see
+ * StompAuthChannelInterceptor); each handler also checks department access
  */
 @Controller
 public class ModeratorWebSocketController {
@@ -32,13 +37,15 @@ public class ModeratorWebSocketController {
 
         /**
          * Moderator connects to exam
-         * Sends initial batch of student status
+         * Sends the exam's status snapshot to this session on /user/queue/exam-status
          */
         @MessageMapping("/monitoring/moderator/connect")
-        public void handleModeratorConnect(
+        @SendToUser(destinations = "/queue/exam-status", broadcast = false)
+        public ExamStatusSnapshot handleModeratorConnect(
                         @Payload ModeratorConnectRequest request,
                         SimpMessageHeaderAccessor headerAccessor,
                         Principal principal) {
+                moderatorService.verifyExamAccess(principal, request.getExamId());
                 String moderatorId = principal.getName();
                 log.info("Moderator {} connected to exam {}", moderatorId, request.getExamId());
 
@@ -52,7 +59,7 @@ public class ModeratorWebSocketController {
                 }
 
                 // Send initial student data
-                moderatorService.handleModeratorConnect(moderatorId, request.getExamId());
+                return moderatorService.handleModeratorConnect(moderatorId, request.getExamId());
         }
 
         /**
@@ -62,14 +69,10 @@ public class ModeratorWebSocketController {
         public void handleTermination(
                         @Payload ModeratorTerminateRequest request,
                         Principal principal) {
-                String moderatorId = principal.getName();
-                log.info("Moderator {} terminating student {}: {}",
-                                moderatorId, request.getStudentId(), request.getReason());
-
                 moderatorService.terminateStudent(
                                 request.getStudentId(),
-                                moderatorId,
-                                request.getReason());
+                                request.getReason(),
+                                principal);
         }
 
         /**
@@ -79,13 +82,9 @@ public class ModeratorWebSocketController {
         public void handleWarning(
                         @Payload ModeratorWarningRequest request,
                         Principal principal) {
-                String moderatorId = principal.getName();
-                log.info("Moderator {} sending warning to student {}",
-                                moderatorId, request.getStudentId());
-
                 moderatorService.sendWarning(
                                 request.getStudentId(),
-                                moderatorId,
-                                request.getMessage());
+                                request.getMessage(),
+                                principal);
         }
 }
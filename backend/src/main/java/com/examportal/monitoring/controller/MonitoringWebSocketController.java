@@ -1,20 +1,22 @@
 package com.examportal.monitoring.controller;
 
 import com.examportal.monitoring.model.ExamSession;
+import com.examportal.monitoring.model.ExamStatusSnapshot;
 import com.examportal.monitoring.model.StudentStatus;
+import com.examportal.monitoring.service.ModeratorMonitoringService;
 import com.examportal.monitoring.service.MonitoringBroadcastService;
 import com.examportal.monitoring.service.SessionManagerService;
-import com.examportal.security.CustomUserDetails;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
 import java.time.LocalDateTime;
 
 /**
@@ -25,6 +27,9 @@ import java.time.LocalDateTime;
  * Client messages go to /app/... (application prefix)
  * Server broadcasts go to /topic/... (topic prefix)
  * Private messages go to /user/.../queue/... (user prefix)
+ *
+ * Moderator handlers require a MODERATOR/ADMIN principal with access to the
+ * exam's department; anonymous or student sessions are refused
  */
 @Controller
 public class MonitoringWebSocketController {
@@ -33,21 +38,23 @@ public class MonitoringWebSocketController {
 
     private final SessionManagerService sessionManager;
     private final MonitoringBroadcastService broadcastService;
+    private final ModeratorMonitoringService moderatorService;
 
-    public MonitoringWebSocketController(SessionManagerService sessionManager, MonitoringBroadcastService broadcastService) {
+    public MonitoringWebSocketController(SessionManagerService sessionManager, MonitoringBroadcastService broadcastService,
+            ModeratorMonitoringService moderatorService) {
         this.sessionManager = sessionManager;
         this.broadcastService = broadcastService;
+        this.moderatorService = moderatorService;
     }
 
     /**
      * Student connects to exam session
      * 
      * Client sends: /app/exam/{examId}/connect
-     * Server broadcasts: /topic/exam/{examId}/monitoring
+     * Server broadcasts: /topic/exam/{examId}/monitoring (next delta tick)
      */
     @MessageMapping("/exam/{examId}/connect")
-    @SendTo("/topic/exam/{examId}/monitoring")
-    public StudentStatus handleConnect(
+    public void handleConnect(
             @DestinationVariable Long examId,
             @Payload ConnectMessage message,
             SimpMessageHeaderAccessor headerAccessor) {
@@ -77,7 +84,7 @@ public class MonitoringWebSocketController {
                 .tabSwitchCount(0)
                 .build();
 
-        return status;
+        broadcastService.broadcastStudentStatus(examId, status);
     }
 
     /**
@@ -152,23 +159,31 @@ public class MonitoringWebSocketController {
 
     /**
      * Moderator requests full student list
+     *
+     * Answered to the requesting session only, from the node's materialized
+     * view, on /user/queue/exam-status
      */
     @MessageMapping("/exam/{examId}/moderator/request-status")
-    public void handleStatusRequest(
+    @SendToUser(destinations = "/queue/exam-status", broadcast = false)
+    public ExamStatusSnapshot handleStatusRequest(
             @DestinationVariable Long examId,
-            @AuthenticationPrincipal CustomUserDetails moderator) {
-        
-        log.info("Moderator {} requesting status for exam {}", moderator.getId(), examId);
+            Principal moderator) {
 
-        // Get all active sessions for this exam
-        var sessions = sessionManager.getActiveSessionsForExam(examId);
-        
-        // Convert to StudentStatus and broadcast
-        var statusList = sessions.stream()
-                .map(this::convertToStudentStatus)
-                .toList();
+        moderatorService.verifyExamAccess(moderator, examId);
+        log.info("Moderator {} requesting status for exam {}", moderator.getName(), examId);
 
-        broadcastService.broadcastBatchStatus(examId, statusList);
+        return moderatorService.getStatusSnapshot(examId);
+    }
+
+    /**
+     * Snapshot for a moderator joining late: subscribing to
+     * /app/exam/{examId}/snapshot returns it in one frame; deltas on
+     * /topic/exam/{examId}/monitoring with a greater version follow
+     */
+    @SubscribeMapping("/exam/{examId}/snapshot")
+    public ExamStatusSnapshot subscribeSnapshot(@DestinationVariable Long examId, Principal moderator) {
+        moderatorService.verifyExamAccess(moderator, examId);
+        return moderatorService.getStatusSnapshot(examId);
     }
 
     /**
@@ -178,10 +193,17 @@ public class MonitoringWebSocketController {
     public void handleModeratorTermination(
             @DestinationVariable Long examId,
             @Payload TerminationRequest request,
-            @AuthenticationPrincipal CustomUserDetails moderator) {
-        
-        log.warn("Moderator {} terminating student {} in exam {}: {}", 
-                moderator.getId(), request.getStudentId(), examId, request.getReason());
+            Principal moderator) {
+
+        // Moderator of the exam's department, and the session must belong to that exam
+        moderatorService.verifyExamAccess(moderator, examId);
+        ExamSession session = sessionManager.getSession(request.getSessionId());
+        if (session == null || !examId.equals(session.getExamId())) {
+            throw new SecurityException("Session " + request.getSessionId() + " is not part of exam " + examId);
+        }
+
+        log.warn("Moderator {} terminating student {} in exam {}: {}",
+                moderator.getName(), request.getStudentId(), examId, request.getReason());
 
         // Update session status
         sessionManager.terminateSession(request.getSessionId());
@@ -207,32 +229,6 @@ public class MonitoringWebSocketController {
         broadcastService.broadcastStudentStatus(examId, status);
     }
 
-    /**
-     * Convert ExamSession to StudentStatus
-     */
-    private StudentStatus convertToStudentStatus(ExamSession session) {
-        StudentStatus status = new StudentStatus();
-        status.setStudentId(session.getStudentId());
-        status.setStudentName(session.getStudentName());
-        status.setSessionId(session.getId());
-        status.setConnectionStatus(session.isHeartbeatStale() ? 
-                StudentStatus.ConnectionStatus.OFFLINE : 
-                StudentStatus.ConnectionStatus.ONLINE);
-        status.setActivityStatus(StudentStatus.ActivityStatus.IDLE);
-        status.setViolationCount(session.getViolationCount());
-        // Calculate status color based on violation count
-        int violations = session.getViolationCount() != null ? session.getViolationCount() : 0;
-        if (violations > 5) {
-            status.setStatusColor(StudentStatus.StatusColor.RED);
-        } else if (violations > 2) {
-            status.setStatusColor(StudentStatus.StatusColor.YELLOW);
-        } else {
-            status.setStatusColor(StudentStatus.StatusColor.GREEN);
-        }
-        status.setLastActivity(session.getLastHeartbeat());
-        return status;
-    }
-
     // Message DTOs
     public static class ConnectMessage {
         private Long studentId;
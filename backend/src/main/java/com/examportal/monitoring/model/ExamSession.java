@@ -33,6 +33,7 @@ public class ExamSession {
     
     private String webSocketSessionId;
     private LocalDateTime lastHeartbeat;
+    private LocalDateTime offlineSince; // set by the heartbeat sweeper, cleared by the next heartbeat
 
     public enum SessionStatus {
         ACTIVE,
@@ -49,9 +50,11 @@ public class ExamSession {
     }
 
     /**
-     * Check if heartbeat is stale (>30 seconds)
+     * Check if heartbeat is stale: swept as offline, or silent for more than
+     * 30 seconds and not swept yet
      */
     public boolean isHeartbeatStale() {
+        if (offlineSince != null) return true;
         if (lastHeartbeat == null) return true;
         return LocalDateTime.now().minusSeconds(30).isAfter(lastHeartbeat);
     }
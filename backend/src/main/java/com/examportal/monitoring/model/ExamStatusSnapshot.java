@@ -0,0 +1,25 @@
+package com.examportal.monitoring.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Full moderator dashboard state for one exam
+ *
+ * version is that of the last delta frame folded in; clients apply only
+ * delta frames whose version header is greater
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamStatusSnapshot {
+
+    private Long examId;
+    private long version;
+    private List<StudentStatus> students;
+}
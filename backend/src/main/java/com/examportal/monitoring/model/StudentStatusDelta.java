@@ -0,0 +1,36 @@
+package com.examportal.monitoring.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Changed fields of one student's status since the last tick; unchanged
+ * fields are null and left out of the frame
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StudentStatusDelta {
+
+    private Long studentId;
+    private String studentName;
+    private String email;
+    private Long sessionId;
+
+    private StudentStatus.ConnectionStatus connectionStatus;
+    private StudentStatus.ActivityStatus activityStatus;
+    private Integer violationCount;
+    private StudentStatus.StatusColor statusColor;
+
+    private LocalDateTime lastActivity;
+    private Integer currentQuestion;
+    private Integer completedQuestions;
+    private StudentStatus.CameraStatus cameraStatus;
+    private Integer tabSwitchCount;
+}
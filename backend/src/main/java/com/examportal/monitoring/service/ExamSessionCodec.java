@@ -0,0 +1,111 @@
+package com.examportal.monitoring.service;
+
+import com.examportal.monitoring.model.ExamSession;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exam Session Codec
+ *
+ * Fixed schema for the exam:session:{id} Redis hash: one short field name
+ * per attribute, plain decimal strings for numbers and epoch millis for
+ * timestamps. No type metadata is stored and decoding is a handful of
+ * parseLong calls, so the hash stays small (listpack-encoded) and reads do
+ * not depend on how a JSON library chose to type a number.
+ */
+public final class ExamSessionCodec {
+
+    public static final String STUDENT_ID = "s";
+    public static final String EXAM_ID = "e";
+    public static final String EXAM_TITLE = "t";
+    public static final String STUDENT_NAME = "n";
+    public static final String DEPARTMENT = "d";
+    public static final String STATUS = "st";
+    public static final String VIOLATION_COUNT = "v";
+    public static final String STARTED_AT = "sa";
+    public static final String EXPIRES_AT = "ea";
+    public static final String WEBSOCKET_SESSION_ID = "ws";
+    public static final String LAST_HEARTBEAT = "hb";
+    public static final String OFFLINE_SINCE = "off";
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private ExamSessionCodec() {
+    }
+
+    /**
+     * Hash fields for a session; null attributes are left out
+     */
+    public static Map<String, String> encode(ExamSession session) {
+        Map<String, String> fields = new HashMap<>();
+        putIfPresent(fields, STUDENT_ID, session.getStudentId());
+        putIfPresent(fields, EXAM_ID, session.getExamId());
+        putIfPresent(fields, EXAM_TITLE, session.getExamTitle());
+        putIfPresent(fields, STUDENT_NAME, session.getStudentName());
+        putIfPresent(fields, DEPARTMENT, session.getDepartment());
+        putIfPresent(fields, STATUS, session.getStatus() != null ? session.getStatus().name() : null);
+        putIfPresent(fields, VIOLATION_COUNT, session.getViolationCount());
+        putIfPresent(fields, STARTED_AT, encodeTime(session.getStartedAt()));
+        putIfPresent(fields, EXPIRES_AT, encodeTime(session.getExpiresAt()));
+        putIfPresent(fields, WEBSOCKET_SESSION_ID, session.getWebSocketSessionId());
+        putIfPresent(fields, LAST_HEARTBEAT, encodeTime(session.getLastHeartbeat()));
+        putIfPresent(fields, OFFLINE_SINCE, encodeTime(session.getOfflineSince()));
+        return fields;
+    }
+
+    /**
+     * Session from its hash fields, or null if the hash is empty (missing key)
+     *
+     * @throws IllegalArgumentException if a field does not match the schema
+     */
+    public static ExamSession decode(Long sessionId, Map<?, ?> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+
+        ExamSession session = new ExamSession();
+        session.setId(sessionId);
+        session.setStudentId(decodeLong(get(fields, STUDENT_ID)));
+        session.setExamId(decodeLong(get(fields, EXAM_ID)));
+        session.setExamTitle(get(fields, EXAM_TITLE));
+        session.setStudentName(get(fields, STUDENT_NAME));
+        session.setDepartment(get(fields, DEPARTMENT));
+        String status = get(fields, STATUS);
+        session.setStatus(status != null ? ExamSession.SessionStatus.valueOf(status) : null);
+        String violations = get(fields, VIOLATION_COUNT);
+        session.setViolationCount(violations != null ? Integer.parseInt(violations) : null);
+        session.setStartedAt(decodeTime(get(fields, STARTED_AT)));
+        session.setExpiresAt(decodeTime(get(fields, EXPIRES_AT)));
+        session.setWebSocketSessionId(get(fields, WEBSOCKET_SESSION_ID));
+        session.setLastHeartbeat(decodeTime(get(fields, LAST_HEARTBEAT)));
+        session.setOfflineSince(decodeTime(get(fields, OFFLINE_SINCE)));
+        return session;
+    }
+
+    public static String encodeTime(LocalDateTime time) {
+        return time != null ? Long.toString(time.atZone(ZONE).toInstant().toEpochMilli()) : null;
+    }
+
+    public static LocalDateTime decodeTime(String millis) {
+        return millis != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZONE) : null;
+    }
+
+    public static Long decodeLong(String value) {
+        return value != null ? Long.valueOf(value) : null;
+    }
+
+    private static void putIfPresent(Map<String, String> fields, String name, Object value) {
+        if (value != null) {
+            fields.put(name, value.toString());
+        }
+    }
+
+    private static String get(Map<?, ?> fields, String name) {
+        Object value = fields.get(name);
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,197 @@
+package com.examportal.monitoring.service;
+
+import com.examportal.monitoring.model.ExamSession;
+import com.examportal.monitoring.model.StudentStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Heartbeat Buffer
+ *
+ * Write-behind buffer for session heartbeats. Each node keeps only the
+ * latest heartbeat per session in memory and flushes them on a fixed
+ * interval. A batch is two pipelines: one single-key script per session
+ * that sets the heartbeat field and extends the TTL together, then the
+ * per-exam heartbeat ZSET scores that {@link HeartbeatSweeper} scans. Every
+ * key a command touches is passed as a key, so this works on Redis Cluster.
+ * A session is touched at most once per flush however often it beats, and
+ * the final flush runs on shutdown.
+ *
+ * The script skips sessions whose hash no longer exists, so a flush never
+ * resurrects a session that was deleted or expired in the meantime. It
+ * also clears the offline marker {@link HeartbeatSweeper} writes; a session
+ * that had the marker, or re-enters its heartbeat set, was swept as
+ * offline, so it is announced ONLINE again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HeartbeatBuffer {
+
+    // KEYS[1]: session hash; ARGV[1]: TTL seconds, ARGV[2]: heartbeat millis
+    // Returns "examId:studentId:status:wasOffline" if the session exists, nil otherwise
+    private static final RedisScript<String> FLUSH_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+              return false
+            end
+            redis.call('HSET', KEYS[1], '%1$s', ARGV[2])
+            local wasOffline = redis.call('HDEL', KEYS[1], '%5$s')
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            local f = redis.call('HMGET', KEYS[1], '%2$s', '%3$s', '%4$s')
+            return (f[1] or '') .. ':' .. (f[2] or '') .. ':' .. (f[3] or '') .. ':' .. wasOffline
+            """.formatted(ExamSessionCodec.LAST_HEARTBEAT, ExamSessionCodec.EXAM_ID, ExamSessionCodec.STUDENT_ID,
+            ExamSessionCodec.STATUS, ExamSessionCodec.OFFLINE_SINCE), String.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MonitoringBroadcastService broadcastService;
+
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    @Value("${monitoring.heartbeat.batch-size:500}")
+    private int batchSize = 500;
+
+    /**
+     * Record a heartbeat; later heartbeats for the same session replace earlier ones
+     */
+    public void record(Long sessionId, LocalDateTime at) {
+        pending.merge(sessionId, toMillis(at), Math::max);
+    }
+
+    /**
+     * Heartbeat recorded on this node but not yet flushed, or null
+     */
+    public LocalDateTime pending(Long sessionId) {
+        Long millis = pending.get(sessionId);
+        return millis != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()) : null;
+    }
+
+    /**
+     * Drop a buffered heartbeat, e.g. because the session was deleted
+     */
+    public void discard(Long sessionId) {
+        pending.remove(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${monitoring.heartbeat.flush-interval-ms:3000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Long> sessionIds = new ArrayList<>(pending.keySet());
+        for (int from = 0; from < sessionIds.size(); from += batchSize) {
+            List<Long> batch = sessionIds.subList(from, Math.min(from + batchSize, sessionIds.size()));
+
+            List<String> keys = new ArrayList<>(batch.size());
+            List<Long> drained = new ArrayList<>(batch.size());
+            List<Long> heartbeats = new ArrayList<>(batch.size());
+            List<String[]> args = new ArrayList<>(batch.size());
+            String ttl = Long.toString(SessionManagerService.SESSION_TTL_SECONDS);
+            for (Long sessionId : batch) {
+                Long millis = pending.remove(sessionId);
+                if (millis != null) {
+                    keys.add(SessionManagerService.SESSION_PREFIX + sessionId);
+                    drained.add(sessionId);
+                    heartbeats.add(millis);
+                    args.add(new String[] { ttl, Long.toString(millis) });
+                }
+            }
+            if (keys.isEmpty()) {
+                continue;
+            }
+
+            List<String> sessions;
+            try {
+                sessions = PipelinedScript.evalEach(redisTemplate, FLUSH_SCRIPT, keys, args);
+            } catch (Exception e) {
+                log.warn("Heartbeat flush of {} sessions failed, will retry: {}", keys.size(), e.getMessage());
+                // Put the drained heartbeats back unless a newer one arrived meanwhile
+                for (int i = 0; i < drained.size(); i++) {
+                    pending.merge(drained.get(i), heartbeats.get(i), Math::max);
+                }
+                continue;
+            }
+
+            scoreActiveSessions(drained, heartbeats, sessions);
+        }
+    }
+
+    /**
+     * Score active sessions in their exam's heartbeat ZSET and announce those
+     * that were swept as offline
+     *
+     * @param sessions "examId:studentId:status:wasOffline" per session, null if it no longer exists
+     */
+    private void scoreActiveSessions(List<Long> sessionIds, List<Long> heartbeats, List<String> sessions) {
+        List<Integer> active = new ArrayList<>();
+        List<String[]> fields = new ArrayList<>();
+        for (int i = 0; i < sessions.size(); i++) {
+            String[] f = sessions.get(i) != null ? sessions.get(i).split(":", -1) : null;
+            if (f != null && !f[0].isEmpty() && ExamSession.SessionStatus.ACTIVE.name().equals(f[2])) {
+                active.add(i);
+                fields.add(f);
+            }
+        }
+        if (active.isEmpty()) {
+            return;
+        }
+
+        List<Object> added;
+        try {
+            added = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(@org.springframework.lang.NonNull RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (int j = 0; j < active.size(); j++) {
+                        int i = active.get(j);
+                        String examId = fields.get(j)[0];
+                        ops.opsForZSet().add(SessionManagerService.heartbeatKey(Long.valueOf(examId)),
+                                sessionIds.get(i).toString(), heartbeats.get(i));
+                        ops.opsForSet().add(SessionManagerService.HEARTBEAT_EXAMS_KEY, examId);
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Scoring {} heartbeats failed: {}", active.size(), e.getMessage());
+            return;
+        }
+
+        for (int j = 0; j < active.size(); j++) {
+            String[] f = fields.get(j);
+            // One ZADD then one SADD per session; ZADD is true when the sweeper had removed it
+            boolean revived = "1".equals(f[3]) || Boolean.TRUE.equals(added.get(2 * j));
+            if (revived && !f[1].isEmpty()) {
+                broadcastService.broadcastConnectionStatus(Long.valueOf(f[0]), Long.valueOf(f[1]),
+                        StudentStatus.ConnectionStatus.ONLINE);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,119 @@
+package com.examportal.monitoring.service;
+
+import com.examportal.monitoring.model.StudentStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Heartbeat Sweeper
+ *
+ * Pushes OFFLINE to moderators for sessions that stopped sending
+ * heartbeats, instead of leaving it to the next dashboard read. Per exam,
+ * one script call on the heartbeat ZSET finds the sessions older than the
+ * cutoff and removes them, so only the node whose sweep claimed a session
+ * broadcasts it. The claimed sessions are then marked offline in their
+ * hash in one pipeline, which is what
+ * {@link com.examportal.monitoring.model.ExamSession#isHeartbeatStale()}
+ * reads. The next heartbeat of a swept session clears the marker and puts
+ * it back (see {@link HeartbeatBuffer}).
+ *
+ * Every script declares the keys it touches in KEYS, so exams and sessions
+ * may live on different Redis Cluster slots.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HeartbeatSweeper {
+
+    // KEYS[1]: exam heartbeat ZSET; ARGV[1]: cutoff millis
+    // Returns the number of sessions left, then each session ID swept
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local swept = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1])
+            for i = 1, #swept, 500 do
+              redis.call('ZREM', KEYS[1], unpack(swept, i, math.min(i + 499, #swept)))
+            end
+            table.insert(swept, 1, tostring(redis.call('ZCARD', KEYS[1])))
+            return swept
+            """, List.class);
+
+    // KEYS[1]: session hash; ARGV[1]: sweep millis
+    // Returns the student ID if the session exists, nil otherwise
+    private static final RedisScript<String> MARK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+              return false
+            end
+            redis.call('HSET', KEYS[1], '%1$s', ARGV[1])
+            return redis.call('HGET', KEYS[1], '%2$s')
+            """.formatted(ExamSessionCodec.OFFLINE_SINCE, ExamSessionCodec.STUDENT_ID), String.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MonitoringBroadcastService broadcastService;
+
+    @Value("${monitoring.heartbeat.stale-after-ms:30000}")
+    private long staleAfterMs = 30_000;
+
+    @Scheduled(fixedDelayString = "${monitoring.heartbeat.sweep-interval-ms:1000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        String cutoff = Long.toString(now - staleAfterMs);
+        String[] markArgs = { Long.toString(now) };
+
+        List<String> keys = new ArrayList<>();
+        List<String[]> args = new ArrayList<>();
+        List<Long> examIds = new ArrayList<>();
+        List<String> studentIds;
+        try {
+            Set<String> exams = redisTemplate.opsForSet().members(SessionManagerService.HEARTBEAT_EXAMS_KEY);
+            if (exams == null || exams.isEmpty()) {
+                return;
+            }
+            for (String examId : exams) {
+                List<?> claimed = redisTemplate.execute(CLAIM_SCRIPT,
+                        List.of(SessionManagerService.heartbeatKey(Long.valueOf(examId))), cutoff);
+                if (claimed == null || claimed.isEmpty()) {
+                    continue;
+                }
+                if ("0".equals(claimed.get(0).toString())) {
+                    // A session scored after this SREM re-adds the exam on its next flush
+                    redisTemplate.opsForSet().remove(SessionManagerService.HEARTBEAT_EXAMS_KEY, examId);
+                }
+                for (Object sessionId : claimed.subList(1, claimed.size())) {
+                    keys.add(SessionManagerService.SESSION_PREFIX + sessionId);
+                    args.add(markArgs);
+                    examIds.add(Long.valueOf(examId));
+                }
+            }
+            if (keys.isEmpty()) {
+                return;
+            }
+            studentIds = PipelinedScript.evalEach(redisTemplate, MARK_SCRIPT, keys, args);
+        } catch (Exception e) {
+            log.debug("Heartbeat sweep failed: {}", e.getMessage());
+            return;
+        }
+
+        int offline = 0;
+        for (int i = 0; i < studentIds.size(); i++) {
+            String studentId = studentIds.get(i);
+            if (studentId != null) {
+                broadcastService.broadcastConnectionStatus(examIds.get(i), Long.valueOf(studentId),
+                        StudentStatus.ConnectionStatus.OFFLINE);
+                offline++;
+            }
+        }
+        if (offline > 0) {
+            log.info("Marked {} silent sessions offline", offline);
+        }
+    }
+}
@@ -1,31 +1,100 @@
 package com.examportal.monitoring.service;
 
+import com.examportal.entity.Test;
+import com.examportal.monitoring.model.ExamSession;
+import com.examportal.monitoring.model.ExamStatusSnapshot;
+import com.examportal.monitoring.model.StudentStatus;
+import com.examportal.repository.TestRepository;
+import com.examportal.security.DepartmentSecurityService;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.security.Principal;
+import java.util.List;
+
 @Service
 public class ModeratorMonitoringService {
 
     private static final Logger log = LoggerFactory.getLogger(ModeratorMonitoringService.class);
 
     private final SessionManagerService sessionManager;
+    private final StatusDeltaAggregator deltaAggregator;
+    private final DepartmentSecurityService securityService;
+    private final TestRepository testRepository;
 
-    public ModeratorMonitoringService(SessionManagerService sessionManager) {
+    public ModeratorMonitoringService(SessionManagerService sessionManager, StatusDeltaAggregator deltaAggregator,
+            DepartmentSecurityService securityService, TestRepository testRepository) {
         this.sessionManager = sessionManager;
+        this.deltaAggregator = deltaAggregator;
+        this.securityService = securityService;
+        this.testRepository = testRepository;
+    }
+
+    /**
+     * Verify a STOMP principal is a moderator or admin of the exam's department
+     */
+    public void verifyExamAccess(Principal moderator, Long examId) {
+        String department = examId != null
+                ? testRepository.findById(examId).map(Test::getDepartment).orElse(null)
+                : null;
+        securityService.verifyModeratorAccess(moderator, department);
     }
 
-    public void handleModeratorConnect(String moderatorId, Long examId) {
+    /**
+     * Verify a STOMP principal is a moderator or admin of the session's department
+     */
+    public void verifySessionAccess(Principal moderator, Long sessionId) {
+        ExamSession session = sessionId != null ? sessionManager.getSession(sessionId) : null;
+        securityService.verifyModeratorAccess(moderator, session != null ? session.getDepartment() : null);
+    }
+
+    public ExamStatusSnapshot handleModeratorConnect(String moderatorId, Long examId) {
         log.info("Moderator {} connected to exam {}", moderatorId, examId);
+        return getStatusSnapshot(examId);
+    }
+
+    /**
+     * Dashboard snapshot from this node's materialized view; Redis is read
+     * only to seed or refresh the view
+     */
+    public ExamStatusSnapshot getStatusSnapshot(Long examId) {
+        return deltaAggregator.snapshot(examId, () -> loadStatuses(examId));
+    }
+
+    private List<StudentStatus> loadStatuses(Long examId) {
+        return sessionManager.getActiveSessionsForExam(examId).stream()
+                .map(ModeratorMonitoringService::toStudentStatus)
+                .toList();
+    }
+
+    /**
+     * Convert ExamSession to StudentStatus
+     */
+    private static StudentStatus toStudentStatus(ExamSession session) {
+        StudentStatus status = new StudentStatus();
+        status.setStudentId(session.getStudentId());
+        status.setStudentName(session.getStudentName());
+        status.setSessionId(session.getId());
+        status.setConnectionStatus(session.isHeartbeatStale() ?
+                StudentStatus.ConnectionStatus.OFFLINE :
+                StudentStatus.ConnectionStatus.ONLINE);
+        status.setActivityStatus(StudentStatus.ActivityStatus.IDLE);
+        status.setViolationCount(session.getViolationCount());
+        status.calculateStatusColor(session.getViolationCount() != null ? session.getViolationCount() : 0);
+        status.setLastActivity(session.getLastHeartbeat());
+        return status;
     }
 
-    public void terminateStudent(Long sessionId, String reason, String moderatorId) {
-        log.warn("Moderator {} terminating session {} - Reason: {}", moderatorId, sessionId, reason);
+    public void terminateStudent(Long sessionId, String reason, Principal moderator) {
+        verifySessionAccess(moderator, sessionId);
+        log.warn("Moderator {} terminating session {} - Reason: {}", moderator.getName(), sessionId, reason);
         sessionManager.terminateSession(sessionId);
     }
 
-    public void sendWarning(Long sessionId, String message, String moderatorId) {
-        log.info("Moderator {} sending warning to session {}: {}", moderatorId, sessionId, message);
+    public void sendWarning(Long sessionId, String message, Principal moderator) {
+        verifySessionAccess(moderator, sessionId);
+        log.info("Moderator {} sending warning to session {}: {}", moderator.getName(), sessionId, message);
         // Warning logic handled by broadcast service, SessionManager update not
         // strictly required here
     }
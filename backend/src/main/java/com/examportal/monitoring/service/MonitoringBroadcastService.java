@@ -10,7 +10,8 @@ import java.util.List;
  * Monitoring Broadcast Service
  * 
  * Broadcasts real-time updates to moderator dashboards via WebSocket
- * Uses RabbitMQ for horizontal scaling - broadcasts reach all server instances
+ * With websocket.broker.mode=relay the broker is RabbitMQ's STOMP plugin, so
+ * broadcasts reach moderators connected to any server instance
  * 
  * Target: <1s latency from event to moderator screen
  */
@@ -19,25 +20,25 @@ public class MonitoringBroadcastService {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MonitoringBroadcastService.class);
     private final SimpMessagingTemplate messagingTemplate;
+    private final StatusDeltaAggregator deltaAggregator;
 
-    public MonitoringBroadcastService(SimpMessagingTemplate messagingTemplate) {
+    public MonitoringBroadcastService(SimpMessagingTemplate messagingTemplate, StatusDeltaAggregator deltaAggregator) {
         this.messagingTemplate = messagingTemplate;
+        this.deltaAggregator = deltaAggregator;
     }
 
     /**
      * Broadcast student status to exam monitoring channel
      * Moderators subscribed to /topic/exam/{examId}/monitoring receive this
+     * with the next tick, merged with other updates into one delta list
      * 
      * @param examId Exam ID
-     * @param status Student status update
+     * @param status Student status update; null fields are left unchanged
      */
     public void broadcastStudentStatus(Long examId, StudentStatus status) {
-        String destination = "/topic/exam/" + examId + "/monitoring";
-
         try {
             if (status != null) {
-                messagingTemplate.convertAndSend(destination, status);
-                log.debug("Broadcast status for student {} to exam {}", status.getStudentId(), examId);
+                deltaAggregator.submit(examId, status);
             }
         } catch (Exception e) {
             log.error("Error broadcasting student status", e);
@@ -62,14 +63,16 @@ public class MonitoringBroadcastService {
 
     /**
      * Send private message to specific student
-     * Used for violation alerts, exam termination notices
+     * Used for violation alerts, exam termination notices, execution results
+     *
+     * Delivered as /user/{studentId}/queue/{messageType} to every session the
+     * student authenticated over STOMP; the client subscribes to
+     * /user/queue/{messageType}
      */
     public void sendToStudent(Long studentId, String messageType, Object payload) {
-        String destination = "/user/" + studentId + "/queue/" + messageType;
-
         try {
             if (payload != null) {
-                messagingTemplate.convertAndSend(destination, payload);
+                messagingTemplate.convertAndSendToUser(studentId.toString(), "/queue/" + messageType, payload);
                 log.debug("Sent {} message to student {}", messageType, studentId);
             }
         } catch (Exception e) {
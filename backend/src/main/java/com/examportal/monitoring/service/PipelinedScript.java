@@ -0,0 +1,54 @@
+package com.examportal.monitoring.service;
+
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pipelined Script
+ *
+ * Runs a single-key Lua script once per key in one pipeline. Every call
+ * declares its only key in KEYS, so keys may live on different Redis
+ * Cluster slots. The script is loaded up front, so EVALSHA cannot miss
+ * inside the pipeline where the usual EVAL fallback is unavailable.
+ */
+final class PipelinedScript {
+
+    private PipelinedScript() {
+    }
+
+    /**
+     * @param script returns a string or nil
+     * @param args   ARGV for each key, in key order
+     * @return the script's result for each key, in key order
+     */
+    static List<String> evalEach(StringRedisTemplate redisTemplate, RedisScript<String> script,
+            List<String> keys, List<String[]> args) {
+        byte[] body = script.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(body));
+
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < keys.size(); i++) {
+                String[] keyArgs = args.get(i);
+                byte[][] keysAndArgs = new byte[keyArgs.length + 1][];
+                keysAndArgs[0] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+                for (int a = 0; a < keyArgs.length; a++) {
+                    keysAndArgs[a + 1] = keyArgs[a].getBytes(StandardCharsets.UTF_8);
+                }
+                connection.scriptingCommands().evalSha(script.getSha1(), ReturnType.VALUE, 1, keysAndArgs);
+            }
+            return null;
+        });
+
+        List<String> values = new ArrayList<>(results.size());
+        for (Object result : results) {
+            values.add(result != null ? result.toString() : null);
+        }
+        return values;
+    }
+}
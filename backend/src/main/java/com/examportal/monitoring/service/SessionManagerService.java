@@ -1,13 +1,21 @@
 package com.examportal.monitoring.service;
 
 import com.examportal.monitoring.model.ExamSession;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 import java.util.Objects;
 
 /**
@@ -20,21 +28,36 @@ import java.util.Objects;
  * - Redis stores session data with 4-hour TTL
  * - WebSocket session ID maps to exam session
  * - Heartbeat mechanism detects disconnections
+ * - Active sessions are indexed globally, per exam and per department;
+ *   the index sets change in the same MULTI/EXEC as the session itself
+ * - Session hashes use the fixed string schema of {@link ExamSessionCodec}
+ * - Heartbeats are buffered per node and written behind by {@link HeartbeatBuffer}
+ * - Active sessions are also scored by last heartbeat in a ZSET per exam,
+ *   which {@link HeartbeatSweeper} scans for sessions that went silent
  */
 @Service
 public class SessionManagerService {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(SessionManagerService.class);
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final HeartbeatBuffer heartbeatBuffer;
 
-    public SessionManagerService(RedisTemplate<String, Object> redisTemplate) {
+    public SessionManagerService(StringRedisTemplate redisTemplate, HeartbeatBuffer heartbeatBuffer) {
         this.redisTemplate = redisTemplate;
+        this.heartbeatBuffer = heartbeatBuffer;
     }
 
-    private static final String SESSION_PREFIX = "exam:session:";
+    static final String SESSION_PREFIX = "exam:session:";
     private static final String WEBSOCKET_PREFIX = "websocket:session:";
     private static final String ACTIVE_SESSIONS_KEY = "exam:sessions:active";
+    private static final String EXAM_INDEX_PREFIX = "exam:"; // exam:{examId}:sessions:active
+    private static final String DEPT_INDEX_PREFIX = "dept:"; // dept:{department}:sessions:active
+    private static final String INDEX_SUFFIX = ":sessions:active";
+    static final String HEARTBEAT_PREFIX = "exam:"; // exam:{examId}:sessions:heartbeats
+    static final String HEARTBEAT_SUFFIX = ":sessions:heartbeats";
+    static final String HEARTBEAT_EXAMS_KEY = "exam:sessions:heartbeat-exams"; // exams with a heartbeat ZSET
     private static final long SESSION_TTL_HOURS = 4;
+    static final long SESSION_TTL_SECONDS = TimeUnit.HOURS.toSeconds(SESSION_TTL_HOURS);
 
     /**
      * Create or update exam session
@@ -43,44 +66,28 @@ public class SessionManagerService {
         String sessionKey = SESSION_PREFIX + session.getId();
 
         // Store session data
-        if (session.getStudentId() != null)
-            redisTemplate.opsForHash().put(sessionKey, "studentId", Objects.requireNonNull(session.getStudentId()));
-        if (session.getExamId() != null)
-            redisTemplate.opsForHash().put(sessionKey, "examId", Objects.requireNonNull(session.getExamId()));
-        if (session.getExamTitle() != null)
-            redisTemplate.opsForHash().put(sessionKey, "examTitle", Objects.requireNonNull(session.getExamTitle()));
-        if (session.getStudentName() != null)
-            redisTemplate.opsForHash().put(sessionKey, "studentName", Objects.requireNonNull(session.getStudentName()));
-        if (session.getDepartment() != null)
-            redisTemplate.opsForHash().put(sessionKey, "department", Objects.requireNonNull(session.getDepartment()));
-        if (session.getStatus() != null)
-            redisTemplate.opsForHash().put(sessionKey, "status", Objects.requireNonNull(session.getStatus().name()));
-        redisTemplate.opsForHash().put(sessionKey, "violationCount",
-                Objects.requireNonNull(session.getViolationCount()));
-        if (session.getStartedAt() != null)
-            redisTemplate.opsForHash().put(sessionKey, "startedAt",
-                    Objects.requireNonNull(session.getStartedAt().toString()));
-        if (session.getExpiresAt() != null)
-            redisTemplate.opsForHash().put(sessionKey, "expiresAt",
-                    Objects.requireNonNull(session.getExpiresAt().toString()));
-        redisTemplate.opsForHash().put(sessionKey, "lastHeartbeat",
-                Objects.requireNonNull(LocalDateTime.now().toString()));
-
-        if (session.getWebSocketSessionId() != null) {
-            redisTemplate.opsForHash().put(sessionKey, "webSocketSessionId",
-                    Objects.requireNonNull(session.getWebSocketSessionId()));
-
-            // Map WebSocket session to exam session
-            String wsKey = WEBSOCKET_PREFIX + session.getWebSocketSessionId();
-            redisTemplate.opsForValue().set(wsKey, Objects.requireNonNull(session.getId()), SESSION_TTL_HOURS,
-                    TimeUnit.HOURS);
-        }
+        Map<String, String> fields = ExamSessionCodec.encode(session);
+        fields.put(ExamSessionCodec.LAST_HEARTBEAT, ExamSessionCodec.encodeTime(LocalDateTime.now()));
+
+        boolean active = session.getStatus() == null || session.getStatus() == ExamSession.SessionStatus.ACTIVE;
+
+        inTransaction(ops -> {
+            ops.opsForHash().putAll(sessionKey, fields);
+
+            if (session.getWebSocketSessionId() != null) {
+                // Map WebSocket session to exam session
+                String wsKey = WEBSOCKET_PREFIX + session.getWebSocketSessionId();
+                ops.opsForValue().set(wsKey, session.getId().toString(), SESSION_TTL_HOURS, TimeUnit.HOURS);
+            }
 
-        // Add to active sessions set
-        redisTemplate.opsForSet().add(ACTIVE_SESSIONS_KEY, session.getId());
+            // Add to active sessions set and its exam/department indexes
+            if (active) {
+                addToIndexes(ops, session.getId(), session.getExamId(), session.getDepartment());
+            }
 
-        // Set TTL
-        redisTemplate.expire(sessionKey, SESSION_TTL_HOURS, TimeUnit.HOURS);
+            // Set TTL
+            ops.expire(sessionKey, SESSION_TTL_HOURS, TimeUnit.HOURS);
+        });
 
         log.info("Created exam session {} for student {}", session.getId(), session.getStudentId());
     }
@@ -89,31 +96,55 @@ public class SessionManagerService {
      * Get exam session by ID
      */
     public ExamSession getSession(Long sessionId) {
-        String sessionKey = SESSION_PREFIX + sessionId;
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(SESSION_PREFIX + sessionId);
+        return decode(sessionId, fields);
+    }
 
-        if (!redisTemplate.hasKey(sessionKey)) {
-            return null;
+    /**
+     * Get several exam sessions with one pipelined HGETALL per id
+     *
+     * @return Sessions by ID, in request order; missing or unreadable sessions are left out
+     */
+    public Map<Long, ExamSession> getSessions(Collection<Long> sessionIds) {
+        List<Long> ids = new ArrayList<>(sessionIds);
+        if (ids.isEmpty()) {
+            return Map.of();
         }
 
+        List<Object> hashes = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(@org.springframework.lang.NonNull RedisOperations<K, V> operations) {
+                @SuppressWarnings("unchecked")
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (Long id : ids) {
+                    ops.opsForHash().entries(SESSION_PREFIX + id);
+                }
+                return null;
+            }
+        });
+
+        Map<Long, ExamSession> sessions = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            ExamSession session = decode(ids.get(i), (Map<?, ?>) hashes.get(i));
+            if (session != null) {
+                sessions.put(ids.get(i), session);
+            }
+        }
+        return sessions;
+    }
+
+    private ExamSession decode(Long sessionId, Map<?, ?> fields) {
         try {
-            ExamSession session = new ExamSession();
-            session.setId(sessionId);
-            session.setStudentId((Long) redisTemplate.opsForHash().get(sessionKey, "studentId"));
-            session.setExamId((Long) redisTemplate.opsForHash().get(sessionKey, "examId"));
-            session.setExamTitle((String) redisTemplate.opsForHash().get(sessionKey, "examTitle"));
-            session.setStudentName((String) redisTemplate.opsForHash().get(sessionKey, "studentName"));
-            session.setDepartment((String) redisTemplate.opsForHash().get(sessionKey, "department"));
-            session.setStatus(ExamSession.SessionStatus.valueOf(
-                    (String) redisTemplate.opsForHash().get(sessionKey, "status")));
-            session.setViolationCount((Integer) redisTemplate.opsForHash().get(sessionKey, "violationCount"));
-            session.setStartedAt(LocalDateTime.parse((String) redisTemplate.opsForHash().get(sessionKey, "startedAt")));
-            session.setExpiresAt(LocalDateTime.parse((String) redisTemplate.opsForHash().get(sessionKey, "expiresAt")));
-            session.setWebSocketSessionId((String) redisTemplate.opsForHash().get(sessionKey, "webSocketSessionId"));
-            session.setLastHeartbeat(
-                    LocalDateTime.parse((String) redisTemplate.opsForHash().get(sessionKey, "lastHeartbeat")));
+            ExamSession session = ExamSessionCodec.decode(sessionId, fields);
+            // A heartbeat still in this node's buffer is newer than the stored one
+            LocalDateTime buffered = heartbeatBuffer.pending(sessionId);
+            if (session != null && buffered != null
+                    && (session.getLastHeartbeat() == null || buffered.isAfter(session.getLastHeartbeat()))) {
+                session.setLastHeartbeat(buffered);
+            }
             return session;
         } catch (Exception e) {
-            log.error("Error parsing session data", e);
+            log.error("Error parsing session data for session {}", sessionId, e);
             return null;
         }
     }
@@ -123,8 +154,7 @@ public class SessionManagerService {
      */
     public Long getSessionIdByWebSocket(String webSocketSessionId) {
         String wsKey = WEBSOCKET_PREFIX + webSocketSessionId;
-        Object sessionId = redisTemplate.opsForValue().get(wsKey);
-        return sessionId != null ? (Long) sessionId : null;
+        return ExamSessionCodec.decodeLong(redisTemplate.opsForValue().get(wsKey));
     }
 
     /**
@@ -134,17 +164,19 @@ public class SessionManagerService {
         String sessionKey = SESSION_PREFIX + sessionId;
 
         // Remove old WebSocket mapping
-        String oldWsSessionId = (String) redisTemplate.opsForHash().get(sessionKey, "webSocketSessionId");
+        String oldWsSessionId = (String) redisTemplate.opsForHash().get(sessionKey,
+                ExamSessionCodec.WEBSOCKET_SESSION_ID);
         if (oldWsSessionId != null) {
             redisTemplate.delete(WEBSOCKET_PREFIX + oldWsSessionId);
         }
 
         // Set new WebSocket session
-        redisTemplate.opsForHash().put(sessionKey, "webSocketSessionId", Objects.requireNonNull(newWebSocketSessionId));
+        redisTemplate.opsForHash().put(sessionKey, ExamSessionCodec.WEBSOCKET_SESSION_ID,
+                Objects.requireNonNull(newWebSocketSessionId));
 
         String wsKey = WEBSOCKET_PREFIX + newWebSocketSessionId;
         if (sessionId != null) {
-            redisTemplate.opsForValue().set(wsKey, sessionId, SESSION_TTL_HOURS, TimeUnit.HOURS);
+            redisTemplate.opsForValue().set(wsKey, sessionId.toString(), SESSION_TTL_HOURS, TimeUnit.HOURS);
         }
 
         log.info("Updated WebSocket session for exam session {}", sessionId);
@@ -152,14 +184,14 @@ public class SessionManagerService {
 
     /**
      * Update heartbeat timestamp
+     *
+     * Buffered in memory; the heartbeat and the TTL extension reach Redis
+     * with the next flush of {@link HeartbeatBuffer}
      */
     public void updateHeartbeat(Long sessionId) {
-        String sessionKey = SESSION_PREFIX + sessionId;
-        redisTemplate.opsForHash().put(sessionKey, "lastHeartbeat",
-                Objects.requireNonNull(LocalDateTime.now().toString()));
-
-        // Extend TTL
-        redisTemplate.expire(sessionKey, SESSION_TTL_HOURS, TimeUnit.HOURS);
+        if (sessionId != null) {
+            heartbeatBuffer.record(sessionId, LocalDateTime.now());
+        }
     }
 
     /**
@@ -167,7 +199,7 @@ public class SessionManagerService {
      */
     public void updateViolationCount(Long sessionId, int violations) {
         String sessionKey = SESSION_PREFIX + sessionId;
-        redisTemplate.opsForHash().put(sessionKey, "violationCount", Objects.requireNonNull(violations));
+        redisTemplate.opsForHash().put(sessionKey, ExamSessionCodec.VIOLATION_COUNT, Integer.toString(violations));
     }
 
     /**
@@ -175,48 +207,67 @@ public class SessionManagerService {
      */
     public void updateSessionStatus(Long sessionId, ExamSession.SessionStatus status) {
         String sessionKey = SESSION_PREFIX + sessionId;
-        if (status != null) {
-            redisTemplate.opsForHash().put(sessionKey, "status", Objects.requireNonNull(status.name()));
-        }
-
-        if (status != ExamSession.SessionStatus.ACTIVE) {
-            // Remove from active sessions
-            redisTemplate.opsForSet().remove(ACTIVE_SESSIONS_KEY, sessionId);
-        }
+        List<Object> indexFields = redisTemplate.opsForHash().multiGet(sessionKey,
+                List.of(ExamSessionCodec.EXAM_ID, ExamSessionCodec.DEPARTMENT));
+        Long examId = ExamSessionCodec.decodeLong((String) indexFields.get(0));
+        String department = (String) indexFields.get(1);
+
+        inTransaction(ops -> {
+            if (status != null) {
+                ops.opsForHash().put(sessionKey, ExamSessionCodec.STATUS, status.name());
+            }
+
+            if (status != ExamSession.SessionStatus.ACTIVE) {
+                // Remove from active sessions
+                removeFromIndexes(ops, sessionId, examId, department);
+            } else if (examId != null) {
+                addToIndexes(ops, sessionId, examId, department);
+            }
+        });
     }
 
     /**
      * Get all active sessions for an exam
      */
     public Set<ExamSession> getActiveSessionsForExam(Long examId) {
-        Set<Object> sessionIds = redisTemplate.opsForSet().members(ACTIVE_SESSIONS_KEY);
-
-        if (sessionIds == null) {
-            return Set.of();
-        }
-
-        return sessionIds.stream()
-                .map(id -> getSession((Long) id))
-                .filter(session -> session != null && session.getExamId().equals(examId))
-                .filter(session -> session.getStatus() == ExamSession.SessionStatus.ACTIVE)
-                .collect(Collectors.toSet());
+        return getIndexedSessions(examIndexKey(examId));
     }
 
     /**
      * Get all active sessions for a department
      */
     public Set<ExamSession> getActiveSessionsForDepartment(String department) {
-        Set<Object> sessionIds = redisTemplate.opsForSet().members(ACTIVE_SESSIONS_KEY);
+        return getIndexedSessions(deptIndexKey(department));
+    }
+
+    /**
+     * Active sessions listed in one index set; ids whose session hash has
+     * expired are dropped from the index on the way
+     */
+    private Set<ExamSession> getIndexedSessions(String indexKey) {
+        Set<String> members = redisTemplate.opsForSet().members(indexKey);
 
-        if (sessionIds == null) {
+        if (members == null || members.isEmpty()) {
             return Set.of();
         }
 
-        return sessionIds.stream()
-                .map(id -> getSession((Long) id))
-                .filter(session -> session != null && department.equals(session.getDepartment()))
-                .filter(session -> session.getStatus() == ExamSession.SessionStatus.ACTIVE)
-                .collect(Collectors.toSet());
+        List<Long> sessionIds = members.stream().map(Long::valueOf).toList();
+        Map<Long, ExamSession> hydrated = getSessions(sessionIds);
+
+        Set<ExamSession> sessions = new HashSet<>();
+        List<Object> expired = new ArrayList<>();
+        for (Long sessionId : sessionIds) {
+            ExamSession session = hydrated.get(sessionId);
+            if (session == null) {
+                expired.add(sessionId.toString());
+            } else if (session.getStatus() == ExamSession.SessionStatus.ACTIVE) {
+                sessions.add(session);
+            }
+        }
+        if (!expired.isEmpty()) {
+            redisTemplate.opsForSet().remove(indexKey, expired.toArray());
+        }
+        return sessions;
     }
 
     /**
@@ -233,17 +284,25 @@ public class SessionManagerService {
     public void deleteSession(Long sessionId) {
         String sessionKey = SESSION_PREFIX + sessionId;
 
-        // Get WebSocket session ID before deleting
-        String wsSessionId = (String) redisTemplate.opsForHash().get(sessionKey, "webSocketSessionId");
-        if (wsSessionId != null) {
-            redisTemplate.delete(WEBSOCKET_PREFIX + wsSessionId);
-        }
+        // Get WebSocket session ID and index fields before deleting
+        List<Object> fields = redisTemplate.opsForHash().multiGet(sessionKey,
+                List.of(ExamSessionCodec.WEBSOCKET_SESSION_ID, ExamSessionCodec.EXAM_ID, ExamSessionCodec.DEPARTMENT));
+        String wsSessionId = (String) fields.get(0);
+        Long examId = ExamSessionCodec.decodeLong((String) fields.get(1));
+        String department = (String) fields.get(2);
 
-        // Remove from active sessions
-        redisTemplate.opsForSet().remove(ACTIVE_SESSIONS_KEY, sessionId);
+        heartbeatBuffer.discard(sessionId);
+        inTransaction(ops -> {
+            if (wsSessionId != null) {
+                ops.delete(WEBSOCKET_PREFIX + wsSessionId);
+            }
 
-        // Delete session data
-        redisTemplate.delete(sessionKey);
+            // Remove from active sessions
+            removeFromIndexes(ops, sessionId, examId, department);
+
+            // Delete session data
+            ops.delete(sessionKey);
+        });
 
         log.info("Deleted exam session {}", sessionId);
     }
@@ -256,8 +315,69 @@ public class SessionManagerService {
         return count != null ? count : 0;
     }
 
+    /**
+     * Active session count for one exam, read from its index
+     */
+    public long getActiveSessionCountForExam(Long examId) {
+        Long count = redisTemplate.opsForSet().size(examIndexKey(examId));
+        return count != null ? count : 0;
+    }
+
     public long getTerminatedSessionCount() {
         // Implement persistence for terminated session count or query database
         return 0;
     }
+
+    private void addToIndexes(RedisOperations<String, String> ops, Long sessionId, Long examId, String department) {
+        String member = sessionId.toString();
+        ops.opsForSet().add(ACTIVE_SESSIONS_KEY, member);
+        if (examId != null) {
+            ops.opsForSet().add(examIndexKey(examId), member);
+            ops.expire(examIndexKey(examId), SESSION_TTL_HOURS, TimeUnit.HOURS);
+            ops.opsForZSet().add(heartbeatKey(examId), member, System.currentTimeMillis());
+            ops.opsForSet().add(HEARTBEAT_EXAMS_KEY, examId.toString());
+        }
+        if (department != null) {
+            ops.opsForSet().add(deptIndexKey(department), member);
+            ops.expire(deptIndexKey(department), SESSION_TTL_HOURS, TimeUnit.HOURS);
+        }
+    }
+
+    private void removeFromIndexes(RedisOperations<String, String> ops, Long sessionId, Long examId,
+            String department) {
+        String member = sessionId.toString();
+        ops.opsForSet().remove(ACTIVE_SESSIONS_KEY, member);
+        if (examId != null) {
+            ops.opsForSet().remove(examIndexKey(examId), member);
+            ops.opsForZSet().remove(heartbeatKey(examId), member);
+        }
+        if (department != null) {
+            ops.opsForSet().remove(deptIndexKey(department), member);
+        }
+    }
+
+    private void inTransaction(Consumer<RedisOperations<String, String>> body) {
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(@org.springframework.lang.NonNull RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.multi();
+                body.accept(ops);
+                return ops.exec();
+            }
+        });
+    }
+
+    private static String examIndexKey(Long examId) {
+        return EXAM_INDEX_PREFIX + examId + INDEX_SUFFIX;
+    }
+
+    static String heartbeatKey(Long examId) {
+        return HEARTBEAT_PREFIX + examId + HEARTBEAT_SUFFIX;
+    }
+
+    private static String deptIndexKey(String department) {
+        return DEPT_INDEX_PREFIX + department + INDEX_SUFFIX;
+    }
 }
@@ -0,0 +1,223 @@
+package com.examportal.monitoring.service;
+
+import com.examportal.monitoring.model.ExamStatusSnapshot;
+import com.examportal.monitoring.model.StudentStatus;
+import com.examportal.monitoring.model.StudentStatusDelta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Status Delta Aggregator
+ *
+ * Collects student status updates per exam and broadcasts them once per
+ * tick as a single list of deltas on /topic/exam/{examId}/monitoring.
+ * Updates for the same student within a tick are merged (later non-null
+ * fields win), and each delta carries only the fields that differ from
+ * what this node last sent for that student, so a heartbeat that repeats
+ * the current activity costs a few bytes instead of a full status frame.
+ *
+ * What was sent is kept per exam as a materialized view of the dashboard.
+ * Each delta frame carries a "version" header (tick time in millis, never
+ * decreasing) and {@link #snapshot} returns the view with the version of
+ * the last frame folded in, so a late-joining moderator takes the snapshot
+ * and then applies only frames with a greater version.
+ *
+ * The view is per node and only sees updates handled on this node, so it
+ * is seeded from Redis when first requested and re-seeded once it is older
+ * than monitoring.broadcast.snapshot-max-age-ms; updates handled locally
+ * win over the seeded values.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatusDeltaAggregator {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // examId -> studentId -> merged update; inner maps are only touched inside compute/remove
+    private final Map<Long, Map<Long, StudentStatus>> pending = new ConcurrentHashMap<>();
+
+    // examId -> what was last broadcast per student; each view is guarded by its own monitor
+    private final Map<Long, View> views = new ConcurrentHashMap<>();
+
+    @Value("${monitoring.broadcast.snapshot-idle-ms:600000}")
+    private long snapshotIdleMs = 600_000;
+
+    @Value("${monitoring.broadcast.snapshot-max-age-ms:30000}")
+    private long snapshotMaxAgeMs = 30_000;
+
+    private static final class View {
+        private Map<Long, StudentStatus> students = new LinkedHashMap<>();
+        private long version;
+        private long seededAt;
+        private long touchedAt;
+    }
+
+    /**
+     * Queue a status update for the next tick
+     */
+    public void submit(Long examId, StudentStatus status) {
+        if (status.getStudentId() == null) {
+            log.debug("Dropping status update without student id for exam {}", examId);
+            return;
+        }
+        StudentStatus update = copy(status);
+        pending.compute(examId, (id, byStudent) -> {
+            Map<Long, StudentStatus> students = byStudent != null ? byStudent : new LinkedHashMap<>();
+            students.merge(update.getStudentId(), update, (current, next) -> {
+                overlay(current, next);
+                return current;
+            });
+            return students;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${monitoring.broadcast.tick-ms:250}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+
+        for (Long examId : new ArrayList<>(pending.keySet())) {
+            Map<Long, StudentStatus> updates = pending.remove(examId);
+            if (updates == null || updates.isEmpty()) {
+                continue;
+            }
+
+            View view = views.computeIfAbsent(examId, id -> new View());
+            List<StudentStatusDelta> deltas = new ArrayList<>(updates.size());
+            long version;
+            synchronized (view) {
+                view.touchedAt = now;
+                for (StudentStatus update : updates.values()) {
+                    StudentStatus last = view.students.get(update.getStudentId());
+                    StudentStatusDelta delta = diff(last, update);
+                    if (delta != null) {
+                        deltas.add(delta);
+                        if (last == null) {
+                            view.students.put(update.getStudentId(), update);
+                        } else {
+                            overlay(last, update);
+                        }
+                    }
+                }
+                if (deltas.isEmpty()) {
+                    continue;
+                }
+                view.version = Math.max(now, view.version + 1);
+                version = view.version;
+            }
+
+            try {
+                messagingTemplate.convertAndSend("/topic/exam/" + examId + "/monitoring", deltas,
+                        Map.of("version", version));
+                log.debug("Broadcast {} status deltas to exam {}", deltas.size(), examId);
+            } catch (Exception e) {
+                log.error("Error broadcasting status deltas", e);
+            }
+        }
+
+        views.values().removeIf(view -> now - view.touchedAt > snapshotIdleMs);
+    }
+
+    /**
+     * Current dashboard state of an exam, seeding the view through loader
+     * (typically a Redis read) only if it is missing or too old. Concurrent
+     * callers for the same exam share one load.
+     */
+    public ExamStatusSnapshot snapshot(Long examId, Supplier<List<StudentStatus>> loader) {
+        View view = views.computeIfAbsent(examId, id -> new View());
+        synchronized (view) {
+            long now = System.currentTimeMillis();
+            view.touchedAt = now;
+            if (now - view.seededAt > snapshotMaxAgeMs) {
+                Map<Long, StudentStatus> seeded = new LinkedHashMap<>();
+                for (StudentStatus loaded : loader.get()) {
+                    if (loaded.getStudentId() == null) {
+                        continue;
+                    }
+                    StudentStatus status = copy(loaded);
+                    StudentStatus local = view.students.get(status.getStudentId());
+                    if (local != null) {
+                        overlay(status, local);
+                    }
+                    seeded.put(status.getStudentId(), status);
+                }
+                view.students = seeded;
+                view.seededAt = now;
+            }
+
+            return ExamStatusSnapshot.builder()
+                    .examId(examId)
+                    .version(view.version)
+                    .students(view.students.values().stream().map(StatusDeltaAggregator::copy).toList())
+                    .build();
+        }
+    }
+
+    /**
+     * Fields of update that are set and differ from last, or null if nothing changed
+     */
+    static StudentStatusDelta diff(StudentStatus last, StudentStatus update) {
+        StudentStatus base = last != null ? last : new StudentStatus();
+        StudentStatusDelta delta = StudentStatusDelta.builder()
+                .studentName(changed(base, update, StudentStatus::getStudentName))
+                .email(changed(base, update, StudentStatus::getEmail))
+                .sessionId(changed(base, update, StudentStatus::getSessionId))
+                .connectionStatus(changed(base, update, StudentStatus::getConnectionStatus))
+                .activityStatus(changed(base, update, StudentStatus::getActivityStatus))
+                .violationCount(changed(base, update, StudentStatus::getViolationCount))
+                .statusColor(changed(base, update, StudentStatus::getStatusColor))
+                .lastActivity(changed(base, update, StudentStatus::getLastActivity))
+                .currentQuestion(changed(base, update, StudentStatus::getCurrentQuestion))
+                .completedQuestions(changed(base, update, StudentStatus::getCompletedQuestions))
+                .cameraStatus(changed(base, update, StudentStatus::getCameraStatus))
+                .tabSwitchCount(changed(base, update, StudentStatus::getTabSwitchCount))
+                .build();
+        if (delta.equals(new StudentStatusDelta())) {
+            return null;
+        }
+        delta.setStudentId(update.getStudentId());
+        return delta;
+    }
+
+    private static <T> T changed(StudentStatus last, StudentStatus update, Function<StudentStatus, T> field) {
+        T value = field.apply(update);
+        return value != null && !Objects.equals(value, field.apply(last)) ? value : null;
+    }
+
+    /**
+     * Copy the non-null fields of source onto target
+     */
+    static void overlay(StudentStatus target, StudentStatus source) {
+        if (source.getStudentName() != null) target.setStudentName(source.getStudentName());
+        if (source.getEmail() != null) target.setEmail(source.getEmail());
+        if (source.getSessionId() != null) target.setSessionId(source.getSessionId());
+        if (source.getConnectionStatus() != null) target.setConnectionStatus(source.getConnectionStatus());
+        if (source.getActivityStatus() != null) target.setActivityStatus(source.getActivityStatus());
+        if (source.getViolationCount() != null) target.setViolationCount(source.getViolationCount());
+        if (source.getStatusColor() != null) target.setStatusColor(source.getStatusColor());
+        if (source.getLastActivity() != null) target.setLastActivity(source.getLastActivity());
+        if (source.getCurrentQuestion() != null) target.setCurrentQuestion(source.getCurrentQuestion());
+        if (source.getCompletedQuestions() != null) target.setCompletedQuestions(source.getCompletedQuestions());
+        if (source.getCameraStatus() != null) target.setCameraStatus(source.getCameraStatus());
+        if (source.getTabSwitchCount() != null) target.setTabSwitchCount(source.getTabSwitchCount());
+    }
+
+    private static StudentStatus copy(StudentStatus status) {
+        StudentStatus copy = StudentStatus.builder().studentId(status.getStudentId()).build();
+        overlay(copy, status);
+        return copy;
+    }
+}
@@ -0,0 +1,275 @@
+package com.examportal.parser.analysis;
+
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.lexer.CppLexer;
+import com.examportal.parser.lexer.Token;
+import com.examportal.parser.lexer.TokenType;
+import com.examportal.parser.lexer.TokenizedSource;
+import com.examportal.parser.model.VerificationRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Single-pass rule evaluator over a C/C++ token stream
+ *
+ * Tracks brace scopes (function bodies, loop bodies), single-statement loop
+ * bodies and the function currently being defined while walking the tokens
+ * produced by {@link CppLexer}. Calls to library sorts are only reported when
+ * they cannot refer to a function the student defined themselves, so a hand
+ * written {@code void sort(int a[], int n)} is not flagged.
+ */
+public class CppRuleEvaluator extends RuleEvaluator {
+
+    private static final Set<String> SORT_FUNCTIONS = Set.of("sort", "stable_sort", "partial_sort", "qsort");
+
+    private static final byte SCOPE_OTHER = 0;
+    private static final byte SCOPE_FUNCTION = 1;
+    private static final byte SCOPE_LOOP = 2;
+    private static final byte SCOPE_DO = 3;
+
+    // Walk state
+    private byte[] scopes = new byte[16];
+    private int braceDepth;
+    private int parenDepth;
+    private int blockLoops;
+    private int[] statementLoops = new int[8];
+    private int statementLoopCount;
+
+    private int loopHeaderParen = -1;
+    private boolean awaitingLoopBody;
+    private boolean awaitingDoBody;
+    private byte nextBraceScope = SCOPE_OTHER;
+    private boolean doBodyClosed;
+
+    private String currentFunction;
+    private String candidateFunction;
+    private final Set<String> definedFunctions = new HashSet<>();
+    private final List<Integer> sortCalls = new ArrayList<>();
+
+    public CppRuleEvaluator(TokenizedSource source, List<VerificationRule> rules, VerificationBudget budget) {
+        super(source, rules, CppLexer::tokenize, budget);
+    }
+
+    @Override
+    protected Kind kindOf(String construct) {
+        return switch (construct) {
+            case "sort", "sorted", "std::sort", "stable_sort", "std::stable_sort", "qsort" -> Kind.SORT;
+            case "for_loop", "for loop" -> Kind.FOR_LOOP;
+            case "while_loop", "while loop" -> Kind.WHILE_LOOP;
+            case "recursion" -> Kind.RECURSION;
+            case "bubble_sort_logic" -> Kind.BUBBLE_SORT;
+            default -> Kind.PATTERN;
+        };
+    }
+
+    @Override
+    protected boolean mayAffect(Kind kind, Token token) {
+        return switch (kind) {
+            case FOR_LOOP -> token.isName("for");
+            case WHILE_LOOP -> token.isName("while") || token.isName("do") || token.isOp("}");
+            // function scopes depend on every name, brace, parenthesis and semicolon
+            case SORT, RECURSION -> token.type() == TokenType.NAME || token.type() == TokenType.OP;
+            default -> true;
+        };
+    }
+
+    @Override
+    protected void walk() {
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.type() == TokenType.EOF || token.type() == TokenType.PREPROCESSOR) {
+                continue;
+            }
+
+            matchPatterns(i);
+
+            if (awaitingLoopBody) {
+                awaitingLoopBody = false;
+                if (token.isOp("{")) {
+                    nextBraceScope = awaitingDoBody ? SCOPE_DO : SCOPE_LOOP;
+                } else {
+                    openStatementLoop();
+                }
+                awaitingDoBody = false;
+            }
+
+            if (doBodyClosed) {
+                doBodyClosed = false;
+                if (token.isName("while")) {
+                    // tail of do { ... } while (cond);
+                    continue;
+                }
+            }
+
+            if (token.type() == TokenType.OP) {
+                handleOperator(token);
+            } else if (token.type() == TokenType.NAME) {
+                handleName(token, i);
+            }
+        }
+
+        for (int index : sortCalls) {
+            Token call = tokens.get(index);
+            Token qualifier = tokenAt(index - 1);
+            boolean qualified = qualifier != null && qualifier.isOp("::");
+            if (qualified || !definedFunctions.contains(call.text())) {
+                sortCall = call;
+                sortMessage = "Forbidden: " + (qualified ? "std::" : "") + call.text() + "() detected";
+                break;
+            }
+        }
+    }
+
+    private void handleOperator(Token token) {
+        switch (token.text()) {
+            case "(" -> parenDepth++;
+            case ")" -> {
+                if (parenDepth > 0) {
+                    parenDepth--;
+                }
+                if (loopHeaderParen >= 0 && parenDepth == loopHeaderParen) {
+                    loopHeaderParen = -1;
+                    awaitingLoopBody = true;
+                }
+            }
+            case "{" -> openBrace();
+            case "}" -> closeBrace();
+            case ";" -> {
+                if (parenDepth == 0) {
+                    closeStatementLoops();
+                    if (currentFunction == null) {
+                        candidateFunction = null;
+                    }
+                }
+            }
+            default -> {
+                // other operators carry no structure
+            }
+        }
+    }
+
+    private void handleName(Token token, int index) {
+        switch (token.text()) {
+            case "for", "while" -> {
+                if (token.text().equals("for") && forLoop == null) {
+                    forLoop = token;
+                } else if (token.text().equals("while") && whileLoop == null) {
+                    whileLoop = token;
+                }
+                noteLoopStart();
+                loopHeaderParen = parenDepth;
+                return;
+            }
+            case "do" -> {
+                if (whileLoop == null) {
+                    whileLoop = token;
+                }
+                noteLoopStart();
+                awaitingLoopBody = true;
+                awaitingDoBody = true;
+                return;
+            }
+            case "temp", "tmp" -> swapFound = true;
+            default -> {
+                // identifiers handled below
+            }
+        }
+
+        Token next = tokenAt(index + 1);
+        if (next == null || !next.isOp("(")) {
+            return;
+        }
+        Token previous = tokenAt(index - 1);
+        boolean member = previous != null && (previous.isOp(".") || previous.isOp("->"));
+
+        if (currentFunction == null) {
+            // Outside any body the first name( since the last declaration is a
+            // candidate definition; later ones are parameters or initializers
+            if (candidateFunction == null && parenDepth == 0 && !member) {
+                candidateFunction = token.text();
+            }
+            return;
+        }
+
+        if (token.text().equals("swap")) {
+            swapFound = true;
+        }
+        if (SORT_FUNCTIONS.contains(token.text())) {
+            sortCalls.add(index);
+        }
+        if (recursiveCall == null && token.text().equals(currentFunction)) {
+            Token receiver = tokenAt(index - 2);
+            if (!member || (receiver != null && receiver.isName("this"))) {
+                recursiveCall = token;
+            }
+        }
+    }
+
+    private void noteLoopStart() {
+        if (blockLoops + statementLoopCount > 0) {
+            nestedLoops = true;
+        }
+    }
+
+    private void openStatementLoop() {
+        if (statementLoopCount == statementLoops.length) {
+            statementLoops = Arrays.copyOf(statementLoops, statementLoopCount * 2);
+        }
+        statementLoops[statementLoopCount++] = braceDepth;
+    }
+
+    private void closeStatementLoops() {
+        while (statementLoopCount > 0 && statementLoops[statementLoopCount - 1] >= braceDepth) {
+            statementLoopCount--;
+        }
+    }
+
+    private void openBrace() {
+        byte scope = nextBraceScope;
+        nextBraceScope = SCOPE_OTHER;
+        if (scope == SCOPE_OTHER && currentFunction == null && candidateFunction != null && parenDepth == 0) {
+            scope = SCOPE_FUNCTION;
+            currentFunction = candidateFunction;
+            definedFunctions.add(currentFunction);
+        }
+
+        if (braceDepth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, braceDepth * 2);
+        }
+        scopes[braceDepth++] = scope;
+        if (scope == SCOPE_LOOP || scope == SCOPE_DO) {
+            blockLoops++;
+        }
+    }
+
+    private void closeBrace() {
+        if (braceDepth == 0) {
+            return;
+        }
+        byte scope = scopes[--braceDepth];
+        switch (scope) {
+            case SCOPE_LOOP -> blockLoops--;
+            case SCOPE_DO -> {
+                blockLoops--;
+                doBodyClosed = true;
+            }
+            case SCOPE_FUNCTION -> {
+                currentFunction = null;
+                candidateFunction = null;
+            }
+            default -> {
+                // class, namespace or initializer scope
+            }
+        }
+        if (parenDepth == 0) {
+            closeStatementLoops();
+        }
+        if (currentFunction == null && scope != SCOPE_FUNCTION) {
+            candidateFunction = null;
+        }
+    }
+}
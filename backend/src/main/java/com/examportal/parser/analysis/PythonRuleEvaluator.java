@@ -0,0 +1,322 @@
+package com.examportal.parser.analysis;
+
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.lexer.PythonLexer;
+import com.examportal.parser.lexer.Token;
+import com.examportal.parser.lexer.TokenType;
+import com.examportal.parser.lexer.TokenizedSource;
+import com.examportal.parser.model.VerificationRule;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-pass rule evaluator over a Python token stream
+ *
+ * Tracks indentation level, open brackets, enclosing loops and enclosing
+ * function definitions while walking the tokens produced by
+ * {@link PythonLexer}.
+ */
+public class PythonRuleEvaluator extends RuleEvaluator {
+
+    private Token firstSortedCall;
+    private Token firstSortMethodCall;
+
+    // Walk state
+    private int level;
+    private char[] brackets = new char[16];
+    private int depth;
+    private int[] loopLevels = new int[8];
+    private int loopCount;
+    private String[] functionNames = new String[8];
+    private int[] functionLevels = new int[8];
+    private int functionCount;
+
+    public PythonRuleEvaluator(TokenizedSource source, List<VerificationRule> rules, VerificationBudget budget) {
+        super(source, rules, PythonLexer::tokenize, budget);
+    }
+
+    @Override
+    protected Kind kindOf(String construct) {
+        return switch (construct) {
+            case "sorted", "sort" -> Kind.SORT;
+            case "list_comprehension" -> Kind.LIST_COMPREHENSION;
+            case "for_loop", "for loop" -> Kind.FOR_LOOP;
+            case "while_loop", "while loop" -> Kind.WHILE_LOOP;
+            case "recursion" -> Kind.RECURSION;
+            case "bubble_sort_logic" -> Kind.BUBBLE_SORT;
+            default -> Kind.PATTERN;
+        };
+    }
+
+    @Override
+    protected boolean mayAffect(Kind kind, Token token) {
+        boolean layout = token.type() == TokenType.NEWLINE || token.type() == TokenType.INDENT
+                || token.type() == TokenType.DEDENT || token.isOp(";");
+        return switch (kind) {
+            case FOR_LOOP -> token.isName("for");
+            case WHILE_LOOP -> token.isName("while") || token.isName("async") || layout || isBracket(token);
+            case LIST_COMPREHENSION -> token.isName("for") || isBracket(token);
+            case SORT -> token.isName("sorted") || token.isName("sort") || token.isName("def")
+                    || token.isOp(".") || token.isOp("(");
+            case RECURSION -> token.type() == TokenType.NAME || layout || token.isOp(".") || isBracket(token);
+            default -> true; // swap detection depends on whole statements
+        };
+    }
+
+    @Override
+    protected void walk() {
+        boolean statementStart = true;
+        int statementFrom = 0;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+
+            switch (token.type()) {
+                case INDENT -> {
+                    level++;
+                    statementFrom = i + 1;
+                    continue;
+                }
+                case DEDENT -> {
+                    level--;
+                    statementFrom = i + 1;
+                    continue;
+                }
+                case NEWLINE -> {
+                    checkSwap(statementFrom, i);
+                    statementStart = true;
+                    statementFrom = i + 1;
+                    continue;
+                }
+                case EOF -> {
+                    continue;
+                }
+                default -> {
+                    // code token, handled below
+                }
+            }
+
+            if (statementStart) {
+                closeBlocksAt(level);
+                statementStart = false;
+            }
+
+            matchPatterns(i);
+
+            if (token.type() == TokenType.OP) {
+                statementStart = handleOperator(token, i, statementFrom);
+                if (statementStart) {
+                    statementFrom = i + 1;
+                }
+            } else if (token.type() == TokenType.NAME) {
+                handleName(token, i, i == statementFrom || isAsyncPrefix(i - 1, statementFrom));
+            }
+        }
+
+        // sorted() takes precedence over .sort() when reporting
+        if (firstSortedCall != null) {
+            sortCall = firstSortedCall;
+            sortMessage = "Forbidden: sorted() function detected";
+        } else if (firstSortMethodCall != null) {
+            sortCall = firstSortMethodCall;
+            sortMessage = "Forbidden: .sort() method detected";
+        }
+    }
+
+    /**
+     * @return true if the operator ends the current statement (';' at top level)
+     */
+    private boolean handleOperator(Token token, int index, int statementFrom) {
+        switch (token.text()) {
+            case "(", "[", "{" -> {
+                if (depth == brackets.length) {
+                    brackets = Arrays.copyOf(brackets, depth * 2);
+                }
+                brackets[depth++] = token.text().charAt(0);
+            }
+            case ")", "]", "}" -> {
+                if (depth > 0) {
+                    depth--;
+                }
+            }
+            case ";" -> {
+                if (depth == 0) {
+                    checkSwap(statementFrom, index);
+                    return true;
+                }
+            }
+            default -> {
+                // other operators carry no structure
+            }
+        }
+        return false;
+    }
+
+    private void handleName(Token token, int index, boolean atStatementStart) {
+        String text = token.text();
+
+        if (text.equals("for")) {
+            if (forLoop == null) {
+                forLoop = token;
+            }
+            if (depth > 0) {
+                if (brackets[depth - 1] == '[' && listComprehension == null) {
+                    listComprehension = token;
+                }
+            } else if (atStatementStart) {
+                openLoop();
+            }
+            return;
+        }
+
+        if (text.equals("while") && atStatementStart && depth == 0) {
+            if (whileLoop == null) {
+                whileLoop = token;
+            }
+            openLoop();
+            return;
+        }
+
+        if (text.equals("def") && atStatementStart) {
+            Token name = tokenAt(index + 1);
+            if (name != null && name.type() == TokenType.NAME) {
+                openFunction(name.text());
+            }
+            return;
+        }
+
+        if (text.equals("temp") || text.equals("tmp")) {
+            swapFound = true;
+        }
+
+        Token next = tokenAt(index + 1);
+        if (next == null || !next.isOp("(")) {
+            return;
+        }
+
+        Token previous = tokenAt(index - 1);
+        boolean attribute = previous != null && previous.isOp(".");
+        if (previous != null && previous.isName("def")) {
+            return;
+        }
+
+        if (attribute) {
+            if (text.equals("sort") && firstSortMethodCall == null) {
+                firstSortMethodCall = token;
+            }
+            Token receiver = tokenAt(index - 2);
+            if (receiver != null && (receiver.isName("self") || receiver.isName("cls"))) {
+                checkRecursiveCall(token);
+            }
+        } else {
+            if (text.equals("sorted") && firstSortedCall == null) {
+                firstSortedCall = token;
+            }
+            checkRecursiveCall(token);
+        }
+    }
+
+    private boolean isAsyncPrefix(int index, int statementFrom) {
+        return index == statementFrom && tokens.get(index).isName("async");
+    }
+
+    private void checkRecursiveCall(Token call) {
+        if (recursiveCall != null) {
+            return;
+        }
+        for (int f = 0; f < functionCount; f++) {
+            if (functionNames[f].equals(call.text())) {
+                recursiveCall = call;
+                return;
+            }
+        }
+    }
+
+    private void openLoop() {
+        if (loopCount > 0) {
+            nestedLoops = true;
+        }
+        if (loopCount == loopLevels.length) {
+            loopLevels = Arrays.copyOf(loopLevels, loopCount * 2);
+        }
+        loopLevels[loopCount++] = level;
+    }
+
+    private void openFunction(String name) {
+        if (functionCount == functionNames.length) {
+            functionNames = Arrays.copyOf(functionNames, functionCount * 2);
+            functionLevels = Arrays.copyOf(functionLevels, functionCount * 2);
+        }
+        functionNames[functionCount] = name;
+        functionLevels[functionCount] = level;
+        functionCount++;
+    }
+
+    /**
+     * A statement at indentation {@code statementLevel} ends every loop and
+     * function whose header sits at that level or deeper
+     */
+    private void closeBlocksAt(int statementLevel) {
+        while (loopCount > 0 && loopLevels[loopCount - 1] >= statementLevel) {
+            loopCount--;
+        }
+        while (functionCount > 0 && functionLevels[functionCount - 1] >= statementLevel) {
+            functionCount--;
+        }
+    }
+
+    /**
+     * Detect tuple swaps such as {@code a[j], a[j+1] = a[j+1], a[j]}
+     */
+    private void checkSwap(int from, int to) {
+        if (swapFound || to - from < 7) {
+            return;
+        }
+        int assign = -1;
+        int lhsComma = -1;
+        int rhsComma = -1;
+        int nesting = 0;
+        for (int i = from; i < to; i++) {
+            Token token = tokens.get(i);
+            if (token.type() != TokenType.OP) {
+                continue;
+            }
+            switch (token.text()) {
+                case "(", "[", "{" -> nesting++;
+                case ")", "]", "}" -> nesting--;
+                case "=" -> {
+                    if (nesting == 0) {
+                        if (assign >= 0) {
+                            return;
+                        }
+                        assign = i;
+                    }
+                }
+                case "," -> {
+                    if (nesting == 0) {
+                        if (assign < 0) {
+                            if (lhsComma >= 0) {
+                                return;
+                            }
+                            lhsComma = i;
+                        } else {
+                            if (rhsComma >= 0) {
+                                return;
+                            }
+                            rhsComma = i;
+                        }
+                    }
+                }
+                default -> {
+                    // not structural
+                }
+            }
+        }
+        if (assign < 0 || lhsComma < 0 || rhsComma < 0) {
+            return;
+        }
+        swapFound = sameTokens(from, lhsComma, rhsComma + 1, to)
+                && sameTokens(lhsComma + 1, assign, assign + 1, rhsComma);
+    }
+}
@@ -0,0 +1,288 @@
+package com.examportal.parser.analysis;
+
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.lexer.Token;
+import com.examportal.parser.lexer.TokenType;
+import com.examportal.parser.lexer.TokenizedSource;
+import com.examportal.parser.model.VerificationResult;
+import com.examportal.parser.model.VerificationRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Base class for the single-pass, token-based rule evaluators
+ *
+ * A subclass walks the token stream once in {@link #walk()} and records the
+ * first occurrence of every construct a rule can ask about (the protected
+ * fact fields). Violations are then produced in rule order from those facts,
+ * so the cost is O(tokens) regardless of how many rules a question defines.
+ * Free-form constructs are lexed with the language's own lexer and matched as
+ * token sequences, so they never match inside strings or comments.
+ *
+ * For incremental verification, {@link #affectedRules} reports which rules
+ * could change verdict after an edit, given the tokens the edit replaced and
+ * inserted; verdicts of the other rules can be reused.
+ *
+ * The walk spends the caller's {@link VerificationBudget}: one checkpoint per
+ * token, so an overrun surfaces as a VerificationBudgetExceededException.
+ *
+ * Instances are single-use.
+ */
+public abstract class RuleEvaluator {
+
+    protected enum Kind { SORT, LIST_COMPREHENSION, FOR_LOOP, WHILE_LOOP, RECURSION, BUBBLE_SORT, PATTERN }
+
+    protected final TokenizedSource source;
+    protected final List<Token> tokens;
+    protected final VerificationBudget budget;
+    private final List<VerificationRule> rules;
+    private final Function<CharSequence, TokenizedSource> lexer;
+    private final Kind[] kinds;
+    private final String[][] patterns;
+    private final Token[] patternMatches;
+    private boolean compiled;
+
+    // Facts gathered during the walk
+    protected Token sortCall;
+    protected String sortMessage;
+    protected Token listComprehension;
+    protected Token forLoop;
+    protected Token whileLoop;
+    protected Token recursiveCall;
+    protected boolean nestedLoops;
+    protected boolean swapFound;
+
+    protected RuleEvaluator(TokenizedSource source, List<VerificationRule> rules,
+            Function<CharSequence, TokenizedSource> lexer, VerificationBudget budget) {
+        this.source = source;
+        this.tokens = source.getTokens();
+        this.budget = budget;
+        this.rules = rules != null ? rules : List.of();
+        this.lexer = lexer;
+        this.kinds = new Kind[this.rules.size()];
+        this.patterns = new String[this.rules.size()][];
+        this.patternMatches = new Token[this.rules.size()];
+    }
+
+    public List<VerificationResult.Violation> evaluate() {
+        budget.checkNow();
+        compileRules();
+        walk();
+
+        List<VerificationResult.Violation> violations = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            if (kinds[i] != null) {
+                collectViolation(i, rules.get(i), violations);
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Map a lower-cased rule construct to the fact that answers it
+     */
+    protected abstract Kind kindOf(String construct);
+
+    /**
+     * Single pass over {@link #tokens}; must call {@link #matchPatterns(int)}
+     * for every code token
+     */
+    protected abstract void walk();
+
+    /**
+     * Whether adding or removing {@code token} can change the fact behind
+     * rules of {@code kind}. Must be conservative.
+     */
+    protected abstract boolean mayAffect(Kind kind, Token token);
+
+    /**
+     * Flag the rules whose verdict may differ after an edit that replaced the
+     * {@code removed} tokens with the {@code inserted} ones. Both windows must
+     * include one unchanged neighbour token on each side, since context-sensitive
+     * facts (statement starts, call parentheses, pattern sequences) depend on them.
+     */
+    public boolean[] affectedRules(List<Token> removed, List<Token> inserted) {
+        compileRules();
+        boolean[] affected = new boolean[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            if (kinds[i] != null) {
+                affected[i] = touches(i, removed) || touches(i, inserted);
+            }
+        }
+        return affected;
+    }
+
+    private boolean touches(int rule, List<Token> window) {
+        for (Token token : window) {
+            if (kinds[rule] == Kind.PATTERN) {
+                for (String text : patterns[rule]) {
+                    if (text.equals(token.text())) {
+                        return true;
+                    }
+                }
+            } else if (mayAffect(kinds[rule], token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected static boolean isBracket(Token token) {
+        if (token.type() != TokenType.OP || token.text().length() != 1) {
+            return false;
+        }
+        return switch (token.text().charAt(0)) {
+            case '(', ')', '[', ']', '{', '}' -> true;
+            default -> false;
+        };
+    }
+
+    private void compileRules() {
+        if (compiled) {
+            return;
+        }
+        compiled = true;
+        for (int i = 0; i < rules.size(); i++) {
+            VerificationRule rule = rules.get(i);
+            if (rule == null || rule.getConstruct() == null) {
+                continue;
+            }
+            kinds[i] = kindOf(rule.getConstruct().toLowerCase());
+            if (kinds[i] == Kind.PATTERN) {
+                patterns[i] = patternTokens(rule.getConstruct());
+                if (patterns[i].length == 0) {
+                    kinds[i] = null;
+                }
+            }
+        }
+    }
+
+    private String[] patternTokens(String construct) {
+        List<String> texts = new ArrayList<>();
+        for (Token token : lexer.apply(construct).getTokens()) {
+            if (token.type() == TokenType.NAME || token.type() == TokenType.OP
+                    || token.type() == TokenType.NUMBER || token.type() == TokenType.STRING) {
+                texts.add(token.text());
+            }
+        }
+        return texts.toArray(new String[0]);
+    }
+
+    protected void matchPatterns(int index) {
+        budget.checkpoint();
+        String text = tokens.get(index).text();
+        for (int r = 0; r < patterns.length; r++) {
+            String[] pattern = patterns[r];
+            if (pattern == null || patternMatches[r] != null || !pattern[0].equals(text)) {
+                continue;
+            }
+            boolean matched = index + pattern.length <= tokens.size();
+            for (int k = 1; matched && k < pattern.length; k++) {
+                matched = pattern[k].equals(tokens.get(index + k).text());
+            }
+            if (matched) {
+                patternMatches[r] = tokens.get(index);
+            }
+        }
+    }
+
+    protected Token tokenAt(int index) {
+        return index >= 0 && index < tokens.size() ? tokens.get(index) : null;
+    }
+
+    /**
+     * Compare two non-empty token ranges by text
+     */
+    protected boolean sameTokens(int aFrom, int aTo, int bFrom, int bTo) {
+        if (aTo - aFrom != bTo - bFrom || aTo == aFrom) {
+            return false;
+        }
+        for (int i = 0; i < aTo - aFrom; i++) {
+            budget.checkpoint();
+            if (!tokens.get(aFrom + i).text().equals(tokens.get(bFrom + i).text())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void collectViolation(int index, VerificationRule rule, List<VerificationResult.Violation> violations) {
+        boolean forbidden = rule.getType() != VerificationRule.RuleType.REQUIRED;
+
+        switch (kinds[index]) {
+            case SORT -> {
+                if (forbidden && sortCall != null) {
+                    violations.add(at(rule, sortCall, sortMessage));
+                } else if (!forbidden && sortCall == null) {
+                    violations.add(missing(rule, "Required construct not found: " + rule.getConstruct()));
+                }
+            }
+            case LIST_COMPREHENSION -> builtin(rule, forbidden, listComprehension, "list comprehension", violations);
+            case FOR_LOOP -> builtin(rule, forbidden, forLoop, "for loop", violations);
+            case WHILE_LOOP -> builtin(rule, forbidden, whileLoop, "while loop", violations);
+            case RECURSION -> {
+                if (!forbidden && recursiveCall == null) {
+                    violations.add(missing(rule, "Required: Solution must use recursion"));
+                } else if (forbidden && recursiveCall != null) {
+                    violations.add(at(rule, recursiveCall, "Forbidden: recursion detected"));
+                }
+            }
+            case BUBBLE_SORT -> {
+                if (!nestedLoops || !swapFound) {
+                    violations.add(VerificationResult.Violation.builder()
+                            .rule(rule)
+                            .lineNumber(1)
+                            .codeSnippet("(entire code)")
+                            .message("Required: Solution must implement Bubble Sort logic (nested loops with swapping)")
+                            .build());
+                }
+            }
+            case PATTERN -> {
+                Token match = patternMatches[index];
+                if (forbidden && match != null) {
+                    violations.add(at(rule, match, "Forbidden construct found: " + rule.getConstruct()));
+                } else if (!forbidden && match == null) {
+                    violations.add(missing(rule, "Required construct not found: " + rule.getConstruct()));
+                }
+            }
+        }
+    }
+
+    private void builtin(VerificationRule rule, boolean forbidden, Token found, String constructName,
+            List<VerificationResult.Violation> violations) {
+        if (forbidden && found != null) {
+            String message = "Forbidden: " + constructName + " detected.";
+            if (rule.getErrorMessage() != null) {
+                message += " " + rule.getErrorMessage();
+            }
+            violations.add(VerificationResult.Violation.builder()
+                    .rule(rule)
+                    .lineNumber(found.line())
+                    .codeSnippet(source.lineText(found.line()).trim())
+                    .message(message)
+                    .build());
+        } else if (!forbidden && found == null) {
+            violations.add(missing(rule, "Required construct not found: " + rule.getConstruct()));
+        }
+    }
+
+    private VerificationResult.Violation at(VerificationRule rule, Token token, String defaultMessage) {
+        return VerificationResult.Violation.builder()
+                .rule(rule)
+                .lineNumber(token.line())
+                .codeSnippet(source.lineText(token.line()).trim())
+                .message(rule.getErrorMessage() != null ? rule.getErrorMessage() : defaultMessage)
+                .build();
+    }
+
+    private VerificationResult.Violation missing(VerificationRule rule, String defaultMessage) {
+        return VerificationResult.Violation.builder()
+                .rule(rule)
+                .lineNumber(1)
+                .codeSnippet("(entire code)")
+                .message(rule.getErrorMessage() != null ? rule.getErrorMessage() : defaultMessage)
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.examportal.parser.budget;
+
+/**
+ * CharSequence that checks a {@link VerificationBudget} on every read
+ * 
+ * java.util.regex cannot be interrupted, but it reads its input only through
+ * {@link #charAt(int)}, so a catastrophically backtracking match over this
+ * wrapper aborts once the budget's deadline passes.
+ */
+public final class InterruptibleCharSequence implements CharSequence {
+
+    private final CharSequence inner;
+    private final VerificationBudget budget;
+
+    InterruptibleCharSequence(CharSequence inner, VerificationBudget budget) {
+        this.inner = inner;
+        this.budget = budget;
+    }
+
+    @Override
+    public char charAt(int index) {
+        budget.checkpoint();
+        return inner.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return inner.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new InterruptibleCharSequence(inner.subSequence(start, end), budget);
+    }
+
+    @Override
+    public String toString() {
+        return inner.toString();
+    }
+
+    /**
+     * The unchecked text behind {@code text}, for results that outlive the budget
+     */
+    public static CharSequence unwrap(CharSequence text) {
+        return text instanceof InterruptibleCharSequence interruptible ? interruptible.inner : text;
+    }
+}
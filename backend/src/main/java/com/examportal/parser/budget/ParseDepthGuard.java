@@ -0,0 +1,45 @@
+package com.examportal.parser.budget;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/**
+ * ANTLR parse listener that bounds parse-tree depth and checks the
+ * {@link VerificationBudget} on every rule entry
+ * 
+ * Register with {@code parser.addParseListener(...)}. Bounding depth also
+ * keeps the recursive ParseTreeWalker pass from overflowing the stack.
+ */
+public class ParseDepthGuard implements ParseTreeListener {
+
+    private final VerificationBudget budget;
+    private final int maxDepth;
+    private int depth;
+
+    public ParseDepthGuard(VerificationBudget budget, int maxDepth) {
+        this.budget = budget;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public void enterEveryRule(ParserRuleContext ctx) {
+        budget.checkDepth(++depth, maxDepth);
+        budget.checkpoint();
+    }
+
+    @Override
+    public void exitEveryRule(ParserRuleContext ctx) {
+        depth--;
+    }
+
+    @Override
+    public void visitTerminal(TerminalNode node) {
+        budget.checkpoint();
+    }
+
+    @Override
+    public void visitErrorNode(ErrorNode node) {
+    }
+}
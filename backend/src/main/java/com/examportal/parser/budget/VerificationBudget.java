@@ -0,0 +1,74 @@
+package com.examportal.parser.budget;
+
+/**
+ * Verification Budget
+ * 
+ * Per-request time and size budget for static verification. Checks are
+ * cooperative: scanners call {@link #checkpoint()} (directly or through an
+ * {@link InterruptibleCharSequence}) and an overrun surfaces as a
+ * {@link VerificationBudgetExceededException}, so one pathological submission
+ * cannot hold a consumer thread past the deadline.
+ * 
+ * Not thread-safe; create one per verification.
+ */
+public final class VerificationBudget {
+
+    public static final long DEFAULT_TIME_MS = 1000;
+    public static final int DEFAULT_MAX_TOKENS = 200_000;
+    public static final int DEFAULT_MAX_PARSE_DEPTH = 500;
+
+    // Read the clock once every 1024 checkpoints
+    private static final int CHECK_MASK = 0x3FF;
+
+    private final long timeMs;
+    private final long deadlineNanos;
+    private int ticks;
+
+    private VerificationBudget(long timeMs) {
+        this.timeMs = timeMs;
+        this.deadlineNanos = System.nanoTime() + timeMs * 1_000_000;
+    }
+
+    public static VerificationBudget start(long timeMs) {
+        return new VerificationBudget(timeMs);
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    public void checkpoint() {
+        if ((++ticks & CHECK_MASK) == 0) {
+            checkNow();
+        }
+    }
+
+    public void checkNow() {
+        if (System.nanoTime() - deadlineNanos > 0) {
+            throw new VerificationBudgetExceededException(
+                    "Verification exceeded its time budget of " + timeMs + "ms");
+        }
+    }
+
+    public void checkTokenCount(int tokens, int maxTokens) {
+        if (tokens > maxTokens) {
+            throw new VerificationBudgetExceededException(
+                    "Code is too large to verify (" + tokens + " tokens, limit " + maxTokens + ")");
+        }
+    }
+
+    public void checkDepth(int depth, int maxDepth) {
+        if (depth > maxDepth) {
+            throw new VerificationBudgetExceededException(
+                    "Code is nested too deeply to verify (limit " + maxDepth + " levels)");
+        }
+    }
+
+    /**
+     * Wrap text so that every character read counts against this budget;
+     * use for regex matching over untrusted input
+     */
+    public CharSequence wrap(CharSequence text) {
+        return new InterruptibleCharSequence(text, this);
+    }
+}
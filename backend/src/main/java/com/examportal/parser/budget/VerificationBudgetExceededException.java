@@ -0,0 +1,10 @@
+package com.examportal.parser.budget;
+
+/**
+ * Thrown when a verification overruns its {@link VerificationBudget}
+ */
+public class VerificationBudgetExceededException extends RuntimeException {
+    public VerificationBudgetExceededException(String message) {
+        super(message);
+    }
+}
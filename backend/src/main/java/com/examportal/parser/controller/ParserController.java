@@ -1,12 +1,17 @@
 package com.examportal.parser.controller;
 
+import com.examportal.parser.model.EditorDocument;
+import com.examportal.parser.model.TextEdit;
 import com.examportal.parser.model.VerificationResult;
 import com.examportal.parser.model.VerificationRule;
+import com.examportal.parser.service.IncrementalVerificationService;
 import com.examportal.parser.service.ParserFactory;
 import com.examportal.parser.service.ParserService;
+import com.examportal.security.DepartmentSecurityService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -26,9 +31,15 @@ public class ParserController {
     private static final Logger log = LoggerFactory.getLogger(ParserController.class);
 
     private final ParserFactory parserFactory;
+    private final IncrementalVerificationService incrementalVerificationService;
+    private final DepartmentSecurityService departmentSecurityService;
 
-    public ParserController(ParserFactory parserFactory) {
+    public ParserController(ParserFactory parserFactory,
+            IncrementalVerificationService incrementalVerificationService,
+            DepartmentSecurityService departmentSecurityService) {
         this.parserFactory = parserFactory;
+        this.incrementalVerificationService = incrementalVerificationService;
+        this.departmentSecurityService = departmentSecurityService;
     }
 
     /**
@@ -37,7 +48,7 @@ public class ParserController {
      * POST /api/parser/verify
      */
     @PostMapping("/verify")
-    @PreAuthorize("hasAnyRole('STUDENT', 'MODERATOR', 'ADMIN')")
+    @PreAuthorize("hasAnyAuthority('STUDENT', 'MODERATOR', 'ADMIN')")
     public ResponseEntity<VerificationResult> verifyCode(@Valid @RequestBody VerifyRequest request) {
         log.info("Verifying {} code with {} rules", request.getLanguage(), 
                 request.getRules() != null ? request.getRules().size() : 0);
@@ -63,7 +74,7 @@ public class ParserController {
      * POST /api/parser/check-syntax
      */
     @PostMapping("/check-syntax")
-    @PreAuthorize("hasAnyRole('STUDENT', 'MODERATOR', 'ADMIN')")
+    @PreAuthorize("hasAnyAuthority('STUDENT', 'MODERATOR', 'ADMIN')")
     public ResponseEntity<SyntaxCheckResponse> checkSyntax(@Valid @RequestBody SyntaxCheckRequest request) {
         try {
             ParserService parser = parserFactory.getParser(request.getLanguage());
@@ -78,6 +89,67 @@ public class ParserController {
         }
     }
 
+    /**
+     * Open an editor document for incremental verification
+     * 
+     * POST /api/parser/documents
+     */
+    @PostMapping("/documents")
+    @PreAuthorize("hasAnyAuthority('STUDENT', 'MODERATOR', 'ADMIN')")
+    public ResponseEntity<DocumentResponse> openDocument(@Valid @RequestBody VerifyRequest request) {
+        try {
+            EditorDocument document = incrementalVerificationService.open(
+                    departmentSecurityService.getCurrentUserId(),
+                    request.getLanguage(), request.getCode(), request.getRules());
+            return ResponseEntity.ok(new DocumentResponse(document.getId(), document.getVersion(), document.getResult()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected editor document: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Apply edits to an open document and return the updated verification
+     * 
+     * POST /api/parser/documents/{documentId}/edits
+     */
+    @PostMapping("/documents/{documentId}/edits")
+    @PreAuthorize("hasAnyAuthority('STUDENT', 'MODERATOR', 'ADMIN')")
+    public ResponseEntity<DocumentResponse> editDocument(
+            @PathVariable String documentId,
+            @RequestBody EditDocumentRequest request) {
+        EditorDocument document = incrementalVerificationService
+                .find(documentId, departmentSecurityService.getCurrentUserId())
+                .orElse(null);
+        if (document == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            VerificationResult result = incrementalVerificationService.applyEdits(
+                    document, request.getBaseVersion(), request.getEdits());
+            return ResponseEntity.ok(new DocumentResponse(documentId, request.getBaseVersion() + 1, result));
+        } catch (IllegalStateException e) {
+            // Client is out of sync and must reopen the document
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected edits for document {}: {}", documentId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Close an editor document
+     * 
+     * DELETE /api/parser/documents/{documentId}
+     */
+    @DeleteMapping("/documents/{documentId}")
+    @PreAuthorize("hasAnyAuthority('STUDENT', 'MODERATOR', 'ADMIN')")
+    public ResponseEntity<Void> closeDocument(@PathVariable String documentId) {
+        boolean closed = incrementalVerificationService.close(documentId, departmentSecurityService.getCurrentUserId());
+        return closed ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
     /**
      * Get supported languages
      * 
@@ -85,7 +157,7 @@ public class ParserController {
      */
     @GetMapping("/languages")
     public ResponseEntity<List<String>> getSupportedLanguages() {
-        return ResponseEntity.ok(List.of("JAVA", "PYTHON"));
+        return ResponseEntity.ok(List.of("JAVA", "PYTHON", "CPP"));
     }
 
     public static class VerifyRequest {
@@ -139,4 +211,36 @@ public class ParserController {
         public String getMessage() { return message; }
         public void setMessage(String message) { this.message = message; }
     }
+
+    public static class EditDocumentRequest {
+        private long baseVersion;
+        private List<TextEdit> edits;
+
+        public EditDocumentRequest() {}
+
+        public long getBaseVersion() { return baseVersion; }
+        public void setBaseVersion(long baseVersion) { this.baseVersion = baseVersion; }
+        public List<TextEdit> getEdits() { return edits; }
+        public void setEdits(List<TextEdit> edits) { this.edits = edits; }
+    }
+
+    public static class DocumentResponse {
+        private String documentId;
+        private long version;
+        private VerificationResult result;
+
+        public DocumentResponse() {}
+        public DocumentResponse(String documentId, long version, VerificationResult result) {
+            this.documentId = documentId;
+            this.version = version;
+            this.result = result;
+        }
+
+        public String getDocumentId() { return documentId; }
+        public void setDocumentId(String documentId) { this.documentId = documentId; }
+        public long getVersion() { return version; }
+        public void setVersion(long version) { this.version = version; }
+        public VerificationResult getResult() { return result; }
+        public void setResult(VerificationResult result) { this.result = result; }
+    }
 }
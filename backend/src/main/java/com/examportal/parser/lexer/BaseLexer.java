@@ -0,0 +1,413 @@
+package com.examportal.parser.lexer;
+
+import com.examportal.parser.budget.InterruptibleCharSequence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Base class for the hand-written source lexers
+ *
+ * Handles position and line tracking, bracket matching, error collection and
+ * the token kinds whose syntax is shared between languages (names, numbers,
+ * operators). Subclasses drive the scan loop and handle strings, comments and
+ * layout rules. A lexer instance is single-use: create one per source.
+ *
+ * When checkpointing is enabled the lexer snapshots its state at the first
+ * scan-loop position after every newline. {@link #retokenize} uses those
+ * snapshots to re-lex only the region around an edit: it resumes from the last
+ * checkpoint before the edit and stops as soon as its state matches the old
+ * run's state at the corresponding position past the edit, splicing the old
+ * tokens back in (shifted) from there.
+ */
+public abstract class BaseLexer {
+
+    /** Stop recording errors after this many; the first one is what students see */
+    private static final int MAX_ERRORS = 20;
+
+    protected final CharSequence src;
+    protected final int length;
+    protected int pos;
+    protected int line = 1;
+
+    protected final List<Token> tokens = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+
+    private int[] lineStarts = new int[64];
+    private int lineCount = 1;
+
+    private char[] bracketStack = new char[16];
+    private int[] bracketOffsets = new int[16];
+    private int bracketDepth;
+
+    // Checkpointing / incremental state
+    private final List<Checkpoint> checkpoints;
+    private boolean newlineSinceCheckpoint = true;
+    private TokenizedSource previous;
+    private int oldEditStart;
+    private int delta;
+    private int convergeFrom;
+    private int oldCursor;
+    private int windowFrom;
+    private int windowOldTo = -1;
+    private int windowNewTo = -1;
+    private boolean converged;
+
+    protected BaseLexer(CharSequence src, boolean checkpointing) {
+        this.src = src;
+        this.length = src.length();
+        this.checkpoints = checkpointing ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Run the lexer over the whole source
+     */
+    public TokenizedSource tokenize() {
+        scan();
+        return finish();
+    }
+
+    /**
+     * Re-lex after a single edit, reusing tokens of {@code previous} outside the
+     * affected region. {@link #src} must be the source after the edit.
+     *
+     * @param previous       Result of lexing the source before the edit (with checkpoints)
+     * @param offset         Start of the edit
+     * @param removedLength  Number of characters replaced in the old source
+     * @param insertedLength Number of characters inserted in their place
+     */
+    public TokenizedSource retokenize(TokenizedSource previous, int offset, int removedLength, int insertedLength) {
+        List<Checkpoint> old = previous.getCheckpoints();
+        if (checkpoints == null || old == null || old.isEmpty() || offset < 0) {
+            return tokenize();
+        }
+
+        int index = lastCheckpointAtOrBefore(old, offset);
+        Checkpoint start = old.get(index);
+
+        this.previous = previous;
+        this.oldEditStart = offset;
+        this.delta = insertedLength - removedLength;
+        this.convergeFrom = offset + insertedLength;
+        this.oldCursor = index;
+        this.windowFrom = start.tokenCount;
+
+        // Restore everything the old run produced before the checkpoint
+        tokens.addAll(previous.getTokens().subList(0, start.tokenCount));
+        errors.addAll(previous.getErrors().subList(0, start.errorCount));
+        lineStarts = Arrays.copyOf(previous.lineStarts(), Math.max(64, start.line * 2));
+        lineCount = start.line;
+        checkpoints.addAll(old.subList(0, index));
+        pos = start.pos;
+        line = start.line;
+        bracketDepth = start.brackets.length;
+        bracketStack = Arrays.copyOf(start.brackets, Math.max(16, bracketDepth * 2));
+        bracketOffsets = Arrays.copyOf(start.bracketOffsets, Math.max(16, bracketDepth * 2));
+        restoreState(start.state);
+
+        scan();
+        return finish();
+    }
+
+    private static int lastCheckpointAtOrBefore(List<Checkpoint> old, int offset) {
+        int low = 0;
+        int high = old.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (old.get(mid).pos <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private TokenizedSource finish() {
+        if (!converged) {
+            while (bracketDepth > 0) {
+                bracketDepth--;
+                error("Unclosed '" + bracketStack[bracketDepth] + "' opened at line "
+                        + lineOf(bracketOffsets[bracketDepth]));
+            }
+        }
+        // Keep the plain text: the result outlives the budget the lexer ran under
+        TokenizedSource result = new TokenizedSource(InterruptibleCharSequence.unwrap(src), tokens, errors,
+                lineStarts, lineCount, checkpoints);
+        if (previous != null) {
+            result.setEditWindow(windowFrom,
+                    windowOldTo >= 0 ? windowOldTo : previous.getTokens().size(),
+                    windowNewTo >= 0 ? windowNewTo : tokens.size());
+        }
+        return result;
+    }
+
+    /**
+     * Language-specific scan loop; must consume the source up to {@link #length}
+     * and call {@link #checkpoint()} at the top of every iteration
+     */
+    protected abstract void scan();
+
+    /**
+     * Language-specific lexer state (beyond position, line and brackets) packed
+     * into ints, as of a scan-loop checkpoint
+     */
+    protected abstract int[] saveState();
+
+    protected abstract void restoreState(int[] state);
+
+    /**
+     * Record a checkpoint if a newline was consumed since the last one, and
+     * detect convergence with the previous run during {@link #retokenize}.
+     *
+     * @return true if lexing converged and the scan loop must stop immediately
+     */
+    protected boolean checkpoint() {
+        if (checkpoints == null || !newlineSinceCheckpoint) {
+            return false;
+        }
+        newlineSinceCheckpoint = false;
+
+        Checkpoint current = new Checkpoint(pos, line, tokens.size(), errors.size(),
+                Arrays.copyOf(bracketStack, bracketDepth), Arrays.copyOf(bracketOffsets, bracketDepth),
+                saveState());
+        if (previous != null && pos >= convergeFrom && converge(current)) {
+            pos = length;
+            return true;
+        }
+        checkpoints.add(current);
+        return false;
+    }
+
+    private boolean converge(Checkpoint current) {
+        List<Checkpoint> old = previous.getCheckpoints();
+        int target = current.pos - delta;
+        while (oldCursor < old.size() && old.get(oldCursor).pos < target) {
+            oldCursor++;
+        }
+        if (oldCursor >= old.size()) {
+            return false;
+        }
+        Checkpoint match = old.get(oldCursor);
+        if (match.pos != target || match.errorCount != previous.getErrors().size()
+                || !Arrays.equals(match.state, current.state)
+                || !Arrays.equals(match.brackets, current.brackets)) {
+            return false;
+        }
+        for (int i = 0; i < match.bracketOffsets.length; i++) {
+            if (shift(match.bracketOffsets[i]) != current.bracketOffsets[i]) {
+                return false;
+            }
+        }
+
+        // Splice the old tail back in, shifted into new coordinates
+        int lineDelta = current.line - match.line;
+        int tokenDelta = current.tokenCount - match.tokenCount;
+        windowOldTo = match.tokenCount;
+        windowNewTo = current.tokenCount;
+
+        List<Token> oldTokens = previous.getTokens();
+        for (int i = match.tokenCount; i < oldTokens.size(); i++) {
+            Token t = oldTokens.get(i);
+            tokens.add(new Token(t.type(), t.text(), t.line() + lineDelta, t.start() + delta, t.end() + delta));
+        }
+
+        int[] oldLineStarts = previous.lineStarts();
+        for (int i = match.line; i < previous.getLineCount(); i++) {
+            appendLineStart(oldLineStarts[i] + delta);
+        }
+
+        checkpoints.add(current);
+        for (int i = oldCursor + 1; i < old.size(); i++) {
+            Checkpoint c = old.get(i);
+            int[] offsets = new int[c.bracketOffsets.length];
+            for (int b = 0; b < offsets.length; b++) {
+                offsets[b] = shift(c.bracketOffsets[b]);
+            }
+            checkpoints.add(new Checkpoint(c.pos + delta, c.line + lineDelta, c.tokenCount + tokenDelta,
+                    c.errorCount - match.errorCount + current.errorCount, c.brackets, offsets, c.state));
+        }
+
+        converged = true;
+        return true;
+    }
+
+    private int shift(int oldOffset) {
+        return oldOffset < oldEditStart ? oldOffset : oldOffset + delta;
+    }
+
+    protected char peek(int ahead) {
+        int i = pos + ahead;
+        return i < length ? src.charAt(i) : '\0';
+    }
+
+    protected void emit(TokenType type, int start, int end, int tokenLine) {
+        tokens.add(new Token(type, src.subSequence(start, end).toString(), tokenLine, start, end));
+    }
+
+    protected void error(String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(message);
+        }
+    }
+
+    /**
+     * Consume a '\n' at the current position and record the next line start
+     */
+    protected void consumeNewline() {
+        pos++;
+        line++;
+        appendLineStart(pos);
+        newlineSinceCheckpoint = true;
+    }
+
+    private void appendLineStart(int offset) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        }
+        lineStarts[lineCount++] = offset;
+    }
+
+    private int lineOf(int offset) {
+        int index = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    protected int bracketDepth() {
+        return bracketDepth;
+    }
+
+    protected static boolean isNameStart(char c) {
+        return c == '_' || Character.isLetter(c);
+    }
+
+    protected static boolean isNamePart(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    protected void scanName() {
+        int start = pos;
+        while (pos < length && isNamePart(src.charAt(pos))) {
+            pos++;
+        }
+        emit(TokenType.NAME, start, pos, line);
+    }
+
+    /**
+     * Numeric literal in any of the common notations (decimal, hex, binary,
+     * floats with exponents, digit separators and type suffixes)
+     */
+    protected void scanNumber() {
+        int start = pos;
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (isNamePart(c) || c == '.' || isDigitSeparator(c)) {
+                pos++;
+            } else if ((c == '+' || c == '-') && isExponentMarker(src.charAt(pos - 1), start)) {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        emit(TokenType.NUMBER, start, pos, line);
+    }
+
+    /**
+     * Extra digit separator accepted inside numeric literals besides '_'
+     */
+    protected boolean isDigitSeparator(char c) {
+        return false;
+    }
+
+    private boolean isExponentMarker(char c, int start) {
+        boolean hex = pos - start > 1 && src.charAt(start) == '0'
+                && (src.charAt(start + 1) == 'x' || src.charAt(start + 1) == 'X');
+        return hex ? (c == 'p' || c == 'P') : (c == 'e' || c == 'E');
+    }
+
+    /**
+     * Emit the longest operator from {@code ops} (ordered longest first) at the
+     * current position, falling back to a single character. Brackets are
+     * matched as they are consumed.
+     */
+    protected void scanOperator(String[] ops) {
+        int start = pos;
+        for (String op : ops) {
+            if (matchesAt(op)) {
+                pos += op.length();
+                emit(TokenType.OP, start, pos, line);
+                return;
+            }
+        }
+        char c = src.charAt(pos++);
+        switch (c) {
+            case '(', '[', '{' -> openBracket(c, start);
+            case ')' -> closeBracket('(', c);
+            case ']' -> closeBracket('[', c);
+            case '}' -> closeBracket('{', c);
+            default -> {
+                // plain single-character operator
+            }
+        }
+        emit(TokenType.OP, start, pos, line);
+    }
+
+    private boolean matchesAt(String op) {
+        if (pos + op.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < op.length(); i++) {
+            if (src.charAt(pos + i) != op.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void openBracket(char c, int offset) {
+        if (bracketDepth == bracketStack.length) {
+            bracketStack = Arrays.copyOf(bracketStack, bracketDepth * 2);
+            bracketOffsets = Arrays.copyOf(bracketOffsets, bracketDepth * 2);
+        }
+        bracketStack[bracketDepth] = c;
+        bracketOffsets[bracketDepth] = offset;
+        bracketDepth++;
+    }
+
+    private void closeBracket(char expectedOpen, char close) {
+        if (bracketDepth == 0) {
+            error("Unmatched '" + close + "' at line " + line);
+            return;
+        }
+        if (bracketStack[bracketDepth - 1] != expectedOpen) {
+            error("Mismatched '" + close + "' at line " + line + " (opened '"
+                    + bracketStack[bracketDepth - 1] + "' at line " + lineOf(bracketOffsets[bracketDepth - 1]) + ")");
+        }
+        bracketDepth--;
+    }
+
+    /**
+     * Lexer state at a scan-loop position
+     */
+    public static final class Checkpoint {
+        private final int pos;
+        private final int line;
+        private final int tokenCount;
+        private final int errorCount;
+        private final char[] brackets;
+        private final int[] bracketOffsets;
+        private final int[] state;
+
+        private Checkpoint(int pos, int line, int tokenCount, int errorCount,
+                char[] brackets, int[] bracketOffsets, int[] state) {
+            this.pos = pos;
+            this.line = line;
+            this.tokenCount = tokenCount;
+            this.errorCount = errorCount;
+            this.brackets = brackets;
+            this.bracketOffsets = bracketOffsets;
+            this.state = state;
+        }
+    }
+}
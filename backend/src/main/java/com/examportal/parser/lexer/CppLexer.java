@@ -0,0 +1,251 @@
+package com.examportal.parser.lexer;
+
+/**
+ * Hand-written C/C++ lexer
+ *
+ * Comments are dropped, string/character literals (including encoding
+ * prefixes and raw strings) become single STRING tokens, and each
+ * preprocessor directive becomes one PREPROCESSOR token, so nothing inside
+ * them is mistaken for code.
+ */
+public class CppLexer extends BaseLexer {
+
+    private static final String[] OPERATORS = {
+            "<<=", ">>=", "->*", "...", "<=>",
+            "::", "->", "++", "--", "<<", ">>", "<=", ">=", "==", "!=", "&&", "||",
+            "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", ".*", "##"
+    };
+
+    private boolean atLineStart = true;
+
+    public CppLexer(CharSequence src) {
+        this(src, false);
+    }
+
+    public CppLexer(CharSequence src, boolean checkpointing) {
+        super(src, checkpointing);
+    }
+
+    public static TokenizedSource tokenize(CharSequence src) {
+        return new CppLexer(src).tokenize();
+    }
+
+    @Override
+    protected void scan() {
+        while (pos < length) {
+            if (checkpoint()) {
+                return;
+            }
+            char c = src.charAt(pos);
+            if (c == '\n') {
+                consumeNewline();
+                atLineStart = true;
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B') {
+                pos++;
+                continue;
+            }
+            if (c == '\\' && (peek(1) == '\n' || (peek(1) == '\r' && peek(2) == '\n'))) {
+                pos += peek(1) == '\r' ? 1 : 0;
+                pos++;
+                consumeNewline();
+                continue;
+            }
+            if (c == '/' && peek(1) == '/') {
+                skipLineComment();
+                continue;
+            }
+            if (c == '/' && peek(1) == '*') {
+                skipBlockComment();
+                continue;
+            }
+
+            boolean lineStart = atLineStart;
+            atLineStart = false;
+
+            if (c == '#' && lineStart) {
+                scanDirective();
+            } else if (c == '"' || c == '\'') {
+                scanQuoted(pos, c);
+            } else if (isNameStart(c)) {
+                scanNameOrPrefixedLiteral();
+            } else if (Character.isDigit(c) || (c == '.' && Character.isDigit(peek(1)))) {
+                scanNumber();
+            } else {
+                scanOperator(OPERATORS);
+            }
+        }
+        emit(TokenType.EOF, pos, pos, line);
+    }
+
+    @Override
+    protected int[] saveState() {
+        return new int[] { atLineStart ? 1 : 0 };
+    }
+
+    @Override
+    protected void restoreState(int[] state) {
+        atLineStart = state[0] != 0;
+    }
+
+    @Override
+    protected boolean isDigitSeparator(char c) {
+        return c == '\'';
+    }
+
+    private void skipLineComment() {
+        while (pos < length && src.charAt(pos) != '\n') {
+            if (src.charAt(pos) == '\\' && peek(1) == '\n') {
+                pos++;
+                consumeNewline();
+            } else {
+                pos++;
+            }
+        }
+    }
+
+    private void skipBlockComment() {
+        int startLine = line;
+        pos += 2;
+        while (pos < length) {
+            if (src.charAt(pos) == '*' && peek(1) == '/') {
+                pos += 2;
+                return;
+            }
+            if (src.charAt(pos) == '\n') {
+                consumeNewline();
+            } else {
+                pos++;
+            }
+        }
+        error("Unterminated comment starting at line " + startLine);
+    }
+
+    /**
+     * Preprocessor directive up to the end of the line, honouring backslash
+     * continuations. Comments inside the directive are left in its text.
+     */
+    private void scanDirective() {
+        int start = pos;
+        int startLine = line;
+        while (pos < length && src.charAt(pos) != '\n') {
+            if (src.charAt(pos) == '\\' && (peek(1) == '\n' || (peek(1) == '\r' && peek(2) == '\n'))) {
+                pos += peek(1) == '\r' ? 2 : 1;
+                consumeNewline();
+            } else {
+                pos++;
+            }
+        }
+        int end = pos;
+        while (end > start && Character.isWhitespace(src.charAt(end - 1))) {
+            end--;
+        }
+        emit(TokenType.PREPROCESSOR, start, end, startLine);
+    }
+
+    private void scanNameOrPrefixedLiteral() {
+        int start = pos;
+        int end = pos;
+        while (end < length && end - start < 3 && isNamePart(src.charAt(end))) {
+            end++;
+        }
+        char next = end < length ? src.charAt(end) : '\0';
+        if (next == '"' || next == '\'') {
+            String prefix = src.subSequence(start, end).toString();
+            switch (prefix) {
+                case "R", "u8R", "uR", "UR", "LR" -> {
+                    if (next == '"') {
+                        pos = end;
+                        scanRawString(start);
+                        return;
+                    }
+                }
+                case "u8", "u", "U", "L" -> {
+                    pos = end;
+                    scanQuoted(start, next);
+                    return;
+                }
+                default -> {
+                    // ordinary identifier followed by a quote
+                }
+            }
+        }
+        scanName();
+    }
+
+    /**
+     * Ordinary string or character literal whose opening quote is at {@link #pos}
+     */
+    private void scanQuoted(int start, char quote) {
+        int startLine = line;
+        pos++;
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (c == '\\' && pos + 1 < length) {
+                pos++;
+                if (src.charAt(pos) == '\n') {
+                    consumeNewline();
+                } else {
+                    pos++;
+                }
+            } else if (c == quote) {
+                pos++;
+                emit(TokenType.STRING, start, pos, startLine);
+                return;
+            } else if (c == '\n') {
+                break;
+            } else {
+                pos++;
+            }
+        }
+        error((quote == '"' ? "Unterminated string literal" : "Unterminated character literal")
+                + " at line " + startLine);
+        emit(TokenType.STRING, start, pos, startLine);
+    }
+
+    /**
+     * Raw string R"delim( ... )delim" whose opening quote is at {@link #pos}
+     */
+    private void scanRawString(int start) {
+        int startLine = line;
+        pos++;
+        int delimStart = pos;
+        while (pos < length && src.charAt(pos) != '(' && src.charAt(pos) != '\n' && pos - delimStart <= 16) {
+            pos++;
+        }
+        if (pos >= length || src.charAt(pos) != '(') {
+            error("Invalid raw string delimiter at line " + startLine);
+            emit(TokenType.STRING, start, pos, startLine);
+            return;
+        }
+        String terminator = ")" + src.subSequence(delimStart, pos) + "\"";
+        pos++;
+        while (pos < length) {
+            if (src.charAt(pos) == ')' && regionEquals(pos, terminator)) {
+                pos += terminator.length();
+                emit(TokenType.STRING, start, pos, startLine);
+                return;
+            }
+            if (src.charAt(pos) == '\n') {
+                consumeNewline();
+            } else {
+                pos++;
+            }
+        }
+        error("Unterminated raw string literal at line " + startLine);
+        emit(TokenType.STRING, start, pos, startLine);
+    }
+
+    private boolean regionEquals(int at, String text) {
+        if (at + text.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (src.charAt(at + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,238 @@
+package com.examportal.parser.lexer;
+
+import java.util.Arrays;
+
+/**
+ * Hand-written Python lexer
+ *
+ * Produces the same token stream as CPython's tokenizer for the purposes of
+ * verification: NEWLINE ends each logical line, INDENT/DEDENT bracket blocks,
+ * comments and blank lines are dropped, and newlines inside brackets or after
+ * a backslash continue the logical line. String literals (including prefixed
+ * and triple-quoted forms) are single STRING tokens, so keywords inside them
+ * are never mistaken for code.
+ */
+public class PythonLexer extends BaseLexer {
+
+    private static final String[] OPERATORS = {
+            "**=", "//=", ">>=", "<<=", "...",
+            "**", "//", "==", "!=", "<=", ">=", "->", "+=", "-=", "*=", "/=", "%=",
+            "&=", "|=", "^=", "@=", "<<", ">>", ":="
+    };
+
+    private static final int TAB_SIZE = 8;
+
+    private int[] indentStack = new int[16];
+    private int indentDepth = 1; // indentStack[0] == 0
+    private boolean atLineStart = true;
+    private boolean lineHasTokens;
+
+    public PythonLexer(CharSequence src) {
+        this(src, false);
+    }
+
+    public PythonLexer(CharSequence src, boolean checkpointing) {
+        super(src, checkpointing);
+    }
+
+    public static TokenizedSource tokenize(CharSequence src) {
+        return new PythonLexer(src).tokenize();
+    }
+
+    @Override
+    protected void scan() {
+        while (pos < length) {
+            if (checkpoint()) {
+                return;
+            }
+            if (atLineStart) {
+                atLineStart = false;
+                if (bracketDepth() == 0 && handleIndentation()) {
+                    continue;
+                }
+            }
+
+            char c = src.charAt(pos);
+            if (c == '\n') {
+                if (bracketDepth() == 0) {
+                    endLogicalLine();
+                    atLineStart = true;
+                }
+                consumeNewline();
+            } else if (c == ' ' || c == '\t' || c == '\r' || c == '\f') {
+                pos++;
+            } else if (c == '#') {
+                skipComment();
+            } else if (c == '\\' && (peek(1) == '\n' || (peek(1) == '\r' && peek(2) == '\n'))) {
+                pos += peek(1) == '\r' ? 1 : 0;
+                pos++;
+                consumeNewline();
+            } else if (c == '"' || c == '\'') {
+                scanString(pos);
+            } else if (isNameStart(c)) {
+                scanNameOrPrefixedString();
+            } else if (Character.isDigit(c) || (c == '.' && Character.isDigit(peek(1)))) {
+                scanNumber();
+                lineHasTokens = true;
+            } else {
+                scanOperator(OPERATORS);
+                lineHasTokens = true;
+            }
+        }
+
+        endLogicalLine();
+        while (indentDepth > 1) {
+            indentDepth--;
+            emit(TokenType.DEDENT, pos, pos, line);
+        }
+        emit(TokenType.EOF, pos, pos, line);
+    }
+
+    @Override
+    protected int[] saveState() {
+        int[] state = new int[indentDepth + 2];
+        state[0] = (atLineStart ? 1 : 0) | (lineHasTokens ? 2 : 0);
+        state[1] = indentDepth;
+        System.arraycopy(indentStack, 0, state, 2, indentDepth);
+        return state;
+    }
+
+    @Override
+    protected void restoreState(int[] state) {
+        atLineStart = (state[0] & 1) != 0;
+        lineHasTokens = (state[0] & 2) != 0;
+        indentDepth = state[1];
+        indentStack = Arrays.copyOfRange(state, 2, Math.max(state.length, 2 + 16));
+    }
+
+    /**
+     * Measure leading whitespace and emit INDENT/DEDENT tokens.
+     *
+     * @return true if the line is blank or comment-only and was skipped
+     */
+    private boolean handleIndentation() {
+        int column = 0;
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (c == ' ') {
+                column++;
+            } else if (c == '\t') {
+                column = (column / TAB_SIZE + 1) * TAB_SIZE;
+            } else if (c == '\f') {
+                column = 0;
+            } else {
+                break;
+            }
+            pos++;
+        }
+
+        char c = peek(0);
+        if (pos >= length || c == '\n' || c == '#' || (c == '\r' && peek(1) == '\n')) {
+            if (c == '#') {
+                skipComment();
+            }
+            if (pos < length) {
+                while (src.charAt(pos) != '\n') {
+                    pos++;
+                }
+                consumeNewline();
+                atLineStart = true;
+            }
+            return true;
+        }
+
+        int current = indentStack[indentDepth - 1];
+        if (column > current) {
+            if (indentDepth == indentStack.length) {
+                indentStack = Arrays.copyOf(indentStack, indentDepth * 2);
+            }
+            indentStack[indentDepth++] = column;
+            emit(TokenType.INDENT, pos, pos, line);
+        } else if (column < current) {
+            while (indentDepth > 1 && indentStack[indentDepth - 1] > column) {
+                indentDepth--;
+                emit(TokenType.DEDENT, pos, pos, line);
+            }
+            if (indentStack[indentDepth - 1] != column) {
+                error("Inconsistent dedent at line " + line);
+            }
+        }
+        return false;
+    }
+
+    private void endLogicalLine() {
+        if (lineHasTokens) {
+            emit(TokenType.NEWLINE, pos, pos, line);
+            lineHasTokens = false;
+        }
+    }
+
+    private void skipComment() {
+        while (pos < length && src.charAt(pos) != '\n') {
+            pos++;
+        }
+    }
+
+    private void scanNameOrPrefixedString() {
+        int start = pos;
+        int end = pos;
+        while (end < length && end - start <= 2 && isStringPrefixChar(src.charAt(end))) {
+            end++;
+        }
+        if (end > start && end - start <= 2 && end < length
+                && (src.charAt(end) == '"' || src.charAt(end) == '\'')) {
+            pos = end;
+            scanString(start);
+            return;
+        }
+        scanName();
+        lineHasTokens = true;
+    }
+
+    private static boolean isStringPrefixChar(char c) {
+        return switch (c) {
+            case 'r', 'R', 'b', 'B', 'u', 'U', 'f', 'F' -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Scan a string literal whose opening quote is at {@link #pos}
+     *
+     * @param start Offset of the literal including any prefix
+     */
+    private void scanString(int start) {
+        int startLine = line;
+        char quote = src.charAt(pos);
+        boolean triple = peek(1) == quote && peek(2) == quote;
+        pos += triple ? 3 : 1;
+
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (c == '\\' && pos + 1 < length) {
+                pos++;
+                if (src.charAt(pos) == '\n') {
+                    consumeNewline();
+                } else {
+                    pos++;
+                }
+            } else if (c == quote && (!triple || (peek(1) == quote && peek(2) == quote))) {
+                pos += triple ? 3 : 1;
+                emit(TokenType.STRING, start, pos, startLine);
+                lineHasTokens = true;
+                return;
+            } else if (c == '\n') {
+                if (!triple) {
+                    break;
+                }
+                consumeNewline();
+            } else {
+                pos++;
+            }
+        }
+
+        error("Unterminated string literal at line " + startLine);
+        emit(TokenType.STRING, start, pos, startLine);
+        lineHasTokens = true;
+    }
+}
@@ -0,0 +1,25 @@
+package com.examportal.parser.lexer;
+
+/**
+ * Single lexical token
+ *
+ * @param type  Token category
+ * @param text  Token text as it appears in the source
+ * @param line  1-based line of the first character
+ * @param start Offset of the first character
+ * @param end   Offset one past the last character
+ */
+public record Token(TokenType type, String text, int line, int start, int end) {
+
+    public boolean is(TokenType expectedType, String expectedText) {
+        return type == expectedType && text.equals(expectedText);
+    }
+
+    public boolean isName(String name) {
+        return is(TokenType.NAME, name);
+    }
+
+    public boolean isOp(String op) {
+        return is(TokenType.OP, op);
+    }
+}
@@ -0,0 +1,16 @@
+package com.examportal.parser.lexer;
+
+/**
+ * Token categories shared by the hand-written source lexers
+ */
+public enum TokenType {
+    NAME,       // Identifiers and keywords
+    NUMBER,     // Numeric literals
+    STRING,     // String and character literals
+    OP,         // Operators and punctuation
+    NEWLINE,    // End of a logical line (Python)
+    INDENT,     // Indentation increase (Python)
+    DEDENT,     // Indentation decrease (Python)
+    PREPROCESSOR, // Whole preprocessor directive line (C/C++)
+    EOF
+}
@@ -0,0 +1,83 @@
+package com.examportal.parser.lexer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Output of a lexer run: tokens, lexical errors and line offsets for snippets
+ *
+ * Sources produced by a checkpointing lexer also carry the checkpoints needed
+ * to re-lex them incrementally, and sources produced by
+ * {@link BaseLexer#retokenize} describe which token range was re-lexed.
+ */
+public class TokenizedSource {
+
+    private final CharSequence source;
+    private final List<Token> tokens;
+    private final List<String> errors;
+    private final int[] lineStarts;
+    private final int lineCount;
+    private final List<BaseLexer.Checkpoint> checkpoints;
+
+    // Token window re-lexed by the last incremental run: tokens [editFrom, editOldTo)
+    // of the previous source were replaced by tokens [editFrom, editNewTo) of this one
+    private int editFrom = -1;
+    private int editOldTo = -1;
+    private int editNewTo = -1;
+
+    public TokenizedSource(CharSequence source, List<Token> tokens, List<String> errors,
+            int[] lineStarts, int lineCount, List<BaseLexer.Checkpoint> checkpoints) {
+        this.source = source;
+        this.tokens = tokens;
+        this.errors = errors;
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+        this.checkpoints = checkpoints;
+    }
+
+    public CharSequence getSource() { return source; }
+    public List<Token> getTokens() { return tokens; }
+    public List<String> getErrors() { return errors; }
+    public int getLineCount() { return lineCount; }
+    public List<BaseLexer.Checkpoint> getCheckpoints() { return checkpoints; }
+    public int getEditFrom() { return editFrom; }
+    public int getEditOldTo() { return editOldTo; }
+    public int getEditNewTo() { return editNewTo; }
+
+    int[] lineStarts() {
+        return lineStarts;
+    }
+
+    void setEditWindow(int from, int oldTo, int newTo) {
+        this.editFrom = from;
+        this.editOldTo = oldTo;
+        this.editNewTo = newTo;
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * 1-based line containing {@code offset}
+     */
+    public int lineOf(int offset) {
+        int index = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Text of a 1-based source line without its line terminator
+     */
+    public String lineText(int line) {
+        if (line < 1 || line > lineCount) {
+            return "";
+        }
+        int start = lineStarts[line - 1];
+        int end = line < lineCount ? lineStarts[line] - 1 : source.length();
+        if (end > start && source.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return source.subSequence(start, Math.max(start, end)).toString();
+    }
+}
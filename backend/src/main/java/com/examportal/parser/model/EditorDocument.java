@@ -0,0 +1,119 @@
+package com.examportal.parser.model;
+
+import com.examportal.parser.lexer.TokenizedSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Editor Document
+ * 
+ * Server-held copy of a program being edited, with the lexer output and the
+ * per-rule verdicts of the last verification, so edits can be verified
+ * incrementally. Guarded by its own monitor.
+ */
+public class EditorDocument {
+
+    private final String id;
+    private final Long ownerId;
+    private final String language;
+    private final List<VerificationRule> rules;
+    private final StringBuilder text;
+    private long version;
+    private volatile long lastAccess;
+
+    private TokenizedSource source;
+    private List<List<VerificationResult.Violation>> ruleViolations;
+    private boolean[] dirtyRules;
+    private VerificationResult result;
+
+    public EditorDocument(String id, Long ownerId, String language, List<VerificationRule> rules, String text) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.language = language;
+        this.rules = rules;
+        this.text = new StringBuilder(text);
+        this.dirtyRules = new boolean[rules.size()];
+        touch();
+    }
+
+    public String getId() { return id; }
+    public Long getOwnerId() { return ownerId; }
+    public String getLanguage() { return language; }
+    public List<VerificationRule> getRules() { return rules; }
+    public StringBuilder getText() { return text; }
+    public long getVersion() { return version; }
+    public long getLastAccess() { return lastAccess; }
+    public TokenizedSource getSource() { return source; }
+    public void setSource(TokenizedSource source) { this.source = source; }
+    public VerificationResult getResult() { return result; }
+    public void setResult(VerificationResult result) { this.result = result; }
+    public List<List<VerificationResult.Violation>> getRuleViolations() { return ruleViolations; }
+    public boolean[] getDirtyRules() { return dirtyRules; }
+
+    public void incrementVersion() {
+        version++;
+    }
+
+    public void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    public boolean hasRuleVerdicts() {
+        return ruleViolations != null;
+    }
+
+    /**
+     * Store verdicts for all rules from a full evaluation, grouped by rule
+     */
+    public void setAllRuleViolations(List<VerificationResult.Violation> violations) {
+        ruleViolations = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            ruleViolations.add(new ArrayList<>());
+        }
+        replaceRuleViolations(violations);
+        Arrays.fill(dirtyRules, false);
+    }
+
+    /**
+     * Replace verdicts of the rules that produced {@code violations} or are
+     * marked dirty, then clear the dirty flags
+     */
+    public void replaceRuleViolations(List<VerificationResult.Violation> violations) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (dirtyRules[i]) {
+                ruleViolations.get(i).clear();
+            }
+        }
+        for (VerificationResult.Violation violation : violations) {
+            int index = indexOfRule(violation.getRule());
+            if (index >= 0) {
+                ruleViolations.get(index).add(violation);
+            }
+        }
+        Arrays.fill(dirtyRules, false);
+    }
+
+    public void invalidateRuleVerdicts() {
+        ruleViolations = null;
+        Arrays.fill(dirtyRules, true);
+    }
+
+    public List<VerificationResult.Violation> allViolations() {
+        List<VerificationResult.Violation> all = new ArrayList<>();
+        if (ruleViolations != null) {
+            ruleViolations.forEach(all::addAll);
+        }
+        return all;
+    }
+
+    private int indexOfRule(Object rule) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i) == rule) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,29 @@
+package com.examportal.parser.model;
+
+/**
+ * Text Edit
+ * 
+ * Replaces {@code length} characters at {@code offset} with {@code text}.
+ * Offsets refer to the document after all previous edits in the same batch.
+ */
+public class TextEdit {
+
+    private int offset;
+    private int length;
+    private String text;
+
+    public TextEdit() {}
+
+    public TextEdit(int offset, int length, String text) {
+        this.offset = offset;
+        this.length = length;
+        this.text = text;
+    }
+
+    public int getOffset() { return offset; }
+    public void setOffset(int offset) { this.offset = offset; }
+    public int getLength() { return length; }
+    public void setLength(int length) { this.length = length; }
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+}
@@ -16,6 +16,7 @@ public class VerificationResult {
     private boolean passed;
     private boolean hasSyntaxErrors;
     private String syntaxErrorMessage;
+    private boolean budgetExceeded; // verification aborted by its time/size budget; verdict unknown
     private long parsingTimeMs;
     
     @Builder.Default
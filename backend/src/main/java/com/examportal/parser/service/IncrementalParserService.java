@@ -0,0 +1,39 @@
+package com.examportal.parser.service;
+
+import com.examportal.parser.analysis.RuleEvaluator;
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.lexer.TokenizedSource;
+import com.examportal.parser.model.VerificationRule;
+
+import java.util.List;
+
+/**
+ * Parser Service backed by a resumable lexer and a token-based rule evaluator
+ *
+ * Lets IncrementalVerificationService re-lex only the region around an edit and
+ * re-evaluate only the rules the edit can affect.
+ * Implementations: PythonParserService, CppParserService
+ */
+public interface IncrementalParserService extends ParserService {
+
+    /**
+     * Tokenize with checkpoints so the result can be re-lexed incrementally.
+     * Pass {@link VerificationBudget#wrap} text to bound the lexing time.
+     */
+    TokenizedSource tokenize(CharSequence code);
+
+    /**
+     * Re-lex {@code code} after a single edit to the source of {@code previous}
+     *
+     * @param offset         Start of the edit
+     * @param removedLength  Characters replaced in the previous source
+     * @param insertedLength Characters inserted in their place
+     */
+    TokenizedSource retokenize(CharSequence code, TokenizedSource previous,
+            int offset, int removedLength, int insertedLength);
+
+    /**
+     * Create a single-use evaluator for the given rules that spends {@code budget}
+     */
+    RuleEvaluator newEvaluator(TokenizedSource source, List<VerificationRule> rules, VerificationBudget budget);
+}
@@ -0,0 +1,361 @@
+package com.examportal.parser.service;
+
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.budget.VerificationBudgetExceededException;
+import com.examportal.parser.lexer.Token;
+import com.examportal.parser.lexer.TokenizedSource;
+import com.examportal.parser.model.EditorDocument;
+import com.examportal.parser.model.TextEdit;
+import com.examportal.parser.model.VerificationResult;
+import com.examportal.parser.model.VerificationRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental Verification Service
+ *
+ * Keeps open editor documents in memory and re-verifies them per edit:
+ * - Re-lexes only from the last lexer checkpoint before the edit until the
+ *   lexer state converges with the previous run
+ * - Re-evaluates only the rules whose verdict the changed tokens can affect;
+ *   cached violations of the other rules are shifted to their new lines
+ *
+ * Languages without an incremental parser (Java) are re-verified in full.
+ * Documents are bounded per user and globally, and evicted when idle.
+ *
+ * Each open or batch of edits runs under one {@link VerificationBudget}
+ * (parser.budget.*), shared by re-lexing and rule evaluation. On an overrun
+ * the result is marked budgetExceeded and the document drops its tokens and
+ * cached verdicts; the text stays current and the next edit re-lexes it in full.
+ */
+@Service
+public class IncrementalVerificationService {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalVerificationService.class);
+
+    private static final String WHOLE_PROGRAM_SNIPPET = "(entire code)";
+
+    private final ParserFactory parserFactory;
+    private final Map<String, EditorDocument> documents = new ConcurrentHashMap<>();
+
+    @Value("${parser.incremental.max-documents:2000}")
+    private int maxDocuments;
+
+    @Value("${parser.incremental.max-documents-per-user:5}")
+    private int maxDocumentsPerUser;
+
+    @Value("${parser.incremental.max-document-length:200000}")
+    private int maxDocumentLength;
+
+    @Value("${parser.incremental.idle-timeout-minutes:15}")
+    private long idleTimeoutMinutes;
+
+    @Value("${parser.budget.time-ms:" + VerificationBudget.DEFAULT_TIME_MS + "}")
+    private long budgetTimeMs = VerificationBudget.DEFAULT_TIME_MS;
+
+    @Value("${parser.budget.max-tokens:" + VerificationBudget.DEFAULT_MAX_TOKENS + "}")
+    private int maxTokens = VerificationBudget.DEFAULT_MAX_TOKENS;
+
+    public IncrementalVerificationService(ParserFactory parserFactory) {
+        this.parserFactory = parserFactory;
+    }
+
+    /**
+     * Open a document and verify it in full
+     *
+     * @throws IllegalArgumentException if the language is unsupported or the code too long
+     */
+    public EditorDocument open(Long ownerId, String language, String code, List<VerificationRule> rules) {
+        ParserService parser = parserFactory.getParser(language);
+        String text = code != null ? code : "";
+        if (text.length() > maxDocumentLength) {
+            throw new IllegalArgumentException("Document exceeds " + maxDocumentLength + " characters");
+        }
+
+        List<VerificationRule> ruleList = rules != null ? List.copyOf(rules) : List.of();
+        EditorDocument document = new EditorDocument(UUID.randomUUID().toString(), ownerId,
+                language.toUpperCase(), ruleList, text);
+        synchronized (document) {
+            verifyFully(document, parser, VerificationBudget.start(budgetTimeMs));
+        }
+
+        makeRoom(ownerId);
+        documents.put(document.getId(), document);
+        log.debug("Opened {} document {} for user {}", document.getLanguage(), document.getId(), ownerId);
+        return document;
+    }
+
+    /**
+     * Find a document owned by the given user
+     */
+    public Optional<EditorDocument> find(String documentId, Long ownerId) {
+        EditorDocument document = documents.get(documentId);
+        if (document == null || !document.getOwnerId().equals(ownerId)) {
+            return Optional.empty();
+        }
+        document.touch();
+        return Optional.of(document);
+    }
+
+    public boolean close(String documentId, Long ownerId) {
+        return find(documentId, ownerId).map(document -> documents.remove(documentId) != null).orElse(false);
+    }
+
+    /**
+     * Apply a batch of edits made against {@code baseVersion} and re-verify
+     *
+     * @throws IllegalStateException    if the document has moved past {@code baseVersion}
+     * @throws IllegalArgumentException if an edit is out of bounds or the result too long
+     */
+    public VerificationResult applyEdits(EditorDocument document, long baseVersion, List<TextEdit> edits) {
+        synchronized (document) {
+            if (document.getVersion() != baseVersion) {
+                throw new IllegalStateException("Document is at version " + document.getVersion()
+                        + ", edits were made against version " + baseVersion);
+            }
+            validateEdits(document.getText().length(), edits);
+
+            long startTime = System.currentTimeMillis();
+            VerificationBudget budget = VerificationBudget.start(budgetTimeMs);
+            ParserService parser = parserFactory.getParser(document.getLanguage());
+            if (parser instanceof IncrementalParserService incremental && document.getSource() != null) {
+                int next = 0;
+                try {
+                    while (next < edits.size()) {
+                        // Counted before the call: the text is replaced before anything can overrun
+                        applyIncrementally(document, incremental, edits.get(next++), budget);
+                    }
+                    reevaluate(document, incremental, budget, startTime);
+                } catch (VerificationBudgetExceededException e) {
+                    while (next < edits.size()) {
+                        replace(document.getText(), edits.get(next++));
+                    }
+                    budgetExceeded(document, e, startTime);
+                }
+            } else {
+                for (TextEdit edit : edits) {
+                    replace(document.getText(), edit);
+                }
+                verifyFully(document, parser, budget);
+            }
+
+            document.incrementVersion();
+            document.touch();
+            return document.getResult();
+        }
+    }
+
+    /**
+     * Drop documents that have not been used within the idle timeout
+     */
+    @Scheduled(fixedDelayString = "${parser.incremental.sweep-interval-ms:60000}")
+    public void evictIdleDocuments() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMinutes * 60_000;
+        int before = documents.size();
+        documents.values().removeIf(document -> document.getLastAccess() < cutoff);
+        int evicted = before - documents.size();
+        if (evicted > 0) {
+            log.info("Evicted {} idle editor documents, {} remain", evicted, documents.size());
+        }
+    }
+
+    private void validateEdits(int length, List<TextEdit> edits) {
+        if (edits == null) {
+            throw new IllegalArgumentException("Edits are required");
+        }
+        for (TextEdit edit : edits) {
+            int inserted = edit.getText() != null ? edit.getText().length() : 0;
+            if (edit.getOffset() < 0 || edit.getLength() < 0 || edit.getOffset() + edit.getLength() > length) {
+                throw new IllegalArgumentException("Edit [" + edit.getOffset() + ", "
+                        + (edit.getOffset() + edit.getLength()) + ") is outside the document (length " + length + ")");
+            }
+            length += inserted - edit.getLength();
+            if (length > maxDocumentLength) {
+                throw new IllegalArgumentException("Document exceeds " + maxDocumentLength + " characters");
+            }
+        }
+    }
+
+    private static void replace(StringBuilder text, TextEdit edit) {
+        text.replace(edit.getOffset(), edit.getOffset() + edit.getLength(),
+                edit.getText() != null ? edit.getText() : "");
+    }
+
+    private void applyIncrementally(EditorDocument document, IncrementalParserService parser, TextEdit edit,
+            VerificationBudget budget) {
+        TokenizedSource previous = document.getSource();
+        int insertedLength = edit.getText() != null ? edit.getText().length() : 0;
+        int firstLine = previous.lineOf(edit.getOffset());
+        int lastLine = previous.lineOf(edit.getOffset() + edit.getLength());
+
+        replace(document.getText(), edit);
+        TokenizedSource updated = parser.retokenize(budget.wrap(document.getText()), previous,
+                edit.getOffset(), edit.getLength(), insertedLength);
+        budget.checkTokenCount(updated.getTokens().size(), maxTokens);
+        document.setSource(updated);
+
+        if (!document.hasRuleVerdicts()) {
+            return;
+        }
+        if (updated.hasErrors() || updated.getEditFrom() < 0) {
+            document.invalidateRuleVerdicts();
+            return;
+        }
+
+        boolean[] dirty = document.getDirtyRules();
+        boolean[] affected = parser.newEvaluator(updated, document.getRules(), budget).affectedRules(
+                window(previous.getTokens(), updated.getEditFrom(), updated.getEditOldTo()),
+                window(updated.getTokens(), updated.getEditFrom(), updated.getEditNewTo()));
+
+        // Keep unaffected verdicts, moving their line numbers past the edit
+        int lineDelta = updated.getLineCount() - previous.getLineCount();
+        List<List<VerificationResult.Violation>> ruleViolations = document.getRuleViolations();
+        for (int i = 0; i < dirty.length; i++) {
+            if (affected[i]) {
+                dirty[i] = true;
+            }
+            if (dirty[i]) {
+                continue;
+            }
+            for (VerificationResult.Violation violation : ruleViolations.get(i)) {
+                if (WHOLE_PROGRAM_SNIPPET.equals(violation.getCodeSnippet())) {
+                    continue;
+                }
+                if (violation.getLineNumber() >= firstLine && violation.getLineNumber() <= lastLine) {
+                    dirty[i] = true;
+                } else if (violation.getLineNumber() > lastLine) {
+                    violation.setLineNumber(violation.getLineNumber() + lineDelta);
+                }
+            }
+        }
+    }
+
+    /**
+     * Token window of an edit widened by one unchanged neighbour on each side
+     */
+    private static List<Token> window(List<Token> tokens, int from, int to) {
+        return tokens.subList(Math.max(0, from - 1), Math.min(tokens.size(), to + 1));
+    }
+
+    private void reevaluate(EditorDocument document, IncrementalParserService parser, VerificationBudget budget,
+            long startTime) {
+        TokenizedSource source = document.getSource();
+        if (source.hasErrors()) {
+            document.setResult(syntaxError(source, startTime));
+            return;
+        }
+
+        if (!document.hasRuleVerdicts()) {
+            document.setAllRuleViolations(parser.newEvaluator(source, document.getRules(), budget).evaluate());
+        } else {
+            boolean[] dirty = document.getDirtyRules();
+            List<VerificationRule> dirtyRules = new ArrayList<>();
+            for (int i = 0; i < dirty.length; i++) {
+                if (dirty[i]) {
+                    dirtyRules.add(document.getRules().get(i));
+                }
+            }
+            List<VerificationResult.Violation> violations = dirtyRules.isEmpty()
+                    ? List.of()
+                    : parser.newEvaluator(source, dirtyRules, budget).evaluate();
+            document.replaceRuleViolations(violations);
+            log.debug("Re-evaluated {} of {} rules for document {}",
+                    dirtyRules.size(), dirty.length, document.getId());
+        }
+        document.setResult(rulesResult(document, startTime));
+    }
+
+    private void verifyFully(EditorDocument document, ParserService parser, VerificationBudget budget) {
+        long startTime = System.currentTimeMillis();
+        if (!(parser instanceof IncrementalParserService incremental)) {
+            document.setResult(parser.verifyCode(document.getText().toString(), document.getRules(), budget));
+            return;
+        }
+
+        try {
+            TokenizedSource source = incremental.tokenize(budget.wrap(document.getText()));
+            budget.checkTokenCount(source.getTokens().size(), maxTokens);
+            document.setSource(source);
+            document.invalidateRuleVerdicts();
+            reevaluate(document, incremental, budget, startTime);
+        } catch (VerificationBudgetExceededException e) {
+            budgetExceeded(document, e, startTime);
+        }
+    }
+
+    /**
+     * Give up on the tokens and verdicts of an overrun document; the next edit re-lexes it in full
+     */
+    private static void budgetExceeded(EditorDocument document, VerificationBudgetExceededException e,
+            long startTime) {
+        log.warn("Verification of document {} aborted: {}", document.getId(), e.getMessage());
+        document.setSource(null);
+        document.invalidateRuleVerdicts();
+
+        VerificationResult result = new VerificationResult();
+        result.setBudgetExceeded(true);
+        result.setSyntaxErrorMessage(e.getMessage());
+        result.setPassed(false);
+        result.setParsingTimeMs(System.currentTimeMillis() - startTime);
+        document.setResult(result);
+    }
+
+    private static VerificationResult syntaxError(TokenizedSource source, long startTime) {
+        VerificationResult result = new VerificationResult();
+        result.setHasSyntaxErrors(true);
+        result.setSyntaxErrorMessage(source.getErrors().get(0));
+        result.setPassed(false);
+        result.setParsingTimeMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    private static VerificationResult rulesResult(EditorDocument document, long startTime) {
+        // Copies, so later line shifts do not alter results already handed out
+        List<VerificationResult.Violation> violations = new ArrayList<>();
+        for (VerificationResult.Violation violation : document.allViolations()) {
+            violations.add(VerificationResult.Violation.builder()
+                    .type(violation.getType())
+                    .message(violation.getMessage())
+                    .lineNumber(violation.getLineNumber())
+                    .code(violation.getCode())
+                    .codeSnippet(violation.getCodeSnippet())
+                    .rule(violation.getRule())
+                    .build());
+        }
+        VerificationResult result = new VerificationResult();
+        result.setViolations(violations);
+        result.setPassed(violations.isEmpty());
+        result.setParsingTimeMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    /**
+     * Enforce the per-user and global document limits, dropping least recently used documents
+     */
+    private void makeRoom(Long ownerId) {
+        List<EditorDocument> owned = documents.values().stream()
+                .filter(document -> document.getOwnerId().equals(ownerId))
+                .sorted(Comparator.comparingLong(EditorDocument::getLastAccess))
+                .toList();
+        for (int i = 0; i <= owned.size() - maxDocumentsPerUser; i++) {
+            documents.remove(owned.get(i).getId());
+        }
+
+        while (!documents.isEmpty() && documents.size() >= maxDocuments) {
+            documents.values().stream()
+                    .min(Comparator.comparingLong(EditorDocument::getLastAccess))
+                    .ifPresent(document -> documents.remove(document.getId()));
+        }
+    }
+}
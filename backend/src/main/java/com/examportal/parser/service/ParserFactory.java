@@ -1,5 +1,6 @@
 package com.examportal.parser.service;
 
+import com.examportal.parser.service.impl.CppParserService;
 import com.examportal.parser.service.impl.JavaParserService;
 import com.examportal.parser.service.impl.PythonParserService;
 import org.springframework.stereotype.Component;
@@ -15,16 +16,19 @@ public class ParserFactory {
 
     private final JavaParserService javaParserService;
     private final PythonParserService pythonParserService;
+    private final CppParserService cppParserService;
 
-    public ParserFactory(JavaParserService javaParserService, PythonParserService pythonParserService) {
+    public ParserFactory(JavaParserService javaParserService, PythonParserService pythonParserService,
+            CppParserService cppParserService) {
         this.javaParserService = javaParserService;
         this.pythonParserService = pythonParserService;
+        this.cppParserService = cppParserService;
     }
 
     /**
      * Get parser for specified language
      * 
-     * @param language Language identifier (JAVA, PYTHON, CPP)
+     * @param language Language identifier (JAVA, PYTHON, CPP, C)
      * @return Parser service for the language
      * @throws IllegalArgumentException if language not supported
      */
@@ -41,8 +45,8 @@ public class ParserFactory {
                 return pythonParserService;
             case "CPP":
             case "C++":
-                // Future: Implement C++ parser
-                throw new UnsupportedOperationException("C++ parser not yet implemented");
+            case "C":
+                return cppParserService;
             default:
                 throw new IllegalArgumentException("Unsupported language: " + language);
         }
@@ -1,5 +1,6 @@
 package com.examportal.parser.service;
 
+import com.examportal.parser.budget.VerificationBudget;
 import com.examportal.parser.model.VerificationResult;
 import com.examportal.parser.model.VerificationRule;
 
@@ -9,7 +10,7 @@ import java.util.List;
  * Parser Service Interface
  * 
  * Provides code parsing and logic verification for different programming languages
- * Implementations: JavaParserService, PythonParserService
+ * Implementations: JavaParserService, PythonParserService, CppParserService
  */
 public interface ParserService {
 
@@ -22,6 +23,12 @@ public interface ParserService {
      */
     VerificationResult verifyCode(String code, List<VerificationRule> rules);
 
+    /**
+     * Same as {@link #verifyCode(String, List)}, spending a budget the caller
+     * already started (e.g. one shared with other checks on the same code)
+     */
+    VerificationResult verifyCode(String code, List<VerificationRule> rules, VerificationBudget budget);
+
     /**
      * Check if code contains syntax errors
      * 
@@ -0,0 +1,125 @@
+package com.examportal.parser.service.impl;
+
+import com.examportal.parser.analysis.RuleEvaluator;
+import com.examportal.parser.analysis.CppRuleEvaluator;
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.budget.VerificationBudgetExceededException;
+import com.examportal.parser.lexer.CppLexer;
+import com.examportal.parser.lexer.TokenizedSource;
+import com.examportal.parser.model.VerificationResult;
+import com.examportal.parser.model.VerificationRule;
+import com.examportal.parser.service.IncrementalParserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * C/C++ Parser Service
+ * 
+ * Tokenizes code with {@link CppLexer} (comments, literals and preprocessor
+ * lines are opaque) and evaluates all rules in a single pass with
+ * {@link CppRuleEvaluator}
+ * 
+ * Detects:
+ * - Library sorts (std::sort, stable_sort, qsort)
+ * - for / while / do-while loops
+ * - Recursion within a function body
+ * - Bubble Sort structure (nested loops with swap)
+ */
+@Service
+public class CppParserService implements IncrementalParserService {
+
+    private static final Logger log = LoggerFactory.getLogger(CppParserService.class);
+
+    @Value("${parser.budget.time-ms:" + VerificationBudget.DEFAULT_TIME_MS + "}")
+    private long budgetTimeMs = VerificationBudget.DEFAULT_TIME_MS;
+
+    @Value("${parser.budget.max-tokens:" + VerificationBudget.DEFAULT_MAX_TOKENS + "}")
+    private int maxTokens = VerificationBudget.DEFAULT_MAX_TOKENS;
+
+    @Override
+    public VerificationResult verifyCode(String code, List<VerificationRule> rules) {
+        return verifyCode(code, rules, VerificationBudget.start(budgetTimeMs));
+    }
+
+    @Override
+    public VerificationResult verifyCode(String code, List<VerificationRule> rules, VerificationBudget budget) {
+        long startTime = System.currentTimeMillis();
+
+        VerificationResult result = new VerificationResult();
+        TokenizedSource source;
+        try {
+            source = CppLexer.tokenize(budget.wrap(code));
+            budget.checkTokenCount(source.getTokens().size(), maxTokens);
+        } catch (VerificationBudgetExceededException e) {
+            return budgetExceeded(result, e, startTime);
+        }
+
+        // Lexical errors (unbalanced brackets, unterminated literals or comments)
+        if (source.hasErrors()) {
+            result.setHasSyntaxErrors(true);
+            result.setSyntaxErrorMessage(source.getErrors().get(0));
+            result.setPassed(false);
+            result.setParsingTimeMs(System.currentTimeMillis() - startTime);
+            return result;
+        }
+
+        try {
+            result.setViolations(new CppRuleEvaluator(source, rules, budget).evaluate());
+        } catch (VerificationBudgetExceededException e) {
+            return budgetExceeded(result, e, startTime);
+        }
+        result.setPassed(result.getViolations().isEmpty());
+
+        result.setParsingTimeMs(System.currentTimeMillis() - startTime);
+        log.debug("C++ code verification completed in {}ms. Passed: {}",
+                result.getParsingTimeMs(), result.isPassed());
+
+        return result;
+    }
+
+    private VerificationResult budgetExceeded(VerificationResult result, VerificationBudgetExceededException e,
+            long startTime) {
+        log.warn("C++ code verification aborted: {}", e.getMessage());
+        result.setBudgetExceeded(true);
+        result.setSyntaxErrorMessage(e.getMessage());
+        result.setPassed(false);
+        result.setParsingTimeMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    @Override
+    public boolean hasSyntaxErrors(String code) {
+        try {
+            return CppLexer.tokenize(code).hasErrors();
+        } catch (Exception e) {
+            log.error("Error checking C++ syntax", e);
+            return true;
+        }
+    }
+
+    @Override
+    public TokenizedSource tokenize(CharSequence code) {
+        return new CppLexer(code, true).tokenize();
+    }
+
+    @Override
+    public TokenizedSource retokenize(CharSequence code, TokenizedSource previous,
+            int offset, int removedLength, int insertedLength) {
+        return new CppLexer(code, true).retokenize(previous, offset, removedLength, insertedLength);
+    }
+
+    @Override
+    public RuleEvaluator newEvaluator(TokenizedSource source, List<VerificationRule> rules,
+            VerificationBudget budget) {
+        return new CppRuleEvaluator(source, rules, budget);
+    }
+
+    @Override
+    public String getSupportedLanguage() {
+        return "CPP";
+    }
+}
@@ -1,10 +1,13 @@
 package com.examportal.parser.service.impl;
 
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.budget.VerificationBudgetExceededException;
 import com.examportal.parser.model.VerificationResult;
 import com.examportal.parser.model.VerificationRule;
 import com.examportal.parser.service.ParserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -17,6 +20,9 @@ import java.util.regex.Pattern;
  * Uses simplified pattern matching for initial implementation
  * Can be enhanced with full ANTLR grammar later
  * 
+ * Regexes run over an {@link com.examportal.parser.budget.InterruptibleCharSequence},
+ * so backtracking on adversarial input stops at the verification budget
+ * 
  * Detects:
  * - Built-in sort methods (Arrays.sort, Collections.sort)
  * - Stream API usage
@@ -28,8 +34,16 @@ public class JavaParserService implements ParserService {
 
     private static final Logger log = LoggerFactory.getLogger(JavaParserService.class);
 
+    @Value("${parser.budget.time-ms:" + VerificationBudget.DEFAULT_TIME_MS + "}")
+    private long budgetTimeMs = VerificationBudget.DEFAULT_TIME_MS;
+
     @Override
     public VerificationResult verifyCode(String code, List<VerificationRule> rules) {
+        return verifyCode(code, rules, VerificationBudget.start(budgetTimeMs));
+    }
+
+    @Override
+    public VerificationResult verifyCode(String code, List<VerificationRule> rules, VerificationBudget budget) {
         long startTime = System.currentTimeMillis();
 
         VerificationResult result = new VerificationResult();
@@ -49,8 +63,19 @@ public class JavaParserService implements ParserService {
         String[] lines = code.split("\n");
 
         // Apply each verification rule
-        for (VerificationRule rule : rules) {
-            checkRule(code, lines, rule, result);
+        CharSequence text = budget.wrap(code);
+        try {
+            for (VerificationRule rule : rules) {
+                checkRule(text, lines, rule, result);
+            }
+        } catch (VerificationBudgetExceededException e) {
+            log.warn("Java code verification aborted: {}", e.getMessage());
+            result.setBudgetExceeded(true);
+            result.setSyntaxErrorMessage(e.getMessage());
+            result.setPassed(false);
+            result.getViolations().clear();
+            result.setParsingTimeMs(System.currentTimeMillis() - startTime);
+            return result;
         }
 
         result.setParsingTimeMs(System.currentTimeMillis() - startTime);
@@ -60,7 +85,7 @@ public class JavaParserService implements ParserService {
         return result;
     }
 
-    private void checkRule(String code, String[] lines, VerificationRule rule, VerificationResult result) {
+    private void checkRule(CharSequence code, String[] lines, VerificationRule rule, VerificationResult result) {
         String construct = rule.getConstruct().toLowerCase();
 
         switch (construct) {
@@ -103,7 +128,7 @@ public class JavaParserService implements ParserService {
         }
     }
 
-    private void checkForbiddenMethod(String code, String[] lines, VerificationRule rule,
+    private void checkForbiddenMethod(CharSequence code, String[] lines, VerificationRule rule,
             Pattern pattern, VerificationResult result) {
         java.util.regex.Matcher matcher = pattern.matcher(code);
         if (matcher.find()) {
@@ -120,7 +145,7 @@ public class JavaParserService implements ParserService {
         }
     }
 
-    private void checkForbiddenConstruct(String code, String[] lines, VerificationRule rule,
+    private void checkForbiddenConstruct(CharSequence code, String[] lines, VerificationRule rule,
             Pattern pattern, String constructName, VerificationResult result) {
         java.util.regex.Matcher matcher = pattern.matcher(code);
         if (matcher.find()) {
@@ -137,7 +162,7 @@ public class JavaParserService implements ParserService {
         }
     }
 
-    private void checkRequiredRecursion(String code, String[] lines, VerificationRule rule, VerificationResult result) {
+    private void checkRequiredRecursion(CharSequence code, String[] lines, VerificationRule rule, VerificationResult result) {
         // Simple heuristic: method calls itself
         // Extract method name and check if it's called within the method
         Pattern methodPattern = Pattern.compile("(public|private|protected)?\\s+\\w+\\s+(\\w+)\\s*\\([^)]*\\)\\s*\\{");
@@ -159,7 +184,7 @@ public class JavaParserService implements ParserService {
                 methodEnd = i;
             }
 
-            String methodBody = code.substring(methodStart, methodEnd);
+            CharSequence methodBody = code.subSequence(methodStart, methodEnd);
             Pattern callPattern = Pattern.compile("\\b" + methodName + "\\s*\\(");
             if (callPattern.matcher(methodBody).find()) {
                 hasRecursion = true;
@@ -178,12 +203,12 @@ public class JavaParserService implements ParserService {
         }
     }
 
-    private void checkBubbleSortLogic(String code, String[] lines, VerificationRule rule, VerificationResult result) {
+    private void checkBubbleSortLogic(CharSequence code, String[] lines, VerificationRule rule, VerificationResult result) {
         // Check for nested loops (characteristic of bubble sort)
         Pattern nestedLoopPattern = Pattern.compile("for\\s*\\([^)]*\\)\\s*\\{[^}]*for\\s*\\([^)]*\\)", Pattern.DOTALL);
 
         boolean hasNestedLoops = nestedLoopPattern.matcher(code).find();
-        boolean hasSwapping = code.contains("temp")
+        boolean hasSwapping = code.toString().contains("temp")
                 || Pattern.compile("\\w+\\s*=\\s*\\w+;[^;]*\\w+\\s*=\\s*\\w+;").matcher(code).find();
 
         if (!hasNestedLoops || !hasSwapping) {
@@ -196,7 +221,7 @@ public class JavaParserService implements ParserService {
         }
     }
 
-    private void checkRequiredPattern(String code, String[] lines, VerificationRule rule,
+    private void checkRequiredPattern(CharSequence code, String[] lines, VerificationRule rule,
             Pattern pattern, VerificationResult result) {
         java.util.regex.Matcher matcher = pattern.matcher(code);
         if (!matcher.find() && rule.getType() == VerificationRule.RuleType.REQUIRED) {
@@ -210,7 +235,7 @@ public class JavaParserService implements ParserService {
         }
     }
 
-    private int getLineNumber(String code, int position) {
+    private int getLineNumber(CharSequence code, int position) {
         int lineNumber = 1;
         for (int i = 0; i < position && i < code.length(); i++) {
             if (code.charAt(i) == '\n') {
@@ -1,20 +1,27 @@
 package com.examportal.parser.service.impl;
 
+import com.examportal.parser.analysis.RuleEvaluator;
+import com.examportal.parser.analysis.PythonRuleEvaluator;
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.budget.VerificationBudgetExceededException;
+import com.examportal.parser.lexer.PythonLexer;
+import com.examportal.parser.lexer.TokenizedSource;
 import com.examportal.parser.model.VerificationResult;
 import com.examportal.parser.model.VerificationRule;
-import com.examportal.parser.service.ParserService;
+import com.examportal.parser.service.IncrementalParserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Python Parser Service
  * 
- * Uses pattern matching for Python code verification
+ * Tokenizes code with {@link PythonLexer} (INDENT/DEDENT aware, strings and
+ * comments are opaque) and evaluates all rules in a single pass with
+ * {@link PythonRuleEvaluator}
  * 
  * Detects:
  * - Built-in sort methods (sorted(), list.sort())
@@ -23,34 +30,49 @@ import java.util.regex.Pattern;
  * - Specific function calls
  */
 @Service
-public class PythonParserService implements ParserService {
+public class PythonParserService implements IncrementalParserService {
 
     private static final Logger log = LoggerFactory.getLogger(PythonParserService.class);
 
+    @Value("${parser.budget.time-ms:" + VerificationBudget.DEFAULT_TIME_MS + "}")
+    private long budgetTimeMs = VerificationBudget.DEFAULT_TIME_MS;
+
+    @Value("${parser.budget.max-tokens:" + VerificationBudget.DEFAULT_MAX_TOKENS + "}")
+    private int maxTokens = VerificationBudget.DEFAULT_MAX_TOKENS;
+
     @Override
     public VerificationResult verifyCode(String code, List<VerificationRule> rules) {
+        return verifyCode(code, rules, VerificationBudget.start(budgetTimeMs));
+    }
+
+    @Override
+    public VerificationResult verifyCode(String code, List<VerificationRule> rules, VerificationBudget budget) {
         long startTime = System.currentTimeMillis();
 
         VerificationResult result = new VerificationResult();
-        result.setPassed(true);
-        result.setViolations(new ArrayList<>());
+        TokenizedSource source;
+        try {
+            source = PythonLexer.tokenize(budget.wrap(code));
+            budget.checkTokenCount(source.getTokens().size(), maxTokens);
+        } catch (VerificationBudgetExceededException e) {
+            return budgetExceeded(result, e, startTime);
+        }
 
-        // Check for syntax errors first
-        if (hasSyntaxErrors(code)) {
+        // Lexical errors (unbalanced brackets, unterminated strings, bad dedents)
+        if (source.hasErrors()) {
             result.setHasSyntaxErrors(true);
-            result.setSyntaxErrorMessage("Code contains syntax errors");
+            result.setSyntaxErrorMessage(source.getErrors().get(0));
             result.setPassed(false);
             result.setParsingTimeMs(System.currentTimeMillis() - startTime);
             return result;
         }
 
-        // Split code into lines for line number reporting
-        String[] lines = code.split("\n");
-
-        // Apply each verification rule
-        for (VerificationRule rule : rules) {
-            checkRule(code, lines, rule, result);
+        try {
+            result.setViolations(new PythonRuleEvaluator(source, rules, budget).evaluate());
+        } catch (VerificationBudgetExceededException e) {
+            return budgetExceeded(result, e, startTime);
         }
+        result.setPassed(result.getViolations().isEmpty());
 
         result.setParsingTimeMs(System.currentTimeMillis() - startTime);
         log.debug("Python code verification completed in {}ms. Passed: {}",
@@ -59,227 +81,41 @@ public class PythonParserService implements ParserService {
         return result;
     }
 
-    private void checkRule(String code, String[] lines, VerificationRule rule, VerificationResult result) {
-        String construct = rule.getConstruct().toLowerCase();
-
-        switch (construct) {
-            case "sorted":
-            case "sort":
-                checkForbiddenSort(code, lines, rule, result);
-                break;
-
-            case "list_comprehension":
-                checkForbiddenConstruct(code, lines, rule,
-                        Pattern.compile("\\[[^\\]]*for\\s+\\w+\\s+in[^\\]]*\\]"),
-                        "list comprehension", result);
-                break;
-
-            case "for_loop":
-            case "for loop":
-                checkForbiddenConstruct(code, lines, rule,
-                        Pattern.compile("\\bfor\\s+\\w+\\s+in\\b"),
-                        "for loop", result);
-                break;
-
-            case "while_loop":
-            case "while loop":
-                checkForbiddenConstruct(code, lines, rule,
-                        Pattern.compile("\\bwhile\\s+"),
-                        "while loop", result);
-                break;
-
-            case "recursion":
-                checkRequiredRecursion(code, lines, rule, result);
-                break;
-
-            case "bubble_sort_logic":
-                checkBubbleSortLogic(code, lines, rule, result);
-                break;
-
-            default:
-                // Generic pattern matching
-                Pattern pattern = Pattern.compile("\\b" + Pattern.quote(rule.getConstruct()) + "\\b");
-                if (rule.getType() == VerificationRule.RuleType.FORBIDDEN) {
-                    checkForbiddenPattern(code, lines, rule, pattern, result);
-                } else {
-                    checkRequiredPattern(code, lines, rule, pattern, result);
-                }
-        }
-    }
-
-    private void checkForbiddenSort(String code, String[] lines, VerificationRule rule, VerificationResult result) {
-        Pattern sortedPattern = Pattern.compile("\\bsorted\\s*\\(");
-        Pattern sortMethodPattern = Pattern.compile("\\.sort\\s*\\(");
-
-        java.util.regex.Matcher matcher = sortedPattern.matcher(code);
-        if (matcher.find()) {
-            addViolation(code, lines, rule, matcher.start(),
-                    "Forbidden: sorted() function detected", result);
-            return;
-        }
-
-        matcher = sortMethodPattern.matcher(code);
-        if (matcher.find()) {
-            addViolation(code, lines, rule, matcher.start(),
-                    "Forbidden: .sort() method detected", result);
-        }
-    }
-
-    private void checkForbiddenConstruct(String code, String[] lines, VerificationRule rule,
-            Pattern pattern, String constructName, VerificationResult result) {
-        java.util.regex.Matcher matcher = pattern.matcher(code);
-        if (matcher.find()) {
-            addViolation(code, lines, rule, matcher.start(),
-                    String.format("Forbidden: %s detected. %s", constructName, rule.getErrorMessage()),
-                    result);
-        }
-    }
-
-    private void checkRequiredRecursion(String code, String[] lines, VerificationRule rule, VerificationResult result) {
-        // Check if any function calls itself
-        Pattern funcPattern = Pattern.compile("def\\s+(\\w+)\\s*\\([^)]*\\):");
-        java.util.regex.Matcher funcMatcher = funcPattern.matcher(code);
-
-        boolean hasRecursion = false;
-        while (funcMatcher.find()) {
-            String funcName = funcMatcher.group(1);
-            int funcStart = funcMatcher.end();
-
-            // Find function end (simplified - looks for next def or end of file)
-            int funcEnd = code.indexOf("\ndef ", funcStart);
-            if (funcEnd == -1)
-                funcEnd = code.length();
-
-            String funcBody = code.substring(funcStart, funcEnd);
-            Pattern callPattern = Pattern.compile("\\b" + funcName + "\\s*\\(");
-            if (callPattern.matcher(funcBody).find()) {
-                hasRecursion = true;
-                break;
-            }
-        }
-
-        if (!hasRecursion && rule.getType() == VerificationRule.RuleType.REQUIRED) {
-            result.getViolations().add(VerificationResult.Violation.builder()
-                    .rule(rule)
-                    .lineNumber(1)
-                    .codeSnippet("(entire code)")
-                    .message(rule.getErrorMessage() != null ? rule.getErrorMessage()
-                            : "Required: Solution must use recursion")
-                    .build());
-        }
-    }
-
-    private void checkBubbleSortLogic(String code, String[] lines, VerificationRule rule, VerificationResult result) {
-        // Check for nested loops
-        Pattern nestedLoopPattern = Pattern.compile("for\\s+\\w+\\s+in[^:]+:[^f]*for\\s+\\w+\\s+in", Pattern.DOTALL);
-
-        boolean hasNestedLoops = nestedLoopPattern.matcher(code).find();
-        boolean hasSwapping = Pattern.compile("\\w+\\s*,\\s*\\w+\\s*=\\s*\\w+\\s*,\\s*\\w+").matcher(code).find() ||
-                code.contains("temp");
-
-        if (!hasNestedLoops || !hasSwapping) {
-            result.getViolations().add(VerificationResult.Violation.builder()
-                    .rule(rule)
-                    .lineNumber(1)
-                    .codeSnippet("(entire code)")
-                    .message("Required: Solution must implement Bubble Sort logic (nested loops with swapping)")
-                    .build());
-        }
-    }
-
-    private void checkForbiddenPattern(String code, String[] lines, VerificationRule rule,
-            Pattern pattern, VerificationResult result) {
-        java.util.regex.Matcher matcher = pattern.matcher(code);
-        if (matcher.find()) {
-            addViolation(code, lines, rule, matcher.start(),
-                    rule.getErrorMessage() != null ? rule.getErrorMessage()
-                            : "Forbidden construct found: " + rule.getConstruct(),
-                    result);
-        }
+    private VerificationResult budgetExceeded(VerificationResult result, VerificationBudgetExceededException e,
+            long startTime) {
+        log.warn("Python code verification aborted: {}", e.getMessage());
+        result.setBudgetExceeded(true);
+        result.setSyntaxErrorMessage(e.getMessage());
+        result.setPassed(false);
+        result.setParsingTimeMs(System.currentTimeMillis() - startTime);
+        return result;
     }
 
-    private void checkRequiredPattern(String code, String[] lines, VerificationRule rule,
-            Pattern pattern, VerificationResult result) {
-        java.util.regex.Matcher matcher = pattern.matcher(code);
-        if (!matcher.find() && rule.getType() == VerificationRule.RuleType.REQUIRED) {
-            result.getViolations().add(VerificationResult.Violation.builder()
-                    .rule(rule)
-                    .lineNumber(1)
-                    .codeSnippet("(entire code)")
-                    .message(rule.getErrorMessage() != null ? rule.getErrorMessage()
-                            : "Required construct not found: " + rule.getConstruct())
-                    .build());
+    @Override
+    public boolean hasSyntaxErrors(String code) {
+        try {
+            return PythonLexer.tokenize(code).hasErrors();
+        } catch (Exception e) {
+            log.error("Error checking Python syntax", e);
+            return true;
         }
     }
 
-    private void addViolation(String code, String[] lines, VerificationRule rule,
-            int position, String message, VerificationResult result) {
-        int lineNumber = getLineNumber(code, position);
-        String snippet = lines[lineNumber - 1].trim();
-
-        result.getViolations().add(VerificationResult.Violation.builder()
-                .rule(rule)
-                .lineNumber(lineNumber)
-                .codeSnippet(snippet)
-                .message(message)
-                .build());
+    @Override
+    public TokenizedSource tokenize(CharSequence code) {
+        return new PythonLexer(code, true).tokenize();
     }
 
-    private int getLineNumber(String code, int position) {
-        int lineNumber = 1;
-        for (int i = 0; i < position && i < code.length(); i++) {
-            if (code.charAt(i) == '\n') {
-                lineNumber++;
-            }
-        }
-        return lineNumber;
+    @Override
+    public TokenizedSource retokenize(CharSequence code, TokenizedSource previous,
+            int offset, int removedLength, int insertedLength) {
+        return new PythonLexer(code, true).retokenize(previous, offset, removedLength, insertedLength);
     }
 
     @Override
-    public boolean hasSyntaxErrors(String code) {
-        try {
-            // Basic Python syntax checks
-            String[] lines = code.split("\n");
-
-            for (String line : lines) {
-                // Check for basic indentation consistency (Placeholder for future
-                // implementation)
-
-                // Check for mismatched parentheses, brackets, braces
-                int parenCount = 0, bracketCount = 0, braceCount = 0;
-                for (char c : line.toCharArray()) {
-                    switch (c) {
-                        case '(':
-                            parenCount++;
-                            break;
-                        case ')':
-                            parenCount--;
-                            break;
-                        case '[':
-                            bracketCount++;
-                            break;
-                        case ']':
-                            bracketCount--;
-                            break;
-                        case '{':
-                            braceCount++;
-                            break;
-                        case '}':
-                            braceCount--;
-                            break;
-                    }
-                }
-
-                if (parenCount < 0 || bracketCount < 0 || braceCount < 0) {
-                    return true; // Syntax error
-                }
-            }
-
-            return false;
-        } catch (Exception e) {
-            log.error("Error checking Python syntax", e);
-            return true;
-        }
+    public RuleEvaluator newEvaluator(TokenizedSource source, List<VerificationRule> rules,
+            VerificationBudget budget) {
+        return new PythonRuleEvaluator(source, rules, budget);
     }
 
     @Override
@@ -3,7 +3,11 @@ package com.examportal.repository;
 import com.examportal.entity.Question;
 import com.examportal.entity.QuestionType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -19,4 +23,30 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     boolean existsByQuestionTextAndDepartment(String questionText, String department);
 
     Question findByQuestionTextAndDepartment(String questionText, String department);
+
+    /**
+     * Store one language's execution limits, dropping limits of other
+     * languages measured on other test cases, only while the question's test
+     * cases are still the given ones. Touches no other column, so a
+     * concurrent edit is never overwritten.
+     *
+     * @return 1 if stored, 0 if the question is gone or its test cases changed
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+            UPDATE questions
+            SET execution_limits = COALESCE((SELECT jsonb_object_agg(e.key, e.value)
+                                             FROM jsonb_each(execution_limits) e
+                                             WHERE e.value->>'testCasesHash' = :testCasesHash), '{}'::jsonb)
+                                   || jsonb_build_object(:languageId, CAST(:limits AS jsonb))
+            WHERE id = :id
+            AND test_cases = CAST(:testCases AS jsonb)
+            """, nativeQuery = true)
+    int updateExecutionLimits(
+            @Param("id") Long id,
+            @Param("testCases") String testCasesJson,
+            @Param("testCasesHash") String testCasesHash,
+            @Param("languageId") String languageId,
+            @Param("limits") String limitsJson);
 }
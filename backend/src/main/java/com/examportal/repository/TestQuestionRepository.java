@@ -1,5 +1,6 @@
 package com.examportal.repository;
 
+import com.examportal.entity.Question;
 import com.examportal.entity.TestQuestion;
 import com.examportal.entity.TestQuestionId;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,10 +9,18 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface TestQuestionRepository extends JpaRepository<TestQuestion, TestQuestionId> {
 
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("DELETE FROM TestQuestion tq WHERE tq.test.id = :testId")
     void deleteByTestId(@Param("testId") Long testId);
+
+    @Query("SELECT tq.question FROM TestQuestion tq WHERE tq.test.id = :testId")
+    List<Question> findQuestionsByTestId(@Param("testId") Long testId);
+
+    @Query("SELECT tq.test.id FROM TestQuestion tq WHERE tq.question.id = :questionId")
+    List<Long> findTestIdsByQuestionId(@Param("questionId") Long questionId);
 }
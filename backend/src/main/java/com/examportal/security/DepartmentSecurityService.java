@@ -1,10 +1,13 @@
 package com.examportal.security;
 
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.security.Principal;
+
 /**
  * Department Security Service
  * 
@@ -92,4 +95,24 @@ public class DepartmentSecurityService {
                             userDepartment, targetDepartment));
         }
     }
+
+    /**
+     * Verify a STOMP session belongs to a moderator or admin with access to
+     * the department. Message handlers run without a SecurityContext, so the
+     * authentication bound on CONNECT is checked instead.
+     */
+    public void verifyModeratorAccess(Principal principal, String targetDepartment) {
+        if (!(principal instanceof StompAuthentication authentication)
+                || !authentication.hasAnyAuthority("MODERATOR", "ADMIN")) {
+            throw new AccessDeniedException("Moderator access required");
+        }
+        if (authentication.hasAnyAuthority("ADMIN")) {
+            return; // Admins have access to all departments
+        }
+        if (targetDepartment == null || !targetDepartment.equalsIgnoreCase(authentication.getDepartment())) {
+            throw new SecurityException(
+                    String.format("Access denied: User from %s cannot access %s data",
+                            authentication.getDepartment(), targetDepartment));
+        }
+    }
 }
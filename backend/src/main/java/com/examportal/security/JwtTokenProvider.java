@@ -14,6 +14,7 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -86,6 +87,15 @@ public class JwtTokenProvider {
         return claims.get("department", String.class);
     }
 
+    /**
+     * Extract role names from token
+     */
+    public List<String> getRolesFromToken(String token) {
+        Claims claims = getClaimsFromToken(token);
+        List<?> roles = claims.get("roles", List.class);
+        return roles != null ? roles.stream().map(Object::toString).toList() : List.of();
+    }
+
     /**
      * Validate JWT token
      */
@@ -0,0 +1,98 @@
+package com.examportal.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * STOMP Authentication Interceptor
+ *
+ * Reads the JWT from the STOMP CONNECT frame's Authorization header and
+ * binds the session to a {@link StompAuthentication} named by the user ID,
+ * so user destinations (/user/{userId}/queue/...) reach that user's
+ * sessions. Connections without a valid token stay anonymous and receive
+ * only topic broadcasts.
+ *
+ * SEND and SUBSCRIBE frames to moderator destinations are refused unless
+ * the session is a MODERATOR or ADMIN; handlers check department access.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(StompAuthChannelInterceptor.class);
+
+    private static final List<String> MODERATOR_DESTINATIONS = List.of(
+            "/app/monitoring/moderator/**",
+            "/app/exam/*/moderator/**",
+            "/app/exam/*/snapshot");
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final JwtTokenProvider tokenProvider;
+
+    public StompAuthChannelInterceptor(JwtTokenProvider tokenProvider) {
+        this.tokenProvider = tokenProvider;
+    }
+
+    @Override
+    public Message<?> preSend(@org.springframework.lang.NonNull Message<?> message,
+            @org.springframework.lang.NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (accessor.getCommand() == StompCommand.SEND || accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            authorizeDestination(accessor);
+            return message;
+        }
+        if (accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+            String jwt = header.substring(7);
+            try {
+                if (tokenProvider.validateToken(jwt)) {
+                    Long userId = tokenProvider.getUserIdFromToken(jwt);
+                    if (userId != null) {
+                        List<SimpleGrantedAuthority> authorities = tokenProvider.getRolesFromToken(jwt).stream()
+                                .map(SimpleGrantedAuthority::new)
+                                .toList();
+                        accessor.setUser(new StompAuthentication(userId,
+                                tokenProvider.getDepartmentFromToken(jwt), authorities));
+                        log.debug("STOMP session {} authenticated as user {} with {}",
+                                accessor.getSessionId(), userId, authorities);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Could not authenticate STOMP session {}: {}", accessor.getSessionId(), e.getMessage());
+            }
+        }
+        return message;
+    }
+
+    private void authorizeDestination(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null
+                || MODERATOR_DESTINATIONS.stream().noneMatch(pattern -> pathMatcher.match(pattern, destination))) {
+            return;
+        }
+        if (!(accessor.getUser() instanceof StompAuthentication authentication)
+                || !authentication.hasAnyAuthority("MODERATOR", "ADMIN")) {
+            log.warn("STOMP session {} refused {} to {}", accessor.getSessionId(), accessor.getCommand(), destination);
+            throw new AccessDeniedException("Moderator access required for " + destination);
+        }
+    }
+}
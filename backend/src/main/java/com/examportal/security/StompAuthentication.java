@@ -0,0 +1,60 @@
+package com.examportal.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Authentication bound to a STOMP session on CONNECT
+ *
+ * Built from the JWT's claims. Its name is the user ID, so user destinations
+ * (/user/{userId}/queue/...) reach that user's sessions; authorities are the
+ * token's roles, without a ROLE_ prefix as elsewhere in the app.
+ */
+public class StompAuthentication extends AbstractAuthenticationToken {
+
+    private final Long userId;
+    private final String department;
+
+    public StompAuthentication(Long userId, String department, Collection<? extends GrantedAuthority> authorities) {
+        super(authorities);
+        this.userId = userId;
+        this.department = department;
+        setAuthenticated(true);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public boolean hasAnyAuthority(String... authorities) {
+        for (GrantedAuthority granted : getAuthorities()) {
+            for (String authority : authorities) {
+                if (authority.equals(granted.getAuthority())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return userId;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return userId.toString();
+    }
+}
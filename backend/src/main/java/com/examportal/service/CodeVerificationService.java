@@ -1,7 +1,16 @@
 package com.examportal.service;
 
 import com.examportal.dto.CodeVerificationResult;
+import com.examportal.parser.budget.ParseDepthGuard;
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.budget.VerificationBudgetExceededException;
+import com.examportal.parser.model.VerificationResult;
+import com.examportal.parser.model.VerificationRule;
+import com.examportal.parser.service.impl.CppParserService;
+import com.examportal.parser.service.impl.PythonParserService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -10,8 +19,21 @@ import java.util.regex.Pattern;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class CodeVerificationService {
 
+    private final CppParserService cppParserService;
+    private final PythonParserService pythonParserService;
+
+    @Value("${parser.budget.time-ms:" + VerificationBudget.DEFAULT_TIME_MS + "}")
+    private long budgetTimeMs = VerificationBudget.DEFAULT_TIME_MS;
+
+    @Value("${parser.budget.max-tokens:" + VerificationBudget.DEFAULT_MAX_TOKENS + "}")
+    private int maxTokens = VerificationBudget.DEFAULT_MAX_TOKENS;
+
+    @Value("${parser.budget.max-parse-depth:" + VerificationBudget.DEFAULT_MAX_PARSE_DEPTH + "}")
+    private int maxParseDepth = VerificationBudget.DEFAULT_MAX_PARSE_DEPTH;
+
     private static final java.util.Map<String, Integer> LANGUAGE_ID_MAP = java.util.Map.of(
             "java", 62,
             "python", 71,
@@ -37,20 +59,28 @@ public class CodeVerificationService {
             }
         }
 
-        return switch (language.toLowerCase()) {
-            case "java" -> verifyJavaCode(code, constraints);
-            case "python", "python3" -> verifyPythonCode(code);
-            case "c", "cpp", "c++" -> verifyCCode(code);
-            default -> CodeVerificationResult.success(); // Allow other languages
-        };
+        // Time/size budget so pathological input cannot hold the calling thread
+        VerificationBudget budget = VerificationBudget.start(budgetTimeMs);
+        try {
+            return switch (language.toLowerCase()) {
+                case "java" -> verifyJavaCode(code, constraints, budget);
+                case "python", "python3" -> verifyPythonCode(code, constraints, budget);
+                case "c", "cpp", "c++" -> verifyCCode(code, constraints, budget);
+                default -> CodeVerificationResult.success(); // Allow other languages
+            };
+        } catch (VerificationBudgetExceededException e) {
+            log.warn("Code verification aborted: {}", e.getMessage());
+            return CodeVerificationResult.budgetExceeded(e.getMessage());
+        }
     }
 
-    private CodeVerificationResult verifyJavaCode(String code, java.util.Map<String, Boolean> constraints) {
+    private CodeVerificationResult verifyJavaCode(String code, java.util.Map<String, Boolean> constraints,
+            VerificationBudget budget) {
         List<String> errors = new ArrayList<>();
         List<String> warnings = new ArrayList<>();
 
         // Check for class declaration
-        if (!Pattern.compile("class\\s+\\w+").matcher(code).find()) {
+        if (!Pattern.compile("class\\s+\\w+").matcher(budget.wrap(code)).find()) {
             errors.add("Missing class declaration");
         }
 
@@ -80,7 +110,7 @@ public class CodeVerificationService {
         }
 
         // --- ANTLR Static Analysis ---
-        List<String> logicViolations = scanCodeWithAntlr(code, constraints);
+        List<String> logicViolations = scanCodeWithAntlr(code, constraints, budget);
         errors.addAll(logicViolations);
         // -----------------------------
 
@@ -99,12 +129,30 @@ public class CodeVerificationService {
                 .build();
     }
 
-    private List<String> scanCodeWithAntlr(String code, java.util.Map<String, Boolean> constraints) {
+    private List<String> scanCodeWithAntlr(String code, java.util.Map<String, Boolean> constraints,
+            VerificationBudget budget) {
         try {
+            // Token limit and deadline checks on every token produced or looked at
             com.examportal.antlr.SimpleJavaLexer lexer = new com.examportal.antlr.SimpleJavaLexer(
-                    org.antlr.v4.runtime.CharStreams.fromString(code));
-            org.antlr.v4.runtime.CommonTokenStream tokens = new org.antlr.v4.runtime.CommonTokenStream(lexer);
+                    org.antlr.v4.runtime.CharStreams.fromString(code)) {
+                private int emitted;
+
+                @Override
+                public org.antlr.v4.runtime.Token nextToken() {
+                    budget.checkTokenCount(++emitted, maxTokens);
+                    budget.checkpoint();
+                    return super.nextToken();
+                }
+            };
+            org.antlr.v4.runtime.CommonTokenStream tokens = new org.antlr.v4.runtime.CommonTokenStream(lexer) {
+                @Override
+                public org.antlr.v4.runtime.Token LT(int k) {
+                    budget.checkpoint();
+                    return super.LT(k);
+                }
+            };
             com.examportal.antlr.SimpleJavaParser parser = new com.examportal.antlr.SimpleJavaParser(tokens);
+            parser.addParseListener(new ParseDepthGuard(budget, maxParseDepth));
             org.antlr.v4.runtime.tree.ParseTree tree = parser.compilationUnit();
 
             org.antlr.v4.runtime.tree.ParseTreeWalker walker = new org.antlr.v4.runtime.tree.ParseTreeWalker();
@@ -113,6 +161,8 @@ public class CodeVerificationService {
             walker.walk(listener, tree);
 
             return listener.getViolations();
+        } catch (VerificationBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("ANTLR Parsing failed", e);
             // We don't block on internal parser errors, but we warn
@@ -120,24 +170,23 @@ public class CodeVerificationService {
         }
     }
 
-    private CodeVerificationResult verifyPythonCode(String code) {
+    private CodeVerificationResult verifyPythonCode(String code, java.util.Map<String, Boolean> constraints,
+            VerificationBudget budget) {
         List<String> errors = new ArrayList<>();
         List<String> warnings = new ArrayList<>();
 
-        // Check for balanced parentheses
-        if (!hasBalancedParentheses(code)) {
-            errors.add("Unbalanced parentheses ( )");
+        // --- Token-based Static Analysis (brackets, literals, indentation, logic constraints) ---
+        VerificationResult analysis = pythonParserService.verifyCode(code, constraintRules(constraints), budget);
+        if (analysis.isBudgetExceeded()) {
+            throw new VerificationBudgetExceededException(analysis.getSyntaxErrorMessage());
         }
-
-        // Check for balanced brackets
-        if (!hasBalancedBrackets(code)) {
-            errors.add("Unbalanced brackets [ ]");
+        if (analysis.isHasSyntaxErrors()) {
+            errors.add(analysis.getSyntaxErrorMessage());
         }
-
-        // Check for unclosed strings
-        if (hasUnclosedStrings(code)) {
-            errors.add("Unclosed string literal");
+        for (VerificationResult.Violation violation : analysis.getViolations()) {
+            errors.add("Logic Constraint: " + violation.getMessage());
         }
+        // ----------------------------------------------------------------------------------------
 
         // Basic indentation check (Python is indent-sensitive)
         String[] lines = code.split("\n");
@@ -163,19 +212,23 @@ public class CodeVerificationService {
         return CodeVerificationResult.failure(errors);
     }
 
-    private CodeVerificationResult verifyCCode(String code) {
+    private CodeVerificationResult verifyCCode(String code, java.util.Map<String, Boolean> constraints,
+            VerificationBudget budget) {
         List<String> errors = new ArrayList<>();
         List<String> warnings = new ArrayList<>();
 
-        // Check for balanced braces
-        if (!hasBalancedBraces(code)) {
-            errors.add("Unbalanced braces { }");
+        // --- Token-based Static Analysis (brackets, literals, logic constraints) ---
+        VerificationResult analysis = cppParserService.verifyCode(code, constraintRules(constraints), budget);
+        if (analysis.isBudgetExceeded()) {
+            throw new VerificationBudgetExceededException(analysis.getSyntaxErrorMessage());
         }
-
-        // Check for balanced parentheses
-        if (!hasBalancedParentheses(code)) {
-            errors.add("Unbalanced parentheses ( )");
+        if (analysis.isHasSyntaxErrors()) {
+            errors.add(analysis.getSyntaxErrorMessage());
+        }
+        for (VerificationResult.Violation violation : analysis.getViolations()) {
+            errors.add("Logic Constraint: " + violation.getMessage());
         }
+        // --------------------------------------------------------------------------
 
         // Check for main function
         if (!Pattern.compile("int\\s+main\\s*\\(").matcher(code).find() &&
@@ -204,6 +257,28 @@ public class CodeVerificationService {
         return CodeVerificationResult.failure(errors);
     }
 
+    /**
+     * Translate question constraints ("banLoops", "requireRecursion") into
+     * parser verification rules
+     */
+    private List<VerificationRule> constraintRules(java.util.Map<String, Boolean> constraints) {
+        List<VerificationRule> rules = new ArrayList<>();
+        if (constraints == null) {
+            return rules;
+        }
+        if (Boolean.TRUE.equals(constraints.get("banLoops"))) {
+            rules.add(new VerificationRule(VerificationRule.RuleType.FORBIDDEN, "for_loop",
+                    "Loops are not allowed", "Use recursion."));
+            rules.add(new VerificationRule(VerificationRule.RuleType.FORBIDDEN, "while_loop",
+                    "Loops are not allowed", "Use recursion."));
+        }
+        if (Boolean.TRUE.equals(constraints.get("requireRecursion"))) {
+            rules.add(new VerificationRule(VerificationRule.RuleType.REQUIRED, "recursion",
+                    "Recursion is required", "Recursion is required but not detected."));
+        }
+        return rules;
+    }
+
     // Helper methods
     private boolean hasBalancedBraces(String code) {
         return isBalanced(code, '{', '}');
@@ -213,10 +288,6 @@ public class CodeVerificationService {
         return isBalanced(code, '(', ')');
     }
 
-    private boolean hasBalancedBrackets(String code) {
-        return isBalanced(code, '[', ']');
-    }
-
     private boolean isBalanced(String code, char open, char close) {
         int count = 0;
         boolean inString = false;
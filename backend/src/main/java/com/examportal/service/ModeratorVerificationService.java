@@ -3,6 +3,10 @@ package com.examportal.service;
 import com.examportal.dto.VerificationRequest;
 import com.examportal.dto.VerificationResponse;
 import com.examportal.dto.VerificationResult;
+import com.examportal.entity.Question;
+import com.examportal.execution.model.ComparisonMode;
+import com.examportal.repository.QuestionRepository;
+import com.examportal.security.DepartmentSecurityService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +28,8 @@ public class ModeratorVerificationService {
     private final RabbitTemplate rabbitTemplate;
     private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
+    private final QuestionRepository questionRepository;
+    private final DepartmentSecurityService departmentSecurityService;
 
     private static final String VERIFICATION_QUEUE = "verification_queue";
     private static final String REDIS_KEY_PREFIX = "verification:";
@@ -33,6 +39,21 @@ public class ModeratorVerificationService {
      * Submit verification request to queue
      */
     public VerificationResponse submitVerification(VerificationRequest request, Long moderatorId) {
+        // Limits are written to the question by the worker, so check access to it up front
+        ComparisonMode comparisonMode = request.getComparisonMode();
+        Double comparisonEpsilon = request.getComparisonEpsilon();
+        if (request.getQuestionId() != null) {
+            Question question = questionRepository.findById(request.getQuestionId())
+                    .orElseThrow(() -> new IllegalArgumentException("Question not found: " + request.getQuestionId()));
+            if (question.getDepartment() != null) {
+                departmentSecurityService.verifyDepartmentAccess(question.getDepartment());
+            }
+            if (comparisonMode == null) {
+                comparisonMode = question.getComparisonMode();
+                comparisonEpsilon = question.getComparisonEpsilon();
+            }
+        }
+
         try {
             // Generate unique verification ID
             String verificationId = "ver_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
@@ -56,10 +77,13 @@ public class ModeratorVerificationService {
             VerificationMessage message = VerificationMessage.builder()
                     .verificationId(verificationId)
                     .moderatorId(moderatorId)
+                    .questionId(request.getQuestionId())
                     .code(request.getCode())
                     .languageId(request.getLanguageId())
                     .testCases(request.getTestCases())
                     .constraints(request.getConstraints())
+                    .comparisonMode(comparisonMode)
+                    .comparisonEpsilon(comparisonEpsilon)
                     .build();
 
             // Push to RabbitMQ
@@ -137,9 +161,12 @@ public class ModeratorVerificationService {
     public static class VerificationMessage {
         private String verificationId;
         private Long moderatorId;
+        private Long questionId;
         private String code;
         private Integer languageId;
         private java.util.List<VerificationRequest.TestCaseData> testCases;
         private VerificationRequest.ConstraintsConfig constraints;
+        private ComparisonMode comparisonMode;
+        private Double comparisonEpsilon;
     }
 }
@@ -135,6 +135,9 @@ public class QuestionService {
             cloned.setStarterCode(original.getStarterCode());
             cloned.setTestCases(original.getTestCases());
             cloned.setConstraints(original.getConstraints());
+            cloned.setComparisonMode(original.getComparisonMode());
+            cloned.setComparisonEpsilon(original.getComparisonEpsilon());
+            cloned.setExecutionLimits(original.getExecutionLimits());
         }
 
         cloned = questionRepository.save(java.util.Objects.requireNonNull(cloned));
@@ -480,6 +483,8 @@ public class QuestionService {
             question.setTestCases(coding.getTestCases());
             question.setConstraints(coding.getConstraints());
             question.setStarterCode(coding.getStarterCode());
+            question.setComparisonMode(coding.getComparisonMode());
+            question.setComparisonEpsilon(coding.getComparisonEpsilon());
         }
 
         return question;
@@ -501,6 +506,9 @@ public class QuestionService {
             coding.setTestCases(question.getTestCases());
             coding.setConstraints(question.getConstraints());
             coding.setStarterCode(question.getStarterCode());
+            coding.setComparisonMode(question.getComparisonMode());
+            coding.setComparisonEpsilon(question.getComparisonEpsilon());
+            coding.setExecutionLimits(question.getExecutionLimits());
             dto = coding;
         } else {
             // Should not happen, but fallback to anonymous subclass or throw
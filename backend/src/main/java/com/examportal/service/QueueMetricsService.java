@@ -2,45 +2,292 @@ package com.examportal.service;
 
 import com.examportal.config.RabbitMQConfig;
 import com.examportal.dto.QueuePositionResponse;
+import com.examportal.monitoring.service.MonitoringBroadcastService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Properties;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service to provide queue metrics and position information
+ *
+ * Every queued execution is tracked in a per-lane Redis sorted set scored
+ * by enqueue time, so its position is its rank. Throughput is an
+ * exponentially weighted moving average of the lane's dequeue rate,
+ * sampled from a shared Redis counter on every tick, and the ETA is
+ * position / throughput. Students whose position changed get it pushed on
+ * /user/queue/queue-position by whichever instance holds the push lease; the
+ * holder keeps renewing it, so its memory of pushed positions stays valid.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class QueueMetricsService {
 
-    private final RabbitAdmin rabbitAdmin;
-    private static final int AVG_PROCESSING_TIME_SECONDS = 3;
+    public static final String MESSAGE_TYPE = "queue-position";
+
+    private static final String QUEUE_PREFIX = "submission:queue:";
+    private static final String OWNERS_KEY = "submission:queue:owners";
+    private static final String ATTEMPT_PREFIX = "submission:queue:attempt:";
+    private static final String COMPLETED_PREFIX = "submission:queue:completed:";
+    private static final String PUSH_LOCK = "submission:queue:push-lock";
+    private static final Duration ENTRY_TTL = Duration.ofMinutes(15);
+    // Scratch messages expire from RabbitMQ without ever reaching a consumer
+    private static final Duration SCRATCH_ENTRY_TTL = Duration.ofMillis(RabbitMQConfig.SCRATCH_MESSAGE_TTL_MS);
+
+    // KEYS[1]: push lock; ARGV[1]: instance token, ARGV[2]: lease ms.
+    // Returns 1 when the holder renewed its lease, 2 when a free lock was taken, 0 otherwise
+    private static final RedisScript<Long> PUSH_LEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              redis.call('PEXPIRE', KEYS[1], ARGV[2])
+              return 1
+            end
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+              return 2
+            end
+            return 0
+            """, Long.class);
+
+    // KEYS[1]: lane sorted set, KEYS[2]: owners hash; ARGV[1]: stale-before score. Drops stale entries from both
+    private static final RedisScript<Long> PRUNE_SCRIPT = new DefaultRedisScript<>("""
+            local stale = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1])
+            for i = 1, #stale, 500 do
+              local last = math.min(i + 499, #stale)
+              redis.call('ZREM', KEYS[1], unpack(stale, i, last))
+              redis.call('HDEL', KEYS[2], unpack(stale, i, last))
+            end
+            return #stale
+            """, Long.class);
+
+    // Below this rate the EWMA says little, fall back to a fixed per-item estimate
+    private static final double MIN_THROUGHPUT = 0.01;
 
     /**
-     * Get queue position information for a student's submission
+     * Queues a submission can wait in, matching the RabbitMQ queues
      */
-    public QueuePositionResponse getQueuePosition(Long attemptId) {
+    public enum Lane {
+        STANDARD, SUSPECT, SCRATCH
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final MonitoringBroadcastService broadcastService;
+
+    @Value("${execution.queue.ewma-alpha:0.2}")
+    private double ewmaAlpha = 0.2;
+
+    @Value("${execution.queue.fallback-seconds-per-item:3}")
+    private double fallbackSecondsPerItem = 3;
+
+    @Value("${execution.queue.max-push-per-tick:500}")
+    private int maxPushPerTick = 500;
+
+    @Value("${execution.queue.tick-ms:1000}")
+    private long tickMs = 1000;
+
+    private final Map<Lane, Double> throughput = new ConcurrentHashMap<>();
+    private final Map<Lane, Long> lastCompleted = new EnumMap<>(Lane.class);
+    private long lastTickAt;
+
+    // executionId -> position last pushed while this instance held the push lease
+    private final Map<String, Integer> lastPushed = new ConcurrentHashMap<>();
+    private final String pushToken = UUID.randomUUID().toString();
+
+    /**
+     * Record a submission entering a lane
+     */
+    public void enqueued(Lane lane, String executionId, Long attemptId, Long studentId) {
         try {
-            Properties queueProps = rabbitAdmin.getQueueProperties(RabbitMQConfig.QUEUE);
+            redisTemplate.opsForZSet().add(queueKey(lane), executionId, System.currentTimeMillis());
+            redisTemplate.opsForHash().put(OWNERS_KEY, executionId, studentId + ":" + lane.name());
+            if (attemptId != null) {
+                redisTemplate.opsForValue().set(ATTEMPT_PREFIX + attemptId, executionId, entryTtl(lane));
+            }
+        } catch (Exception e) {
+            log.warn("Could not track queued execution {}: {}", executionId, e.getMessage());
+        }
+    }
 
-            if (queueProps == null) {
-                log.warn("Could not retrieve queue properties");
-                return new QueuePositionResponse(0, 0, 0);
+    /**
+     * Record a consumer taking a submission off its lane
+     */
+    public void dequeued(Lane lane, String executionId) {
+        if (untrack(lane, executionId)) {
+            try {
+                redisTemplate.opsForValue().increment(COMPLETED_PREFIX + lane.name().toLowerCase());
+            } catch (Exception e) {
+                log.warn("Could not count execution {}: {}", executionId, e.getMessage());
             }
+        }
+    }
+
+    /**
+     * Forget a submission that never reached its lane (publish failed);
+     * unlike {@link #dequeued} it does not count towards throughput
+     */
+    public void discarded(Lane lane, String executionId) {
+        untrack(lane, executionId);
+    }
 
-            int queueDepth = (Integer) queueProps.getOrDefault("QUEUE_MESSAGE_COUNT", 0);
-            int estimatedWait = queueDepth * AVG_PROCESSING_TIME_SECONDS;
+    private boolean untrack(Lane lane, String executionId) {
+        try {
+            Long removed = redisTemplate.opsForZSet().remove(queueKey(lane), executionId);
+            redisTemplate.opsForHash().delete(OWNERS_KEY, executionId);
+            return removed != null && removed > 0;
+        } catch (Exception e) {
+            log.warn("Could not untrack execution {}: {}", executionId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Get queue position information for a student's submission
+     *
+     * @param executionId Execution to locate; null uses the attempt's latest queued execution
+     */
+    public QueuePositionResponse getQueuePosition(Long attemptId, String executionId) {
+        try {
+            if (executionId == null) {
+                executionId = redisTemplate.opsForValue().get(ATTEMPT_PREFIX + attemptId);
+            }
+            if (executionId == null) {
+                return QueuePositionResponse.builder().build();
+            }
 
-            log.debug("Queue depth: {}, estimated wait: {}s", queueDepth, estimatedWait);
+            Object owner = redisTemplate.opsForHash().get(OWNERS_KEY, executionId);
+            if (owner == null) {
+                // Already picked up by a consumer (or never queued)
+                return QueuePositionResponse.builder().executionId(executionId).build();
+            }
+            Lane lane = Lane.valueOf(owner.toString().substring(owner.toString().indexOf(':') + 1));
 
-            return new QueuePositionResponse(queueDepth, estimatedWait, queueDepth);
+            Long rank = redisTemplate.opsForZSet().rank(queueKey(lane), executionId);
+            Long depth = redisTemplate.opsForZSet().size(queueKey(lane));
+            return position(lane, executionId, rank, depth != null ? depth : 0);
         } catch (Exception e) {
             log.error("Error getting queue position", e);
-            return new QueuePositionResponse(0, 0, 0);
+            return QueuePositionResponse.builder().executionId(executionId).build();
         }
     }
+
+    /**
+     * Sample lane throughput and push positions that changed
+     */
+    @Scheduled(fixedDelayString = "${execution.queue.tick-ms:1000}")
+    public void tick() {
+        try {
+            sampleThroughput();
+
+            // One instance pushes, for as long as it keeps renewing its lease
+            Long leased = redisTemplate.execute(PUSH_LEASE_SCRIPT, List.of(PUSH_LOCK),
+                    pushToken, String.valueOf(tickMs * 3));
+            if (leased == null || leased != 1) {
+                // Positions pushed by another holder in the meantime are unknown
+                lastPushed.clear();
+            }
+            if (leased != null && leased > 0) {
+                pushPositions();
+            }
+        } catch (Exception e) {
+            log.debug("Queue metrics tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void sampleThroughput() {
+        long now = System.currentTimeMillis();
+        double elapsedSeconds = lastTickAt > 0 ? (now - lastTickAt) / 1000.0 : 0;
+        lastTickAt = now;
+
+        for (Lane lane : Lane.values()) {
+            String value = redisTemplate.opsForValue().get(COMPLETED_PREFIX + lane.name().toLowerCase());
+            long completed = value != null ? Long.parseLong(value) : 0;
+            Long previous = lastCompleted.put(lane, completed);
+            if (previous == null || elapsedSeconds <= 0) {
+                continue;
+            }
+
+            long delta = Math.max(0, completed - previous);
+            Long depth = redisTemplate.opsForZSet().size(queueKey(lane));
+            // An idle lane says nothing about how fast it drains
+            if (delta == 0 && (depth == null || depth == 0)) {
+                continue;
+            }
+
+            double sample = delta / elapsedSeconds;
+            throughput.merge(lane, sample, (old, s) -> ewmaAlpha * s + (1 - ewmaAlpha) * old);
+        }
+    }
+
+    private void pushPositions() {
+        long now = System.currentTimeMillis();
+        Set<String> present = new HashSet<>();
+
+        for (Lane lane : Lane.values()) {
+            String key = queueKey(lane);
+            // Drop entries whose message was lost or expired, with their owners
+            redisTemplate.execute(PRUNE_SCRIPT, List.of(key, OWNERS_KEY),
+                    String.valueOf(now - entryTtl(lane).toMillis()));
+
+            Set<String> queued = redisTemplate.opsForZSet().range(key, 0, maxPushPerTick - 1);
+            if (queued == null || queued.isEmpty()) {
+                continue;
+            }
+            Long depth = redisTemplate.opsForZSet().size(key);
+            List<String> ids = new ArrayList<>(queued);
+            List<Object> owners = redisTemplate.opsForHash().multiGet(OWNERS_KEY, new ArrayList<>(ids));
+
+            for (int i = 0; i < ids.size(); i++) {
+                String executionId = ids.get(i);
+                present.add(executionId);
+                Object owner = owners.get(i);
+                Integer previous = lastPushed.put(executionId, i + 1);
+                if (owner == null || Integer.valueOf(i + 1).equals(previous)) {
+                    continue;
+                }
+                Long studentId = Long.parseLong(owner.toString().substring(0, owner.toString().indexOf(':')));
+                broadcastService.sendToStudent(studentId, MESSAGE_TYPE,
+                        position(lane, executionId, (long) i, depth != null ? depth : ids.size()));
+            }
+        }
+        lastPushed.keySet().retainAll(present);
+    }
+
+    private QueuePositionResponse position(Lane lane, String executionId, Long rank, long depth) {
+        if (rank == null) {
+            return QueuePositionResponse.builder().executionId(executionId).lane(lane.name()).build();
+        }
+        int position = (int) (rank + 1);
+        double rate = throughput.getOrDefault(lane, 0.0);
+        double waitSeconds = rate >= MIN_THROUGHPUT ? position / rate : position * fallbackSecondsPerItem;
+
+        return QueuePositionResponse.builder()
+                .position(position)
+                .estimatedWaitSeconds((int) Math.ceil(waitSeconds))
+                .queueDepth((int) depth)
+                .executionId(executionId)
+                .lane(lane.name())
+                .throughputPerSecond(rate)
+                .build();
+    }
+
+    private static Duration entryTtl(Lane lane) {
+        return lane == Lane.SCRATCH ? SCRATCH_ENTRY_TTL : ENTRY_TTL;
+    }
+
+    private static String queueKey(Lane lane) {
+        return QUEUE_PREFIX + lane.name().toLowerCase();
+    }
 }
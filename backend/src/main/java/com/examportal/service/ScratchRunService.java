@@ -0,0 +1,145 @@
+package com.examportal.service;
+
+import com.examportal.config.RabbitMQConfig;
+import com.examportal.dto.SubmissionMessage;
+import com.examportal.execution.model.CostEstimate;
+import com.examportal.execution.model.ExecutionResult;
+import com.examportal.execution.service.Judge0Service;
+import com.examportal.execution.service.SubmissionCostEstimator;
+import com.examportal.execution.util.Judge0LanguageMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Scratch Run Service
+ *
+ * "Run with custom input" requests that are not part of the graded answer.
+ * Results live only in Redis under a short TTL and the run goes through the
+ * low-priority scratch queue, so experimentation never rewrites the
+ * student_attempts row or competes with graded submissions for sandbox slots.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScratchRunService {
+
+    private static final String RESULT_PREFIX = "scratch:result:";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final SubmissionCostEstimator costEstimator;
+    private final Judge0Service judge0Service;
+    private final QueueMetricsService queueMetricsService;
+
+    @Value("${execution.scratch.result-ttl-seconds:300}")
+    private long resultTtlSeconds = 300;
+
+    public String queueScratchRun(Long attemptId, Long questionId, Long studentId,
+            String code, Integer languageId, String stdin, Map<String, Boolean> constraints) {
+        String executionId = UUID.randomUUID().toString();
+        log.info("Queuing scratch run {} for attempt {} question {}", executionId, attemptId, questionId);
+
+        ExecutionResult initialResult = ExecutionResult.builder()
+                .executionId(executionId)
+                .status(ExecutionResult.ExecutionStatus.QUEUED)
+                .executedAt(LocalDateTime.now())
+                .build();
+        save(attemptId, initialResult);
+
+        // Scratch runs share the lane; the class only tightens the limits
+        CostEstimate estimate = costEstimator.estimate(code, Judge0LanguageMapper.getLanguageName(languageId));
+
+        SubmissionMessage message = SubmissionMessage.builder()
+                .executionId(executionId)
+                .attemptId(attemptId)
+                .questionId(questionId)
+                .studentId(studentId)
+                .code(code)
+                .languageId(languageId)
+                .stdin(stdin)
+                .constraints(constraints)
+                .costClass(estimate.getCostClass())
+                .build();
+
+        queueMetricsService.enqueued(QueueMetricsService.Lane.SCRATCH, executionId, attemptId, studentId);
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE, RabbitMQConfig.SCRATCH_ROUTING_KEY, message);
+        } catch (Exception e) {
+            log.error("Failed to publish scratch run to RabbitMQ", e);
+            queueMetricsService.discarded(QueueMetricsService.Lane.SCRATCH, executionId);
+            redisTemplate.delete(RESULT_PREFIX + attemptId + ":" + executionId);
+            throw new RuntimeException("Failed to queue run");
+        }
+
+        return executionId;
+    }
+
+    /**
+     * Record the latest state of a scratch run, restarting its TTL
+     */
+    public void save(Long attemptId, ExecutionResult result) {
+        try {
+            redisTemplate.opsForValue().set(
+                    RESULT_PREFIX + attemptId + ":" + result.getExecutionId(),
+                    objectMapper.writeValueAsString(result),
+                    Duration.ofSeconds(resultTtlSeconds));
+        } catch (Exception e) {
+            log.error("Failed to store scratch run result {}", result.getExecutionId(), e);
+        }
+    }
+
+    /**
+     * Current state of a scratch run, polling Judge0 once if it is still running
+     *
+     * @return null if the run is unknown or its result has expired
+     */
+    public ExecutionResult getResult(Long attemptId, String executionId) {
+        String json = redisTemplate.opsForValue().get(RESULT_PREFIX + attemptId + ":" + executionId);
+        if (json == null) {
+            return null;
+        }
+
+        ExecutionResult result;
+        try {
+            result = objectMapper.readValue(json, ExecutionResult.class);
+        } catch (Exception e) {
+            log.error("Unreadable scratch run result {}", executionId, e);
+            return null;
+        }
+
+        if (result.getSubmissionToken() == null || !isRunning(result)) {
+            return result;
+        }
+
+        try {
+            List<ExecutionResult> polled = judge0Service.getBatchResults(List.of(result.getSubmissionToken()));
+            if (!polled.isEmpty() && !isRunning(polled.get(0))) {
+                ExecutionResult finished = polled.get(0);
+                finished.setExecutionId(executionId);
+                finished.setSubmissionToken(result.getSubmissionToken());
+                save(attemptId, finished);
+                return finished;
+            }
+        } catch (Exception e) {
+            log.warn("Polling scratch run {} failed: {}", executionId, e.getMessage());
+        }
+        return result;
+    }
+
+    private static boolean isRunning(ExecutionResult result) {
+        return result.getStatus() == ExecutionResult.ExecutionStatus.QUEUED
+                || result.getStatus() == ExecutionResult.ExecutionStatus.PROCESSING;
+    }
+}
@@ -5,6 +5,8 @@ import com.examportal.dto.SubmissionMessage;
 import com.examportal.entity.Question;
 import com.examportal.entity.StudentAttempt;
 import com.examportal.execution.model.ExecutionResult;
+import com.examportal.execution.service.ExecutionEventService;
+import com.examportal.execution.service.ExecutionLimitsService;
 import com.examportal.repository.QuestionRepository;
 import com.examportal.repository.StudentAttemptRepository;
 import lombok.RequiredArgsConstructor;
@@ -25,10 +27,67 @@ public class SubmissionConsumerService {
     private final StudentAttemptRepository attemptRepository;
     private final QuestionRepository questionRepository;
     private final StorageService storageService;
+    private final ExecutionLimitsService executionLimitsService;
+    private final ScratchRunService scratchRunService;
+    private final ExecutionEventService executionEventService;
+    private final QueueMetricsService queueMetricsService;
 
     @RabbitListener(queues = RabbitMQConfig.QUEUE)
     @Transactional
     public void consumeSubmission(SubmissionMessage message) {
+        queueMetricsService.dequeued(QueueMetricsService.Lane.STANDARD, message.getExecutionId());
+        processSubmission(message);
+    }
+
+    /**
+     * Submissions classified LIKELY_TLE, consumed by a deliberately small pool
+     */
+    @RabbitListener(queues = RabbitMQConfig.SUSPECT_QUEUE, concurrency = "${execution.cost.suspect-concurrency:1}")
+    @Transactional
+    public void consumeSuspectSubmission(SubmissionMessage message) {
+        queueMetricsService.dequeued(QueueMetricsService.Lane.SUSPECT, message.getExecutionId());
+        processSubmission(message);
+    }
+
+    /**
+     * Custom-input scratch runs: the result goes to Redis only, never to the attempt row
+     */
+    @RabbitListener(queues = RabbitMQConfig.SCRATCH_QUEUE, concurrency = "${execution.scratch.concurrency:1}")
+    public void consumeScratchRun(SubmissionMessage message) {
+        log.info("Processing scratch run {} for attempt {}", message.getExecutionId(), message.getAttemptId());
+        queueMetricsService.dequeued(QueueMetricsService.Lane.SCRATCH, message.getExecutionId());
+
+        ExecutionResult result;
+        try {
+            Question question = questionRepository.findById(Objects.requireNonNull(message.getQuestionId()))
+                    .orElseThrow(() -> new RuntimeException("Question not found"));
+
+            // No attempt/question context, so the Judge0 callback does not persist the result either
+            result = submissionExecutionService.executeSubmission(
+                    message.getExecutionId(),
+                    message.getCode(),
+                    message.getLanguageId(),
+                    message.getStdin(),
+                    message.getConstraints(),
+                    Objects.requireNonNull(message.getStudentId()),
+                    null,
+                    null,
+                    message.getCostClass(),
+                    executionLimitsService.resolve(question, message.getLanguageId()));
+        } catch (Exception e) {
+            log.error("Error processing scratch run {}", message.getExecutionId(), e);
+            result = ExecutionResult.builder()
+                    .status(ExecutionResult.ExecutionStatus.INTERNAL_ERROR)
+                    .error("Async Execution Failed: " + e.getMessage())
+                    .build();
+        }
+
+        result.setExecutionId(message.getExecutionId());
+        scratchRunService.save(message.getAttemptId(), result);
+        publishIfFinished(message.getStudentId(), null, null, result);
+    }
+
+    private void processSubmission(SubmissionMessage message) {
         log.info("Processing submission {} for attempt {}", message.getExecutionId(), message.getAttemptId());
 
         if (message.getAttemptId() == null || message.getQuestionId() == null || message.getStudentId() == null) {
@@ -53,10 +112,13 @@ public class SubmissionConsumerService {
                     message.getExecutionId(),
                     message.getCode(),
                     message.getLanguageId(),
+                    "", // graded runs are not fed custom input
                     message.getConstraints(),
                     Objects.requireNonNull(message.getStudentId()),
                     message.getAttemptId(),
-                    message.getQuestionId());
+                    message.getQuestionId(),
+                    message.getCostClass(),
+                    executionLimitsService.resolve(question, message.getLanguageId()));
 
             // 3. Update Result in DB
             StudentAttempt attempt = attemptRepository.findById(Objects.requireNonNull(message.getAttemptId()))
@@ -70,21 +132,34 @@ public class SubmissionConsumerService {
             attemptRepository.save(attempt);
 
             log.info("Submission {} processed with status {}", message.getExecutionId(), result.getStatus());
+            publishIfFinished(message.getStudentId(), message.getAttemptId(), message.getQuestionId(), result);
 
         } catch (Exception e) {
             log.error("Error processing submission {}", message.getExecutionId(), e);
             // Update DB with Error
             StudentAttempt attempt = attemptRepository.findById(Objects.requireNonNull(message.getAttemptId()))
                     .orElse(null);
+            ExecutionResult errorResult = ExecutionResult.builder()
+                    .executionId(message.getExecutionId())
+                    .status(ExecutionResult.ExecutionStatus.INTERNAL_ERROR)
+                    .error("Async Execution Failed: " + e.getMessage())
+                    .build();
             if (attempt != null) {
-                ExecutionResult errorResult = ExecutionResult.builder()
-                        .executionId(message.getExecutionId())
-                        .status(ExecutionResult.ExecutionStatus.INTERNAL_ERROR)
-                        .error("Async Execution Failed: " + e.getMessage())
-                        .build();
                 attempt.getExecutionResults().put(message.getQuestionId().toString(), errorResult);
                 attemptRepository.save(attempt);
             }
+            publishIfFinished(message.getStudentId(), message.getAttemptId(), message.getQuestionId(), errorResult);
+        }
+    }
+
+    /**
+     * Push results that never reached the sandbox (blocked, verification timeout,
+     * errors); sandbox runs are pushed when the Judge0 callback arrives
+     */
+    private void publishIfFinished(Long studentId, Long attemptId, Long questionId, ExecutionResult result) {
+        if (result.getStatus() != ExecutionResult.ExecutionStatus.QUEUED
+                && result.getStatus() != ExecutionResult.ExecutionStatus.PROCESSING) {
+            executionEventService.publish(studentId, attemptId, questionId, result);
         }
     }
 }
@@ -1,10 +1,13 @@
 package com.examportal.service;
 
 import com.examportal.dto.CodeVerificationResult;
+import com.examportal.execution.model.CostEstimate.CostClass;
+import com.examportal.execution.model.ExecutionLimits;
 import com.examportal.execution.model.ExecutionResult;
 import com.examportal.execution.service.Judge0Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -26,11 +29,19 @@ public class SubmissionExecutionService {
     private final CodeVerificationService codeVerificationService;
     private final Judge0Service judge0Service;
 
-    // Strict limits for Phase 2 (The "Crash-Proof" settings)
+    // Strict limits for Phase 2 (The "Crash-Proof" settings), used when the
+    // question has no limits derived from a reference solution
     private static final double CPU_TIME_LIMIT = 2.0; // 2 seconds max
     private static final double WALL_TIME_LIMIT = 5.0; // 5 seconds hard stop
     private static final double MEMORY_LIMIT = 128000.0; // 128 MB max
 
+    // Tighter limits for code the cost estimator classified LIKELY_TLE
+    @Value("${execution.cost.likely-tle.cpu-time-limit:1.0}")
+    private double likelyTleCpuTimeLimit = 1.0;
+
+    @Value("${execution.cost.likely-tle.wall-time-limit:2.0}")
+    private double likelyTleWallTimeLimit = 2.0;
+
     /**
      * Execute a student's submission through the secure pipeline.
      *
@@ -42,10 +53,16 @@ public class SubmissionExecutionService {
      */
     /**
      * Execute a student's submission through the secure pipeline.
+     *
+     * @param stdin     Standard input for the run
+     * @param costClass Class assigned by the cost estimator at queue time;
+     *                  null is treated as STANDARD
+     * @param limits    Limits derived from the question's reference solution in
+     *                  this language; null uses the default limits
      */
-    public ExecutionResult executeSubmission(String executionId, String code, Integer languageId,
+    public ExecutionResult executeSubmission(String executionId, String code, Integer languageId, String stdin,
             Map<String, Boolean> constraints,
-            Long studentId, Long attemptId, Long questionId) {
+            Long studentId, Long attemptId, Long questionId, CostClass costClass, ExecutionLimits limits) {
         // String executionId = UUID.randomUUID().toString(); // Use provided ID
         log.info("Starting secure execution pipeline for Submission {}", executionId);
 
@@ -66,6 +83,18 @@ public class SubmissionExecutionService {
                     null // Allowed list not checked here, assumed valid or checked upstream
             );
 
+            if (verificationResult.isBudgetExceeded()) {
+                log.warn("Phase 1 Aborted: {}", verificationResult.getErrors());
+
+                // Neither safe nor a logic violation: do not run it, report distinctly
+                return ExecutionResult.builder()
+                        .executionId(executionId)
+                        .status(ExecutionResult.ExecutionStatus.VERIFICATION_TIMEOUT)
+                        .error("VERIFICATION TIMEOUT: " + String.join("\n", verificationResult.getErrors()))
+                        .executedAt(LocalDateTime.now())
+                        .build();
+            }
+
             if (!verificationResult.isValid()) {
                 String violations = String.join("\n", verificationResult.getErrors());
                 log.warn("Phase 1 Blocked: Security/Logic violations found: {}", violations);
@@ -84,17 +113,28 @@ public class SubmissionExecutionService {
             // --- PHASE 2: The "Containered" Executor (Judge0) ---
             log.debug("Phase 2: Submitting to Judge0 Sandbox with strict limits...");
 
+            double cpuTimeLimit = limits != null && limits.getCpuTimeLimit() != null
+                    ? limits.getCpuTimeLimit() : CPU_TIME_LIMIT;
+            double wallTimeLimit = limits != null && limits.getWallTimeLimit() != null
+                    ? limits.getWallTimeLimit() : WALL_TIME_LIMIT;
+            double memoryLimit = limits != null && limits.getMemoryLimit() != null
+                    ? limits.getMemoryLimit() : MEMORY_LIMIT;
+            if (costClass == CostClass.LIKELY_TLE) {
+                cpuTimeLimit = Math.min(likelyTleCpuTimeLimit, cpuTimeLimit);
+                wallTimeLimit = Math.min(likelyTleWallTimeLimit, wallTimeLimit);
+            }
+
             try {
                 // Call Judge0 with CRASH-PROOF limits
                 return judge0Service.executeCode(
                         executionId,
                         code,
                         languageId,
-                        "", // stdin (empty for now, could be passed if needed)
+                        stdin != null ? stdin : "",
                         studentId,
-                        CPU_TIME_LIMIT,
-                        WALL_TIME_LIMIT,
-                        MEMORY_LIMIT,
+                        cpuTimeLimit,
+                        wallTimeLimit,
+                        memoryLimit,
                         attemptId,
                         questionId);
             } catch (Exception e) {
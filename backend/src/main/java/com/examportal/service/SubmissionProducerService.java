@@ -3,7 +3,10 @@ package com.examportal.service;
 import com.examportal.config.RabbitMQConfig;
 import com.examportal.dto.SubmissionMessage;
 import com.examportal.entity.StudentAttempt;
+import com.examportal.execution.model.CostEstimate;
 import com.examportal.execution.model.ExecutionResult;
+import com.examportal.execution.service.SubmissionCostEstimator;
+import com.examportal.execution.util.Judge0LanguageMapper;
 import com.examportal.repository.StudentAttemptRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +25,8 @@ public class SubmissionProducerService {
 
         private final RabbitTemplate rabbitTemplate;
         private final StudentAttemptRepository attemptRepository;
+        private final SubmissionCostEstimator costEstimator;
+        private final QueueMetricsService queueMetricsService;
 
         @Transactional
         public String queueSubmission(Long attemptId, Long questionId, Long studentId,
@@ -51,7 +56,14 @@ public class SubmissionProducerService {
                 attempt.getExecutionResults().put(questionId.toString(), initialResult);
                 attemptRepository.save(attempt);
 
-                // 3. Build Message
+                // 3. Estimate cost so likely-TLE code does not take a regular sandbox slot
+                CostEstimate estimate = costEstimator.estimate(code, Judge0LanguageMapper.getLanguageName(languageId));
+                boolean suspect = estimate.getCostClass() == CostEstimate.CostClass.LIKELY_TLE;
+                if (suspect) {
+                        log.info("Submission {} classified LIKELY_TLE: {}", executionId, estimate.getReasons());
+                }
+
+                // 4. Build Message
                 SubmissionMessage message = SubmissionMessage.builder()
                                 .executionId(executionId)
                                 .attemptId(attemptId)
@@ -61,17 +73,22 @@ public class SubmissionProducerService {
                                 .languageId(languageId)
                                 .stdin(stdin)
                                 .constraints(constraints)
+                                .costClass(estimate.getCostClass())
                                 .build();
 
-                // 4. Publish to RabbitMQ
+                // 5. Publish to RabbitMQ
+                QueueMetricsService.Lane lane = suspect ? QueueMetricsService.Lane.SUSPECT
+                                : QueueMetricsService.Lane.STANDARD;
+                queueMetricsService.enqueued(lane, executionId, attemptId, studentId);
                 try {
                         rabbitTemplate.convertAndSend(
                                         RabbitMQConfig.EXCHANGE,
-                                        RabbitMQConfig.ROUTING_KEY,
+                                        suspect ? RabbitMQConfig.SUSPECT_ROUTING_KEY : RabbitMQConfig.ROUTING_KEY,
                                         message);
                         log.info("Published submission {} to RabbitMQ", executionId);
                 } catch (Exception e) {
                         log.error("Failed to publish submission to RabbitMQ", e);
+                        queueMetricsService.discarded(lane, executionId);
                         // Revert DB status to INTERNAL_ERROR if queue fails
                         initialResult.setStatus(ExecutionResult.ExecutionStatus.INTERNAL_ERROR);
                         initialResult.setError("Submission Failed: Queue unavailable");
@@ -0,0 +1,335 @@
+package com.examportal.service;
+
+import com.examportal.dto.CodeVerificationResult;
+import com.examportal.dto.ReverificationProgress;
+import com.examportal.entity.Question;
+import com.examportal.entity.QuestionType;
+import com.examportal.entity.Test;
+import com.examportal.execution.util.Judge0LanguageMapper;
+import com.examportal.repository.TestQuestionRepository;
+import com.examportal.repository.TestRepository;
+import com.examportal.security.DepartmentSecurityService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-verifies the stored code answers of a test after its question
+ * constraints changed.
+ *
+ * A job walks the attempts of the test in keyset-paginated pages read with
+ * plain JDBC, verifies each page on a bounded worker pool with
+ * {@link CodeVerificationService} and merges the verdicts into
+ * student_attempts.verification_results with one JDBC batch per page.
+ * Constraints are snapshotted when the job starts. Answers are stored
+ * without their language, so it is inferred per answer. A job records who
+ * started it and the test's department; its progress is only readable with
+ * the same department access that starting it requires.
+ */
+@Slf4j
+@Service
+public class SubmissionReverificationService {
+
+    private static final String COUNT_ATTEMPTS = "SELECT COUNT(*) FROM student_attempts WHERE test_id = ?";
+    private static final String SELECT_PAGE = "SELECT id, answers FROM student_attempts "
+            + "WHERE test_id = ? AND id > ? ORDER BY id LIMIT ?";
+    // Merge per question so verdicts of questions outside this job are kept
+    private static final String MERGE_VERDICTS = "UPDATE student_attempts SET verification_results = "
+            + "COALESCE(verification_results, '{}'::jsonb) || CAST(? AS jsonb) WHERE id = ?";
+
+    private static final long FINISHED_JOB_RETENTION_MINUTES = 60;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TestRepository testRepository;
+    private final TestQuestionRepository testQuestionRepository;
+    private final CodeVerificationService codeVerificationService;
+    private final DepartmentSecurityService departmentSecurityService;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+    private final ExecutorService coordinatorPool;
+    private final ExecutorService verificationPool;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, Job> runningByTest = new ConcurrentHashMap<>();
+
+    public SubmissionReverificationService(JdbcTemplate jdbcTemplate,
+            TestRepository testRepository,
+            TestQuestionRepository testQuestionRepository,
+            CodeVerificationService codeVerificationService,
+            DepartmentSecurityService departmentSecurityService,
+            ObjectMapper objectMapper,
+            @Value("${reverification.parallelism:0}") int parallelism,
+            @Value("${reverification.page-size:500}") int pageSize,
+            @Value("${reverification.max-concurrent-jobs:2}") int maxConcurrentJobs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testRepository = testRepository;
+        this.testQuestionRepository = testQuestionRepository;
+        this.codeVerificationService = codeVerificationService;
+        this.departmentSecurityService = departmentSecurityService;
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger coordinatorIds = new AtomicInteger();
+        AtomicInteger workerIds = new AtomicInteger();
+        this.coordinatorPool = Executors.newFixedThreadPool(maxConcurrentJobs,
+                runnable -> daemon(runnable, "reverify-job-" + coordinatorIds.incrementAndGet()));
+        this.verificationPool = Executors.newFixedThreadPool(workers,
+                runnable -> daemon(runnable, "reverify-worker-" + workerIds.incrementAndGet()));
+    }
+
+    /**
+     * Start re-verifying the coding answers of a test
+     *
+     * @param questionId Restrict to one question, or null for all coding questions
+     * @throws IllegalStateException if a job for this test is already running
+     */
+    public ReverificationProgress startJob(Long testId, Long questionId) {
+        Test test = testRepository.findById(testId)
+                .orElseThrow(() -> new RuntimeException("Test not found"));
+        departmentSecurityService.verifyDepartmentAccess(test.getDepartment());
+
+        Map<String, Question> questions = new LinkedHashMap<>();
+        for (Question question : testQuestionRepository.findQuestionsByTestId(testId)) {
+            if (question.getType() == QuestionType.CODING
+                    && (questionId == null || questionId.equals(question.getId()))) {
+                questions.put(question.getId().toString(), question);
+            }
+        }
+        if (questionId != null && questions.isEmpty()) {
+            throw new IllegalArgumentException("Question " + questionId + " is not a coding question of this test");
+        }
+
+        pruneFinishedJobs();
+        Job job = new Job(UUID.randomUUID().toString(), testId, questionId, questions,
+                departmentSecurityService.getCurrentUserId(), test.getDepartment());
+        if (runningByTest.putIfAbsent(testId, job) != null) {
+            throw new IllegalStateException("A re-verification job is already running for test " + testId);
+        }
+        jobs.put(job.id, job);
+        coordinatorPool.execute(() -> run(job));
+
+        log.info("Queued re-verification job {} for test {} ({} questions)", job.id, testId, questions.size());
+        return job.toProgress();
+    }
+
+    /**
+     * @throws SecurityException if the job's test belongs to another department
+     */
+    public Optional<ReverificationProgress> getProgress(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        departmentSecurityService.verifyDepartmentAccess(job.department);
+        return Optional.of(job.toProgress());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinatorPool.shutdownNow();
+        verificationPool.shutdownNow();
+    }
+
+    private void run(Job job) {
+        try {
+            Integer total = jdbcTemplate.queryForObject(COUNT_ATTEMPTS, Integer.class, job.testId);
+            job.total = total != null ? total : 0;
+
+            long lastId = 0;
+            while (true) {
+                List<AttemptAnswers> page = jdbcTemplate.query(SELECT_PAGE,
+                        (rs, rowNum) -> new AttemptAnswers(rs.getLong("id"), rs.getString("answers")),
+                        job.testId, lastId, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).attemptId();
+
+                List<CompletableFuture<Object[]>> futures = new ArrayList<>(page.size());
+                for (AttemptAnswers attempt : page) {
+                    futures.add(CompletableFuture.supplyAsync(() -> verifyAttempt(job, attempt), verificationPool));
+                }
+
+                List<Object[]> batch = new ArrayList<>(page.size());
+                for (CompletableFuture<Object[]> future : futures) {
+                    Object[] update = future.join();
+                    if (update != null) {
+                        batch.add(update);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate(MERGE_VERDICTS, batch);
+                }
+                job.processed.addAndGet(page.size());
+
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+
+            job.finish(ReverificationProgress.Status.COMPLETED, null);
+            log.info("Re-verification job {} for test {} finished: {} attempts, {} answers, {} invalid in {}ms",
+                    job.id, job.testId, job.processed.get(), job.verified.get(), job.invalid.get(),
+                    job.toProgress().getElapsedMs());
+        } catch (Exception e) {
+            log.error("Re-verification job {} for test {} failed", job.id, job.testId, e);
+            job.finish(ReverificationProgress.Status.FAILED, e.getMessage());
+        } finally {
+            runningByTest.remove(job.testId, job);
+        }
+    }
+
+    /**
+     * Verify every answered question of one attempt
+     *
+     * @return Batch arguments (verdicts JSON, attempt id), or null if nothing was answered
+     */
+    private Object[] verifyAttempt(Job job, AttemptAnswers attempt) {
+        Map<String, String> answers = parseAnswers(attempt);
+        Map<String, Object> verdicts = new LinkedHashMap<>();
+        String verifiedAt = LocalDateTime.now().toString();
+
+        for (Map.Entry<String, Question> entry : job.questions.entrySet()) {
+            String code = answers.get(entry.getKey());
+            if (code == null || code.isBlank()) {
+                continue;
+            }
+            Question question = entry.getValue();
+            String language = Judge0LanguageMapper.getLanguageName(
+                    Judge0LanguageMapper.inferLanguageId(code, question.getAllowedLanguageIds()));
+
+            Map<String, Object> verdict = new LinkedHashMap<>();
+            try {
+                CodeVerificationResult result = codeVerificationService.verifyCode(
+                        code, language, question.getConstraints(), question.getAllowedLanguageIds());
+                verdict.put("valid", result.isValid());
+                if (result.isBudgetExceeded()) {
+                    verdict.put("budgetExceeded", true);
+                }
+                verdict.put("errors", result.getErrors());
+                verdict.put("warnings", result.getWarnings());
+            } catch (Exception e) {
+                log.warn("Re-verification of attempt {} question {} failed", attempt.attemptId(), entry.getKey(), e);
+                verdict.put("valid", false);
+                verdict.put("errors", List.of("Verification failed: " + e.getMessage()));
+            }
+            verdict.put("language", language);
+            verdict.put("verifiedAt", verifiedAt);
+            verdict.put("jobId", job.id);
+            verdicts.put(entry.getKey(), verdict);
+
+            job.verified.incrementAndGet();
+            if (!Boolean.TRUE.equals(verdict.get("valid"))) {
+                job.invalid.incrementAndGet();
+            }
+        }
+
+        if (verdicts.isEmpty()) {
+            return null;
+        }
+        try {
+            return new Object[] { objectMapper.writeValueAsString(verdicts), attempt.attemptId() };
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not serialize verdicts for attempt " + attempt.attemptId(), e);
+        }
+    }
+
+    private Map<String, String> parseAnswers(AttemptAnswers attempt) {
+        if (attempt.answersJson() == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(attempt.answersJson(), new TypeReference<Map<String, String>>() {
+            });
+        } catch (Exception e) {
+            log.warn("Skipping unreadable answers of attempt {}", attempt.attemptId());
+            return Map.of();
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(FINISHED_JOB_RETENTION_MINUTES);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private record AttemptAnswers(long attemptId, String answersJson) {
+    }
+
+    private static final class Job {
+        private final String id;
+        private final Long testId;
+        private final Long questionId;
+        private final Map<String, Question> questions;
+        private final Long startedBy;
+        private final String department;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger verified = new AtomicInteger();
+        private final AtomicInteger invalid = new AtomicInteger();
+        private volatile int total;
+        private volatile ReverificationProgress.Status status = ReverificationProgress.Status.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile long elapsedMs = -1;
+        private volatile String error;
+
+        private Job(String id, Long testId, Long questionId, Map<String, Question> questions, Long startedBy,
+                String department) {
+            this.id = id;
+            this.testId = testId;
+            this.questionId = questionId;
+            this.questions = questions;
+            this.startedBy = startedBy;
+            this.department = department;
+        }
+
+        private void finish(ReverificationProgress.Status finalStatus, String failure) {
+            elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+            error = failure;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        private ReverificationProgress toProgress() {
+            return ReverificationProgress.builder()
+                    .jobId(id)
+                    .testId(testId)
+                    .questionId(questionId)
+                    .startedBy(startedBy)
+                    .status(status)
+                    .totalAttempts(total)
+                    .processedAttempts(processed.get())
+                    .verifiedAnswers(verified.get())
+                    .invalidAnswers(invalid.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .elapsedMs(elapsedMs >= 0 ? elapsedMs : (System.nanoTime() - startNanos) / 1_000_000)
+                    .error(error)
+                    .build();
+        }
+    }
+}
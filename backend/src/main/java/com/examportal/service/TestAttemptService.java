@@ -7,10 +7,14 @@ import com.examportal.repository.QuestionRepository;
 import com.examportal.repository.StudentAttemptRepository;
 import com.examportal.repository.TestRepository;
 import com.examportal.security.DepartmentSecurityService;
+import com.examportal.similarity.service.SimilarityIndexService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -27,6 +31,9 @@ public class TestAttemptService {
     private final QuestionRepository questionRepository;
     private final DepartmentSecurityService departmentSecurityService;
     private final SubmissionProducerService submissionProducerService;
+    private final SimilarityIndexService similarityIndexService;
+    private final ScratchRunService scratchRunService;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     public StudentAttempt startTest(Long testId) {
@@ -128,6 +135,8 @@ public class TestAttemptService {
         // Save answer
         attempt.getAnswers().put(dto.getQuestionId().toString(), dto.getAnswer());
         attemptRepository.save(attempt);
+
+        indexAfterCommit(dto.getQuestionId(), attemptId, studentId, dto.getAnswer());
     }
 
     @Transactional
@@ -144,25 +153,7 @@ public class TestAttemptService {
         Question question = questionRepository.findById(java.util.Objects.requireNonNull(questionId))
                 .orElseThrow(() -> new RuntimeException("Question not found"));
 
-        if (question.getType() != QuestionType.CODING) {
-            throw new RuntimeException("Question is not a coding question");
-        }
-
-        Integer targetLanguageId = languageId;
-        List<Integer> allowed = question.getAllowedLanguageIds();
-
-        // If languageId is null, pick first allowed (backward compatibility)
-        if (targetLanguageId == null && allowed != null && !allowed.isEmpty()) {
-            targetLanguageId = allowed.get(0);
-        } else if (targetLanguageId != null && allowed != null) {
-            if (!allowed.contains(targetLanguageId)) {
-                throw new IllegalArgumentException(
-                        "Language ID " + targetLanguageId + " is not allowed for this question");
-            }
-        } else if (allowed == null || allowed.isEmpty()) {
-            // Should not happen due to validation, but safe fallback
-            throw new RuntimeException("No allowed languages defined for this question");
-        }
+        Integer targetLanguageId = resolveLanguageId(question, languageId);
 
         // --- ASYNC SUBMISSION PIPELINE ---
         // Validate basics here, then queue for processing
@@ -188,6 +179,100 @@ public class TestAttemptService {
                 .build();
     }
 
+    /**
+     * Run code against custom input without touching the attempt row; the
+     * result is kept in Redis for a few minutes only
+     */
+    @Transactional(readOnly = true)
+    public ExecutionResult scratchRun(Long attemptId, Long questionId, String code, Integer languageId,
+            String stdin) {
+        StudentAttempt attempt = attemptRepository.findById(java.util.Objects.requireNonNull(attemptId))
+                .orElseThrow(() -> new RuntimeException("Attempt not found"));
+
+        // Verify ownership
+        Long studentId = departmentSecurityService.getCurrentUserId();
+        if (!attempt.getStudentId().equals(studentId)) {
+            throw new SecurityException("Access denied");
+        }
+
+        if (attempt.getStatus() != AttemptStatus.IN_PROGRESS) {
+            throw new RuntimeException("Cannot run code for a submitted test");
+        }
+
+        Question question = questionRepository.findById(java.util.Objects.requireNonNull(questionId))
+                .orElseThrow(() -> new RuntimeException("Question not found"));
+
+        Integer targetLanguageId = resolveLanguageId(question, languageId);
+
+        String executionId = scratchRunService.queueScratchRun(
+                attemptId,
+                questionId,
+                studentId,
+                code,
+                targetLanguageId,
+                stdin != null ? stdin : "",
+                question.getConstraints());
+
+        return ExecutionResult.builder()
+                .executionId(executionId)
+                .status(ExecutionResult.ExecutionStatus.QUEUED)
+                .executedAt(LocalDateTime.now())
+                .build();
+    }
+
+    public ExecutionResult getScratchRunResult(Long attemptId, String executionId) {
+        StudentAttempt attempt = attemptRepository.findById(java.util.Objects.requireNonNull(attemptId))
+                .orElseThrow(() -> new RuntimeException("Attempt not found"));
+
+        // Verify ownership
+        Long studentId = departmentSecurityService.getCurrentUserId();
+        if (!attempt.getStudentId().equals(studentId)) {
+            throw new SecurityException("Access denied");
+        }
+
+        return scratchRunService.getResult(attemptId, executionId);
+    }
+
+    /**
+     * Index a saved answer for similarity search once its transaction commits,
+     * so a rolled-back answer is never indexed
+     */
+    private void indexAfterCommit(Long questionId, Long attemptId, Long studentId, String answer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            similarityIndexService.indexAnswerAsync(questionId, attemptId, studentId, answer, null);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                similarityIndexService.indexAnswerAsync(questionId, attemptId, studentId, answer, null);
+            }
+        });
+    }
+
+    private Integer resolveLanguageId(Question question, Integer languageId) {
+        if (question.getType() != QuestionType.CODING) {
+            throw new RuntimeException("Question is not a coding question");
+        }
+
+        Integer targetLanguageId = languageId;
+        List<Integer> allowed = question.getAllowedLanguageIds();
+
+        // If languageId is null, pick first allowed (backward compatibility)
+        if (targetLanguageId == null && allowed != null && !allowed.isEmpty()) {
+            targetLanguageId = allowed.get(0);
+        } else if (targetLanguageId != null && allowed != null) {
+            if (!allowed.contains(targetLanguageId)) {
+                throw new IllegalArgumentException(
+                        "Language ID " + targetLanguageId + " is not allowed for this question");
+            }
+        } else if (allowed == null || allowed.isEmpty()) {
+            // Should not happen due to validation, but safe fallback
+            throw new RuntimeException("No allowed languages defined for this question");
+        }
+        return targetLanguageId;
+    }
+
     @Transactional
     public StudentAttempt submitTest(Long attemptId) {
         StudentAttempt attempt = attemptRepository.findById(java.util.Objects.requireNonNull(attemptId))
@@ -305,16 +390,11 @@ public class TestAttemptService {
         }
 
         Object resultObj = results.get(questionId.toString());
-        // Depending on Jackson deserialization, this might be a Map or ExecutionResult
-        // object.
-        // Assuming JPA handles it correctly via @JdbcTypeCode(SqlTypes.JSON) as mapped
-        // in Entity.
-        // But safe cast/convert might be needed if it's raw JSON map.
-        // Since we put ExecutionResult object, Hibernate/Jackson should map it back if
-        // configured correctly.
-        // However, generic Map<String, Object> implies type erasure.
-        // Let's assume it works for now, or check StudentAttempt entity definition.
-
-        return (ExecutionResult) resultObj;
+        // Freshly stored values are ExecutionResult objects, values loaded from the
+        // jsonb column come back as plain maps (generic Map<String, Object>)
+        if (resultObj instanceof ExecutionResult result) {
+            return result;
+        }
+        return objectMapper.convertValue(resultObj, ExecutionResult.class);
     }
 }
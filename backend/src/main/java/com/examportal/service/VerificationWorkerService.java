@@ -3,31 +3,94 @@ package com.examportal.service;
 import com.examportal.dto.VerificationRequest;
 import com.examportal.dto.VerificationResponse;
 import com.examportal.dto.VerificationResult;
+import com.examportal.entity.Question;
+import com.examportal.execution.model.ExecutionLimits;
+import com.examportal.execution.service.ExecutionLimitsService;
 import com.examportal.execution.service.Judge0Service;
 import com.examportal.execution.model.ExecutionResult;
+import com.examportal.execution.util.OutputComparator;
+import com.examportal.repository.QuestionRepository;
 import com.examportal.service.ModeratorVerificationService.VerificationMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Worker service that processes verification requests from RabbitMQ
+ *
+ * The listener only submits the test cases to Judge0 and records the pending
+ * run in Redis, so a listener thread is never held for the duration of a
+ * run. A scheduled poller then fetches batch state, publishes per-test-case
+ * progress through {@link ModeratorVerificationService#updateVerificationStatus}
+ * and finalizes the verification once every case has finished.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class VerificationWorkerService {
 
+    private static final String PENDING_SET = "verification:pending";
+    private static final String PENDING_PREFIX = "verification:pending:";
+    private static final String LOCK_PREFIX = "verification:lock:";
+    private static final long PENDING_TTL_MINUTES = 30;
+
+    // KEYS[1]: lock key; ARGV[1]: owner token. Deletes the lock only if this instance still holds it
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
     private final ModeratorVerificationService verificationService;
     private final CodeVerificationService codeVerificationService;
     private final Judge0Service judge0Service;
+    private final ExecutionLimitsService executionLimitsService;
+    private final QuestionRepository questionRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Lock value identifying this instance
+    private final String lockToken = UUID.randomUUID().toString();
+
+    @Value("${verification.timeout-ms:120000}")
+    private long timeoutMs = 120_000;
+
+    @Value("${verification.poll-interval-ms:500}")
+    private long pollIntervalMs = 500;
+
+    /**
+     * Verification whose test cases are running in Judge0
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PendingVerification {
+        private VerificationMessage message;
+        private List<String> tokens;
+        private List<ExecutionResult> results; // null entries are still running
+        private long submittedAt;
+    }
 
     /**
-     * Listen to verification queue and process requests
+     * Listen to verification queue and submit the run
      */
     @RabbitListener(queues = "verification_queue")
     public void processVerification(VerificationMessage message) {
@@ -36,89 +99,23 @@ public class VerificationWorkerService {
         try {
             log.info("Processing verification request: {}", verificationId);
 
-            // Update status to PROCESSING
-            verificationService.updateVerificationStatus(
-                    verificationId,
-                    VerificationResponse.VerificationStatus.PROCESSING,
-                    null,
-                    "Executing solution...");
-
-            // Prepare inputs for batch execution
-            List<VerificationRequest.TestCaseData> testCases = message.getTestCases();
-            String[] inputs = testCases.stream()
-                    .map(tc -> tc.getInput())
-                    .toArray(String[]::new);
-
-            // Execute batch (Synchronous wait for moderator)
-            // Use moderatorId as studentId for tracking
-            ExecutionResult[] results = judge0Service.executeBatch(
-                    message.getCode(),
-                    message.getLanguageId(),
-                    inputs,
-                    message.getModeratorId());
-
-            // Process Results
-            List<VerificationResult.TestCaseResult> testCaseResults = new ArrayList<>();
-            boolean allPassed = true;
-            int totalExecutionTime = 0;
-
-            for (int i = 0; i < results.length; i++) {
-                ExecutionResult result = results[i];
-                VerificationRequest.TestCaseData testCase = testCases.get(i);
-
-                String output = result.getOutput() != null ? result.getOutput().trim() : "";
-                // If there is an error in execution (stderr), output might be empty or we
-                // should capture error
-                boolean passed = "ACCEPTED".equals(result.getStatus().name()) &&
-                        output.equals(testCase.getExpectedOutput().trim());
-
-                if (!passed)
-                    allPassed = false;
-
-                testCaseResults.add(VerificationResult.TestCaseResult.builder()
-                        .input(testCase.getInput())
-                        .expectedOutput(testCase.getExpectedOutput())
-                        .actualOutput(output)
-                        .passed(passed)
-                        .error(result.getError())
-                        .build());
-            }
-
-            // Validate logic constraints if enabled
-            List<String> constraintViolations = new ArrayList<>();
-            if (message.getConstraints() != null) {
-                if (Boolean.TRUE.equals(message.getConstraints().getForbidLoops())) {
-                    if (codeVerificationService.hasLoops(message.getCode(), message.getLanguageId())) {
-                        constraintViolations.add("Code contains forbidden loops");
-                        allPassed = false;
-                    }
-                }
+            List<String> inputs = message.getTestCases().stream()
+                    .map(VerificationRequest.TestCaseData::getInput)
+                    .toList();
 
-                if (Boolean.TRUE.equals(message.getConstraints().getRequireRecursion())) {
-                    if (!codeVerificationService.hasRecursion(message.getCode(), message.getLanguageId())) {
-                        constraintViolations.add("Code must use recursion");
-                        allPassed = false;
-                    }
-                }
-            }
+            // Submit without waiting; the poller picks the run up from Redis
+            List<String> tokens = judge0Service.submitBatch(message.getCode(), message.getLanguageId(), inputs);
 
-            // Build result
-            VerificationResult result = VerificationResult.builder()
-                    .passed(allPassed)
-                    .testCaseResults(testCaseResults)
-                    .constraintViolations(constraintViolations)
-                    .executionTimeMs(totalExecutionTime)
-                    .build();
+            List<ExecutionResult> results = new ArrayList<>();
+            tokens.forEach(token -> results.add(null));
+            savePending(new PendingVerification(message, tokens, results, System.currentTimeMillis()));
+            redisTemplate.opsForSet().add(PENDING_SET, verificationId);
 
-            // Update final status
             verificationService.updateVerificationStatus(
                     verificationId,
-                    allPassed ? VerificationResponse.VerificationStatus.SUCCESS
-                            : VerificationResponse.VerificationStatus.FAILED,
-                    result,
-                    allPassed ? "All tests passed" : "Some tests failed");
-
-            log.info("Verification completed: {} - {}", verificationId, allPassed ? "SUCCESS" : "FAILED");
+                    VerificationResponse.VerificationStatus.PROCESSING,
+                    null,
+                    "Executing solution: 0/" + tokens.size() + " test cases completed");
 
         } catch (Exception e) {
             log.error("Verification processing failed for: {}", verificationId, e);
@@ -131,4 +128,243 @@ public class VerificationWorkerService {
                     "Verification error: " + e.getMessage());
         }
     }
+
+    /**
+     * Advance every pending verification by one batch poll
+     */
+    @Scheduled(fixedDelayString = "${verification.poll-interval-ms:500}")
+    public void pollPendingVerifications() {
+        Set<String> pending;
+        try {
+            pending = redisTemplate.opsForSet().members(PENDING_SET);
+        } catch (Exception e) {
+            log.debug("Could not read pending verifications: {}", e.getMessage());
+            return;
+        }
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+
+        for (String verificationId : pending) {
+            // Only one instance polls a given verification per interval
+            String lockKey = LOCK_PREFIX + verificationId;
+            Boolean locked = redisTemplate.opsForValue().setIfAbsent(
+                    lockKey, lockToken, Duration.ofMillis(Math.max(pollIntervalMs * 4, 2000)));
+            if (!Boolean.TRUE.equals(locked)) {
+                continue;
+            }
+            try {
+                pollVerification(verificationId);
+            } catch (Exception e) {
+                log.warn("Polling verification {} failed, will retry: {}", verificationId, e.getMessage());
+            } finally {
+                // A poll that outlived the lock TTL must not release another instance's lock
+                try {
+                    redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(lockKey), lockToken);
+                } catch (Exception e) {
+                    log.debug("Could not release lock for verification {}: {}", verificationId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void pollVerification(String verificationId) throws Exception {
+        String json = redisTemplate.opsForValue().get(PENDING_PREFIX + verificationId);
+        if (json == null) {
+            redisTemplate.opsForSet().remove(PENDING_SET, verificationId);
+            return;
+        }
+        PendingVerification pending = objectMapper.readValue(json, PendingVerification.class);
+
+        if (System.currentTimeMillis() - pending.getSubmittedAt() > timeoutMs) {
+            finish(verificationId);
+            verificationService.updateVerificationStatus(
+                    verificationId,
+                    VerificationResponse.VerificationStatus.ERROR,
+                    buildResult(pending, List.of()),
+                    "Verification error: timed out waiting for the sandbox");
+            return;
+        }
+
+        List<Integer> open = new ArrayList<>();
+        for (int i = 0; i < pending.getTokens().size(); i++) {
+            if (pending.getResults().get(i) == null) {
+                open.add(i);
+            }
+        }
+
+        List<ExecutionResult> polled = judge0Service.getBatchResults(
+                open.stream().map(pending.getTokens()::get).toList());
+        int newlyCompleted = 0;
+        for (int i = 0; i < open.size() && i < polled.size(); i++) {
+            ExecutionResult result = polled.get(i);
+            if (result.getStatus() != ExecutionResult.ExecutionStatus.QUEUED
+                    && result.getStatus() != ExecutionResult.ExecutionStatus.PROCESSING) {
+                pending.getResults().set(open.get(i), result);
+                newlyCompleted++;
+            }
+        }
+
+        int completed = pending.getTokens().size() - open.size() + newlyCompleted;
+        if (completed < pending.getTokens().size()) {
+            if (newlyCompleted > 0) {
+                savePending(pending);
+                verificationService.updateVerificationStatus(
+                        verificationId,
+                        VerificationResponse.VerificationStatus.PROCESSING,
+                        buildResult(pending, List.of()),
+                        "Executing solution: " + completed + "/" + pending.getTokens().size()
+                                + " test cases completed");
+            }
+            return;
+        }
+
+        finish(verificationId);
+        complete(verificationId, pending);
+    }
+
+    /**
+     * Check constraints, derive limits and publish the final verdict
+     */
+    private void complete(String verificationId, PendingVerification pending) {
+        VerificationMessage message = pending.getMessage();
+
+        // Validate logic constraints if enabled
+        List<String> constraintViolations = new ArrayList<>();
+        if (message.getConstraints() != null) {
+            if (Boolean.TRUE.equals(message.getConstraints().getForbidLoops())) {
+                if (codeVerificationService.hasLoops(message.getCode(), message.getLanguageId())) {
+                    constraintViolations.add("Code contains forbidden loops");
+                }
+            }
+
+            if (Boolean.TRUE.equals(message.getConstraints().getRequireRecursion())) {
+                if (!codeVerificationService.hasRecursion(message.getCode(), message.getLanguageId())) {
+                    constraintViolations.add("Code must use recursion");
+                }
+            }
+        }
+
+        VerificationResult result = buildResult(pending, constraintViolations);
+        boolean allPassed = Boolean.TRUE.equals(result.getPassed());
+
+        // Derive sandbox limits from a passing reference run
+        ExecutionLimits limits = allPassed
+                ? executionLimitsService.fromReferenceRun(pending.getResults(),
+                        executionLimitsService.testCasesHash(message.getTestCases()))
+                : null;
+        if (limits != null && message.getQuestionId() != null) {
+            storeLimits(message.getQuestionId(), message.getLanguageId(), limits);
+        }
+        result.setRecommendedLimits(limits);
+
+        // Update final status
+        verificationService.updateVerificationStatus(
+                verificationId,
+                allPassed ? VerificationResponse.VerificationStatus.SUCCESS
+                        : VerificationResponse.VerificationStatus.FAILED,
+                result,
+                allPassed ? "All tests passed" : "Some tests failed");
+
+        log.info("Verification completed: {} - {}", verificationId, allPassed ? "SUCCESS" : "FAILED");
+    }
+
+    /**
+     * Result over the test cases finished so far; passed only once all have finished
+     */
+    private VerificationResult buildResult(PendingVerification pending, List<String> constraintViolations) {
+        VerificationMessage message = pending.getMessage();
+        List<VerificationRequest.TestCaseData> testCases = message.getTestCases();
+        double epsilon = message.getComparisonEpsilon() != null
+                ? message.getComparisonEpsilon() : OutputComparator.DEFAULT_EPSILON;
+        List<VerificationResult.TestCaseResult> testCaseResults = new ArrayList<>();
+        boolean allPassed = constraintViolations.isEmpty();
+        int totalExecutionTime = 0;
+
+        for (int i = 0; i < pending.getResults().size(); i++) {
+            ExecutionResult result = pending.getResults().get(i);
+            if (result == null) {
+                allPassed = false;
+                continue;
+            }
+            VerificationRequest.TestCaseData testCase = testCases.get(i);
+
+            boolean passed = result.getStatus() == ExecutionResult.ExecutionStatus.ACCEPTED &&
+                    OutputComparator.matches(result.getOutput(), testCase.getExpectedOutput(),
+                            message.getComparisonMode(), epsilon);
+
+            if (!passed)
+                allPassed = false;
+
+            if (result.getCpuTimeMs() != null) {
+                totalExecutionTime += result.getCpuTimeMs().intValue();
+            }
+
+            testCaseResults.add(VerificationResult.TestCaseResult.builder()
+                    .input(testCase.getInput())
+                    .expectedOutput(testCase.getExpectedOutput())
+                    .actualOutput(result.getOutput() != null ? result.getOutput().trim() : "")
+                    .passed(passed)
+                    .error(result.getError() != null ? result.getError() : result.getCompileOutput())
+                    .cpuTimeMs(result.getCpuTimeMs())
+                    .memoryKb(result.getMemoryKb())
+                    .build());
+        }
+
+        return VerificationResult.builder()
+                .passed(allPassed)
+                .testCaseResults(testCaseResults)
+                .constraintViolations(constraintViolations)
+                .executionTimeMs(totalExecutionTime)
+                .build();
+    }
+
+    private void savePending(PendingVerification pending) throws Exception {
+        redisTemplate.opsForValue().set(
+                PENDING_PREFIX + pending.getMessage().getVerificationId(),
+                objectMapper.writeValueAsString(pending),
+                PENDING_TTL_MINUTES,
+                TimeUnit.MINUTES);
+    }
+
+    private void finish(String verificationId) {
+        redisTemplate.opsForSet().remove(PENDING_SET, verificationId);
+        redisTemplate.delete(PENDING_PREFIX + verificationId);
+    }
+
+    /**
+     * Record the limits for the reference solution's language on the question.
+     * Limits measured on other test cases than the question's current ones
+     * (edited meanwhile, or an ad-hoc set) are not stored, and stored limits of
+     * other languages measured on outdated test cases are evicted. Only the
+     * limits column is written, and only while the test cases are unchanged,
+     * so a moderator's concurrent edit of the question wins.
+     */
+    private void storeLimits(Long questionId, Integer languageId, ExecutionLimits limits) {
+        try {
+            Question question = questionRepository.findById(questionId).orElse(null);
+            if (question == null) {
+                log.warn("Question {} not found, execution limits not stored", questionId);
+                return;
+            }
+            if (!limits.getTestCasesHash().equals(executionLimitsService.testCasesHash(question))) {
+                log.info("Test cases of question {} differ from the verified ones, execution limits not stored",
+                        questionId);
+                return;
+            }
+            int updated = questionRepository.updateExecutionLimits(questionId,
+                    objectMapper.writeValueAsString(question.getTestCases()), limits.getTestCasesHash(),
+                    languageId.toString(), objectMapper.writeValueAsString(limits));
+            if (updated == 0) {
+                log.info("Question {} changed while storing execution limits, not stored", questionId);
+                return;
+            }
+
+            log.info("Stored execution limits for question {} language {}: cpu={}s wall={}s memory={}KB",
+                    questionId, languageId, limits.getCpuTimeLimit(), limits.getWallTimeLimit(),
+                    limits.getMemoryLimit());
+        } catch (Exception e) {
+            log.error("Failed to store execution limits for question {}", questionId, e);
+        }
+    }
 }
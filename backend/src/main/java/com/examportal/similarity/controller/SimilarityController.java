@@ -0,0 +1,66 @@
+package com.examportal.similarity.controller;
+
+import com.examportal.similarity.dto.SimilarityMatch;
+import com.examportal.similarity.service.SimilarityIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Code similarity lookups for moderators
+ */
+@RestController
+@RequestMapping("/api/moderator/similarity")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyAuthority('MODERATOR', 'ADMIN')")
+public class SimilarityController {
+
+    private static final int MAX_LIMIT = 500;
+
+    private final SimilarityIndexService similarityIndexService;
+
+    /**
+     * Submissions most similar to one attempt's answer
+     *
+     * GET /api/moderator/similarity/questions/{questionId}/attempts/{attemptId}?minSimilarity=0.3&limit=10
+     */
+    @GetMapping("/questions/{questionId}/attempts/{attemptId}")
+    public ResponseEntity<List<SimilarityMatch>> getSimilarSubmissions(
+            @PathVariable Long questionId,
+            @PathVariable Long attemptId,
+            @RequestParam(defaultValue = "0.3") double minSimilarity,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(similarityIndexService.findSimilar(
+                    questionId, attemptId, minSimilarity, Math.min(Math.max(limit, 1), MAX_LIMIT)));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Most similar pairs of submissions to a question
+     *
+     * GET /api/moderator/similarity/questions/{questionId}/pairs?minSimilarity=0.5&limit=50
+     */
+    @GetMapping("/questions/{questionId}/pairs")
+    public ResponseEntity<List<SimilarityMatch>> getSimilarPairs(
+            @PathVariable Long questionId,
+            @RequestParam(defaultValue = "0.5") double minSimilarity,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(similarityIndexService.findSimilarPairs(
+                    questionId, minSimilarity, Math.min(Math.max(limit, 1), MAX_LIMIT)));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
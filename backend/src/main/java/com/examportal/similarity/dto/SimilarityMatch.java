@@ -0,0 +1,22 @@
+package com.examportal.similarity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Two submissions to the same question and their estimated similarity
+ * (Jaccard similarity of winnowed fingerprints, 0..1)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarityMatch {
+    private Long attemptId;
+    private Long studentId;
+    private Long matchedAttemptId;
+    private Long matchedStudentId;
+    private double similarity;
+}
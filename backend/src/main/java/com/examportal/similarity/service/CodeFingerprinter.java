@@ -0,0 +1,168 @@
+package com.examportal.similarity.service;
+
+import com.examportal.antlr.SimpleJavaLexer;
+import com.examportal.parser.lexer.CppLexer;
+import com.examportal.parser.lexer.PythonLexer;
+import com.examportal.parser.lexer.Token;
+import com.examportal.parser.lexer.TokenType;
+import org.antlr.v4.runtime.CharStreams;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Code Fingerprinter
+ *
+ * Turns a submission into a set of winnowed k-gram fingerprints that survive
+ * renaming, reformatting and comment changes:
+ * 1. Tokenize with the language lexer (SimpleJavaLexer, PythonLexer, CppLexer)
+ * 2. Normalize: identifiers become "$", numbers "#", strings "\"";
+ *    keywords, operators and block structure are kept
+ * 3. Hash every k consecutive tokens and keep the minimum hash of each
+ *    window of w k-grams (winnowing), which guarantees any shared run of
+ *    k + w - 1 tokens produces a shared fingerprint
+ */
+@Component
+public class CodeFingerprinter {
+
+    static final int K = 5;
+    static final int WINDOW = 4;
+    static final int MAX_TOKENS = 100_000;
+
+    private static final String IDENTIFIER = "$";
+    private static final String NUMBER = "#";
+    private static final String STRING = "\"";
+
+    private static final Set<String> PYTHON_KEYWORDS = Set.of(
+            "False", "None", "True", "and", "as", "assert", "async", "await", "break", "class",
+            "continue", "def", "del", "elif", "else", "except", "finally", "for", "from", "global",
+            "if", "import", "in", "is", "lambda", "nonlocal", "not", "or", "pass", "raise",
+            "return", "try", "while", "with", "yield");
+
+    private static final Set<String> CPP_KEYWORDS = Set.of(
+            "auto", "bool", "break", "case", "catch", "char", "class", "const", "continue", "default",
+            "delete", "do", "double", "else", "enum", "false", "float", "for", "goto", "if", "inline",
+            "int", "long", "new", "nullptr", "private", "protected", "public", "return", "short",
+            "signed", "sizeof", "static", "struct", "switch", "template", "this", "throw", "true",
+            "try", "typedef", "typename", "union", "unsigned", "using", "virtual", "void", "while");
+
+    /**
+     * Sorted, distinct fingerprints of {@code code}
+     *
+     * @param language Verifier language name (java, python, cpp); other
+     *                 languages are tokenized as C-like code
+     */
+    public long[] fingerprint(String code, String language) {
+        if (code == null || code.isBlank()) {
+            return new long[0];
+        }
+        return winnow(normalize(code, language));
+    }
+
+    List<String> normalize(String code, String language) {
+        String lang = language != null ? language.toLowerCase() : "";
+        return switch (lang) {
+            case "java" -> normalizeJava(code);
+            case "python", "python3" -> normalizeTokens(PythonLexer.tokenize(code).getTokens(), PYTHON_KEYWORDS);
+            default -> normalizeTokens(CppLexer.tokenize(code).getTokens(), CPP_KEYWORDS);
+        };
+    }
+
+    private List<String> normalizeJava(String code) {
+        SimpleJavaLexer lexer = new SimpleJavaLexer(CharStreams.fromString(code));
+        lexer.removeErrorListeners();
+
+        List<String> normalized = new ArrayList<>();
+        for (org.antlr.v4.runtime.Token token = lexer.nextToken();
+                token.getType() != org.antlr.v4.runtime.Token.EOF && normalized.size() < MAX_TOKENS;
+                token = lexer.nextToken()) {
+            normalized.add(switch (token.getType()) {
+                case SimpleJavaLexer.IDENTIFIER -> IDENTIFIER;
+                case SimpleJavaLexer.DECIMAL_LITERAL, SimpleJavaLexer.HEX_LITERAL, SimpleJavaLexer.OCT_LITERAL,
+                        SimpleJavaLexer.BINARY_LITERAL, SimpleJavaLexer.FLOAT_LITERAL,
+                        SimpleJavaLexer.HEX_FLOAT_LITERAL -> NUMBER;
+                case SimpleJavaLexer.STRING_LITERAL, SimpleJavaLexer.CHAR_LITERAL -> STRING;
+                default -> token.getText();
+            });
+        }
+        return normalized;
+    }
+
+    private List<String> normalizeTokens(List<Token> tokens, Set<String> keywords) {
+        List<String> normalized = new ArrayList<>(Math.min(tokens.size(), MAX_TOKENS));
+        for (Token token : tokens) {
+            if (normalized.size() >= MAX_TOKENS) {
+                break;
+            }
+            switch (token.type()) {
+                case NAME -> normalized.add(keywords.contains(token.text()) ? token.text() : IDENTIFIER);
+                case NUMBER -> normalized.add(NUMBER);
+                case STRING -> normalized.add(STRING);
+                case OP -> normalized.add(token.text());
+                case INDENT -> normalized.add(">");
+                case DEDENT -> normalized.add("<");
+                default -> {
+                    // NEWLINE, PREPROCESSOR (#include lines are shared by everyone), EOF
+                }
+            }
+        }
+        return normalized;
+    }
+
+    static long[] winnow(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return new long[0];
+        }
+
+        int gramCount = Math.max(1, tokens.size() - K + 1);
+        long[] grams = new long[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            long hash = 0;
+            for (int j = i; j < Math.min(i + K, tokens.size()); j++) {
+                hash = hash * 1_000_003L + tokens.get(j).hashCode();
+            }
+            grams[i] = mix(hash);
+        }
+
+        // Rightmost minimum of each window; record it when the selection moves
+        long[] selected = new long[gramCount];
+        int count = 0;
+        int lastIndex = -1;
+        int windows = Math.max(1, gramCount - WINDOW + 1);
+        for (int start = 0; start < windows; start++) {
+            int end = Math.min(start + WINDOW, gramCount);
+            int minIndex = start;
+            for (int i = start + 1; i < end; i++) {
+                if (grams[i] <= grams[minIndex]) {
+                    minIndex = i;
+                }
+            }
+            if (minIndex != lastIndex) {
+                selected[count++] = grams[minIndex];
+                lastIndex = minIndex;
+            }
+        }
+
+        long[] fingerprints = Arrays.copyOf(selected, count);
+        Arrays.sort(fingerprints);
+        int distinct = 0;
+        for (int i = 0; i < fingerprints.length; i++) {
+            if (i == 0 || fingerprints[i] != fingerprints[i - 1]) {
+                fingerprints[distinct++] = fingerprints[i];
+            }
+        }
+        return Arrays.copyOf(fingerprints, distinct);
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,280 @@
+package com.examportal.similarity.service;
+
+import com.examportal.similarity.dto.SimilarityMatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Question Similarity Index
+ *
+ * MinHash LSH index over the fingerprints of all submissions to one
+ * question. Each submission gets a MinHash signature of BANDS x ROWS values;
+ * submissions that agree on all rows of any band share a bucket. Queries only
+ * compare against bucket-mates (sub-linear in the number of submissions) and
+ * rank them by exact Jaccard similarity of their fingerprints.
+ *
+ * With 32 bands of 4 rows, pairs at 50% similarity are found with ~87%
+ * probability and pairs at 70% with ~99.9%; pairs below 20% rarely collide.
+ *
+ * Fingerprints of the question's starter code are removed before indexing so
+ * the shared template does not make everyone look alike. Thread-safe.
+ */
+public class QuestionSimilarityIndex {
+
+    static final int BANDS = 32;
+    static final int ROWS = 4;
+
+    // Upper bound on exact comparisons per pair scan, for degenerate buckets
+    private static final int MAX_PAIR_COMPARISONS = 200_000;
+
+    private static final long[] SEEDS = new long[BANDS * ROWS];
+
+    static {
+        for (int i = 0; i < SEEDS.length; i++) {
+            SEEDS[i] = CodeFingerprinter.mix(0x9E3779B97F4A7C15L * (i + 1));
+        }
+    }
+
+    private final long[] baseFingerprints;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+    private volatile long lastAccess = System.currentTimeMillis();
+
+    /**
+     * @param baseFingerprints Sorted fingerprints of the starter code (may be empty)
+     */
+    public QuestionSimilarityIndex(long[] baseFingerprints) {
+        this.baseFingerprints = baseFingerprints;
+    }
+
+    private record Entry(long attemptId, Long studentId, long[] fingerprints, long[] bandKeys) {
+    }
+
+    private record Pair(long first, long second) {
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long attemptId) {
+        lock.readLock().lock();
+        try {
+            return entries.containsKey(attemptId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace the submission of an attempt
+     */
+    public void put(long attemptId, Long studentId, long[] fingerprints) {
+        long[] own = subtract(fingerprints, baseFingerprints);
+        Entry entry = new Entry(attemptId, studentId, own, own.length > 0 ? bandKeys(signature(own)) : new long[0]);
+
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(attemptId, entry);
+            if (previous != null) {
+                for (long key : previous.bandKeys()) {
+                    Set<Long> bucket = buckets.get(key);
+                    if (bucket != null && bucket.remove(attemptId) && bucket.isEmpty()) {
+                        buckets.remove(key);
+                    }
+                }
+            }
+            for (long key : entry.bandKeys()) {
+                buckets.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(attemptId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Submissions most similar to the given attempt's, best first
+     */
+    public List<SimilarityMatch> mostSimilar(long attemptId, double minSimilarity, int limit) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(attemptId);
+            if (entry == null) {
+                return List.of();
+            }
+
+            Set<Long> candidates = new HashSet<>();
+            for (long key : entry.bandKeys()) {
+                candidates.addAll(buckets.getOrDefault(key, Set.of()));
+            }
+            candidates.remove(attemptId);
+
+            List<SimilarityMatch> matches = new ArrayList<>();
+            for (Long candidateId : candidates) {
+                Entry candidate = entries.get(candidateId);
+                if (sameStudent(entry, candidate)) {
+                    continue;
+                }
+                double similarity = jaccard(entry.fingerprints(), candidate.fingerprints());
+                if (similarity >= minSimilarity) {
+                    matches.add(match(entry, candidate, similarity));
+                }
+            }
+            return top(matches, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Most similar pairs of submissions across the question, best first
+     */
+    public List<SimilarityMatch> similarPairs(double minSimilarity, int limit) {
+        lock.readLock().lock();
+        try {
+            Set<Pair> seenPairs = new HashSet<>();
+            List<SimilarityMatch> matches = new ArrayList<>();
+            int comparisons = 0;
+
+            for (Set<Long> bucket : buckets.values()) {
+                if (bucket.size() < 2) {
+                    continue;
+                }
+                Long[] members = bucket.toArray(new Long[0]);
+                for (int i = 0; i < members.length && comparisons < MAX_PAIR_COMPARISONS; i++) {
+                    for (int j = i + 1; j < members.length && comparisons < MAX_PAIR_COMPARISONS; j++) {
+                        long a = Math.min(members[i], members[j]);
+                        long b = Math.max(members[i], members[j]);
+                        if (!seenPairs.add(new Pair(a, b))) {
+                            continue;
+                        }
+                        Entry first = entries.get(a);
+                        Entry second = entries.get(b);
+                        if (sameStudent(first, second)) {
+                            continue;
+                        }
+                        comparisons++;
+                        double similarity = jaccard(first.fingerprints(), second.fingerprints());
+                        if (similarity >= minSimilarity) {
+                            matches.add(match(first, second, similarity));
+                        }
+                    }
+                }
+            }
+            return top(matches, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static long[] signature(long[] fingerprints) {
+        long[] signature = new long[SEEDS.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long fingerprint : fingerprints) {
+            for (int i = 0; i < SEEDS.length; i++) {
+                long hash = CodeFingerprinter.mix(fingerprint ^ SEEDS[i]);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private static long[] bandKeys(long[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = key * 0x100000001B3L + signature[band * ROWS + row];
+            }
+            keys[band] = CodeFingerprinter.mix(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Jaccard similarity of two sorted, distinct arrays
+     */
+    static double jaccard(long[] a, long[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return 0.0;
+        }
+        int i = 0;
+        int j = 0;
+        int shared = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    private static long[] subtract(long[] fingerprints, long[] base) {
+        if (base.length == 0) {
+            return fingerprints;
+        }
+        return Arrays.stream(fingerprints).filter(fp -> Arrays.binarySearch(base, fp) < 0).toArray();
+    }
+
+    private static boolean sameStudent(Entry a, Entry b) {
+        return a.studentId() != null && a.studentId().equals(b.studentId());
+    }
+
+    private static SimilarityMatch match(Entry entry, Entry other, double similarity) {
+        return SimilarityMatch.builder()
+                .attemptId(entry.attemptId())
+                .studentId(entry.studentId())
+                .matchedAttemptId(other.attemptId())
+                .matchedStudentId(other.studentId())
+                .similarity(similarity)
+                .build();
+    }
+
+    private static List<SimilarityMatch> top(List<SimilarityMatch> matches, int limit) {
+        matches.sort(Comparator.comparingDouble(SimilarityMatch::getSimilarity).reversed()
+                .thenComparing(SimilarityMatch::getAttemptId)
+                .thenComparing(SimilarityMatch::getMatchedAttemptId));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+}
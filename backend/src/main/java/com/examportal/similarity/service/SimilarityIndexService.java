@@ -0,0 +1,178 @@
+package com.examportal.similarity.service;
+
+import com.examportal.entity.Question;
+import com.examportal.entity.QuestionType;
+import com.examportal.entity.StudentAttempt;
+import com.examportal.execution.util.Judge0LanguageMapper;
+import com.examportal.repository.QuestionRepository;
+import com.examportal.repository.StudentAttemptRepository;
+import com.examportal.repository.TestQuestionRepository;
+import com.examportal.security.DepartmentSecurityService;
+import com.examportal.similarity.dto.SimilarityMatch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Similarity Index Service
+ *
+ * Keeps one {@link QuestionSimilarityIndex} per coding question. An index is
+ * built from the stored answers the first time the question is queried and
+ * is then kept current as answers are saved, so moderators can look up the
+ * nearest submissions of any attempt without comparing against every other.
+ *
+ * Answers are stored without their language, so it is inferred from the
+ * question's allowed languages (see {@link Judge0LanguageMapper#inferLanguageId}).
+ *
+ * At most similarity.index.max-questions indexes are kept (least recently
+ * queried dropped first), and an index not queried within the idle timeout
+ * is dropped; it is rebuilt from the database on the next query.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SimilarityIndexService {
+
+    private final CodeFingerprinter fingerprinter;
+    private final QuestionRepository questionRepository;
+    private final TestQuestionRepository testQuestionRepository;
+    private final StudentAttemptRepository attemptRepository;
+    private final DepartmentSecurityService departmentSecurityService;
+
+    private final Map<Long, QuestionSimilarityIndex> indexes = new ConcurrentHashMap<>();
+
+    @Value("${similarity.index.max-questions:200}")
+    private int maxIndexes = 200;
+
+    @Value("${similarity.index.idle-timeout-minutes:60}")
+    private long idleTimeoutMinutes = 60;
+
+    /**
+     * Index a saved answer. Only indexes that are already built are updated;
+     * others pick the answer up from the database when first queried. Call
+     * after the answer is committed, so a rebuild can never miss it.
+     */
+    @Async("taskExecutor")
+    public void indexAnswerAsync(Long questionId, Long attemptId, Long studentId, String code, Integer languageId) {
+        QuestionSimilarityIndex index = indexes.get(questionId);
+        if (index == null || code == null) {
+            return;
+        }
+        try {
+            Question question = questionRepository.findById(Objects.requireNonNull(questionId)).orElse(null);
+            if (question == null || question.getType() != QuestionType.CODING) {
+                return;
+            }
+            index.put(attemptId, studentId, fingerprint(question, code, languageId));
+        } catch (Exception e) {
+            log.warn("Failed to index answer of attempt {} for question {}: {}", attemptId, questionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Submissions to a question that are most similar to one attempt's answer
+     */
+    public List<SimilarityMatch> findSimilar(Long questionId, Long attemptId, double minSimilarity, int limit) {
+        QuestionSimilarityIndex index = loadIndex(questionId);
+        return index.mostSimilar(attemptId, minSimilarity, limit);
+    }
+
+    /**
+     * Most similar pairs of submissions to a question
+     */
+    public List<SimilarityMatch> findSimilarPairs(Long questionId, double minSimilarity, int limit) {
+        QuestionSimilarityIndex index = loadIndex(questionId);
+        return index.similarPairs(minSimilarity, limit);
+    }
+
+    private QuestionSimilarityIndex loadIndex(Long questionId) {
+        Question question = questionRepository.findById(Objects.requireNonNull(questionId))
+                .orElseThrow(() -> new IllegalArgumentException("Question not found: " + questionId));
+        if (question.getType() != QuestionType.CODING) {
+            throw new IllegalArgumentException("Question is not a coding question");
+        }
+        if (question.getDepartment() != null) {
+            departmentSecurityService.verifyDepartmentAccess(question.getDepartment());
+        }
+
+        QuestionSimilarityIndex index = indexes.computeIfAbsent(questionId,
+                id -> new QuestionSimilarityIndex(fingerprint(question, question.getStarterCode(), null)));
+        index.touch();
+        makeRoom(questionId);
+        if (!index.isLoaded()) {
+            synchronized (index) {
+                if (!index.isLoaded()) {
+                    rebuild(question, index);
+                    index.markLoaded();
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Drop indexes that have not been queried within the idle timeout
+     */
+    @Scheduled(fixedDelayString = "${similarity.index.sweep-interval-ms:300000}")
+    public void evictIdleIndexes() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMinutes * 60_000;
+        int before = indexes.size();
+        indexes.values().removeIf(index -> index.getLastAccess() < cutoff);
+        int evicted = before - indexes.size();
+        if (evicted > 0) {
+            log.info("Evicted {} idle similarity indexes, {} remain", evicted, indexes.size());
+        }
+    }
+
+    /**
+     * Enforce the index limit, dropping the least recently queried indexes other than {@code keep}
+     */
+    private void makeRoom(Long keep) {
+        while (indexes.size() > maxIndexes) {
+            Long eldest = indexes.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(keep))
+                    .min(Comparator.comparingLong(entry -> entry.getValue().getLastAccess()))
+                    .map(Map.Entry::getKey)
+                    .orElse(null);
+            if (eldest == null || indexes.remove(eldest) == null) {
+                return;
+            }
+        }
+    }
+
+    private void rebuild(Question question, QuestionSimilarityIndex index) {
+        long start = System.currentTimeMillis();
+        String key = question.getId().toString();
+
+        for (Long testId : testQuestionRepository.findTestIdsByQuestionId(question.getId())) {
+            for (StudentAttempt attempt : attemptRepository.findByTestId(testId)) {
+                String code = attempt.getAnswers().get(key);
+                // Answers saved since the index was created are already newer than the stored copy
+                if (code != null && !code.isBlank() && !index.contains(attempt.getId())) {
+                    index.put(attempt.getId(), attempt.getStudentId(), fingerprint(question, code, null));
+                }
+            }
+        }
+
+        log.info("Built similarity index for question {} with {} submissions in {} ms",
+                question.getId(), index.size(), System.currentTimeMillis() - start);
+    }
+
+    private long[] fingerprint(Question question, String code, Integer languageId) {
+        if (code == null || code.isBlank()) {
+            return new long[0];
+        }
+        Integer language = languageId != null ? languageId
+                : Judge0LanguageMapper.inferLanguageId(code, question.getAllowedLanguageIds());
+        return fingerprinter.fingerprint(code, Judge0LanguageMapper.getLanguageName(language));
+    }
+}
@@ -0,0 +1,7 @@
+-- Static verification verdicts written by bulk re-verification jobs
+-- Flyway migration V4
+
+ALTER TABLE student_attempts ADD COLUMN IF NOT EXISTS verification_results JSONB;
+
+-- Keyset pagination over the attempts of a test
+CREATE INDEX IF NOT EXISTS idx_student_attempts_test_id ON student_attempts(test_id, id);
@@ -0,0 +1,4 @@
+-- Per-language sandbox limits derived from the verified reference solution
+-- Flyway migration V5
+
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS execution_limits JSONB;
@@ -0,0 +1,5 @@
+-- Per-question output comparison mode (EXACT, WHITESPACE, LINE_SET, NUMERIC)
+-- Flyway migration V6
+
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS comparison_mode VARCHAR(20);
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS comparison_epsilon DOUBLE PRECISION;
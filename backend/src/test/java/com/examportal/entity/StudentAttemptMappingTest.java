@@ -0,0 +1,130 @@
+package com.examportal.entity;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verdicts are merged into student_attempts.verification_results with JDBC
+ * by the re-verification job; a later JPA save of the same attempt must not
+ * write its (stale) in-memory copy back over them. Runs Hibernate against a
+ * stub connection and inspects the SQL it issues.
+ */
+public class StudentAttemptMappingTest {
+
+        private final List<String> statements = new ArrayList<>();
+        private StandardServiceRegistry registry;
+        private SessionFactory sessionFactory;
+
+        @BeforeEach
+        void setUp() throws Exception {
+                PreparedStatement statement = mock(PreparedStatement.class);
+                when(statement.executeUpdate()).thenReturn(1);
+                Connection connection = mock(Connection.class);
+                when(connection.getAutoCommit()).thenReturn(true);
+                when(connection.prepareStatement(anyString())).thenReturn(statement);
+                when(connection.prepareStatement(anyString(), anyInt())).thenReturn(statement);
+                when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+
+                ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+                when(connectionProvider.getConnection()).thenReturn(connection);
+
+                registry = new StandardServiceRegistryBuilder()
+                                .applySetting("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect")
+                                .applySetting("hibernate.temp.use_jdbc_metadata_defaults", "false")
+                                // Column names as Spring Boot maps them
+                                .applySetting("hibernate.physical_naming_strategy",
+                                                new CamelCaseToUnderscoresNamingStrategy())
+                                .applySetting("hibernate.connection.provider_class", connectionProvider)
+                                .applySetting("hibernate.session_factory.statement_inspector",
+                                                (StatementInspector) sql -> {
+                                                        statements.add(sql);
+                                                        return sql;
+                                                })
+                                .build();
+                sessionFactory = new MetadataSources(registry)
+                                .addAnnotatedClass(StudentAttempt.class)
+                                .buildMetadata()
+                                .buildSessionFactory();
+        }
+
+        @AfterEach
+        void tearDown() {
+                sessionFactory.close();
+                StandardServiceRegistryBuilder.destroy(registry);
+        }
+
+        @Test
+        @SuppressWarnings("deprecation")
+        void savingAfterReverificationKeepsVerdicts() {
+                // Loaded before the re-verification job merged its verdicts
+                Map<String, Object> staleVerdicts = new HashMap<>();
+                StudentAttempt attempt = StudentAttempt.builder()
+                                .id(42L)
+                                .testId(7L)
+                                .studentId(3L)
+                                .status(AttemptStatus.IN_PROGRESS)
+                                .startedAt(LocalDateTime.now())
+                                .verificationResults(staleVerdicts)
+                                .build();
+                attempt.getAnswers().put("1", "print(1)");
+
+                try (Session session = sessionFactory.openSession()) {
+                        Transaction transaction = session.beginTransaction();
+                        session.update(attempt);
+                        transaction.commit();
+                }
+
+                String update = statements.stream()
+                                .filter(sql -> sql.startsWith("update student_attempts"))
+                                .findFirst()
+                                .orElseThrow();
+                assertTrue(update.contains("answers"));
+                assertFalse(update.contains("verification_results"));
+        }
+
+        @Test
+        void insertingAnAttemptLeavesVerdictsToTheDatabase() {
+                StudentAttempt attempt = StudentAttempt.builder()
+                                .testId(7L)
+                                .studentId(3L)
+                                .status(AttemptStatus.IN_PROGRESS)
+                                .startedAt(LocalDateTime.now())
+                                .build();
+
+                try (Session session = sessionFactory.openSession()) {
+                        Transaction transaction = session.beginTransaction();
+                        session.persist(attempt);
+                        transaction.commit();
+                } catch (RuntimeException e) {
+                        // The stub connection returns no generated id; only the SQL matters here
+                }
+
+                String insert = statements.stream()
+                                .filter(sql -> sql.startsWith("insert into student_attempts"))
+                                .findFirst()
+                                .orElseThrow();
+                assertFalse(insert.contains("verification_results"));
+        }
+}
@@ -0,0 +1,61 @@
+package com.examportal.execution;
+
+import com.examportal.dto.VerificationRequest;
+import com.examportal.entity.Question;
+import com.examportal.execution.model.ExecutionLimits;
+import com.examportal.execution.model.ExecutionResult;
+import com.examportal.execution.service.ExecutionLimitsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionLimitsServiceTest {
+
+        private static final Integer PYTHON = 71;
+
+        private final ExecutionLimitsService service = new ExecutionLimitsService();
+        private Question question;
+
+        @BeforeEach
+        void setUp() {
+                question = Question.builder()
+                                .testCases(List.of(Map.of("input", "5 3", "expectedOutput", "8")))
+                                .build();
+                List<VerificationRequest.TestCaseData> verified = List.of(
+                                new VerificationRequest.TestCaseData("5 3", "8"));
+                ExecutionResult run = new ExecutionResult();
+                run.setCpuTimeMs(40L);
+                run.setMemoryKb(9000.0);
+
+                ExecutionLimits limits = service.fromReferenceRun(List.of(run), service.testCasesHash(verified));
+                question.setExecutionLimits(new HashMap<>(Map.of(PYTHON.toString(), limits)));
+        }
+
+        @Test
+        void testLimitsApplyToTheTestCasesTheyWereMeasuredOn() {
+                assertNotNull(service.resolve(question, PYTHON));
+                assertFalse(service.evictStale(question));
+        }
+
+        @Test
+        void testChangedTestCasesMakeLimitsStale() {
+                question.setTestCases(List.of(Map.of("input", "5 3", "expectedOutput", "8"),
+                                Map.of("input", "1000000 1", "expectedOutput", "1000001")));
+
+                assertNull(service.resolve(question, PYTHON));
+                assertTrue(service.evictStale(question));
+                assertTrue(question.getExecutionLimits().isEmpty());
+        }
+
+        @Test
+        void testLimitsWithoutTestCaseHashAreIgnored() {
+                question.getExecutionLimits().get(PYTHON.toString()).setTestCasesHash(null);
+
+                assertNull(service.resolve(question, PYTHON));
+        }
+}
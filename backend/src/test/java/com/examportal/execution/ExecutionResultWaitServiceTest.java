@@ -0,0 +1,54 @@
+package com.examportal.execution;
+
+import com.examportal.execution.model.ExecutionResult;
+import com.examportal.execution.service.ExecutionResultWaitService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ExecutionResultWaitServiceTest {
+
+        private final RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+        private final ExecutionResultWaitService service = new ExecutionResultWaitService(listenerContainer,
+                        new ObjectMapper());
+
+        @AfterEach
+        void tearDown() {
+                service.shutdown();
+        }
+
+        @Test
+        void testCompletionBeforeTheSubscriptionIsLiveIsNotMissed() throws Exception {
+                ReflectionTestUtils.setField(service, "recheckMs", 10L);
+                AtomicReference<ExecutionResult> stored = new AtomicReference<>(result(
+                                ExecutionResult.ExecutionStatus.PROCESSING));
+
+                DeferredResult<ResponseEntity<ExecutionResult>> deferred = service.await("exec-1", 30_000,
+                                stored::get);
+                assertFalse(deferred.hasResult());
+
+                // Finished after the first read, with no event delivered to the listener
+                stored.set(result(ExecutionResult.ExecutionStatus.ACCEPTED));
+                for (int i = 0; i < 200 && !deferred.hasResult(); i++) {
+                        Thread.sleep(10);
+                }
+
+                @SuppressWarnings("unchecked")
+                ResponseEntity<ExecutionResult> response = (ResponseEntity<ExecutionResult>) deferred.getResult();
+                assertNotNull(response);
+                assertEquals(ExecutionResult.ExecutionStatus.ACCEPTED, response.getBody().getStatus());
+        }
+
+        private static ExecutionResult result(ExecutionResult.ExecutionStatus status) {
+                return ExecutionResult.builder().executionId("exec-1").status(status).build();
+        }
+}
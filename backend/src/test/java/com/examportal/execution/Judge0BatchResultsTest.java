@@ -0,0 +1,44 @@
+package com.examportal.execution;
+
+import com.examportal.execution.client.Judge0Client;
+import com.examportal.execution.model.ExecutionResult;
+import com.examportal.execution.model.Judge0BatchResponse;
+import com.examportal.execution.model.Judge0SubmissionResponse;
+import com.examportal.execution.service.ExecutionQueueService;
+import com.examportal.execution.service.Judge0Service;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class Judge0BatchResultsTest {
+
+        private final Judge0Client judge0Client = mock(Judge0Client.class);
+        private final Judge0Service service = new Judge0Service(judge0Client, mock(StringRedisTemplate.class),
+                        mock(ExecutionQueueService.class));
+
+        @Test
+        void testMissingEntriesFailOnlyTheirOwnToken() {
+                Judge0SubmissionResponse accepted = Judge0SubmissionResponse.builder()
+                                .token("a").status(new Judge0SubmissionResponse.Status(3, "Accepted")).stdout("8\n")
+                                .build();
+                Judge0SubmissionResponse noStatus = Judge0SubmissionResponse.builder().token("c").build();
+                when(judge0Client.getBatchSubmissions(any(), any(), eq("a,b,c"), any()))
+                                .thenReturn(new Judge0BatchResponse(Arrays.asList(accepted, null, noStatus)));
+
+                List<ExecutionResult> results = service.getBatchResults(List.of("a", "b", "c"));
+
+                assertEquals(3, results.size());
+                assertEquals(ExecutionResult.ExecutionStatus.ACCEPTED, results.get(0).getStatus());
+                assertEquals("8\n", results.get(0).getOutput());
+                assertEquals(ExecutionResult.ExecutionStatus.INTERNAL_ERROR, results.get(1).getStatus());
+                assertEquals("b", results.get(1).getSubmissionToken());
+                assertEquals(ExecutionResult.ExecutionStatus.INTERNAL_ERROR, results.get(2).getStatus());
+                assertEquals("c", results.get(2).getSubmissionToken());
+        }
+}
@@ -0,0 +1,72 @@
+package com.examportal.execution;
+
+import com.examportal.execution.model.ComparisonMode;
+import com.examportal.execution.util.OutputComparator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutputComparatorTest {
+
+        @Test
+        void testExactIgnoresOnlySurroundingWhitespace() {
+                assertTrue(OutputComparator.matches("1 2\n3\n", "1 2\n3", ComparisonMode.EXACT));
+                assertTrue(OutputComparator.matches("\n  hello \n\n", "hello", null));
+                assertTrue(OutputComparator.matches(null, "", ComparisonMode.EXACT));
+                assertFalse(OutputComparator.matches("1  2\n3", "1 2\n3", ComparisonMode.EXACT));
+                assertFalse(OutputComparator.matches("1 2\r\n3", "1 2\n3", ComparisonMode.EXACT));
+                assertFalse(OutputComparator.matches("12", "1", ComparisonMode.EXACT));
+        }
+
+        @Test
+        void testWhitespaceModeComparesTokens() {
+                assertTrue(OutputComparator.matches("1  2\r\n3\t\n", "1 2 3", ComparisonMode.WHITESPACE));
+                assertTrue(OutputComparator.matches("  ", "", ComparisonMode.WHITESPACE));
+                assertFalse(OutputComparator.matches("1 2", "1 2 3", ComparisonMode.WHITESPACE));
+                assertFalse(OutputComparator.matches("1 2 3", "1 2", ComparisonMode.WHITESPACE));
+                assertFalse(OutputComparator.matches("12 3", "1 23", ComparisonMode.WHITESPACE));
+                assertFalse(OutputComparator.matches("1.0", "1", ComparisonMode.WHITESPACE));
+        }
+
+        @Test
+        void testLineSetIgnoresOrderButNotMultiplicity() {
+                assertTrue(OutputComparator.matches("b\na\nc\n", "a\nb\nc", ComparisonMode.LINE_SET));
+                assertTrue(OutputComparator.matches("a  \n\nb", "b\na", ComparisonMode.LINE_SET));
+                assertTrue(OutputComparator.matches("x\nx\ny", "x\ny\nx", ComparisonMode.LINE_SET));
+                assertFalse(OutputComparator.matches("x\nx\ny", "x\ny\ny", ComparisonMode.LINE_SET));
+                assertFalse(OutputComparator.matches("a\nb", "a\nb\nb", ComparisonMode.LINE_SET));
+                assertFalse(OutputComparator.matches("a b", "b a", ComparisonMode.LINE_SET));
+        }
+
+        @Test
+        void testNumericToleratesRoundingAndFormatting() {
+                assertTrue(OutputComparator.matches("3.14159265", "3.1415927", ComparisonMode.NUMERIC));
+                assertTrue(OutputComparator.matches("1e3 -0.5", "1000.0 -.5", ComparisonMode.NUMERIC));
+                assertTrue(OutputComparator.matches("0.0", "-0", ComparisonMode.NUMERIC));
+                assertTrue(OutputComparator.matches("1000000001", "1000000000", ComparisonMode.NUMERIC, 1e-6));
+                assertTrue(OutputComparator.matches("YES 2.50", "YES 2.5", ComparisonMode.NUMERIC));
+                assertFalse(OutputComparator.matches("3.14", "3.1415927", ComparisonMode.NUMERIC));
+                assertTrue(OutputComparator.matches("3.14", "3.1415927", ComparisonMode.NUMERIC, 1e-2));
+                assertFalse(OutputComparator.matches("NO 2.5", "YES 2.5", ComparisonMode.NUMERIC));
+                assertFalse(OutputComparator.matches("1e", "1", ComparisonMode.NUMERIC));
+                assertFalse(OutputComparator.matches("NaN", "NaN0", ComparisonMode.NUMERIC));
+                assertTrue(OutputComparator.matches("123456789012345678901234", "1.23456789012345678e23",
+                                ComparisonMode.NUMERIC));
+        }
+
+        @Test
+        void testLargeOutputsStopAtFirstMismatch() {
+                StringBuilder expected = new StringBuilder();
+                for (int i = 0; i < 200_000; i++) {
+                        expected.append(i).append('\n');
+                }
+                StringBuilder actual = new StringBuilder(expected);
+                assertTrue(OutputComparator.matches(actual, expected, ComparisonMode.EXACT));
+                assertTrue(OutputComparator.matches(actual, expected, ComparisonMode.LINE_SET));
+
+                actual.setCharAt(0, '9');
+                assertFalse(OutputComparator.matches(actual, expected, ComparisonMode.WHITESPACE));
+                assertFalse(OutputComparator.matches(actual, expected, ComparisonMode.NUMERIC));
+                assertFalse(OutputComparator.matches(actual, expected, ComparisonMode.LINE_SET));
+        }
+}
@@ -0,0 +1,95 @@
+package com.examportal.execution;
+
+import com.examportal.execution.model.CostEstimate;
+import com.examportal.execution.model.CostEstimate.CostClass;
+import com.examportal.execution.service.SubmissionCostEstimator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SubmissionCostEstimatorTest {
+
+        private final SubmissionCostEstimator estimator = new SubmissionCostEstimator();
+
+        @Test
+        void testRegularSolutionsAreStandard() {
+                String java = """
+                                public class Main {
+                                    static int sum(int[] a) { return Main.sum(a, 0); }
+                                    static int sum(int[] a, int i) {
+                                        return i >= a.length ? 0 : a[i] + Main.sum(a, i + 1);
+                                    }
+                                    public static void main(String[] args) {
+                                        while (true) {
+                                            int n = 1;
+                                            if (n > 0) break;
+                                        }
+                                        for (int i = 0; i < 3; i++)
+                                            for (int j = 0; j < 3; j++) System.out.println(i * j);
+                                        do { n--; } while (true && n > 0);
+                                    }
+                                }
+                                """;
+                CostEstimate estimate = estimator.estimate(java, "java");
+                assertEquals(CostClass.STANDARD, estimate.getCostClass(), estimate.getReasons().toString());
+                assertEquals(2, estimate.getMaxLoopDepth());
+
+                String python = """
+                                def fact(n):
+                                    if n <= 1:
+                                        return 1
+                                    return n * fact(n - 1)
+
+                                while True:
+                                    line = input()
+                                    if not line:
+                                        break
+                                print([x for x in range(10)])
+                                """;
+                assertEquals(CostClass.STANDARD, estimator.estimate(python, "python").getCostClass());
+        }
+
+        @Test
+        void testUnboundedLoopsAreLikelyTle() {
+                String cpp = """
+                                #include <iostream>
+                                int main() {
+                                    int x = 0;
+                                    for (;;) {
+                                        x++;
+                                    }
+                                }
+                                """;
+                assertEquals(CostClass.LIKELY_TLE, estimator.estimate(cpp, "cpp").getCostClass());
+
+                String python = "x = 0\nwhile True:\n    x += 1\n";
+                assertEquals(CostClass.LIKELY_TLE, estimator.estimate(python, "python").getCostClass());
+
+                // A break inside a nested loop only leaves the nested loop
+                String java = """
+                                class Main {
+                                    public static void main(String[] a) {
+                                        while (true) {
+                                            for (int i = 0; i < 3; i++) { break; }
+                                        }
+                                    }
+                                }
+                                """;
+                assertEquals(CostClass.LIKELY_TLE, estimator.estimate(java, "java").getCostClass());
+        }
+
+        @Test
+        void testRecursionWithoutBaseCaseIsLikelyTle() {
+                String java = """
+                                class Main {
+                                    static int f(int n) { return n + Main.f(n - 1); }
+                                }
+                                """;
+                CostEstimate estimate = estimator.estimate(java, "java");
+                assertEquals(CostClass.LIKELY_TLE, estimate.getCostClass());
+                assertTrue(estimate.getReasons().get(0).contains("f()"));
+
+                String python = "def f(n):\n    return f(n + 1)\n\nprint(f(1))\n";
+                assertEquals(CostClass.LIKELY_TLE, estimator.estimate(python, "python").getCostClass());
+        }
+}
@@ -0,0 +1,117 @@
+package com.examportal.monitoring;
+
+import com.examportal.config.CborPayloadNegotiation;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class CborPayloadNegotiationTest {
+
+        private static final byte[] JSON = "[{\"studentId\":7,\"activityStatus\":\"CODING\"}]"
+                        .getBytes(StandardCharsets.UTF_8);
+
+        private final MessageChannel channel = mock(MessageChannel.class);
+        private CborPayloadNegotiation negotiation;
+
+        @BeforeEach
+        void setUp() {
+                negotiation = new CborPayloadNegotiation(new ObjectMapper());
+        }
+
+        @Test
+        void cborSessionOnNativeEndpointGetsBinaryPayload() throws Exception {
+                connect("s1", nativeAttributes(), "cbor");
+
+                Message<?> sent = negotiation.outboundInterceptor().preSend(message("s1", JSON), channel);
+
+                StompHeaderAccessor accessor = StompHeaderAccessor.wrap(sent);
+                assertEquals(CborPayloadNegotiation.CBOR_CONTENT_TYPE, accessor.getContentType());
+                JsonNode decoded = new CBORMapper().readTree((byte[]) sent.getPayload());
+                assertEquals(7, decoded.get(0).get("studentId").asInt());
+                assertEquals("CODING", decoded.get(0).get("activityStatus").asText());
+        }
+
+        @Test
+        void sameBroadcastIsTranscodedOnce() {
+                connect("s1", nativeAttributes(), "cbor");
+                connect("s2", nativeAttributes(), "cbor");
+
+                Message<?> first = negotiation.outboundInterceptor().preSend(message("s1", JSON), channel);
+                Message<?> second = negotiation.outboundInterceptor().preSend(message("s2", JSON), channel);
+
+                assertSame(first.getPayload(), second.getPayload());
+        }
+
+        @Test
+        void sockJsAndDefaultSessionsKeepJson() {
+                connect("sockjs", new HashMap<>(), "cbor");
+                connect("plain", nativeAttributes(), null);
+
+                for (String sessionId : new String[] { "sockjs", "plain" }) {
+                        Message<?> sent = negotiation.outboundInterceptor().preSend(message(sessionId, JSON), channel);
+                        assertSame(JSON, sent.getPayload());
+                }
+        }
+
+        @Test
+        void disconnectForgetsFormat() {
+                connect("s1", nativeAttributes(), "cbor");
+                StompHeaderAccessor disconnect = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+                disconnect.setSessionId("s1");
+                negotiation.inboundInterceptor().preSend(
+                                MessageBuilder.createMessage(new byte[0], disconnect.getMessageHeaders()), channel);
+
+                Message<?> sent = negotiation.outboundInterceptor().preSend(message("s1", JSON), channel);
+
+                assertSame(JSON, sent.getPayload());
+        }
+
+        private Map<String, Object> nativeAttributes() {
+                Map<String, Object> attributes = new HashMap<>();
+                try {
+                        negotiation.binaryTransportHandshake().beforeHandshake(mock(ServerHttpRequest.class),
+                                        mock(ServerHttpResponse.class), mock(WebSocketHandler.class), attributes);
+                } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                }
+                return attributes;
+        }
+
+        private void connect(String sessionId, Map<String, Object> attributes, String format) {
+                StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+                connect.setSessionId(sessionId);
+                connect.setSessionAttributes(attributes);
+                if (format != null) {
+                        connect.setNativeHeader(CborPayloadNegotiation.FORMAT_HEADER, format);
+                }
+                negotiation.inboundInterceptor().preSend(
+                                MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), channel);
+        }
+
+        private Message<byte[]> message(String sessionId, byte[] payload) {
+                StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+                accessor.setSessionId(sessionId);
+                accessor.setDestination("/topic/exam/1/monitoring");
+                accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+                accessor.setLeaveMutable(true);
+                return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+        }
+}
@@ -0,0 +1,150 @@
+package com.examportal.monitoring;
+
+import com.examportal.config.CoalescingSessionDecorator;
+import com.examportal.config.OutboundFlowControl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CoalescingSessionDecoratorTest {
+
+        @Mock
+        private WebSocketSession session;
+
+        private final List<Runnable> flushes = new ArrayList<>();
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private CoalescingSessionDecorator decorator;
+
+        @BeforeEach
+        void setUp() {
+                ObjectMapper objectMapper = new ObjectMapper();
+                OutboundFlowControl flowControl = new OutboundFlowControl(objectMapper, meterRegistry, 1);
+                decorator = new CoalescingSessionDecorator(session, flowControl, flushes::add, objectMapper);
+        }
+
+        @Test
+        void testQueuedStatusFramesForOneSubscriptionAreMerged() throws Exception {
+                decorator.sendMessage(frame("/topic/exam/7/monitoring", "sub-0", "1",
+                                "[{\"studentId\":1,\"activityStatus\":\"IDLE\"},{\"studentId\":2,\"currentQuestion\":3}]"));
+                decorator.sendMessage(frame("/topic/exam/7/violations", "sub-1", "2", "{\"studentId\":1}"));
+                decorator.sendMessage(frame("/topic/exam/7/monitoring", "sub-0", "3",
+                                "[{\"studentId\":1,\"activityStatus\":\"ACTIVE\"}]"));
+
+                flushes.forEach(Runnable::run);
+
+                ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+                verify(session, times(2)).sendMessage(sent.capture());
+                assertTrue(((String) sent.getAllValues().get(0).getPayload()).contains("/topic/exam/7/violations"));
+
+                String merged = (String) sent.getAllValues().get(1).getPayload();
+                String body = "[{\"studentId\":1,\"activityStatus\":\"ACTIVE\"},{\"studentId\":2,\"currentQuestion\":3}]";
+                assertTrue(merged.contains("version:3\n"));
+                assertTrue(merged.contains("content-length:" + body.length() + "\n"));
+                assertTrue(merged.endsWith("\n\n" + body + "\0"));
+                assertEquals(1.0, meterRegistry.counter("websocket.outbound.frames.coalesced").count());
+        }
+
+        @Test
+        void testOverflowingDeltaIsFoldedIntoTheNewerFrame() throws Exception {
+                String older = "x".repeat(150_000);
+                String newer = "y".repeat(150_000);
+                decorator.sendMessage(frame("/topic/exam/7/monitoring", "sub-0", "1",
+                                "[{\"studentId\":1,\"note\":\"" + older + "\"},{\"studentId\":2,\"currentQuestion\":3}]"));
+                decorator.sendMessage(frame("/user/queue/execution", "sub-r", "2", "{\"status\":\"DONE\"}"));
+                decorator.sendMessage(frame("/topic/exam/7/monitoring", "sub-0", "3",
+                                "[{\"studentId\":1,\"note\":\"" + newer + "\",\"activityStatus\":\"ACTIVE\"}]"));
+
+                flushes.forEach(Runnable::run);
+
+                ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+                verify(session, times(2)).sendMessage(sent.capture());
+                assertTrue(((String) sent.getAllValues().get(0).getPayload()).contains("subscription:sub-r\n"));
+
+                String merged = (String) sent.getAllValues().get(1).getPayload();
+                String body = "[{\"studentId\":1,\"note\":\"" + newer + "\",\"activityStatus\":\"ACTIVE\"},"
+                                + "{\"studentId\":2,\"currentQuestion\":3}]";
+                assertTrue(merged.contains("version:3\n"));
+                assertTrue(merged.endsWith("\n\n" + body + "\0"));
+                assertEquals(1.0, meterRegistry.counter("websocket.outbound.frames.coalesced").count());
+                assertEquals(0.0, meterRegistry.counter("websocket.outbound.frames.dropped").count());
+                verify(session, never()).close(any());
+        }
+
+        @Test
+        void testStatusFramesThatCannotBeFoldedCloseTheSession() throws Exception {
+                String body = "[{\"studentId\":1,\"note\":\"" + "x".repeat(100_000) + "\"}]";
+                for (int i = 0; i < 3; i++) {
+                        decorator.sendMessage(frame("/topic/exam/" + i + "/monitoring", "sub-" + i,
+                                        Integer.toString(i), body));
+                }
+
+                flushes.forEach(Runnable::run);
+
+                verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+                verify(session, never()).sendMessage(any());
+                assertEquals(3.0, meterRegistry.counter("websocket.outbound.frames.dropped").count());
+        }
+
+        @Test
+        void testBinaryStatusFramesAreNeverMergedOrDropped() throws Exception {
+                byte[] body = new byte[150_000];
+                for (int i = 0; i < 2; i++) {
+                        decorator.sendMessage(binaryFrame("/topic/exam/7/monitoring", "sub-0", body));
+                }
+
+                flushes.forEach(Runnable::run);
+
+                verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+                verify(session, never()).sendMessage(any());
+                assertEquals(0.0, meterRegistry.counter("websocket.outbound.frames.coalesced").count());
+        }
+
+        @Test
+        void testSessionIsClosedWhenFramesThatMustBeDeliveredOverflow() throws Exception {
+                String body = "{\"payload\":\"" + "x".repeat(100_000) + "\"}";
+                for (int i = 0; i < 4; i++) {
+                        decorator.sendMessage(frame("/user/queue/execution", "sub-" + i, Integer.toString(i), body));
+                }
+
+                flushes.forEach(Runnable::run);
+
+                verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+                verify(session, never()).sendMessage(any());
+                assertEquals(3.0, meterRegistry.counter("websocket.outbound.frames.dropped").count());
+                assertEquals(1.0, meterRegistry.counter("websocket.outbound.sessions.terminated").count());
+        }
+
+        private static TextMessage frame(String destination, String subscription, String version, String body) {
+                return new TextMessage("MESSAGE\ndestination:" + destination + "\ncontent-type:application/json\n"
+                                + "subscription:" + subscription + "\nversion:" + version
+                                + "\ncontent-length:" + body.length() + "\n\n" + body + "\0");
+        }
+
+        private static BinaryMessage binaryFrame(String destination, String subscription, byte[] body) {
+                byte[] headers = ("MESSAGE\ndestination:" + destination
+                                + "\ncontent-type:application/octet-stream;format=cbor\nsubscription:" + subscription
+                                + "\ncontent-length:" + body.length + "\n\n").getBytes(StandardCharsets.UTF_8);
+                byte[] frame = new byte[headers.length + body.length + 1];
+                System.arraycopy(headers, 0, frame, 0, headers.length);
+                System.arraycopy(body, 0, frame, headers.length, body.length);
+                return new BinaryMessage(frame);
+        }
+}
@@ -0,0 +1,63 @@
+package com.examportal.monitoring;
+
+import com.examportal.monitoring.model.ExamSession;
+import com.examportal.monitoring.service.ExamSessionCodec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExamSessionCodecTest {
+
+        @Test
+        void testRoundTripKeepsEveryField() {
+                LocalDateTime started = LocalDateTime.of(2026, 3, 1, 9, 30, 15, 123_000_000);
+                ExamSession session = ExamSession.builder()
+                                .id(42L)
+                                .examId(7L)
+                                .examTitle("Data Structures Midterm")
+                                .studentId(1001L)
+                                .studentName("Student One")
+                                .department("CSE")
+                                .startedAt(started)
+                                .expiresAt(started.plusHours(2))
+                                .status(ExamSession.SessionStatus.ACTIVE)
+                                .violationCount(3)
+                                .webSocketSessionId("ws-abc")
+                                .lastHeartbeat(started.plusMinutes(5))
+                                .offlineSince(started.plusMinutes(6))
+                                .build();
+
+                Map<String, String> fields = ExamSessionCodec.encode(session);
+                assertEquals("7", fields.get(ExamSessionCodec.EXAM_ID));
+                assertEquals("ACTIVE", fields.get(ExamSessionCodec.STATUS));
+
+                ExamSession decoded = ExamSessionCodec.decode(42L, fields);
+                assertEquals(session, decoded);
+                assertTrue(decoded.isHeartbeatStale());
+        }
+
+        @Test
+        void testNullFieldsAreOmittedAndMissingHashDecodesToNull() {
+                ExamSession session = ExamSession.builder().studentId(5L).build();
+
+                Map<String, String> fields = ExamSessionCodec.encode(session);
+                assertEquals(Map.of(ExamSessionCodec.STUDENT_ID, "5"), fields);
+
+                ExamSession decoded = ExamSessionCodec.decode(1L, fields);
+                assertEquals(5L, decoded.getStudentId());
+                assertNull(decoded.getExamId());
+                assertNull(decoded.getLastHeartbeat());
+
+                assertNull(ExamSessionCodec.decode(1L, Map.of()));
+                assertNull(ExamSessionCodec.decode(1L, null));
+        }
+
+        @Test
+        void testMalformedFieldIsRejected() {
+                assertThrows(IllegalArgumentException.class,
+                                () -> ExamSessionCodec.decode(1L, Map.of(ExamSessionCodec.EXAM_ID, "[\"java.lang.Long\",7]")));
+        }
+}
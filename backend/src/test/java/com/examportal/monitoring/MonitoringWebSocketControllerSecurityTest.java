@@ -0,0 +1,106 @@
+package com.examportal.monitoring;
+
+import com.examportal.monitoring.controller.MonitoringWebSocketController;
+import com.examportal.monitoring.controller.MonitoringWebSocketController.TerminationRequest;
+import com.examportal.monitoring.model.ExamSession;
+import com.examportal.monitoring.service.ModeratorMonitoringService;
+import com.examportal.monitoring.service.MonitoringBroadcastService;
+import com.examportal.monitoring.service.SessionManagerService;
+import com.examportal.monitoring.service.StatusDeltaAggregator;
+import com.examportal.repository.TestRepository;
+import com.examportal.security.DepartmentSecurityService;
+import com.examportal.security.StompAuthentication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class MonitoringWebSocketControllerSecurityTest {
+
+        @Mock
+        private SessionManagerService sessionManager;
+        @Mock
+        private MonitoringBroadcastService broadcastService;
+        @Mock
+        private StatusDeltaAggregator deltaAggregator;
+        @Mock
+        private TestRepository testRepository;
+
+        private MonitoringWebSocketController controller;
+
+        private final TerminationRequest request = new TerminationRequest(5L, 50L, "cheating");
+
+        @BeforeEach
+        void setUp() {
+                ModeratorMonitoringService moderatorService = new ModeratorMonitoringService(sessionManager,
+                                deltaAggregator, new DepartmentSecurityService(), testRepository);
+                controller = new MonitoringWebSocketController(sessionManager, broadcastService, moderatorService);
+
+                com.examportal.entity.Test exam = new com.examportal.entity.Test();
+                exam.setDepartment("CSE");
+                when(testRepository.findById(9L)).thenReturn(Optional.of(exam));
+                when(sessionManager.getSession(50L)).thenReturn(
+                                ExamSession.builder().id(50L).examId(9L).studentId(5L).department("CSE").build());
+        }
+
+        @Test
+        void testNonModeratorIsRefused() {
+                Principal student = principal("STUDENT", "CSE");
+
+                assertThrows(AccessDeniedException.class,
+                                () -> controller.handleModeratorTermination(9L, request, student));
+                assertThrows(AccessDeniedException.class, () -> controller.handleStatusRequest(9L, student));
+                assertThrows(AccessDeniedException.class, () -> controller.subscribeSnapshot(9L, student));
+                assertThrows(AccessDeniedException.class,
+                                () -> controller.handleModeratorTermination(9L, request, null));
+
+                verify(sessionManager, never()).terminateSession(any());
+                verifyNoInteractions(broadcastService, deltaAggregator);
+        }
+
+        @Test
+        void testModeratorOfAnotherDepartmentIsRefused() {
+                Principal moderator = principal("MODERATOR", "ECE");
+
+                assertThrows(SecurityException.class,
+                                () -> controller.handleModeratorTermination(9L, request, moderator));
+                assertThrows(SecurityException.class, () -> controller.subscribeSnapshot(9L, moderator));
+
+                verify(sessionManager, never()).terminateSession(any());
+        }
+
+        @Test
+        void testSessionOfAnotherExamIsRefused() {
+                assertThrows(SecurityException.class, () -> controller.handleModeratorTermination(9L,
+                                new TerminationRequest(5L, 51L, "cheating"), principal("MODERATOR", "CSE")));
+
+                verify(sessionManager, never()).terminateSession(any());
+        }
+
+        @Test
+        void testModeratorOfTheDepartmentTerminates() {
+                controller.handleModeratorTermination(9L, request, principal("MODERATOR", "CSE"));
+
+                verify(sessionManager).terminateSession(50L);
+                verify(broadcastService).broadcastTermination(9L, 5L, "cheating");
+        }
+
+        private static Principal principal(String role, String department) {
+                return new StompAuthentication(1L, department, List.of(new SimpleGrantedAuthority(role)));
+        }
+}
@@ -0,0 +1,112 @@
+package com.examportal.monitoring;
+
+import com.examportal.monitoring.model.ExamStatusSnapshot;
+import com.examportal.monitoring.model.StudentStatus;
+import com.examportal.monitoring.model.StudentStatusDelta;
+import com.examportal.monitoring.service.StatusDeltaAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StatusDeltaAggregatorTest {
+
+        @Mock
+        private SimpMessagingTemplate messagingTemplate;
+
+        private StatusDeltaAggregator aggregator;
+
+        @BeforeEach
+        void setUp() {
+                aggregator = new StatusDeltaAggregator(messagingTemplate);
+        }
+
+        @Test
+        void testUpdatesWithinOneTickAreMergedIntoOneFrame() {
+                aggregator.submit(7L, StudentStatus.builder().studentId(1L)
+                                .activityStatus(StudentStatus.ActivityStatus.IDLE).currentQuestion(1).build());
+                aggregator.submit(7L, StudentStatus.builder().studentId(1L)
+                                .activityStatus(StudentStatus.ActivityStatus.ACTIVE).build());
+                aggregator.submit(7L, StudentStatus.builder().studentId(2L)
+                                .connectionStatus(StudentStatus.ConnectionStatus.ONLINE).build());
+
+                aggregator.tick();
+
+                List<StudentStatusDelta> deltas = captureFrame(7L);
+                assertEquals(2, deltas.size());
+                assertEquals(StudentStatusDelta.builder().studentId(1L)
+                                .activityStatus(StudentStatus.ActivityStatus.ACTIVE).currentQuestion(1).build(),
+                                deltas.get(0));
+                assertEquals(StudentStatus.ConnectionStatus.ONLINE, deltas.get(1).getConnectionStatus());
+        }
+
+        @Test
+        void testUnchangedFieldsAreLeftOutAndEmptyDeltasAreNotSent() {
+                aggregator.submit(7L, StudentStatus.builder().studentId(1L)
+                                .activityStatus(StudentStatus.ActivityStatus.ACTIVE).currentQuestion(1).build());
+                aggregator.tick();
+                clearInvocations(messagingTemplate);
+
+                // Same values again: nothing to send
+                aggregator.submit(7L, StudentStatus.builder().studentId(1L)
+                                .activityStatus(StudentStatus.ActivityStatus.ACTIVE).currentQuestion(1).build());
+                aggregator.tick();
+                verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class), anyMap());
+
+                aggregator.submit(7L, StudentStatus.builder().studentId(1L)
+                                .activityStatus(StudentStatus.ActivityStatus.ACTIVE).currentQuestion(2).build());
+                aggregator.tick();
+                assertEquals(List.of(StudentStatusDelta.builder().studentId(1L).currentQuestion(2).build()),
+                                captureFrame(7L));
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void testSnapshotIsSeededOnceAndCarriesTheLastFrameVersion() {
+                AtomicInteger loads = new AtomicInteger();
+                Supplier<List<StudentStatus>> loader = () -> {
+                        loads.incrementAndGet();
+                        return List.of(StudentStatus.builder().studentId(1L)
+                                        .activityStatus(StudentStatus.ActivityStatus.IDLE).violationCount(2).build());
+                };
+
+                aggregator.submit(7L, StudentStatus.builder().studentId(1L)
+                                .activityStatus(StudentStatus.ActivityStatus.ACTIVE).build());
+                aggregator.tick();
+                ArgumentCaptor<Map<String, Object>> headers = ArgumentCaptor.forClass(Map.class);
+                verify(messagingTemplate).convertAndSend(anyString(), any(Object.class), headers.capture());
+
+                ExamStatusSnapshot snapshot = aggregator.snapshot(7L, loader);
+                aggregator.snapshot(7L, loader);
+
+                assertEquals(1, loads.get());
+                assertEquals(headers.getValue().get("version"), snapshot.getVersion());
+                StudentStatus student = snapshot.getStudents().get(0);
+                assertEquals(StudentStatus.ActivityStatus.ACTIVE, student.getActivityStatus());
+                assertEquals(2, student.getViolationCount());
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<StudentStatusDelta> captureFrame(Long examId) {
+                ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+                verify(messagingTemplate).convertAndSend(eq("/topic/exam/" + examId + "/monitoring"), payload.capture(),
+                                anyMap());
+                return (List<StudentStatusDelta>) payload.getValue();
+        }
+}
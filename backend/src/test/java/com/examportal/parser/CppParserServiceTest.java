@@ -0,0 +1,85 @@
+package com.examportal.parser;
+
+import com.examportal.parser.model.VerificationResult;
+import com.examportal.parser.model.VerificationRule;
+import com.examportal.parser.service.impl.CppParserService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CppParserServiceTest {
+
+        private final CppParserService parser = new CppParserService();
+
+        private static VerificationRule forbidden(String construct) {
+                return new VerificationRule(VerificationRule.RuleType.FORBIDDEN, construct, null, null);
+        }
+
+        private static VerificationRule required(String construct) {
+                return new VerificationRule(VerificationRule.RuleType.REQUIRED, construct, null, null);
+        }
+
+        @Test
+        void testDetectsStdSortButNotInCommentsOrStrings() {
+                String code = "#include <algorithm>\n"
+                                + "// std::sort(v.begin(), v.end()) is not allowed\n"
+                                + "int main() {\n"
+                                + "    const char* s = \"sort(a)\";\n"
+                                + "    std::sort(v.begin(), v.end());\n"
+                                + "}\n";
+
+                VerificationResult result = parser.verifyCode(code, List.of(forbidden("std::sort")));
+
+                assertFalse(result.isPassed());
+                assertEquals(1, result.getViolations().size());
+                assertEquals(5, result.getViolations().get(0).getLineNumber());
+                assertEquals("Forbidden: std::sort() detected", result.getViolations().get(0).getMessage());
+        }
+
+        @Test
+        void testOwnSortFunctionIsNotFlagged() {
+                String code = "void sort(int a[], int n) {\n"
+                                + "    for (int i = 0; i < n; i++)\n"
+                                + "        for (int j = 0; j + 1 < n - i; j++)\n"
+                                + "            if (a[j] > a[j + 1]) swap(a[j], a[j + 1]);\n"
+                                + "}\n"
+                                + "int main() { int a[3] = {3, 1, 2}; sort(a, 3); }\n";
+
+                VerificationResult result = parser.verifyCode(code,
+                                List.of(forbidden("sort"), required("bubble_sort_logic")));
+
+                assertTrue(result.isPassed(), () -> result.getViolations().toString());
+        }
+
+        @Test
+        void testRecursionAndLoops() {
+                String code = "long fact(int n) {\n"
+                                + "    if (n <= 1) return 1;\n"
+                                + "    return n * fact(n - 1);\n"
+                                + "}\n"
+                                + "int main() { return (int) fact(5); }\n";
+
+                VerificationResult result = parser.verifyCode(code,
+                                List.of(required("recursion"), forbidden("for_loop"), forbidden("while_loop")));
+                assertTrue(result.isPassed());
+
+                String iterative = "long fact(int n) {\n"
+                                + "    long r = 1;\n"
+                                + "    do { r *= n; } while (--n > 1);\n"
+                                + "    return r;\n"
+                                + "}\n";
+                result = parser.verifyCode(iterative, List.of(required("recursion"), forbidden("while_loop")));
+                assertFalse(result.isPassed());
+                assertEquals(2, result.getViolations().size());
+                assertEquals(3, result.getViolations().get(1).getLineNumber());
+        }
+
+        @Test
+        void testSyntaxErrors() {
+                assertFalse(parser.hasSyntaxErrors("char c = '{'; auto r = R\"x(})x\"; /* ( */ int a[2] = {1, 2};"));
+                assertTrue(parser.hasSyntaxErrors("int main() { return 0;\n"));
+                assertTrue(parser.hasSyntaxErrors("/* never closed\nint x;"));
+        }
+}
@@ -0,0 +1,154 @@
+package com.examportal.parser;
+
+import com.examportal.parser.lexer.PythonLexer;
+import com.examportal.parser.lexer.TokenizedSource;
+import com.examportal.parser.model.EditorDocument;
+import com.examportal.parser.model.TextEdit;
+import com.examportal.parser.model.VerificationResult;
+import com.examportal.parser.model.VerificationRule;
+import com.examportal.parser.service.IncrementalVerificationService;
+import com.examportal.parser.service.ParserFactory;
+import com.examportal.parser.service.impl.CppParserService;
+import com.examportal.parser.service.impl.JavaParserService;
+import com.examportal.parser.service.impl.PythonParserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalVerificationServiceTest {
+
+        private final PythonParserService pythonParser = new PythonParserService();
+        private IncrementalVerificationService service;
+
+        private final List<VerificationRule> rules = List.of(
+                        new VerificationRule(VerificationRule.RuleType.FORBIDDEN, "for_loop", null, null),
+                        new VerificationRule(VerificationRule.RuleType.FORBIDDEN, "sorted", null, null),
+                        new VerificationRule(VerificationRule.RuleType.REQUIRED, "recursion", null, null));
+
+        private static final String CODE = "def total(xs):\n"
+                        + "    if not xs:\n"
+                        + "        return 0\n"
+                        + "    return xs[0] + total(xs[1:])\n"
+                        + "\n"
+                        + "values = sorted([3, 1, 2])\n"
+                        + "print(total(values))\n";
+
+        @BeforeEach
+        void setUp() {
+                service = new IncrementalVerificationService(new ParserFactory(
+                                new JavaParserService(), pythonParser, new CppParserService()));
+                ReflectionTestUtils.setField(service, "maxDocuments", 10);
+                ReflectionTestUtils.setField(service, "maxDocumentsPerUser", 2);
+                ReflectionTestUtils.setField(service, "maxDocumentLength", 10_000);
+        }
+
+        @Test
+        void testRetokenizeMatchesFullTokenize() {
+                TokenizedSource previous = new PythonLexer(CODE, true).tokenize();
+                String edited = CODE.replace("    if not xs:\n", "    if not xs:\n        pass\n");
+                int offset = CODE.indexOf("        return 0");
+
+                TokenizedSource incremental = new PythonLexer(edited, true)
+                                .retokenize(previous, offset, 0, "        pass\n".length());
+                TokenizedSource full = PythonLexer.tokenize(edited);
+
+                assertEquals(full.getTokens(), incremental.getTokens());
+                assertEquals(full.getLineCount(), incremental.getLineCount());
+                assertTrue(incremental.getEditFrom() >= 0);
+        }
+
+        @Test
+        void testEditsMatchFullVerification() {
+                EditorDocument document = service.open(1L, "PYTHON", CODE, rules);
+                assertEquals(1, document.getResult().getViolations().size());
+
+                // Insert a line above the sorted() call, then add a for loop, then break recursion
+                String text = CODE;
+                String[][] steps = {
+                                {"values = sorted", "# sample data\n"},
+                                {"print(", "for v in values:\n    pass\n"},
+                                {"total(xs[1:])", "len("},
+                };
+                for (int i = 0; i < steps.length; i++) {
+                        int offset = text.indexOf(steps[i][0]);
+                        VerificationResult result = service.applyEdits(document, i,
+                                        List.of(new TextEdit(offset, 0, steps[i][1])));
+                        text = text.substring(0, offset) + steps[i][1] + text.substring(offset);
+
+                        assertEquals(summary(pythonParser.verifyCode(text, rules)), summary(result));
+                }
+        }
+
+        @Test
+        void testSyntaxErrorThenRecovery() {
+                EditorDocument document = service.open(1L, "PYTHON", CODE, rules);
+                int offset = CODE.indexOf("[3, 1, 2]");
+
+                VerificationResult broken = service.applyEdits(document, 0, List.of(new TextEdit(offset, 1, "")));
+                assertTrue(broken.isHasSyntaxErrors());
+
+                VerificationResult fixed = service.applyEdits(document, 1, List.of(new TextEdit(offset, 0, "[")));
+                assertEquals(summary(pythonParser.verifyCode(CODE, rules)), summary(fixed));
+        }
+
+        @Test
+        void testStaleVersionAndBadOffsetsAreRejected() {
+                EditorDocument document = service.open(1L, "PYTHON", CODE, rules);
+
+                assertThrows(IllegalStateException.class,
+                                () -> service.applyEdits(document, 5, List.of(new TextEdit(0, 0, "#"))));
+                assertThrows(IllegalArgumentException.class,
+                                () -> service.applyEdits(document, 0, List.of(new TextEdit(CODE.length(), 1, ""))));
+                assertTrue(service.find(document.getId(), 2L).isEmpty());
+        }
+
+        @Test
+        void testTokenLimitOnOpen() {
+                ReflectionTestUtils.setField(service, "maxTokens", 10);
+
+                EditorDocument document = service.open(1L, "PYTHON", CODE, rules);
+
+                assertTrue(document.getResult().isBudgetExceeded());
+                assertFalse(document.getResult().isPassed());
+                assertNull(document.getSource());
+        }
+
+        @Test
+        void testBudgetOverrunOnEditThenRecovery() {
+                EditorDocument document = service.open(1L, "PYTHON", CODE, rules);
+                int tokens = document.getSource().getTokens().size();
+                ReflectionTestUtils.setField(service, "maxTokens", tokens + 5);
+
+                // Two edits in one batch; the first already overruns the token limit
+                String first = "x = [1, 2, 3, 4, 5, 6]\n";
+                String second = "# done\n";
+                VerificationResult overrun = service.applyEdits(document, 0,
+                                List.of(new TextEdit(0, 0, first), new TextEdit(0, 0, second)));
+
+                assertTrue(overrun.isBudgetExceeded());
+                assertNull(document.getSource());
+                assertEquals(second + first + CODE, document.getText().toString());
+
+                // The next edit re-lexes the whole document under a fresh budget
+                ReflectionTestUtils.setField(service, "maxTokens", 200_000);
+                VerificationResult recovered = service.applyEdits(document, 1,
+                                List.of(new TextEdit(0, second.length(), "")));
+
+                assertFalse(recovered.isBudgetExceeded());
+                assertEquals(summary(pythonParser.verifyCode(first + CODE, rules)), summary(recovered));
+                assertNotNull(document.getSource());
+        }
+
+        private static String summary(VerificationResult result) {
+                StringBuilder summary = new StringBuilder(result.isPassed() + "/" + result.isHasSyntaxErrors());
+                for (VerificationResult.Violation violation : result.getViolations()) {
+                        summary.append('|').append(violation.getLineNumber()).append(':').append(violation.getMessage())
+                                        .append(':').append(violation.getCodeSnippet());
+                }
+                return summary.toString();
+        }
+}
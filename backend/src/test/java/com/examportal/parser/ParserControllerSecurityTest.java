@@ -0,0 +1,69 @@
+package com.examportal.parser;
+
+import com.examportal.parser.controller.ParserController;
+import com.examportal.parser.service.IncrementalVerificationService;
+import com.examportal.parser.service.ParserFactory;
+import com.examportal.security.DepartmentSecurityService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Method security on the parser endpoints, with authorities as the app
+ * issues them (no ROLE_ prefix)
+ */
+@SpringJUnitConfig(ParserControllerSecurityTest.Config.class)
+public class ParserControllerSecurityTest {
+
+        @Configuration
+        @EnableMethodSecurity
+        static class Config {
+
+                @Bean
+                IncrementalVerificationService incrementalVerificationService() {
+                        return mock(IncrementalVerificationService.class);
+                }
+
+                @Bean
+                DepartmentSecurityService departmentSecurityService() {
+                        return mock(DepartmentSecurityService.class);
+                }
+
+                @Bean
+                ParserController parserController(IncrementalVerificationService incrementalVerificationService,
+                                DepartmentSecurityService departmentSecurityService) {
+                        return new ParserController(mock(ParserFactory.class), incrementalVerificationService,
+                                        departmentSecurityService);
+                }
+        }
+
+        @Autowired
+        private ParserController controller;
+
+        @Test
+        @WithMockUser(authorities = "STUDENT")
+        void studentCanCallDocumentEndpoint() {
+                assertEquals(HttpStatus.NOT_FOUND, controller.closeDocument("missing").getStatusCode());
+        }
+
+        @Test
+        @WithMockUser(authorities = "MODERATOR")
+        void moderatorCanCallDocumentEndpoint() {
+                assertEquals(HttpStatus.NOT_FOUND, controller.closeDocument("missing").getStatusCode());
+        }
+
+        @Test
+        @WithMockUser(authorities = "GUEST")
+        void otherAuthoritiesAreRejected() {
+                assertThrows(AccessDeniedException.class, () -> controller.closeDocument("missing"));
+        }
+}
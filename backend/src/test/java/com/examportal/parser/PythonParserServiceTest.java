@@ -0,0 +1,96 @@
+package com.examportal.parser;
+
+import com.examportal.parser.model.VerificationResult;
+import com.examportal.parser.model.VerificationRule;
+import com.examportal.parser.service.impl.PythonParserService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PythonParserServiceTest {
+
+        private final PythonParserService parser = new PythonParserService();
+
+        private static VerificationRule forbidden(String construct) {
+                return new VerificationRule(VerificationRule.RuleType.FORBIDDEN, construct, null, null);
+        }
+
+        private static VerificationRule required(String construct) {
+                return new VerificationRule(VerificationRule.RuleType.REQUIRED, construct, null, null);
+        }
+
+        @Test
+        void testKeywordsInStringsAndCommentsAreIgnored() {
+                String code = "# sorted(x) would be cheating\n"
+                                + "msg = \"for i in range(3): [x for x in y]\"\n"
+                                + "print(msg)\n";
+
+                VerificationResult result = parser.verifyCode(code,
+                                List.of(forbidden("sort"), forbidden("for_loop"), forbidden("list_comprehension")));
+
+                assertFalse(result.isHasSyntaxErrors());
+                assertTrue(result.isPassed());
+                assertTrue(result.getViolations().isEmpty());
+        }
+
+        @Test
+        void testDetectsSortAndComprehensionWithLineNumbers() {
+                String code = "def solve(a):\n"
+                                + "    squares = [v * v for v in a]\n"
+                                + "    a.sort()\n"
+                                + "    return squares\n";
+
+                VerificationResult result = parser.verifyCode(code,
+                                List.of(forbidden("list_comprehension"), forbidden("sort")));
+
+                assertFalse(result.isPassed());
+                assertEquals(2, result.getViolations().size());
+                assertEquals(2, result.getViolations().get(0).getLineNumber());
+                assertEquals(3, result.getViolations().get(1).getLineNumber());
+                assertEquals("a.sort()", result.getViolations().get(1).getCodeSnippet());
+        }
+
+        @Test
+        void testRecursionScopedToEnclosingFunction() {
+                String recursive = "class Solver:\n"
+                                + "    def fact(self, n):\n"
+                                + "        if n <= 1:\n"
+                                + "            return 1\n"
+                                + "        return n * self.fact(n - 1)\n";
+                String notRecursive = "def fact(n):\n"
+                                + "    return 1\n"
+                                + "\n"
+                                + "print(fact(5))\n";
+
+                assertTrue(parser.verifyCode(recursive, List.of(required("recursion"))).isPassed());
+                assertFalse(parser.verifyCode(notRecursive, List.of(required("recursion"))).isPassed());
+        }
+
+        @Test
+        void testBubbleSortNeedsNestedLoopsAndSwap() {
+                String code = "def bubble(arr):\n"
+                                + "    n = len(arr)\n"
+                                + "    for i in range(n):\n"
+                                + "        for j in range(n - i - 1):\n"
+                                + "            if arr[j] > arr[j + 1]:\n"
+                                + "                arr[j], arr[j + 1] = arr[j + 1], arr[j]\n"
+                                + "    return arr\n";
+                String sequential = "for i in range(3):\n"
+                                + "    a, b = b, a\n"
+                                + "for j in range(3):\n"
+                                + "    pass\n";
+
+                assertTrue(parser.verifyCode(code, List.of(required("bubble_sort_logic"))).isPassed());
+                assertFalse(parser.verifyCode(sequential, List.of(required("bubble_sort_logic"))).isPassed());
+        }
+
+        @Test
+        void testSyntaxErrors() {
+                assertFalse(parser.hasSyntaxErrors("x = (1 +\n     2)\ns = '''a\n(b'''\n"));
+                assertTrue(parser.hasSyntaxErrors("x = (1 + 2\n"));
+                assertTrue(parser.hasSyntaxErrors("s = 'unterminated\n"));
+                assertTrue(parser.hasSyntaxErrors("if x:\n        a = 1\n    b = 2\n"));
+        }
+}
@@ -0,0 +1,85 @@
+package com.examportal.parser;
+
+import com.examportal.parser.analysis.CppRuleEvaluator;
+import com.examportal.parser.analysis.PythonRuleEvaluator;
+import com.examportal.parser.budget.VerificationBudget;
+import com.examportal.parser.budget.VerificationBudgetExceededException;
+import com.examportal.parser.lexer.CppLexer;
+import com.examportal.parser.lexer.PythonLexer;
+import com.examportal.parser.model.VerificationResult;
+import com.examportal.parser.model.VerificationRule;
+import com.examportal.parser.service.impl.CppParserService;
+import com.examportal.parser.service.impl.JavaParserService;
+import com.examportal.parser.service.impl.PythonParserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerificationBudgetTest {
+
+        @Test
+        void testBacktrackingRegexStopsAtBudget() {
+                JavaParserService parser = new JavaParserService();
+                ReflectionTestUtils.setField(parser, "budgetTimeMs", 50L);
+
+                // Quadratic for the nested-loop regex: every "for (" starts a scan to the end
+                String code = "class A {" + "for (x) ".repeat(50_000) + "}";
+                VerificationRule rule = new VerificationRule(VerificationRule.RuleType.REQUIRED,
+                                "bubble_sort_logic", null, null);
+
+                long start = System.currentTimeMillis();
+                VerificationResult result = parser.verifyCode(code, List.of(rule));
+
+                assertTrue(result.isBudgetExceeded());
+                assertFalse(result.isPassed());
+                assertTrue(result.getViolations().isEmpty());
+                assertTrue(System.currentTimeMillis() - start < 2_000);
+        }
+
+        @Test
+        void testTokenLimit() {
+                PythonParserService parser = new PythonParserService();
+                ReflectionTestUtils.setField(parser, "maxTokens", 1_000);
+
+                VerificationResult result = parser.verifyCode("x = 1\n".repeat(1_000), List.of());
+
+                assertTrue(result.isBudgetExceeded());
+                assertFalse(result.isHasSyntaxErrors());
+        }
+
+        @Test
+        void testEvaluatorsSpendTheCallersBudget() throws InterruptedException {
+                VerificationBudget spent = VerificationBudget.start(0);
+                Thread.sleep(1);
+                List<VerificationRule> rules = List.of(new VerificationRule(VerificationRule.RuleType.FORBIDDEN,
+                                "for_loop", null, null));
+
+                assertThrows(VerificationBudgetExceededException.class, () -> new PythonRuleEvaluator(
+                                PythonLexer.tokenize("for i in x:\n    pass\n"), rules, spent).evaluate());
+                assertThrows(VerificationBudgetExceededException.class, () -> new CppRuleEvaluator(
+                                CppLexer.tokenize("for (;;) {}"), rules, spent).evaluate());
+        }
+
+        @Test
+        void testSharedBudgetIsHonoured() throws InterruptedException {
+                VerificationBudget spent = VerificationBudget.start(0);
+                Thread.sleep(1);
+
+                VerificationResult result = new CppParserService().verifyCode("int main() { return 0; }",
+                                List.of(), spent);
+
+                assertTrue(result.isBudgetExceeded());
+                assertFalse(result.isPassed());
+        }
+
+        @Test
+        void testNormalCodeWithinBudget() {
+                VerificationResult result = new PythonParserService().verifyCode("print(sorted([2, 1]))\n", List.of());
+
+                assertFalse(result.isBudgetExceeded());
+                assertTrue(result.isPassed());
+        }
+}
@@ -0,0 +1,90 @@
+package com.examportal.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class StompAuthChannelInterceptorTest {
+
+        private final JwtTokenProvider tokenProvider = mock(JwtTokenProvider.class);
+        private final StompAuthChannelInterceptor interceptor = new StompAuthChannelInterceptor(tokenProvider);
+        private final MessageChannel channel = mock(MessageChannel.class);
+
+        @Test
+        void testConnectBindsTheTokensRolesAndDepartment() {
+                when(tokenProvider.validateToken("jwt")).thenReturn(true);
+                when(tokenProvider.getUserIdFromToken("jwt")).thenReturn(42L);
+                when(tokenProvider.getRolesFromToken("jwt")).thenReturn(List.of("MODERATOR"));
+                when(tokenProvider.getDepartmentFromToken("jwt")).thenReturn("CSE");
+
+                StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+                accessor.addNativeHeader("Authorization", "Bearer jwt");
+                accessor.setLeaveMutable(true);
+                Message<?> connect = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+                interceptor.preSend(connect, channel);
+
+                StompAuthentication user = (StompAuthentication) accessor.getUser();
+                assertEquals("42", user.getName());
+                assertEquals("CSE", user.getDepartment());
+                assertTrue(user.hasAnyAuthority("MODERATOR"));
+        }
+
+        @Test
+        void testStudentIsRefusedModeratorDestinations() {
+                Principal student = new StompAuthentication(7L, "CSE", List.of(new SimpleGrantedAuthority("STUDENT")));
+
+                for (String destination : List.of("/app/monitoring/moderator/terminate",
+                                "/app/monitoring/moderator/warning", "/app/exam/3/moderator/request-status")) {
+                        assertThrows(AccessDeniedException.class,
+                                        () -> interceptor.preSend(frame(StompCommand.SEND, destination, student), channel));
+                }
+                assertThrows(AccessDeniedException.class,
+                                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/app/exam/3/snapshot", null),
+                                                channel));
+        }
+
+        @Test
+        void testModeratorAndStudentDestinationsPass() {
+                Principal moderator = new StompAuthentication(1L, "CSE",
+                                List.of(new SimpleGrantedAuthority("MODERATOR")));
+                Principal student = new StompAuthentication(7L, "CSE", List.of(new SimpleGrantedAuthority("STUDENT")));
+
+                assertNotNull(interceptor.preSend(frame(StompCommand.SEND, "/app/monitoring/moderator/terminate",
+                                moderator), channel));
+                assertNotNull(interceptor.preSend(frame(StompCommand.SEND, "/app/exam/3/heartbeat", student), channel));
+                assertNotNull(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/exam/3/monitoring", student),
+                                channel));
+        }
+
+        @Test
+        void testModeratorAccessChecksDepartment() {
+                DepartmentSecurityService securityService = new DepartmentSecurityService();
+                Principal moderator = new StompAuthentication(1L, "CSE",
+                                List.of(new SimpleGrantedAuthority("MODERATOR")));
+                Principal admin = new StompAuthentication(2L, "ADMIN", List.of(new SimpleGrantedAuthority("ADMIN")));
+
+                securityService.verifyModeratorAccess(moderator, "cse");
+                securityService.verifyModeratorAccess(admin, "ECE");
+                assertThrows(SecurityException.class, () -> securityService.verifyModeratorAccess(moderator, "ECE"));
+                assertThrows(AccessDeniedException.class, () -> securityService.verifyModeratorAccess(null, "CSE"));
+        }
+
+        private static Message<?> frame(StompCommand command, String destination, Principal user) {
+                StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+                accessor.setDestination(destination);
+                accessor.setUser(user);
+                return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        }
+}
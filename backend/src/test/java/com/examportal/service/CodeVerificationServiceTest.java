@@ -0,0 +1,39 @@
+package com.examportal.service;
+
+import com.examportal.dto.CodeVerificationResult;
+import com.examportal.parser.service.impl.CppParserService;
+import com.examportal.parser.service.impl.PythonParserService;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CodeVerificationServiceTest {
+
+        private final CodeVerificationService service = new CodeVerificationService(new CppParserService(),
+                        new PythonParserService());
+
+        @Test
+        void testPythonConstraintsAreApplied() {
+                String code = "def total(xs):\n    s = 0\n    for x in xs:\n        s += x\n    return s\n";
+
+                CodeVerificationResult result = service.verifyCode(code, "python",
+                                Map.of("banLoops", true, "requireRecursion", true), null);
+
+                assertFalse(result.isValid());
+                assertEquals(2, result.getErrors().size());
+                assertTrue(result.getErrors().stream().allMatch(e -> e.startsWith("Logic Constraint: ")));
+        }
+
+        @Test
+        void testPythonRecursionSatisfiesConstraints() {
+                String code = "def total(xs):\n    # for x in xs would be a loop\n"
+                                + "    return 0 if not xs else xs[0] + total(xs[1:])\n";
+
+                CodeVerificationResult result = service.verifyCode(code, "python",
+                                Map.of("banLoops", true, "requireRecursion", true), null);
+
+                assertTrue(result.isValid(), () -> String.join(", ", result.getErrors()));
+        }
+}
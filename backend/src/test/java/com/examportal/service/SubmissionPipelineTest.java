@@ -8,6 +8,7 @@ import com.examportal.repository.QuestionRepository;
 import com.examportal.repository.StudentAttemptRepository;
 import com.examportal.repository.TestRepository;
 import com.examportal.security.DepartmentSecurityService;
+import com.examportal.similarity.service.SimilarityIndexService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,6 +37,10 @@ public class SubmissionPipelineTest {
         private DepartmentSecurityService departmentSecurityService;
         @Mock
         private SubmissionProducerService submissionProducerService;
+        @Mock
+        private SimilarityIndexService similarityIndexService;
+        @Mock
+        private ScratchRunService scratchRunService;
 
         private TestAttemptService testAttemptService;
 
@@ -46,7 +51,10 @@ public class SubmissionPipelineTest {
                                 testRepository,
                                 questionRepository,
                                 departmentSecurityService,
-                                submissionProducerService);
+                                submissionProducerService,
+                                similarityIndexService,
+                                scratchRunService,
+                                new com.fasterxml.jackson.databind.ObjectMapper().findAndRegisterModules());
         }
 
         @Test
@@ -96,4 +104,41 @@ public class SubmissionPipelineTest {
                                 eq(""),
                                 eq(question.getConstraints()));
         }
+
+        @Test
+        void testScratchRun_BypassesAttemptPersistence() {
+                Long attemptId = 1L;
+                Long questionId = 100L;
+                Long studentId = 55L;
+                String code = "print(input())";
+
+                Question question = Question.builder()
+                                .id(questionId)
+                                .type(QuestionType.CODING)
+                                .allowedLanguageIds(List.of(71))
+                                .build();
+
+                StudentAttempt attempt = StudentAttempt.builder()
+                                .id(attemptId)
+                                .studentId(studentId)
+                                .status(com.examportal.entity.AttemptStatus.IN_PROGRESS)
+                                .executionResults(new java.util.HashMap<>())
+                                .build();
+
+                when(attemptRepository.findById(attemptId)).thenReturn(Optional.of(attempt));
+                when(questionRepository.findById(questionId)).thenReturn(Optional.of(question));
+                when(departmentSecurityService.getCurrentUserId()).thenReturn(studentId);
+                when(scratchRunService.queueScratchRun(any(), any(), any(), any(), any(), any(), any()))
+                                .thenReturn("scratch-1");
+
+                ExecutionResult result = testAttemptService.scratchRun(attemptId, questionId, code, null, "42\n");
+
+                assertEquals(ExecutionResult.ExecutionStatus.QUEUED, result.getStatus());
+                assertEquals("scratch-1", result.getExecutionId());
+                verify(scratchRunService).queueScratchRun(
+                                eq(attemptId), eq(questionId), eq(studentId), eq(code), eq(71), eq("42\n"), any());
+                verifyNoInteractions(submissionProducerService);
+                verify(attemptRepository, never()).save(any());
+                assertTrue(attempt.getExecutionResults().isEmpty());
+        }
 }
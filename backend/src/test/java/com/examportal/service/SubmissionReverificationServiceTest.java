@@ -0,0 +1,60 @@
+package com.examportal.service;
+
+import com.examportal.dto.ReverificationProgress;
+import com.examportal.entity.User;
+import com.examportal.repository.TestQuestionRepository;
+import com.examportal.repository.TestRepository;
+import com.examportal.security.CustomUserDetails;
+import com.examportal.security.DepartmentSecurityService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SubmissionReverificationServiceTest {
+
+        private final TestRepository testRepository = mock(TestRepository.class);
+        private final SubmissionReverificationService service = new SubmissionReverificationService(
+                        mock(JdbcTemplate.class), testRepository, mock(TestQuestionRepository.class),
+                        mock(CodeVerificationService.class), new DepartmentSecurityService(), new ObjectMapper(),
+                        1, 10, 1);
+
+        @AfterEach
+        void tearDown() {
+                service.shutdown();
+                SecurityContextHolder.clearContext();
+        }
+
+        @Test
+        void testProgressIsOnlyReadableWithAccessToTheTestsDepartment() {
+                com.examportal.entity.Test test = new com.examportal.entity.Test();
+                test.setDepartment("CSE");
+                when(testRepository.findById(9L)).thenReturn(Optional.of(test));
+
+                authenticate(1L, "CSE", "MODERATOR");
+                ReverificationProgress started = service.startJob(9L, null);
+                assertEquals(1L, started.getStartedBy());
+                assertTrue(service.getProgress(started.getJobId()).isPresent());
+
+                authenticate(2L, "ECE", "MODERATOR");
+                assertThrows(SecurityException.class, () -> service.getProgress(started.getJobId()));
+
+                authenticate(3L, "ADMIN", "ADMIN");
+                assertTrue(service.getProgress(started.getJobId()).isPresent());
+        }
+
+        private static void authenticate(Long userId, String department, String role) {
+                CustomUserDetails user = new CustomUserDetails(User.builder().id(userId).profile(department).build());
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null,
+                                List.of(new SimpleGrantedAuthority(role))));
+        }
+}
@@ -0,0 +1,103 @@
+package com.examportal.similarity;
+
+import com.examportal.similarity.dto.SimilarityMatch;
+import com.examportal.similarity.service.CodeFingerprinter;
+import com.examportal.similarity.service.QuestionSimilarityIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuestionSimilarityIndexTest {
+
+        private static final String ORIGINAL = """
+                        public class Main {
+                            public static void main(String[] args) {
+                                int[] arr = {5, 3, 1, 4};
+                                for (int i = 0; i < arr.length - 1; i++) {
+                                    for (int j = 0; j < arr.length - i - 1; j++) {
+                                        if (arr[j] > arr[j + 1]) {
+                                            int temp = arr[j];
+                                            arr[j] = arr[j + 1];
+                                            arr[j + 1] = temp;
+                                        }
+                                    }
+                                }
+                                System.out.println(arr[0]);
+                            }
+                        }
+                        """;
+
+        // Same program with renamed identifiers, comments and different layout
+        private static final String RENAMED = """
+                        public class Main {
+                            // bubble sort
+                            public static void main(String[] a) {
+                                int[] data = {9, 8, 7, 6};
+                                for (int x = 0; x < data.length - 1; x++) {
+                                    for (int y = 0; y < data.length - x - 1; y++) {
+                                        if (data[y] > data[y + 1]) { int t = data[y]; data[y] = data[y + 1]; data[y + 1] = t; }
+                                    }
+                                }
+                                System.out.println(data[0]);
+                            }
+                        }
+                        """;
+
+        private static final String UNRELATED = """
+                        public class Main {
+                            static long fib(int n) {
+                                return n < 2 ? n : Main.fib(n - 1) + Main.fib(n - 2);
+                            }
+                            public static void main(String[] args) {
+                                String s = "fibonacci";
+                                System.out.println(s + Main.fib(30));
+                            }
+                        }
+                        """;
+
+        private final CodeFingerprinter fingerprinter = new CodeFingerprinter();
+
+        @Test
+        void testRenamedCopyRanksAboveUnrelatedCode() {
+                QuestionSimilarityIndex index = new QuestionSimilarityIndex(new long[0]);
+                index.put(1L, 10L, fingerprinter.fingerprint(ORIGINAL, "java"));
+                index.put(2L, 20L, fingerprinter.fingerprint(RENAMED, "java"));
+                index.put(3L, 30L, fingerprinter.fingerprint(UNRELATED, "java"));
+
+                List<SimilarityMatch> matches = index.mostSimilar(1L, 0.0, 10);
+
+                assertFalse(matches.isEmpty());
+                assertEquals(2L, matches.get(0).getMatchedAttemptId());
+                assertTrue(matches.get(0).getSimilarity() > 0.8);
+                assertTrue(matches.stream()
+                                .noneMatch(m -> m.getMatchedAttemptId() == 3L && m.getSimilarity() > 0.3));
+        }
+
+        @Test
+        void testSameStudentAndStarterCodeAreIgnored() {
+                long[] starter = fingerprinter.fingerprint(ORIGINAL, "java");
+                QuestionSimilarityIndex index = new QuestionSimilarityIndex(starter);
+                index.put(1L, 10L, fingerprinter.fingerprint(ORIGINAL, "java"));
+                index.put(2L, 20L, fingerprinter.fingerprint(ORIGINAL, "java"));
+                index.put(3L, 30L, fingerprinter.fingerprint(UNRELATED, "java"));
+                index.put(4L, 30L, fingerprinter.fingerprint(UNRELATED, "java"));
+
+                // Unchanged starter code has nothing left to match on
+                assertTrue(index.mostSimilar(1L, 0.0, 10).isEmpty());
+                // Identical answers from the same student are not reported as a pair
+                assertTrue(index.similarPairs(0.5, 10).isEmpty());
+        }
+
+        @Test
+        void testReplacingAnAnswerUpdatesMatches() {
+                QuestionSimilarityIndex index = new QuestionSimilarityIndex(new long[0]);
+                index.put(1L, 10L, fingerprinter.fingerprint(ORIGINAL, "java"));
+                index.put(2L, 20L, fingerprinter.fingerprint(ORIGINAL, "java"));
+                assertEquals(1, index.similarPairs(0.9, 10).size());
+
+                index.put(2L, 20L, fingerprinter.fingerprint(UNRELATED, "java"));
+                assertTrue(index.similarPairs(0.9, 10).isEmpty());
+        }
+}